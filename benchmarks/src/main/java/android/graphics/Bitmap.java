@@ -0,0 +1,90 @@
+package android.graphics;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the class
+ * in android.jar throws from every method. It has no pixels, only a size, so that the bitmaps of
+ * the tiles and of the offscreen buffers can be created and drawn onto a {@link Canvas}, which
+ * counts what would have been drawn.
+ */
+public final class Bitmap {
+
+	private final int mWidth;
+	private final int mHeight;
+	private final Config mConfig;
+	private boolean mRecycled;
+
+	private Bitmap(final int pWidth, final int pHeight, final Config pConfig) {
+		mWidth = pWidth;
+		mHeight = pHeight;
+		mConfig = pConfig;
+	}
+
+	public static Bitmap createBitmap(final int pWidth, final int pHeight, final Config pConfig) {
+		if (pWidth <= 0 || pHeight <= 0) {
+			throw new IllegalArgumentException("width and height must be > 0");
+		}
+		return new Bitmap(pWidth, pHeight, pConfig);
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int getWidth() {
+		return mWidth;
+	}
+
+	public int getHeight() {
+		return mHeight;
+	}
+
+	public Config getConfig() {
+		return mConfig;
+	}
+
+	public int getRowBytes() {
+		return mWidth * (mConfig == Config.ARGB_8888 ? 4 : mConfig == Config.ALPHA_8 ? 1 : 2);
+	}
+
+	public int getByteCount() {
+		return getRowBytes() * mHeight;
+	}
+
+	public boolean isMutable() {
+		return true;
+	}
+
+	public boolean isRecycled() {
+		return mRecycled;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	public void recycle() {
+		mRecycled = true;
+	}
+
+	/**
+	 * Counted as drawing every pixel of the bitmap.
+	 */
+	public void eraseColor(final int pColor) {
+		checkRecycled();
+		Canvas.count(1, (long) mWidth * mHeight, 0);
+	}
+
+	void checkRecycled() {
+		if (mRecycled) {
+			throw new IllegalStateException("Can't use a recycled bitmap");
+		}
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	public enum Config {
+		ALPHA_8, RGB_565, ARGB_4444, ARGB_8888
+	}
+}
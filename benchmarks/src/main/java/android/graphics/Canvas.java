@@ -0,0 +1,198 @@
+package android.graphics;
+
+import java.util.Arrays;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the class
+ * in android.jar throws from every method. Nothing is drawn. Instead every canvas adds what it is
+ * asked to draw to counters shared by all canvases: the number of draw calls, the pixels that
+ * bitmaps and colours cover within the clip, and the segments of paths and lines. The benchmarks
+ * report these per frame, so that ways of drawing the same frame can be compared by the work they
+ * leave to the graphics hardware as well as by the time they take on the CPU.
+ *
+ * The clip only supports the rectangles and the save and restore that osmdroid uses.
+ */
+public class Canvas {
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private static long sDrawCalls;
+	private static long sPixelsDrawn;
+	private static long sSegmentsDrawn;
+
+	private Bitmap mBitmap;
+	private final Rect mClip = new Rect();
+	/** The clips saved by {@link #save()}, four ints each */
+	private int[] mSavedClips = new int[4 * 8];
+	private int mSaveCount;
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public Canvas() {
+	}
+
+	public Canvas(final Bitmap pBitmap) {
+		setBitmap(pBitmap);
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public void setBitmap(final Bitmap pBitmap) {
+		mBitmap = pBitmap;
+		if (pBitmap == null) {
+			mClip.setEmpty();
+		} else {
+			pBitmap.checkRecycled();
+			mClip.set(0, 0, pBitmap.getWidth(), pBitmap.getHeight());
+		}
+		mSaveCount = 0;
+	}
+
+	public int getWidth() {
+		return mBitmap == null ? 0 : mBitmap.getWidth();
+	}
+
+	public int getHeight() {
+		return mBitmap == null ? 0 : mBitmap.getHeight();
+	}
+
+	public boolean getClipBounds(final Rect pBounds) {
+		pBounds.set(mClip);
+		return !mClip.isEmpty();
+	}
+
+	/**
+	 * The number of draw calls on all canvases since the counters were reset.
+	 */
+	public static long getDrawCalls() {
+		return sDrawCalls;
+	}
+
+	/**
+	 * The pixels covered by bitmaps and colours within the clip on all canvases since the
+	 * counters were reset. Pixels drawn over more than once are counted each time.
+	 */
+	public static long getPixelsDrawn() {
+		return sPixelsDrawn;
+	}
+
+	/**
+	 * The segments of the paths and lines drawn on all canvases since the counters were reset.
+	 */
+	public static long getSegmentsDrawn() {
+		return sSegmentsDrawn;
+	}
+
+	public static void resetCounters() {
+		sDrawCalls = 0;
+		sPixelsDrawn = 0;
+		sSegmentsDrawn = 0;
+	}
+
+	static void count(final int pDrawCalls, final long pPixels, final long pSegments) {
+		sDrawCalls += pDrawCalls;
+		sPixelsDrawn += pPixels;
+		sSegmentsDrawn += pSegments;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	public int save() {
+		if (4 * (mSaveCount + 1) > mSavedClips.length) {
+			mSavedClips = Arrays.copyOf(mSavedClips, mSavedClips.length * 2);
+		}
+		final int i = 4 * mSaveCount;
+		mSavedClips[i] = mClip.left;
+		mSavedClips[i + 1] = mClip.top;
+		mSavedClips[i + 2] = mClip.right;
+		mSavedClips[i + 3] = mClip.bottom;
+		return ++mSaveCount;
+	}
+
+	public void restore() {
+		if (mSaveCount == 0) {
+			throw new IllegalStateException("Underflow in restore");
+		}
+		final int i = 4 * --mSaveCount;
+		mClip.set(mSavedClips[i], mSavedClips[i + 1], mSavedClips[i + 2], mSavedClips[i + 3]);
+	}
+
+	public int getSaveCount() {
+		return mSaveCount + 1;
+	}
+
+	public boolean clipRect(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		if (!mClip.intersect(pLeft, pTop, pRight, pBottom)) {
+			mClip.setEmpty();
+		}
+		return !mClip.isEmpty();
+	}
+
+	public boolean clipRect(final Rect pRect) {
+		return clipRect(pRect.left, pRect.top, pRect.right, pRect.bottom);
+	}
+
+	public void drawColor(final int pColor) {
+		count(1, area(mClip.left, mClip.top, mClip.right, mClip.bottom), 0);
+	}
+
+	public void drawColor(final int pColor, final PorterDuff.Mode pMode) {
+		drawColor(pColor);
+	}
+
+	/**
+	 * Counted as drawing the pixels of the destination within the clip.
+	 */
+	public void drawBitmap(final Bitmap pBitmap, final Rect pSrc, final Rect pDst,
+			final Paint pPaint) {
+		pBitmap.checkRecycled();
+		count(1, area(pDst.left, pDst.top, pDst.right, pDst.bottom), 0);
+	}
+
+	public void drawBitmap(final Bitmap pBitmap, final float pLeft, final float pTop,
+			final Paint pPaint) {
+		pBitmap.checkRecycled();
+		final int left = (int) pLeft;
+		final int top = (int) pTop;
+		count(1, area(left, top, left + pBitmap.getWidth(), top + pBitmap.getHeight()), 0);
+	}
+
+	public void drawPath(final Path pPath, final Paint pPaint) {
+		count(1, 0, pPath.getSegmentCount());
+	}
+
+	public void drawLines(final float[] pPoints, final int pOffset, final int pCount,
+			final Paint pPaint) {
+		count(1, 0, pCount / 4);
+	}
+
+	public void drawLines(final float[] pPoints, final Paint pPaint) {
+		drawLines(pPoints, 0, pPoints.length, pPaint);
+	}
+
+	public void drawLine(final float pStartX, final float pStartY, final float pStopX,
+			final float pStopY, final Paint pPaint) {
+		count(1, 0, 1);
+	}
+
+	public void drawText(final String pText, final float pX, final float pY, final Paint pPaint) {
+		count(1, 0, 0);
+	}
+
+	/**
+	 * The area of a rectangle within the clip.
+	 */
+	private long area(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		final long width = Math.min(pRight, mClip.right) - Math.max(pLeft, mClip.left);
+		final long height = Math.min(pBottom, mClip.bottom) - Math.max(pTop, mClip.top);
+		return width > 0 && height > 0 ? width * height : 0;
+	}
+}
@@ -0,0 +1,45 @@
+package android.graphics;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the
+ * methods of the class in android.jar throw.
+ */
+public class Color {
+
+	public static final int BLACK = 0xff000000;
+	public static final int DKGRAY = 0xff444444;
+	public static final int GRAY = 0xff888888;
+	public static final int LTGRAY = 0xffcccccc;
+	public static final int WHITE = 0xffffffff;
+	public static final int RED = 0xffff0000;
+	public static final int GREEN = 0xff00ff00;
+	public static final int BLUE = 0xff0000ff;
+	public static final int YELLOW = 0xffffff00;
+	public static final int CYAN = 0xff00ffff;
+	public static final int MAGENTA = 0xffff00ff;
+	public static final int TRANSPARENT = 0;
+
+	public static int alpha(final int pColor) {
+		return pColor >>> 24;
+	}
+
+	public static int red(final int pColor) {
+		return (pColor >> 16) & 0xff;
+	}
+
+	public static int green(final int pColor) {
+		return (pColor >> 8) & 0xff;
+	}
+
+	public static int blue(final int pColor) {
+		return pColor & 0xff;
+	}
+
+	public static int rgb(final int pRed, final int pGreen, final int pBlue) {
+		return argb(0xff, pRed, pGreen, pBlue);
+	}
+
+	public static int argb(final int pAlpha, final int pRed, final int pGreen, final int pBlue) {
+		return (pAlpha << 24) | (pRed << 16) | (pGreen << 8) | pBlue;
+	}
+}
@@ -0,0 +1,114 @@
+package android.graphics;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the class
+ * in android.jar throws from every method. It keeps the settings that osmdroid uses, which a
+ * {@link Canvas} ignores.
+ */
+public class Paint {
+
+	public static final int ANTI_ALIAS_FLAG = 1;
+	public static final int FILTER_BITMAP_FLAG = 2;
+	public static final int DITHER_FLAG = 4;
+
+	private int mFlags;
+	private int mColor = Color.BLACK;
+	private float mStrokeWidth;
+	private float mTextSize = 12;
+	private Style mStyle = Style.FILL;
+
+	public Paint() {
+	}
+
+	public Paint(final int pFlags) {
+		mFlags = pFlags;
+	}
+
+	public Paint(final Paint pPaint) {
+		set(pPaint);
+	}
+
+	public void set(final Paint pSource) {
+		mFlags = pSource.mFlags;
+		mColor = pSource.mColor;
+		mStrokeWidth = pSource.mStrokeWidth;
+		mTextSize = pSource.mTextSize;
+		mStyle = pSource.mStyle;
+	}
+
+	public int getFlags() {
+		return mFlags;
+	}
+
+	public void setFlags(final int pFlags) {
+		mFlags = pFlags;
+	}
+
+	public void setAntiAlias(final boolean pAntiAlias) {
+		setFlag(ANTI_ALIAS_FLAG, pAntiAlias);
+	}
+
+	public void setFilterBitmap(final boolean pFilter) {
+		setFlag(FILTER_BITMAP_FLAG, pFilter);
+	}
+
+	public void setDither(final boolean pDither) {
+		setFlag(DITHER_FLAG, pDither);
+	}
+
+	private void setFlag(final int pFlag, final boolean pSet) {
+		mFlags = pSet ? mFlags | pFlag : mFlags & ~pFlag;
+	}
+
+	public int getColor() {
+		return mColor;
+	}
+
+	public void setColor(final int pColor) {
+		mColor = pColor;
+	}
+
+	public int getAlpha() {
+		return Color.alpha(mColor);
+	}
+
+	public void setAlpha(final int pAlpha) {
+		mColor = (mColor & 0x00ffffff) | (pAlpha << 24);
+	}
+
+	public void setARGB(final int pAlpha, final int pRed, final int pGreen, final int pBlue) {
+		mColor = Color.argb(pAlpha, pRed, pGreen, pBlue);
+	}
+
+	public float getStrokeWidth() {
+		return mStrokeWidth;
+	}
+
+	public void setStrokeWidth(final float pWidth) {
+		mStrokeWidth = pWidth;
+	}
+
+	public float getTextSize() {
+		return mTextSize;
+	}
+
+	public void setTextSize(final float pTextSize) {
+		mTextSize = pTextSize;
+	}
+
+	public Style getStyle() {
+		return mStyle;
+	}
+
+	public void setStyle(final Style pStyle) {
+		mStyle = pStyle;
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	public enum Style {
+		FILL, STROKE, FILL_AND_STROKE
+	}
+}
@@ -0,0 +1,68 @@
+package android.graphics;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the class
+ * in android.jar throws from every method. It doesn't keep the points, only the number of
+ * segments, which a {@link Canvas} counts when the path is drawn.
+ */
+public class Path {
+
+	private int mSegmentCount;
+	private boolean mEmpty = true;
+
+	public Path() {
+	}
+
+	public Path(final Path pSource) {
+		set(pSource);
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public boolean isEmpty() {
+		return mEmpty;
+	}
+
+	/**
+	 * The number of lines and closes since the path was reset. Not in the Android class.
+	 */
+	public int getSegmentCount() {
+		return mSegmentCount;
+	}
+
+	public void set(final Path pSource) {
+		mSegmentCount = pSource.mSegmentCount;
+		mEmpty = pSource.mEmpty;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	public void reset() {
+		rewind();
+	}
+
+	public void rewind() {
+		mSegmentCount = 0;
+		mEmpty = true;
+	}
+
+	public void moveTo(final float pX, final float pY) {
+		mEmpty = false;
+	}
+
+	public void lineTo(final float pX, final float pY) {
+		mSegmentCount++;
+		mEmpty = false;
+	}
+
+	public void close() {
+		mSegmentCount++;
+	}
+
+	public void offset(final float pDx, final float pDy) {
+	}
+}
@@ -0,0 +1,62 @@
+package android.graphics;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the class
+ * in android.jar throws from every method. It has the fields and methods that osmdroid uses.
+ */
+public class Point {
+
+	public int x;
+	public int y;
+
+	public Point() {
+	}
+
+	public Point(final int pX, final int pY) {
+		x = pX;
+		y = pY;
+	}
+
+	public Point(final Point pSource) {
+		x = pSource.x;
+		y = pSource.y;
+	}
+
+	public void set(final int pX, final int pY) {
+		x = pX;
+		y = pY;
+	}
+
+	public final void negate() {
+		x = -x;
+		y = -y;
+	}
+
+	public final void offset(final int pDx, final int pDy) {
+		x += pDx;
+		y += pDy;
+	}
+
+	public final boolean equals(final int pX, final int pY) {
+		return x == pX && y == pY;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (!(o instanceof Point)) {
+			return false;
+		}
+		final Point point = (Point) o;
+		return x == point.x && y == point.y;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * x + y;
+	}
+
+	@Override
+	public String toString() {
+		return "Point(" + x + ", " + y + ")";
+	}
+}
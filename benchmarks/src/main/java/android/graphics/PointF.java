@@ -0,0 +1,61 @@
+package android.graphics;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the class
+ * in android.jar throws from every method. It has the fields and methods that osmdroid uses.
+ */
+public class PointF {
+
+	public float x;
+	public float y;
+
+	public PointF() {
+	}
+
+	public PointF(final float pX, final float pY) {
+		x = pX;
+		y = pY;
+	}
+
+	public PointF(final Point pSource) {
+		x = pSource.x;
+		y = pSource.y;
+	}
+
+	public final void set(final float pX, final float pY) {
+		x = pX;
+		y = pY;
+	}
+
+	public final void set(final PointF pSource) {
+		x = pSource.x;
+		y = pSource.y;
+	}
+
+	public final void negate() {
+		x = -x;
+		y = -y;
+	}
+
+	public final void offset(final float pDx, final float pDy) {
+		x += pDx;
+		y += pDy;
+	}
+
+	public final boolean equals(final float pX, final float pY) {
+		return x == pX && y == pY;
+	}
+
+	public final float length() {
+		return length(x, y);
+	}
+
+	public static float length(final float pX, final float pY) {
+		return (float) Math.sqrt(pX * pX + pY * pY);
+	}
+
+	@Override
+	public String toString() {
+		return "PointF(" + x + ", " + y + ")";
+	}
+}
@@ -0,0 +1,219 @@
+package android.graphics;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the class
+ * in android.jar throws from every method. It has the fields and methods that osmdroid uses, which
+ * behave as they do on Android: the right and bottom edges are outside the rectangle.
+ */
+public final class Rect {
+
+	public int left;
+	public int top;
+	public int right;
+	public int bottom;
+
+	public Rect() {
+	}
+
+	public Rect(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		set(pLeft, pTop, pRight, pBottom);
+	}
+
+	public Rect(final Rect pSource) {
+		if (pSource != null) {
+			set(pSource);
+		}
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public final boolean isEmpty() {
+		return left >= right || top >= bottom;
+	}
+
+	public final int width() {
+		return right - left;
+	}
+
+	public final int height() {
+		return bottom - top;
+	}
+
+	public final int centerX() {
+		return (left + right) >> 1;
+	}
+
+	public final int centerY() {
+		return (top + bottom) >> 1;
+	}
+
+	public final float exactCenterX() {
+		return (left + right) * 0.5f;
+	}
+
+	public final float exactCenterY() {
+		return (top + bottom) * 0.5f;
+	}
+
+	public void setEmpty() {
+		left = right = top = bottom = 0;
+	}
+
+	public void set(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		left = pLeft;
+		top = pTop;
+		right = pRight;
+		bottom = pBottom;
+	}
+
+	public void set(final Rect pSource) {
+		set(pSource.left, pSource.top, pSource.right, pSource.bottom);
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	public void offset(final int pDx, final int pDy) {
+		left += pDx;
+		top += pDy;
+		right += pDx;
+		bottom += pDy;
+	}
+
+	public void offsetTo(final int pLeft, final int pTop) {
+		right += pLeft - left;
+		bottom += pTop - top;
+		left = pLeft;
+		top = pTop;
+	}
+
+	public void inset(final int pDx, final int pDy) {
+		left += pDx;
+		top += pDy;
+		right -= pDx;
+		bottom -= pDy;
+	}
+
+	public boolean contains(final int pX, final int pY) {
+		return left < right && top < bottom && pX >= left && pX < right && pY >= top
+				&& pY < bottom;
+	}
+
+	public boolean contains(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		return left < right && top < bottom && left <= pLeft && top <= pTop && right >= pRight
+				&& bottom >= pBottom;
+	}
+
+	public boolean contains(final Rect pRect) {
+		return contains(pRect.left, pRect.top, pRect.right, pRect.bottom);
+	}
+
+	public boolean intersects(final int pLeft, final int pTop, final int pRight,
+			final int pBottom) {
+		return left < pRight && pLeft < right && top < pBottom && pTop < bottom;
+	}
+
+	public static boolean intersects(final Rect a, final Rect b) {
+		return a.left < b.right && b.left < a.right && a.top < b.bottom && b.top < a.bottom;
+	}
+
+	/**
+	 * Set this rectangle to where it crosses another, if it does.
+	 *
+	 * @return false, leaving this rectangle as it was, if they don't cross
+	 */
+	public boolean intersect(final int pLeft, final int pTop, final int pRight,
+			final int pBottom) {
+		if (!intersects(pLeft, pTop, pRight, pBottom)) {
+			return false;
+		}
+		left = Math.max(left, pLeft);
+		top = Math.max(top, pTop);
+		right = Math.min(right, pRight);
+		bottom = Math.min(bottom, pBottom);
+		return true;
+	}
+
+	public boolean intersect(final Rect pRect) {
+		return intersect(pRect.left, pRect.top, pRect.right, pRect.bottom);
+	}
+
+	/**
+	 * Set this rectangle to where two others cross, if they do.
+	 *
+	 * @return false, leaving this rectangle as it was, if they don't cross
+	 */
+	public boolean setIntersect(final Rect a, final Rect b) {
+		if (!intersects(a, b)) {
+			return false;
+		}
+		set(Math.max(a.left, b.left), Math.max(a.top, b.top), Math.min(a.right, b.right),
+				Math.min(a.bottom, b.bottom));
+		return true;
+	}
+
+	public void union(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		if (pLeft >= pRight || pTop >= pBottom) {
+			return;
+		}
+		if (left >= right || top >= bottom) {
+			set(pLeft, pTop, pRight, pBottom);
+			return;
+		}
+		left = Math.min(left, pLeft);
+		top = Math.min(top, pTop);
+		right = Math.max(right, pRight);
+		bottom = Math.max(bottom, pBottom);
+	}
+
+	public void union(final Rect pRect) {
+		union(pRect.left, pRect.top, pRect.right, pRect.bottom);
+	}
+
+	public void union(final int pX, final int pY) {
+		left = Math.min(left, pX);
+		top = Math.min(top, pY);
+		right = Math.max(right, pX);
+		bottom = Math.max(bottom, pY);
+	}
+
+	public void sort() {
+		if (left > right) {
+			final int swap = left;
+			left = right;
+			right = swap;
+		}
+		if (top > bottom) {
+			final int swap = top;
+			top = bottom;
+			bottom = swap;
+		}
+	}
+
+	// ===========================================================
+	// Methods from SuperClass/Interfaces
+	// ===========================================================
+
+	@Override
+	public boolean equals(final Object o) {
+		if (!(o instanceof Rect)) {
+			return false;
+		}
+		final Rect rect = (Rect) o;
+		return left == rect.left && top == rect.top && right == rect.right
+				&& bottom == rect.bottom;
+	}
+
+	@Override
+	public int hashCode() {
+		return ((31 * left + top) * 31 + right) * 31 + bottom;
+	}
+
+	@Override
+	public String toString() {
+		return "Rect(" + left + ", " + top + " - " + right + ", " + bottom + ")";
+	}
+}
@@ -0,0 +1,61 @@
+package android.graphics.drawable;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the
+ * constructor of the class in android.jar throws. It draws its bitmap into its bounds, which a
+ * {@link Canvas} counts.
+ */
+public class BitmapDrawable extends Drawable {
+
+	private final Bitmap mBitmap;
+	private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+	public BitmapDrawable(final Bitmap pBitmap) {
+		mBitmap = pBitmap;
+	}
+
+	public final Bitmap getBitmap() {
+		return mBitmap;
+	}
+
+	public final Paint getPaint() {
+		return mPaint;
+	}
+
+	@Override
+	public int getIntrinsicWidth() {
+		return mBitmap == null ? -1 : mBitmap.getWidth();
+	}
+
+	@Override
+	public int getIntrinsicHeight() {
+		return mBitmap == null ? -1 : mBitmap.getHeight();
+	}
+
+	@Override
+	public void draw(final Canvas canvas) {
+		if (mBitmap != null) {
+			canvas.drawBitmap(mBitmap, null, getBounds(), mPaint);
+		}
+	}
+
+	@Override
+	public void setAlpha(final int alpha) {
+		mPaint.setAlpha(alpha);
+	}
+
+	@Override
+	public void setColorFilter(final ColorFilter cf) {
+	}
+
+	@Override
+	public int getOpacity() {
+		return PixelFormat.TRANSLUCENT;
+	}
+}
@@ -0,0 +1,57 @@
+package android.graphics.drawable;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Rect;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the
+ * constructor of the class in android.jar throws. Only the bounds and the state are kept, so that
+ * the tile caches and providers can be filled with drawables that don't draw anything.
+ */
+public abstract class Drawable {
+
+	private final Rect mBounds = new Rect();
+	private int[] mStateSet = new int[0];
+
+	public void setBounds(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		mBounds.set(pLeft, pTop, pRight, pBottom);
+	}
+
+	public void setBounds(final Rect pBounds) {
+		mBounds.set(pBounds);
+	}
+
+	public final Rect getBounds() {
+		return mBounds;
+	}
+
+	public boolean isStateful() {
+		return false;
+	}
+
+	public boolean setState(final int[] pStateSet) {
+		mStateSet = pStateSet;
+		return false;
+	}
+
+	public int[] getState() {
+		return mStateSet;
+	}
+
+	public int getIntrinsicWidth() {
+		return -1;
+	}
+
+	public int getIntrinsicHeight() {
+		return -1;
+	}
+
+	public abstract void draw(Canvas canvas);
+
+	public abstract void setAlpha(int alpha);
+
+	public abstract void setColorFilter(ColorFilter cf);
+
+	public abstract int getOpacity();
+}
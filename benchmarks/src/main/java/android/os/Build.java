@@ -0,0 +1,12 @@
+package android.os;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the
+ * version in android.jar is 0. The benchmarks run as on a KitKat device.
+ */
+public class Build {
+
+	public static class VERSION {
+		public static final int SDK_INT = 19;
+	}
+}
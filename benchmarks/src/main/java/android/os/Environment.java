@@ -0,0 +1,16 @@
+package android.os;
+
+import java.io.File;
+
+/**
+ * A plain Java version of the Android class, for running the benchmarks on a JVM, where the class
+ * in android.jar throws from every method. The external storage, under which the tile cache is
+ * kept, is the directory in the osmdroid.storage system property, or the temporary directory.
+ */
+public class Environment {
+
+	public static File getExternalStorageDirectory() {
+		return new File(System.getProperty("osmdroid.storage",
+				System.getProperty("java.io.tmpdir")));
+	}
+}
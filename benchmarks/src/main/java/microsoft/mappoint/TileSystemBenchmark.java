@@ -0,0 +1,98 @@
+package microsoft.mappoint;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osmdroid.util.GeoPoint;
+
+import android.graphics.Point;
+
+/**
+ * Measures the conversions of {@link TileSystem} between latitude and longitude, pixels, tiles
+ * and quad keys, for points spread over Europe at zoom level 16. Each call converts the next of
+ * 1024 points, so that the JIT can't fold the result. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar microsoft.mappoint.TileSystemBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class TileSystemBenchmark {
+
+	private static final int ZOOM_LEVEL = 16;
+	private static final int POINTS = 1024;
+
+	private final double[] mLatitudes = new double[POINTS];
+	private final double[] mLongitudes = new double[POINTS];
+	private final int[] mPixelsX = new int[POINTS];
+	private final int[] mPixelsY = new int[POINTS];
+	private final String[] mQuadKeys = new String[POINTS];
+	private int mIndex;
+
+	private final Point mPoint = new Point();
+	private final GeoPoint mGeoPoint = new GeoPoint(0, 0);
+
+	@Setup
+	public void setup() {
+		TileSystem.setTileSize(256);
+		final Random random = new Random(1);
+		for (int i = 0; i < POINTS; i++) {
+			mLatitudes[i] = 36 + random.nextDouble() * 34;
+			mLongitudes[i] = -10 + random.nextDouble() * 40;
+			TileSystem.LatLongToPixelXY(mLatitudes[i], mLongitudes[i], ZOOM_LEVEL, mPoint);
+			mPixelsX[i] = mPoint.x;
+			mPixelsY[i] = mPoint.y;
+			TileSystem.PixelXYToTileXY(mPoint.x, mPoint.y, mPoint);
+			mQuadKeys[i] = TileSystem.TileXYToQuadKey(mPoint.x, mPoint.y, ZOOM_LEVEL);
+		}
+	}
+
+	private int next() {
+		mIndex = (mIndex + 1) & (POINTS - 1);
+		return mIndex;
+	}
+
+	@Benchmark
+	public Point latLongToPixelXY() {
+		final int i = next();
+		return TileSystem.LatLongToPixelXY(mLatitudes[i], mLongitudes[i], ZOOM_LEVEL, mPoint);
+	}
+
+	@Benchmark
+	public GeoPoint pixelXYToLatLong() {
+		final int i = next();
+		return TileSystem.PixelXYToLatLong(mPixelsX[i], mPixelsY[i], ZOOM_LEVEL, mGeoPoint);
+	}
+
+	@Benchmark
+	public Point pixelXYToTileXY() {
+		final int i = next();
+		return TileSystem.PixelXYToTileXY(mPixelsX[i], mPixelsY[i], mPoint);
+	}
+
+	@Benchmark
+	public String tileXYToQuadKey() {
+		final int i = next();
+		return TileSystem.TileXYToQuadKey(mPixelsX[i] >> 8, mPixelsY[i] >> 8, ZOOM_LEVEL);
+	}
+
+	@Benchmark
+	public Point quadKeyToTileXY() {
+		return TileSystem.QuadKeyToTileXY(mQuadKeys[next()], mPoint);
+	}
+}
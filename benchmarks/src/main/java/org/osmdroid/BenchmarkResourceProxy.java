@@ -0,0 +1,17 @@
+package org.osmdroid;
+
+/**
+ * A resource proxy for the benchmarks, without a context, which has no display metrics of its
+ * own, so the overlays are created as on a display of density 1.
+ */
+public class BenchmarkResourceProxy extends DefaultResourceProxyImpl {
+
+	public BenchmarkResourceProxy() {
+		super(null);
+	}
+
+	@Override
+	public float getDisplayMetricsDensity() {
+		return 1;
+	}
+}
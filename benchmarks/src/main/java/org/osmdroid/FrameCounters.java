@@ -0,0 +1,48 @@
+package org.osmdroid;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import android.graphics.Canvas;
+
+/**
+ * What the frames of an iteration of a drawing benchmark asked the canvases to draw, which JMH
+ * reports next to the time. The counters are totals over the iteration, so divide them by frames
+ * for a frame.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class FrameCounters {
+	public long frames;
+	public long drawCalls;
+	public long pixelsDrawn;
+	public long segmentsDrawn;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		frames = 0;
+		drawCalls = 0;
+		pixelsDrawn = 0;
+		segmentsDrawn = 0;
+	}
+
+	/**
+	 * Call before drawing a frame.
+	 */
+	public void beginFrame() {
+		Canvas.resetCounters();
+	}
+
+	/**
+	 * Call after drawing a frame, to add what was drawn.
+	 */
+	public void endFrame() {
+		frames++;
+		drawCalls += Canvas.getDrawCalls();
+		pixelsDrawn += Canvas.getPixelsDrawn();
+		segmentsDrawn += Canvas.getSegmentsDrawn();
+	}
+}
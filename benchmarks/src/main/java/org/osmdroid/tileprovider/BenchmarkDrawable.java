@@ -0,0 +1,30 @@
+package org.osmdroid.tileprovider;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+
+/**
+ * A tile for the benchmarks that doesn't draw anything, to put in the tile caches and return from
+ * the tile providers.
+ */
+public class BenchmarkDrawable extends Drawable {
+
+	@Override
+	public void draw(final Canvas canvas) {
+	}
+
+	@Override
+	public void setAlpha(final int alpha) {
+	}
+
+	@Override
+	public void setColorFilter(final ColorFilter cf) {
+	}
+
+	@Override
+	public int getOpacity() {
+		return PixelFormat.OPAQUE;
+	}
+}
@@ -0,0 +1,114 @@
+package org.osmdroid.tileprovider;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osmdroid.util.MapTileIndex;
+
+import android.graphics.drawable.Drawable;
+
+/**
+ * Measures hashing {@link MapTile}s and the lookups of the tile cache, for the 256 tiles of a
+ * 16 x 16 block at zoom level 16, about the tiles of two screens. A frame of
+ * {@link org.osmdroid.views.overlay.TilesOverlay} looks up every tile on screen, by
+ * {@link MapTile} or by packed index, and the plain {@link HashMap} and access ordered
+ * {@link LinkedHashMap} are there to compare the cache with. The eviction benchmark puts the tiles
+ * in turn into a cache of 64, so that every put removes the eldest tile. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar MapTileCacheBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class MapTileCacheBenchmark {
+
+	private static final int ZOOM_LEVEL = 16;
+	private static final int SIZE = 16;
+	private static final int TILES = SIZE * SIZE;
+	private static final int EVICTING_CAPACITY = 64;
+
+	private final MapTile[] mTiles = new MapTile[TILES];
+	private final long[] mTileIndices = new long[TILES];
+	private int mIndex;
+
+	private final HashMap<MapTile, Drawable> mHashMap = new HashMap<MapTile, Drawable>();
+	private final LinkedHashMap<MapTile, Drawable> mLinkedHashMap =
+			new LinkedHashMap<MapTile, Drawable>(TILES + 2, 0.1f, true);
+	private final MapTileCache mCache = new MapTileCache(TILES);
+	private final LRUMapTileCache mEvictingCache = new LRUMapTileCache(EVICTING_CAPACITY);
+	private final Drawable mDrawable = new BenchmarkDrawable();
+
+	@Setup
+	public void setup() {
+		final int origin = 35200;
+		for (int i = 0; i < TILES; i++) {
+			mTiles[i] = new MapTile(ZOOM_LEVEL, origin + i % SIZE, origin / 2 + i / SIZE);
+			mTileIndices[i] = mTiles[i].getTileIndex();
+			mHashMap.put(mTiles[i], mDrawable);
+			mLinkedHashMap.put(mTiles[i], mDrawable);
+			mCache.putTile(mTiles[i], mDrawable);
+		}
+	}
+
+	private int next() {
+		mIndex = (mIndex + 1) & (TILES - 1);
+		return mIndex;
+	}
+
+	@Benchmark
+	public int mapTileHashCode() {
+		return mTiles[next()].hashCode();
+	}
+
+	@Benchmark
+	public boolean mapTileEquals() {
+		final int i = next();
+		return mTiles[i].equals(new MapTile(mTileIndices[i]));
+	}
+
+	@Benchmark
+	public Drawable hashMapGet() {
+		return mHashMap.get(new MapTile(mTileIndices[next()]));
+	}
+
+	@Benchmark
+	public Drawable linkedHashMapGet() {
+		return mLinkedHashMap.get(new MapTile(mTileIndices[next()]));
+	}
+
+	@Benchmark
+	public Drawable cacheGetByTile() {
+		return mCache.getMapTile(new MapTile(mTileIndices[next()]));
+	}
+
+	@Benchmark
+	public Drawable cacheGetByIndex() {
+		return mCache.getMapTile(mTileIndices[next()]);
+	}
+
+	@Benchmark
+	public Drawable cacheMiss() {
+		return mCache.getMapTile(MapTileIndex.getTileIndex(ZOOM_LEVEL + 1, next(), 0));
+	}
+
+	@Benchmark
+	public Drawable cachePutEvicting() {
+		return mEvictingCache.put(mTiles[next()], mDrawable);
+	}
+}
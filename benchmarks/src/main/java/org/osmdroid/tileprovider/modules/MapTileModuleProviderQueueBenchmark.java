@@ -0,0 +1,163 @@
+package org.osmdroid.tileprovider.modules;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osmdroid.tileprovider.BenchmarkDrawable;
+import org.osmdroid.tileprovider.IMapTileProviderCallback;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileRequestState;
+import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+
+import android.graphics.drawable.Drawable;
+
+/**
+ * Measures the request queues of {@link MapTileModuleProviderBase}: the requests for a screen of
+ * tiles are queued with {@link MapTileModuleProviderBase#loadMapTileAsync(MapTileRequestState)},
+ * and then a {@link MapTileModuleProviderBase.TileLoader} takes them off the queue, one by one,
+ * and completes them at once, on the benchmark thread. With more requests than the pending queue
+ * holds, the oldest are dropped as the newest are queued, as when the map is panned quickly. The
+ * worker threads of the provider don't do anything, so only the queueing is measured. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar MapTileModuleProviderQueueBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class MapTileModuleProviderQueueBenchmark {
+
+	private static final int ZOOM_LEVEL = 16;
+
+	/** The number of tiles requested, which is more than the pending queue holds when over 40 */
+	@Param({ "40", "160" })
+	public int mRequests;
+
+	private QueueProvider mProvider;
+	private MapTileModuleProviderBase.TileLoader mLoader;
+	private MapTileRequestState[] mStates;
+	private int mCompleted;
+
+	@Setup
+	public void setup() {
+		mProvider = new QueueProvider();
+		mLoader = mProvider.new TileLoader() {
+			private final Drawable mDrawable = new BenchmarkDrawable();
+
+			@Override
+			protected Drawable loadTile(final MapTileRequestState pState) {
+				return mDrawable;
+			}
+		};
+
+		final IMapTileProviderCallback callback = new IMapTileProviderCallback() {
+			@Override
+			public void mapTileRequestCompleted(final MapTileRequestState aState,
+					final Drawable aDrawable) {
+				mCompleted++;
+			}
+
+			@Override
+			public void mapTileRequestFailed(final MapTileRequestState aState) {
+			}
+
+			@Override
+			public void mapTileRequestExpiredTile(final MapTileRequestState aState,
+					final Drawable aDrawable) {
+			}
+
+			@Override
+			public boolean useDataConnection() {
+				return false;
+			}
+		};
+		final MapTileModuleProviderBase[] providers = new MapTileModuleProviderBase[] { mProvider };
+		mStates = new MapTileRequestState[mRequests];
+		for (int i = 0; i < mRequests; i++) {
+			mStates[i] = new MapTileRequestState(new MapTile(ZOOM_LEVEL, 35200 + i % 8,
+					21500 + i / 8), providers, callback);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		mProvider.detach();
+	}
+
+	@Benchmark
+	public int queueAndLoad() {
+		mCompleted = 0;
+		for (final MapTileRequestState state : mStates) {
+			mProvider.loadMapTileAsync(state);
+		}
+		mLoader.run();
+		return mCompleted;
+	}
+
+	/**
+	 * A provider whose worker threads don't load anything.
+	 */
+	private static class QueueProvider extends MapTileModuleProviderBase {
+
+		private static final Runnable IDLE_LOADER = new Runnable() {
+			@Override
+			public void run() {
+			}
+		};
+
+		QueueProvider() {
+			super(OpenStreetMapTileProviderConstants.NUMBER_OF_TILE_FILESYSTEM_THREADS,
+					OpenStreetMapTileProviderConstants.TILE_FILESYSTEM_MAXIMUM_QUEUE_SIZE);
+		}
+
+		@Override
+		protected String getName() {
+			return "Queue benchmark";
+		}
+
+		@Override
+		protected String getThreadGroupName() {
+			return "queuebenchmark";
+		}
+
+		@Override
+		protected Runnable getTileLoader() {
+			return IDLE_LOADER;
+		}
+
+		@Override
+		public boolean getUsesDataConnection() {
+			return false;
+		}
+
+		@Override
+		public int getMinimumZoomLevel() {
+			return OpenStreetMapTileProviderConstants.MINIMUM_ZOOMLEVEL;
+		}
+
+		@Override
+		public int getMaximumZoomLevel() {
+			return OpenStreetMapTileProviderConstants.MAXIMUM_ZOOMLEVEL;
+		}
+
+		@Override
+		public void setTileSource(final ITileSource tileSource) {
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package org.osmdroid.tileprovider.modules;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osmdroid.ResourceProxy;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.XYTileSource;
+
+/**
+ * Measures the file system tile cache of {@link TileWriter}: saving a 16 x 16 block of downloaded
+ * tiles, which creates their folders, checking whether a cached tile is fresh, and the path of a
+ * tile. The tiles are random bytes the size of a map tile, saved under
+ * {@link OpenStreetMapTileProviderConstants#TILE_PATH_BASE}, which is in the temporary directory
+ * unless the osmdroid.storage system property is set, and they are deleted afterwards. The block
+ * is deleted before each iteration of the save benchmark, so that every iteration saves new tiles.
+ * Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar TileWriterBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class TileWriterBenchmark {
+
+	private static final int ZOOM_LEVEL = 16;
+	private static final int SIZE = 16;
+	private static final int TILES = SIZE * SIZE;
+	private static final int TILE_BYTES = 12 * 1024;
+
+	private final ITileSource mSavedSource = createTileSource("BenchmarkSaved");
+	private final ITileSource mCachedSource = createTileSource("BenchmarkCached");
+
+	private final MapTile[] mTiles = new MapTile[TILES];
+	private final byte[] mTile = new byte[TILE_BYTES];
+	private int mIndex;
+
+	private TileWriter mWriter;
+
+	private static ITileSource createTileSource(final String pName) {
+		return new XYTileSource(pName, ResourceProxy.string.mapnik, 0, 18, 256, ".png",
+				new String[] { "http://localhost/" });
+	}
+
+	@Setup
+	public void setup() {
+		new Random(1).nextBytes(mTile);
+		for (int i = 0; i < TILES; i++) {
+			mTiles[i] = new MapTile(ZOOM_LEVEL, 35200 + i % SIZE, 21500 + i / SIZE);
+		}
+		mWriter = new TileWriter();
+		saveTiles(mCachedSource);
+	}
+
+	@Setup(Level.Iteration)
+	public void deleteSavedTiles() {
+		delete(getDirectory(mSavedSource));
+	}
+
+	@TearDown
+	public void tearDown() {
+		delete(getDirectory(mSavedSource));
+		delete(getDirectory(mCachedSource));
+	}
+
+	private static File getDirectory(final ITileSource pTileSource) {
+		return new File(OpenStreetMapTileProviderConstants.TILE_PATH_BASE, pTileSource.name());
+	}
+
+	private static void delete(final File pFile) {
+		final File[] children = pFile.listFiles();
+		if (children != null) {
+			for (final File child : children) {
+				delete(child);
+			}
+		}
+		pFile.delete();
+	}
+
+	private int saveTiles(final ITileSource pTileSource) {
+		int saved = 0;
+		for (final MapTile tile : mTiles) {
+			if (mWriter.saveFile(pTileSource, tile, new ByteArrayInputStream(mTile))) {
+				saved++;
+			}
+		}
+		return saved;
+	}
+
+	private int next() {
+		mIndex = (mIndex + 1) & (TILES - 1);
+		return mIndex;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 20)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int saveFile() {
+		return saveTiles(mSavedSource);
+	}
+
+	@Benchmark
+	public boolean isTileFresh() {
+		return mWriter.isTileFresh(mCachedSource, mTiles[next()],
+				OpenStreetMapTileProviderConstants.DEFAULT_MAXIMUM_CACHED_FILE_AGE);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public File getFile() {
+		return mWriter.getFile(mCachedSource, mTiles[next()]);
+	}
+}
@@ -0,0 +1,124 @@
+package org.osmdroid.util;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.graphics.PointF;
+
+/**
+ * Measures the operations of {@link BoundingBoxE6} that are used while drawing: the hit test of
+ * {@link BoundingBoxE6#contains(int, int)}, the relative positions with linear and Gudermann
+ * interpolation, and building the box around the 1000 points of a line. Each call uses the next of
+ * 1024 points around the box. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar BoundingBoxE6Benchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class BoundingBoxE6Benchmark {
+
+	private static final int POINTS = 1024;
+	private static final int LINE_POINTS = 1000;
+
+	/** A screen of about 10 km around Berlin */
+	private final BoundingBoxE6 mBoundingBox = new BoundingBoxE6(52560000, 13460000, 52470000,
+			13310000);
+
+	private final int[] mLatitudesE6 = new int[POINTS];
+	private final int[] mLongitudesE6 = new int[POINTS];
+	private final float[] mRelative = new float[POINTS];
+	private int mIndex;
+
+	private final ArrayList<GeoPoint> mLine = new ArrayList<GeoPoint>();
+	private final PointF mPoint = new PointF();
+
+	@Setup
+	public void setup() {
+		// half of the points are inside the box
+		final Random random = new Random(1);
+		final int latitudeSpanE6 = mBoundingBox.getLatitudeSpanE6();
+		final int longitudeSpanE6 = mBoundingBox.getLongitudeSpanE6();
+		for (int i = 0; i < POINTS; i++) {
+			mLatitudesE6[i] = mBoundingBox.getLatSouthE6() - latitudeSpanE6 / 6
+					+ random.nextInt(latitudeSpanE6 * 4 / 3);
+			mLongitudesE6[i] = mBoundingBox.getLonWestE6() - longitudeSpanE6 / 6
+					+ random.nextInt(longitudeSpanE6 * 4 / 3);
+			mRelative[i] = random.nextFloat();
+		}
+		for (int i = 0; i < LINE_POINTS; i++) {
+			mLine.add(new GeoPoint(mLatitudesE6[i], mLongitudesE6[i]));
+		}
+	}
+
+	private int next() {
+		mIndex = (mIndex + 1) & (POINTS - 1);
+		return mIndex;
+	}
+
+	@Benchmark
+	public boolean contains() {
+		final int i = next();
+		return mBoundingBox.contains(mLatitudesE6[i], mLongitudesE6[i]);
+	}
+
+	@Benchmark
+	public PointF relativePositionLinear() {
+		final int i = next();
+		return mBoundingBox.getRelativePositionOfGeoPointInBoundingBoxWithLinearInterpolation(
+				mLatitudesE6[i], mLongitudesE6[i], mPoint);
+	}
+
+	@Benchmark
+	public PointF relativePositionGudermann() {
+		final int i = next();
+		return mBoundingBox
+				.getRelativePositionOfGeoPointInBoundingBoxWithExactGudermannInterpolation(
+						mLatitudesE6[i], mLongitudesE6[i], mPoint);
+	}
+
+	@Benchmark
+	public GeoPoint geoPointOfRelativePositionGudermann() {
+		final int i = next();
+		return mBoundingBox.getGeoPointOfRelativePositionWithExactGudermannInterpolation(
+				mRelative[i], mRelative[(i + 1) & (POINTS - 1)]);
+	}
+
+	@Benchmark
+	public GeoPoint bringToBoundingBox() {
+		final int i = next();
+		return mBoundingBox.bringToBoundingBox(mLatitudesE6[i], mLongitudesE6[i]);
+	}
+
+	@Benchmark
+	public BoundingBoxE6 increaseByScale() {
+		return mBoundingBox.increaseByScale(1.2f);
+	}
+
+	@Benchmark
+	public int diagonalLengthInMeters() {
+		return mBoundingBox.getDiagonalLengthInMeters();
+	}
+
+	@Benchmark
+	public BoundingBoxE6 fromGeoPoints() {
+		return BoundingBoxE6.fromGeoPoints(mLine);
+	}
+}
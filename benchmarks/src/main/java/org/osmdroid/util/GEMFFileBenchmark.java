@@ -0,0 +1,146 @@
+package org.osmdroid.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures finding and reading tiles in a {@link GEMFFile}, as the GEMF tile provider does for
+ * every tile that isn't in the memory cache. The archive is built in the temporary directory from
+ * the tiles of a city, zoom levels 10 to 15, of random bytes the size of a map tile. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar GEMFFileBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class GEMFFileBenchmark {
+
+	private static final int MINIMUM_ZOOM_LEVEL = 10;
+	private static final int MAXIMUM_ZOOM_LEVEL = 15;
+	private static final int TILE_X = 550;
+	private static final int TILE_Y = 335;
+	private static final int TILE_BYTES = 12 * 1024;
+
+	private static final int LOOKUPS = 1024;
+
+	private File mDirectory;
+	private GEMFFile mFile;
+
+	/** The tiles to look up, as zoom level, x and y */
+	private final int[] mTiles = new int[3 * LOOKUPS];
+	private int mIndex;
+
+	private final byte[] mBuffer = new byte[8192];
+
+	@Setup
+	public void setup() throws IOException {
+		mDirectory = File.createTempFile("gemf", "");
+		mDirectory.delete();
+		final File source = new File(mDirectory, "Mapnik");
+
+		// a block of tiles that doubles in size at each zoom level
+		final Random random = new Random(1);
+		final byte[] tile = new byte[TILE_BYTES];
+		for (int zoom = MINIMUM_ZOOM_LEVEL; zoom <= MAXIMUM_ZOOM_LEVEL; zoom++) {
+			final int size = 1 << (zoom - MINIMUM_ZOOM_LEVEL);
+			for (int x = TILE_X * size; x < (TILE_X + 1) * size; x++) {
+				final File column = new File(source, zoom + "/" + x);
+				column.mkdirs();
+				for (int y = TILE_Y * size; y < (TILE_Y + 1) * size; y++) {
+					random.nextBytes(tile);
+					final FileOutputStream out = new FileOutputStream(new File(column, y + ".png"));
+					try {
+						out.write(tile);
+					} finally {
+						out.close();
+					}
+				}
+			}
+		}
+		mFile = new GEMFFile(new File(mDirectory, "archive.gemf").getPath(),
+				Collections.singletonList(source));
+
+		for (int i = 0; i < LOOKUPS; i++) {
+			final int zoom = MINIMUM_ZOOM_LEVEL
+					+ random.nextInt(MAXIMUM_ZOOM_LEVEL - MINIMUM_ZOOM_LEVEL + 1);
+			final int size = 1 << (zoom - MINIMUM_ZOOM_LEVEL);
+			mTiles[3 * i] = zoom;
+			mTiles[3 * i + 1] = TILE_X * size + random.nextInt(size);
+			mTiles[3 * i + 2] = TILE_Y * size + random.nextInt(size);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		mFile.close();
+		delete(mDirectory);
+	}
+
+	private static void delete(final File pFile) {
+		final File[] children = pFile.listFiles();
+		if (children != null) {
+			for (final File child : children) {
+				delete(child);
+			}
+		}
+		pFile.delete();
+	}
+
+	private int next() {
+		mIndex = (mIndex + 1) & (LOOKUPS - 1);
+		return 3 * mIndex;
+	}
+
+	@Benchmark
+	public int lookup() throws IOException {
+		final int i = next();
+		final InputStream in = mFile.getInputStream(mTiles[i + 1], mTiles[i + 2], mTiles[i]);
+		final int available = in.available();
+		in.close();
+		return available;
+	}
+
+	@Benchmark
+	public InputStream lookupMissing() {
+		final int i = next();
+		return mFile.getInputStream(mTiles[i + 1], mTiles[i + 2], mTiles[i] + 1);
+	}
+
+	@Benchmark
+	public int read() throws IOException {
+		final int i = next();
+		final InputStream in = mFile.getInputStream(mTiles[i + 1], mTiles[i + 2], mTiles[i]);
+		int total = 0;
+		try {
+			int read;
+			while ((read = in.read(mBuffer, 0, mBuffer.length)) > 0) {
+				total += read;
+			}
+		} finally {
+			in.close();
+		}
+		return total;
+	}
+}
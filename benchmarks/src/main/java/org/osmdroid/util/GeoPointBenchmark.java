@@ -0,0 +1,66 @@
+package org.osmdroid.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link GeoPoint#distanceTo(org.osmdroid.api.IGeoPoint)} and
+ * {@link GeoPoint#bearingTo(org.osmdroid.api.IGeoPoint)}, which the location and scale bar
+ * overlays call on every fix and frame, between consecutive points of a 1024 point random walk.
+ * Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar GeoPointBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class GeoPointBenchmark {
+
+	private static final int POINTS = 1024;
+
+	private final GeoPoint[] mPoints = new GeoPoint[POINTS];
+	private int mIndex;
+
+	@Setup
+	public void setup() {
+		// a walk of up to a kilometre a step
+		final Random random = new Random(1);
+		int latitudeE6 = 52000000;
+		int longitudeE6 = 13000000;
+		for (int i = 0; i < POINTS; i++) {
+			latitudeE6 += random.nextInt(20001) - 10000;
+			longitudeE6 += random.nextInt(20001) - 10000;
+			mPoints[i] = new GeoPoint(latitudeE6, longitudeE6);
+		}
+	}
+
+	@Benchmark
+	public int distanceTo() {
+		final int i = mIndex;
+		mIndex = (i + 1) & (POINTS - 1);
+		return mPoints[i].distanceTo(mPoints[mIndex]);
+	}
+
+	@Benchmark
+	public double bearingTo() {
+		final int i = mIndex;
+		mIndex = (i + 1) & (POINTS - 1);
+		return mPoints[i].bearingTo(mPoints[mIndex]);
+	}
+}
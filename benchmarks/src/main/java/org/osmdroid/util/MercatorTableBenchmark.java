@@ -0,0 +1,78 @@
+package org.osmdroid.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.graphics.Point;
+
+/**
+ * Measures projecting a path of 10000 points with {@link MercatorTable#toPixelsE6(int[], int, int)}
+ * against calling {@link TileSystem#LatLongToPixelXY(double, double, int, Point)} for each point
+ * with a reused {@link Point}. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar MercatorTableBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class MercatorTableBenchmark {
+
+	private static final int POINTS = 10000;
+	private static final int ZOOM_LEVEL = 16;
+
+	private int[] mLatLongE6;
+	private int[] mPixels;
+	private MercatorTable mTable;
+	private final Point mPoint = new Point();
+
+	@Setup
+	public void setup() {
+		// a random walk, like a recorded track
+		final Random random = new Random(1);
+		mLatLongE6 = new int[2 * POINTS];
+		int latitudeE6 = 52000000;
+		int longitudeE6 = 13000000;
+		for (int i = 0; i < 2 * POINTS; i += 2) {
+			latitudeE6 += random.nextInt(2001) - 1000;
+			longitudeE6 += random.nextInt(2001) - 1000;
+			mLatLongE6[i] = latitudeE6;
+			mLatLongE6[i + 1] = longitudeE6;
+		}
+		mPixels = new int[2 * POINTS];
+		mTable = MercatorTable.getDefault();
+	}
+
+	@Benchmark
+	public int[] projectBulk() {
+		System.arraycopy(mLatLongE6, 0, mPixels, 0, mPixels.length);
+		mTable.toPixelsE6(mPixels, POINTS, ZOOM_LEVEL);
+		return mPixels;
+	}
+
+	@Benchmark
+	public int[] projectScalar() {
+		for (int i = 0; i < 2 * POINTS; i += 2) {
+			TileSystem.LatLongToPixelXY(mLatLongE6[i] * 1E-6, mLatLongE6[i + 1] * 1E-6, ZOOM_LEVEL,
+					mPoint);
+			mPixels[i] = mPoint.x;
+			mPixels[i + 1] = mPoint.y;
+		}
+		return mPixels;
+	}
+}
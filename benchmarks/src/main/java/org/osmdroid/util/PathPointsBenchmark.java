@@ -0,0 +1,155 @@
+package org.osmdroid.util;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osmdroid.views.util.constants.MapViewConstants;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+
+/**
+ * Compares {@link PathPoints} with the list of {@link Point}s that
+ * {@link org.osmdroid.views.overlay.PathOverlay} used to keep, for GPS tracks of 10000, 100000 and
+ * 1000000 points. The build benchmarks add and project a whole track; run them with -prof gc to
+ * see the memory each takes in gc.alloc.rate.norm. The frame benchmarks run the loop of
+ * PathOverlay.draw(), which clips each segment and shifts its points to the screen, without the
+ * canvas, over every point or over the points of the {@link PathSimplification} for the zoom
+ * level. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar PathPointsBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class PathPointsBenchmark {
+
+	private static final int ZOOM_LEVEL = 14;
+	private static final int SCREEN_SIZE = 1024;
+
+	@Param({ "10000", "100000", "1000000" })
+	public int mPoints;
+
+	private int[] mLatitudesE6;
+	private int[] mLongitudesE6;
+	private PathPoints mPathPoints;
+	private PathSimplification mSimplification;
+	private ArrayList<Point> mPointList;
+	private final Rect mClipBounds = new Rect();
+	private final Rect mLineBounds = new Rect();
+
+	@Setup
+	public void setup() {
+		// a random walk of about 10 metres a step
+		final Random random = new Random(1);
+		mLatitudesE6 = new int[mPoints];
+		mLongitudesE6 = new int[mPoints];
+		int latitudeE6 = 52000000;
+		int longitudeE6 = 13000000;
+		for (int i = 0; i < mPoints; i++) {
+			latitudeE6 += random.nextInt(201) - 100;
+			longitudeE6 += random.nextInt(201) - 100;
+			mLatitudesE6[i] = latitudeE6;
+			mLongitudesE6[i] = longitudeE6;
+		}
+		mPathPoints = buildPathPoints();
+		mPointList = buildPointList();
+		mSimplification = new PathSimplification();
+		mSimplification.update(mPathPoints);
+
+		// a screen around the start of the track, in projected pixels
+		final int shift = MapViewConstants.MAXIMUM_ZOOMLEVEL - ZOOM_LEVEL;
+		final int[] projected = mPathPoints.getProjected();
+		mClipBounds.set(projected[0] - (SCREEN_SIZE << shift) / 2, projected[1]
+				- (SCREEN_SIZE << shift) / 2, projected[0] + (SCREEN_SIZE << shift) / 2,
+				projected[1] + (SCREEN_SIZE << shift) / 2);
+	}
+
+	@Benchmark
+	public PathPoints buildPathPoints() {
+		final PathPoints points = new PathPoints();
+		points.addPoints(mLatitudesE6, mLongitudesE6);
+		points.getProjected();
+		return points;
+	}
+
+	@Benchmark
+	public ArrayList<Point> buildPointList() {
+		final ArrayList<Point> points = new ArrayList<Point>();
+		for (int i = 0; i < mPoints; i++) {
+			points.add(new Point(mLatitudesE6[i], mLongitudesE6[i]));
+		}
+		for (final Point point : points) {
+			TileSystem.LatLongToPixelXY(point.x * 1E-6, point.y * 1E-6,
+					MapViewConstants.MAXIMUM_ZOOMLEVEL, point);
+		}
+		return points;
+	}
+
+	@Benchmark
+	public long framePathPoints() {
+		final int[] projected = mPathPoints.getProjected();
+		final int shift = MapViewConstants.MAXIMUM_ZOOMLEVEL - ZOOM_LEVEL;
+		long sum = 0;
+		for (int i = mPoints - 1; i >= 0; i--) {
+			final int x = projected[2 * i];
+			final int y = projected[2 * i + 1];
+			mLineBounds.set(x, y, x, y);
+			if (Rect.intersects(mClipBounds, mLineBounds)) {
+				sum += (x >> shift) + (y >> shift);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long frameSimplified() {
+		final int[] projected = mPathPoints.getProjected();
+		final int shift = MapViewConstants.MAXIMUM_ZOOMLEVEL - ZOOM_LEVEL;
+		mSimplification.update(mPathPoints);
+		final int count = mSimplification.getPositions(ZOOM_LEVEL);
+		final int[] positions = mSimplification.getResults();
+		long sum = 0;
+		for (int j = count - 1; j >= 0; j--) {
+			final int i = positions[j];
+			final int x = projected[2 * i];
+			final int y = projected[2 * i + 1];
+			mLineBounds.set(x, y, x, y);
+			if (Rect.intersects(mClipBounds, mLineBounds)) {
+				sum += (x >> shift) + (y >> shift);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long framePointList() {
+		final int shift = MapViewConstants.MAXIMUM_ZOOMLEVEL - ZOOM_LEVEL;
+		long sum = 0;
+		for (int i = mPoints - 1; i >= 0; i--) {
+			final Point point = mPointList.get(i);
+			mLineBounds.set(point.x, point.y, point.x, point.y);
+			if (Rect.intersects(mClipBounds, mLineBounds)) {
+				sum += (point.x >> shift) + (point.y >> shift);
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,77 @@
+package org.osmdroid.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures projecting paths of 1000 and 5000 points with a reused {@link PathProjector} into a
+ * reused array, with the Gudermann and the linear interpolation. This is the work that
+ * {@link org.osmdroid.views.util.PathProjection} does per point before adding it to a path. Run
+ * with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar PathProjectorBenchmark -prof gc
+ * </pre>
+ *
+ * gc.alloc.rate.norm, the bytes allocated per path, should be zero for both path lengths, which
+ * shows that nothing is allocated per point.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class PathProjectorBenchmark {
+
+	@Param({ "1000", "5000" })
+	public int mPoints;
+
+	private int[] mLatLongE6;
+	private float[] mPixels;
+	private final PathProjector mProjector = new PathProjector();
+
+	@Setup
+	public void setup() {
+		// a random walk across a continent
+		final Random random = new Random(1);
+		mLatLongE6 = new int[2 * mPoints];
+		mPixels = new float[2 * mPoints];
+		int latitudeE6 = 40000000;
+		int longitudeE6 = 0;
+		for (int i = 0; i < mPoints; i++) {
+			latitudeE6 += random.nextInt(20001) - 10000;
+			longitudeE6 += random.nextInt(20001) - 5000;
+			mLatLongE6[2 * i] = latitudeE6;
+			mLatLongE6[2 * i + 1] = longitudeE6;
+		}
+	}
+
+	@Benchmark
+	public float[] projectGudermann() {
+		return project(4, true);
+	}
+
+	@Benchmark
+	public float[] projectLinear() {
+		return project(12, false);
+	}
+
+	private float[] project(final int pZoomLevel, final boolean pGudermann) {
+		mProjector.begin(pZoomLevel, -1000, -1000, pGudermann);
+		mProjector.project(mLatLongE6, mPoints, mPixels);
+		return mPixels;
+	}
+}
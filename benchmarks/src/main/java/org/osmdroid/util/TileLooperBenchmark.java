@@ -0,0 +1,127 @@
+package org.osmdroid.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osmdroid.tileprovider.BenchmarkDrawable;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileCache;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+/**
+ * Measures {@link TileLooper#loop(Canvas, int, int, Rect)} over a 4K viewport whose tiles are all
+ * in the cache, which is the steady state while panning. One looper looks the tiles up by their
+ * packed index, the other allocates a {@link MapTile} for every tile as the loop used to. Run with
+ * the GC profiler to see the allocation rate per operation:
+ *
+ * <pre>
+ * java -jar benchmarks.jar TileLooperBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class TileLooperBenchmark {
+
+	private static final int TILE_SIZE = 256;
+	private static final int ZOOM_LEVEL = 16;
+
+	/** A 3840 x 2160 screen */
+	private static final int SCREEN_WIDTH = 3840;
+	private static final int SCREEN_HEIGHT = 2160;
+
+	private MapTileCache mTileCache;
+	private Rect mViewPort;
+	private CountingTileLooper mPackedLooper;
+	private CountingTileLooper mMapTileLooper;
+
+	@Setup
+	public void setup() {
+		TileSystem.setTileSize(TILE_SIZE);
+
+		final int center = TileSystem.MapSize(ZOOM_LEVEL) / 2;
+		mViewPort = new Rect(center - SCREEN_WIDTH / 2, center - SCREEN_HEIGHT / 2, center
+				+ SCREEN_WIDTH / 2, center + SCREEN_HEIGHT / 2);
+
+		// fill the cache with every tile the loop will visit, including its margin
+		mTileCache = new MapTileCache((SCREEN_WIDTH / TILE_SIZE + 3)
+				* (SCREEN_HEIGHT / TILE_SIZE + 3));
+		final BenchmarkDrawable drawable = new BenchmarkDrawable();
+		mPackedLooper = new CountingTileLooper(true) {
+			@Override
+			public void handleTile(final Canvas pCanvas, final int pTileSizePx,
+					final long pTileIndex, final int pX, final int pY) {
+				mTileCache.putTile(new MapTile(pTileIndex), drawable);
+			}
+		};
+		mPackedLooper.loop(null, ZOOM_LEVEL, TILE_SIZE, mViewPort);
+
+		mPackedLooper = new CountingTileLooper(true);
+		mMapTileLooper = new CountingTileLooper(false);
+	}
+
+	@Benchmark
+	public int loopPackedTileIndex() {
+		mPackedLooper.loop(null, ZOOM_LEVEL, TILE_SIZE, mViewPort);
+		return mPackedLooper.mCount;
+	}
+
+	@Benchmark
+	public int loopMapTile() {
+		mMapTileLooper.loop(null, ZOOM_LEVEL, TILE_SIZE, mViewPort);
+		return mMapTileLooper.mCount;
+	}
+
+	private class CountingTileLooper extends TileLooper {
+
+		private final boolean mUseTileIndex;
+		int mCount;
+
+		CountingTileLooper(final boolean pUseTileIndex) {
+			mUseTileIndex = pUseTileIndex;
+		}
+
+		@Override
+		public void initialiseLoop(final int pZoomLevel, final int pTileSizePx) {
+			mCount = 0;
+		}
+
+		@Override
+		public void handleTile(final Canvas pCanvas, final int pTileSizePx, final long pTileIndex,
+				final int pX, final int pY) {
+			if (mUseTileIndex) {
+				if (mTileCache.getMapTile(pTileIndex) != null) {
+					mCount++;
+				}
+			} else {
+				super.handleTile(pCanvas, pTileSizePx, pTileIndex, pX, pY);
+			}
+		}
+
+		@Override
+		public void handleTile(final Canvas pCanvas, final int pTileSizePx, final MapTile pTile,
+				final int pX, final int pY) {
+			if (mTileCache.getMapTile(pTile) != null) {
+				mCount++;
+			}
+		}
+
+		@Override
+		public void finaliseLoop() {
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package org.osmdroid.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.graphics.Point;
+
+/**
+ * Measures projecting a point with the int, long and double versions of
+ * {@link TileSystem#LatLongToPixelXY(double, double, int, Point)}, to check that the long and
+ * double paths don't cost more than the int one. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar org.osmdroid.util.TileSystemBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class TileSystemBenchmark {
+
+	private static final int ZOOM_LEVEL = 18;
+
+	private double mLatitude;
+	private double mLongitude;
+	private final Point mPoint = new Point();
+	private final PointL mPointL = new PointL();
+	private final PointD mPointD = new PointD();
+
+	@Setup
+	public void setup() {
+		TileSystem.setTileSize(256);
+		mLatitude = 52.5163;
+		mLongitude = 13.3777;
+	}
+
+	@Benchmark
+	public Point projectInt() {
+		return TileSystem.LatLongToPixelXY(mLatitude, mLongitude, ZOOM_LEVEL, mPoint);
+	}
+
+	@Benchmark
+	public PointL projectLong() {
+		return TileSystem.LatLongToPixelXYL(mLatitude, mLongitude, ZOOM_LEVEL, mPointL);
+	}
+
+	@Benchmark
+	public PointD projectDouble() {
+		return TileSystem.LatLongToPixelXYD(mLatitude, mLongitude, ZOOM_LEVEL, mPointD);
+	}
+}
@@ -0,0 +1,113 @@
+package org.osmdroid.views.overlay;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osmdroid.BenchmarkResourceProxy;
+import org.osmdroid.ResourceProxy;
+import org.osmdroid.tileprovider.BenchmarkDrawable;
+import org.osmdroid.util.GeoPoint;
+
+import android.graphics.drawable.Drawable;
+
+/**
+ * Measures the time to stream 50000 item updates into an {@link ItemizedIconOverlay}, as a
+ * location feed would: adding the items one at a time, then moving each of them by replacing it,
+ * either one update at a time or in a single batch. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar ItemizedIconOverlayUpdateBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemizedIconOverlayUpdateBenchmark {
+
+	private static final int UPDATES = 50000;
+
+	private final ResourceProxy mResourceProxy = new BenchmarkResourceProxy();
+
+	private Drawable mMarker;
+	private OverlayItem[] mItems;
+	private OverlayItem[] mMovedItems;
+	private int[] mMovedPositions;
+
+	private ItemizedIconOverlay<OverlayItem> mEmptyOverlay;
+	private ItemizedIconOverlay<OverlayItem> mFullOverlay;
+
+	@Setup
+	public void setup() {
+		mMarker = new BenchmarkDrawable();
+
+		final Random random = new Random(1);
+		mItems = new OverlayItem[UPDATES];
+		mMovedItems = new OverlayItem[UPDATES];
+		mMovedPositions = new int[UPDATES];
+		for (int i = 0; i < UPDATES; i++) {
+			final GeoPoint point = new GeoPoint(random.nextDouble() * 170 - 85,
+					random.nextDouble() * 360 - 180);
+			mItems[i] = new OverlayItem("" + i, null, point);
+			mMovedItems[i] = new OverlayItem("" + i, null, new GeoPoint(point.getLatitude()
+					+ random.nextDouble() * 0.01, point.getLongitude()));
+			mMovedPositions[i] = random.nextInt(UPDATES);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setupOverlays() {
+		mEmptyOverlay = createOverlay();
+		mFullOverlay = createOverlay();
+		for (final OverlayItem item : mItems) {
+			mFullOverlay.addItem(item);
+		}
+	}
+
+	@Benchmark
+	public ItemizedIconOverlay<OverlayItem> addItems() {
+		for (final OverlayItem item : mItems) {
+			mEmptyOverlay.addItem(item);
+		}
+		return mEmptyOverlay;
+	}
+
+	@Benchmark
+	public ItemizedIconOverlay<OverlayItem> moveItems() {
+		for (int i = 0; i < UPDATES; i++) {
+			final int position = mMovedPositions[i];
+			mFullOverlay.setItem(position, mMovedItems[position]);
+		}
+		return mFullOverlay;
+	}
+
+	@Benchmark
+	public ItemizedIconOverlay<OverlayItem> moveItemsInBatch() {
+		mFullOverlay.beginUpdate();
+		for (int i = 0; i < UPDATES; i++) {
+			final int position = mMovedPositions[i];
+			mFullOverlay.setItem(position, mMovedItems[position]);
+		}
+		mFullOverlay.endUpdate();
+		return mFullOverlay;
+	}
+
+	private ItemizedIconOverlay<OverlayItem> createOverlay() {
+		return new ItemizedIconOverlay<OverlayItem>(new ArrayList<OverlayItem>(), mMarker, null,
+				mResourceProxy);
+	}
+}
@@ -0,0 +1,158 @@
+package org.osmdroid.views.overlay;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osmdroid.BenchmarkResourceProxy;
+import org.osmdroid.FrameCounters;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileProviderArray;
+import org.osmdroid.tileprovider.MapTileRequestState;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
+import org.osmdroid.util.TileSystem;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+
+/**
+ * Compares the ways a {@link TilesOverlay} draws a frame of tiles with
+ * {@link TilesOverlay#drawTiles(Canvas, org.osmdroid.views.Projection, int, int, Rect)}, while
+ * panning slowly over a 2560 x 1600 screen whose tiles are all in the cache. One overlay draws
+ * every tile on every frame, the others use the atlas or the frame buffer and only draw the tiles
+ * that scroll into view into it, then draw it onto the screen. Run with:
+ *
+ * <pre>
+ * java -jar benchmarks.jar TilesOverlayDrawBenchmark
+ * </pre>
+ *
+ * The plain Java {@link Canvas} of the benchmarks doesn't draw anything, so the time is the time
+ * the overlay takes on the CPU to decide what to draw. What it asks the canvas to draw is counted
+ * instead: drawCalls and pixelsDrawn are the totals over an iteration, on the screen and on the
+ * atlas or frame buffer, and frames is the number of frames they were drawn in.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class TilesOverlayDrawBenchmark {
+
+	private static final int TILE_SIZE = 256;
+	private static final int ZOOM_LEVEL = 16;
+
+	private static final int SCREEN_WIDTH = 2560;
+	private static final int SCREEN_HEIGHT = 1600;
+
+	/** How far the map pans on each frame, and how far it pans before it turns back */
+	private static final int PAN_STEP = 8;
+	private static final int PAN_DISTANCE = 4 * TILE_SIZE;
+
+	private Canvas mCanvas;
+	private Rect mViewPort;
+	private int mCenter;
+	private int mFrame;
+	private TilesOverlay mPerTileOverlay;
+	private TilesOverlay mAtlasOverlay;
+	private TilesOverlay mFrameBufferOverlay;
+
+	@Setup
+	public void setup() {
+		TileSystem.setTileSize(TILE_SIZE);
+
+		mCanvas = new Canvas(Bitmap.createBitmap(SCREEN_WIDTH, SCREEN_HEIGHT,
+				Bitmap.Config.ARGB_8888));
+		mCenter = TileSystem.MapSize(ZOOM_LEVEL) / 2;
+		mViewPort = new Rect();
+
+		// a provider with no modules, filled with every tile the pan will visit
+		final MapTileProviderArray provider = new MapTileProviderArray(
+				TileSourceFactory.DEFAULT_TILE_SOURCE, null, new MapTileModuleProviderBase[0]);
+		final int columns = (SCREEN_WIDTH + PAN_DISTANCE) / TILE_SIZE + 3;
+		final int rows = SCREEN_HEIGHT / TILE_SIZE + 3;
+		provider.ensureCapacity(columns * rows);
+		final Bitmap tileBitmap = Bitmap.createBitmap(TILE_SIZE, TILE_SIZE,
+				Bitmap.Config.ARGB_8888);
+		final int left = (mCenter - SCREEN_WIDTH / 2) / TILE_SIZE - 1;
+		final int top = (mCenter - SCREEN_HEIGHT / 2) / TILE_SIZE - 1;
+		for (int y = top; y < top + rows; y++) {
+			for (int x = left; x < left + columns; x++) {
+				final MapTile tile = new MapTile(ZOOM_LEVEL, x, y);
+				provider.mapTileRequestCompleted(new MapTileRequestState(tile,
+						new MapTileModuleProviderBase[0], provider),
+						new BitmapDrawable(tileBitmap));
+			}
+		}
+
+		mPerTileOverlay = new ScreenTilesOverlay(provider);
+		mAtlasOverlay = new ScreenTilesOverlay(provider);
+		mAtlasOverlay.setUseAtlas(true);
+		mFrameBufferOverlay = new ScreenTilesOverlay(provider);
+		mFrameBufferOverlay.setUseFrameBuffer(true);
+	}
+
+	@Benchmark
+	public Canvas drawPerTile(final FrameCounters pCounters) {
+		return drawFrame(mPerTileOverlay, pCounters);
+	}
+
+	@Benchmark
+	public Canvas drawAtlas(final FrameCounters pCounters) {
+		return drawFrame(mAtlasOverlay, pCounters);
+	}
+
+	@Benchmark
+	public Canvas drawFrameBuffer(final FrameCounters pCounters) {
+		return drawFrame(mFrameBufferOverlay, pCounters);
+	}
+
+	private Canvas drawFrame(final TilesOverlay pOverlay, final FrameCounters pCounters) {
+		// pan right and back again
+		final int position = (mFrame++ * PAN_STEP) % (2 * PAN_DISTANCE);
+		final int offset = position < PAN_DISTANCE ? position : 2 * PAN_DISTANCE - position;
+		mViewPort.set(mCenter - SCREEN_WIDTH / 2 + offset, mCenter - SCREEN_HEIGHT / 2, mCenter
+				+ SCREEN_WIDTH / 2 + offset, mCenter + SCREEN_HEIGHT / 2);
+
+		pCounters.beginFrame();
+		pOverlay.drawTiles(mCanvas, null, ZOOM_LEVEL, TILE_SIZE, mViewPort);
+		pCounters.endFrame();
+		return mCanvas;
+	}
+
+	/**
+	 * Draws the tiles relative to the viewport, so no projection is needed.
+	 */
+	private class ScreenTilesOverlay extends TilesOverlay {
+
+		ScreenTilesOverlay(final MapTileProviderArray pTileProvider) {
+			super(pTileProvider, new BenchmarkResourceProxy());
+		}
+
+		@Override
+		protected void getTileCanvasRect(final Rect tileRect, final Rect out) {
+			out.set(tileRect);
+			out.offset(-mViewPort.left, -mViewPort.top);
+		}
+
+		@Override
+		protected void onTileReadyToDraw(final Canvas c, final Drawable currentMapTile,
+				final Rect tileRect) {
+			getTileCanvasRect(tileRect, tileRect);
+			currentMapTile.setBounds(tileRect);
+			currentMapTile.draw(c);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package org.osmdroid.metrics;
+
+/**
+ * Receives measurements of how the map draws and loads tiles, to find out what makes a frame slow.
+ * Set a recorder with {@link Metrics#setRecorder(IMetricsRecorder)}; by default nothing is
+ * recorded.
+ *
+ * The methods are called on the UI thread and on the tile loading threads, sometimes many times
+ * per frame, so an implementation must be thread safe and quick.
+ *
+ * @see RingBufferMetricsRecorder
+ */
+public interface IMetricsRecorder {
+
+	/**
+	 * A frame of the map has been drawn.
+	 *
+	 * @param pTimeNanos
+	 *            the time it took to draw, in nanoseconds
+	 */
+	void onFrameDrawn(long pTimeNanos);
+
+	/**
+	 * An overlay has been drawn, in the frame being drawn.
+	 *
+	 * @param pOverlay
+	 *            the class name of the overlay
+	 * @param pTimeNanos
+	 *            the time it took to draw, including its shadow, in nanoseconds
+	 */
+	void onOverlayDrawn(String pOverlay, long pTimeNanos);
+
+	/**
+	 * The tiles overlay has drawn the tiles of the frame being drawn.
+	 *
+	 * @param pTiles
+	 *            the number of tiles on screen
+	 * @param pPlaceholders
+	 *            the number of them that weren't loaded, and were drawn with a loading or fallback
+	 *            tile in their place
+	 */
+	void onTilesDrawn(int pTiles, int pPlaceholders);
+
+	/**
+	 * A tile has been asked of a tile provider and looked up in its memory cache. The lookups the
+	 * provider makes itself, for stand-ins or when rescaling the cache, aren't recorded.
+	 *
+	 * @param pHit
+	 *            whether it was there and hadn't expired, so that it isn't requested again
+	 */
+	void onTileCacheLookup(boolean pHit);
+
+	/**
+	 * A tile has been queued by a tile provider module.
+	 *
+	 * @param pProvider
+	 *            the name of the module
+	 * @param pPending
+	 *            the number of tiles waiting to be loaded
+	 * @param pWorking
+	 *            the number of tiles being loaded
+	 */
+	void onQueueDepth(String pProvider, int pPending, int pWorking);
+
+	/**
+	 * A tile download has finished.
+	 *
+	 * @param pTimeNanos
+	 *            the time from the request to the last byte, in nanoseconds
+	 * @param pSuccess
+	 *            whether the tile was downloaded
+	 */
+	void onTileDownloaded(long pTimeNanos, boolean pSuccess);
+}
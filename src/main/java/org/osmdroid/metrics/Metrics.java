@@ -0,0 +1,69 @@
+package org.osmdroid.metrics;
+
+/**
+ * Holds the {@link IMetricsRecorder} that the map reports its measurements to. Until one is set,
+ * the measurements go to a recorder that does nothing.
+ */
+public final class Metrics {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	private static final IMetricsRecorder NO_OP_RECORDER = new IMetricsRecorder() {
+		@Override
+		public void onFrameDrawn(final long pTimeNanos) {
+		}
+
+		@Override
+		public void onOverlayDrawn(final String pOverlay, final long pTimeNanos) {
+		}
+
+		@Override
+		public void onTilesDrawn(final int pTiles, final int pPlaceholders) {
+		}
+
+		@Override
+		public void onTileCacheLookup(final boolean pHit) {
+		}
+
+		@Override
+		public void onQueueDepth(final String pProvider, final int pPending, final int pWorking) {
+		}
+
+		@Override
+		public void onTileDownloaded(final long pTimeNanos, final boolean pSuccess) {
+		}
+	};
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private static volatile IMetricsRecorder sRecorder = NO_OP_RECORDER;
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	private Metrics() {
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public static IMetricsRecorder getRecorder() {
+		return sRecorder;
+	}
+
+	/**
+	 * Set the recorder to report to.
+	 *
+	 * @param pRecorder
+	 *            the recorder, or null to stop recording
+	 */
+	public static void setRecorder(final IMetricsRecorder pRecorder) {
+		sRecorder = pRecorder != null ? pRecorder : NO_OP_RECORDER;
+	}
+}
@@ -0,0 +1,258 @@
+package org.osmdroid.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An {@link IMetricsRecorder} that keeps the measurements in memory: the last frames in a ring
+ * buffer, with the number of tiles and placeholders drawn in each, and totals for the rest. A
+ * snapshot of them, from {@link #getSnapshot()}, can be attached to a bug report:
+ *
+ * <pre>
+ * final RingBufferMetricsRecorder recorder = new RingBufferMetricsRecorder(120);
+ * Metrics.setRecorder(recorder);
+ * ...
+ * logger.info(recorder.getSnapshot());
+ * </pre>
+ */
+public class RingBufferMetricsRecorder implements IMetricsRecorder {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	public static final int DEFAULT_FRAMES = 120;
+
+	/** The upper bounds of the buckets of download times, in milliseconds, with one more above */
+	private static final int[] DOWNLOAD_BUCKETS_MS = { 50, 100, 200, 400, 800, 1600, 3200, 6400 };
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	/** The last frames, oldest first from mFrameCount modulo the capacity */
+	private final long[] mFrameTimesNanos;
+	private final int[] mFrameTiles;
+	private final int[] mFramePlaceholders;
+	private long mFrameCount;
+
+	/** The tiles drawn in the frame being drawn */
+	private int mTiles;
+	private int mPlaceholders;
+
+	/** The draws of each overlay, as count, total, last and longest time in nanoseconds */
+	private final Map<String, long[]> mOverlays = new LinkedHashMap<String, long[]>();
+
+	private long mCacheHits;
+	private long mCacheMisses;
+
+	/** The queue depths of each provider, as last and largest pending, and last working */
+	private final Map<String, int[]> mQueues = new LinkedHashMap<String, int[]>();
+
+	private final long[] mDownloadBuckets = new long[DOWNLOAD_BUCKETS_MS.length + 1];
+	private long mDownloadFailures;
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public RingBufferMetricsRecorder() {
+		this(DEFAULT_FRAMES);
+	}
+
+	/**
+	 * @param pFrames
+	 *            the number of frames to keep
+	 */
+	public RingBufferMetricsRecorder(final int pFrames) {
+		if (pFrames <= 0) {
+			throw new IllegalArgumentException("The number of frames must be positive");
+		}
+		mFrameTimesNanos = new long[pFrames];
+		mFrameTiles = new int[pFrames];
+		mFramePlaceholders = new int[pFrames];
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public synchronized long getFrameCount() {
+		return mFrameCount;
+	}
+
+	public synchronized long getCacheHits() {
+		return mCacheHits;
+	}
+
+	public synchronized long getCacheMisses() {
+		return mCacheMisses;
+	}
+
+	/**
+	 * The number of successful downloads in each bucket of time: up to 50 ms, up to 100 ms, and so
+	 * on, doubling up to 6400 ms, and above.
+	 */
+	public synchronized long[] getDownloadHistogram() {
+		return mDownloadBuckets.clone();
+	}
+
+	public synchronized long getDownloadFailures() {
+		return mDownloadFailures;
+	}
+
+	// ===========================================================
+	// Methods from SuperClass/Interfaces
+	// ===========================================================
+
+	@Override
+	public synchronized void onFrameDrawn(final long pTimeNanos) {
+		final int slot = (int) (mFrameCount % mFrameTimesNanos.length);
+		mFrameTimesNanos[slot] = pTimeNanos;
+		mFrameTiles[slot] = mTiles;
+		mFramePlaceholders[slot] = mPlaceholders;
+		mFrameCount++;
+		mTiles = 0;
+		mPlaceholders = 0;
+	}
+
+	@Override
+	public synchronized void onOverlayDrawn(final String pOverlay, final long pTimeNanos) {
+		long[] times = mOverlays.get(pOverlay);
+		if (times == null) {
+			times = new long[4];
+			mOverlays.put(pOverlay, times);
+		}
+		times[0]++;
+		times[1] += pTimeNanos;
+		times[2] = pTimeNanos;
+		times[3] = Math.max(times[3], pTimeNanos);
+	}
+
+	@Override
+	public synchronized void onTilesDrawn(final int pTiles, final int pPlaceholders) {
+		mTiles += pTiles;
+		mPlaceholders += pPlaceholders;
+	}
+
+	@Override
+	public synchronized void onTileCacheLookup(final boolean pHit) {
+		if (pHit) {
+			mCacheHits++;
+		} else {
+			mCacheMisses++;
+		}
+	}
+
+	@Override
+	public synchronized void onQueueDepth(final String pProvider, final int pPending,
+			final int pWorking) {
+		int[] depths = mQueues.get(pProvider);
+		if (depths == null) {
+			depths = new int[3];
+			mQueues.put(pProvider, depths);
+		}
+		depths[0] = pPending;
+		depths[1] = Math.max(depths[1], pPending);
+		depths[2] = pWorking;
+	}
+
+	@Override
+	public synchronized void onTileDownloaded(final long pTimeNanos, final boolean pSuccess) {
+		if (!pSuccess) {
+			mDownloadFailures++;
+			return;
+		}
+		final long timeMs = pTimeNanos / 1000000L;
+		int bucket = 0;
+		while (bucket < DOWNLOAD_BUCKETS_MS.length && timeMs > DOWNLOAD_BUCKETS_MS[bucket]) {
+			bucket++;
+		}
+		mDownloadBuckets[bucket]++;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Forget everything recorded so far.
+	 */
+	public synchronized void clear() {
+		mFrameCount = 0;
+		mTiles = 0;
+		mPlaceholders = 0;
+		mOverlays.clear();
+		mCacheHits = 0;
+		mCacheMisses = 0;
+		mQueues.clear();
+		for (int i = 0; i < mDownloadBuckets.length; i++) {
+			mDownloadBuckets[i] = 0;
+		}
+		mDownloadFailures = 0;
+	}
+
+	/**
+	 * Describe what has been recorded, as text for a bug report.
+	 */
+	public synchronized String getSnapshot() {
+		final StringBuilder out = new StringBuilder();
+		final int frames = (int) Math.min(mFrameCount, mFrameTimesNanos.length);
+		out.append("Frames: ").append(mFrameCount).append(" drawn, last ").append(frames)
+				.append(" (ms, tiles, placeholders):\n");
+		long total = 0;
+		long longest = 0;
+		for (long frame = mFrameCount - frames; frame < mFrameCount; frame++) {
+			final int slot = (int) (frame % mFrameTimesNanos.length);
+			total += mFrameTimesNanos[slot];
+			longest = Math.max(longest, mFrameTimesNanos[slot]);
+			out.append("  ").append(toMs(mFrameTimesNanos[slot])).append(", ")
+					.append(mFrameTiles[slot]).append(", ").append(mFramePlaceholders[slot])
+					.append('\n');
+		}
+		if (frames > 0) {
+			out.append("  average ").append(toMs(total / frames)).append(" ms, longest ")
+					.append(toMs(longest)).append(" ms\n");
+		}
+
+		out.append("Overlays (draws, average ms, last ms, longest ms):\n");
+		for (final Map.Entry<String, long[]> entry : mOverlays.entrySet()) {
+			final long[] times = entry.getValue();
+			out.append("  ").append(entry.getKey()).append(": ").append(times[0]).append(", ")
+					.append(toMs(times[1] / times[0])).append(", ").append(toMs(times[2]))
+					.append(", ").append(toMs(times[3])).append('\n');
+		}
+
+		final long lookups = mCacheHits + mCacheMisses;
+		out.append("Tile cache: ").append(mCacheHits).append(" hits, ").append(mCacheMisses)
+				.append(" misses");
+		if (lookups > 0) {
+			out.append(", ").append(mCacheHits * 100 / lookups).append("% hit rate");
+		}
+		out.append('\n');
+
+		out.append("Tile queues (pending, largest pending, working):\n");
+		for (final Map.Entry<String, int[]> entry : mQueues.entrySet()) {
+			final int[] depths = entry.getValue();
+			out.append("  ").append(entry.getKey()).append(": ").append(depths[0]).append(", ")
+					.append(depths[1]).append(", ").append(depths[2]).append('\n');
+		}
+
+		out.append("Downloads: ").append(mDownloadFailures).append(" failed, by time:\n");
+		for (int bucket = 0; bucket < mDownloadBuckets.length; bucket++) {
+			if (bucket < DOWNLOAD_BUCKETS_MS.length) {
+				out.append("  <= ").append(DOWNLOAD_BUCKETS_MS[bucket]);
+			} else {
+				out.append("  > ").append(DOWNLOAD_BUCKETS_MS[bucket - 1]);
+			}
+			out.append(" ms: ").append(mDownloadBuckets[bucket]).append('\n');
+		}
+		return out.toString();
+	}
+
+	private static String toMs(final long pNanos) {
+		// to one decimal place
+		final long tenths = (pNanos + 50000L) / 100000L;
+		return (tenths / 10) + "." + (tenths % 10);
+	}
+}
@@ -1,8 +1,10 @@
 package org.osmdroid.tileprovider;
 
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 
 import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
+import org.osmdroid.util.MapTileIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,6 +27,12 @@ public class LRUMapTileCache extends LinkedHashMap<MapTile, Drawable>
 	private int mCapacity;
 	private TileRemovedListener mTileRemovedListener;
 
+	// An open addressing index from the packed tile index to the key in the map, so that a tile
+	// can be looked up without allocating a MapTile. The length is always a power of two.
+	private long[] mIndexKeys = new long[16];
+	private MapTile[] mIndexTiles = new MapTile[16];
+	private int mIndexSize;
+
 	public LRUMapTileCache(final int aCapacity) {
 		super(aCapacity + 2, 0.1f, true);
 		mCapacity = aCapacity;
@@ -37,9 +45,35 @@ public class LRUMapTileCache extends LinkedHashMap<MapTile, Drawable>
 		}
 	}
 
+	/**
+	 * Get a tile by its packed index, without allocating a {@link MapTile}.
+	 *
+	 * @see org.osmdroid.util.MapTileIndex
+	 */
+	public Drawable get(final long pTileIndex) {
+		final MapTile tile = indexGet(pTileIndex);
+		return tile == null ? null : get(tile);
+	}
+
+	public boolean containsKey(final long pTileIndex) {
+		return indexGet(pTileIndex) != null;
+	}
+
+	@Override
+	public Drawable put(final MapTile aKey, final Drawable aValue) {
+		final Drawable previous = super.put(aKey, aValue);
+		if (super.containsKey(aKey)) {
+			indexPut(aKey);
+		}
+		return previous;
+	}
+
 	@Override
 	public Drawable remove(final Object aKey) {
 		final Drawable drawable = super.remove(aKey);
+		if (aKey instanceof MapTile) {
+			indexRemove(((MapTile) aKey).getTileIndex());
+		}
 		// Only recycle if we are running on a project less than 2.3.3 Gingerbread.
 		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.GINGERBREAD) {
 			if (drawable instanceof BitmapDrawable) {
@@ -65,6 +99,8 @@ public class LRUMapTileCache extends LinkedHashMap<MapTile, Drawable>
 
 		// and then clear
 		super.clear();
+		Arrays.fill(mIndexTiles, null);
+		mIndexSize = 0;
 	}
 
 	@Override
@@ -80,6 +116,67 @@ public class LRUMapTileCache extends LinkedHashMap<MapTile, Drawable>
 		return false;
 	}
 
+	private MapTile indexGet(final long pTileIndex) {
+		final int mask = mIndexKeys.length - 1;
+		for (int i = MapTileIndex.hash(pTileIndex) & mask; mIndexTiles[i] != null; i = (i + 1) & mask) {
+			if (mIndexKeys[i] == pTileIndex) {
+				return mIndexTiles[i];
+			}
+		}
+		return null;
+	}
+
+	private void indexPut(final MapTile pTile) {
+		if (2 * (mIndexSize + 1) > mIndexKeys.length) {
+			final long[] oldKeys = mIndexKeys;
+			final MapTile[] oldTiles = mIndexTiles;
+			mIndexKeys = new long[oldKeys.length * 2];
+			mIndexTiles = new MapTile[oldKeys.length * 2];
+			mIndexSize = 0;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldTiles[i] != null) {
+					indexPut(oldTiles[i]);
+				}
+			}
+		}
+
+		final long key = pTile.getTileIndex();
+		final int mask = mIndexKeys.length - 1;
+		int i = MapTileIndex.hash(key) & mask;
+		while (mIndexTiles[i] != null && mIndexKeys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		if (mIndexTiles[i] == null) {
+			mIndexSize++;
+		}
+		mIndexKeys[i] = key;
+		mIndexTiles[i] = pTile;
+	}
+
+	private void indexRemove(final long pTileIndex) {
+		final int mask = mIndexKeys.length - 1;
+		int i = MapTileIndex.hash(pTileIndex) & mask;
+		while (mIndexTiles[i] != null && mIndexKeys[i] != pTileIndex) {
+			i = (i + 1) & mask;
+		}
+		if (mIndexTiles[i] == null) {
+			return;
+		}
+		mIndexTiles[i] = null;
+		mIndexSize--;
+
+		// shift back the entries after it that would no longer be found
+		for (int j = (i + 1) & mask; mIndexTiles[j] != null; j = (j + 1) & mask) {
+			final int home = MapTileIndex.hash(mIndexKeys[j]) & mask;
+			if (((j - home) & mask) >= ((j - i) & mask)) {
+				mIndexKeys[i] = mIndexKeys[j];
+				mIndexTiles[i] = mIndexTiles[j];
+				mIndexTiles[j] = null;
+				i = j;
+			}
+		}
+	}
+
 	public TileRemovedListener getTileRemovedListener() {
 		return mTileRemovedListener;
 	}
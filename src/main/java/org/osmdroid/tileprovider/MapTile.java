@@ -1,6 +1,7 @@
 package org.osmdroid.tileprovider;
 
 import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.util.MapTileIndex;
 import org.osmdroid.views.overlay.TilesOverlay;
 
 /**
@@ -19,11 +20,22 @@ public class MapTile {
 	private final int x;
 	private final int y;
 	private final int zoomLevel;
+	private final long tileIndex;
 
 	public MapTile(final int zoomLevel, final int tileX, final int tileY) {
 		this.zoomLevel = zoomLevel;
 		this.x = tileX;
 		this.y = tileY;
+		this.tileIndex = MapTileIndex.getTileIndex(zoomLevel, tileX, tileY);
+	}
+
+	/**
+	 * @param tileIndex
+	 *            the zoom level, x and y packed by {@link MapTileIndex#getTileIndex(int, int, int)}
+	 */
+	public MapTile(final long tileIndex) {
+		this(MapTileIndex.getZoomLevel(tileIndex), MapTileIndex.getX(tileIndex), MapTileIndex
+				.getY(tileIndex));
 	}
 
 	public int getZoomLevel() {
@@ -38,6 +50,14 @@ public class MapTile {
 		return y;
 	}
 
+	/**
+	 * @return the zoom level, x and y packed into a long by
+	 *         {@link MapTileIndex#getTileIndex(int, int, int)}
+	 */
+	public long getTileIndex() {
+		return tileIndex;
+	}
+
 	@Override
 	public String toString() {
 		return "/" + zoomLevel + "/" + x + "/" + y;
@@ -57,10 +77,6 @@ public class MapTile {
 
 	@Override
 	public int hashCode() {
-		int code = 17;
-		code *= 37 + zoomLevel;
-		code *= 37 + x;
-		code *= 37 + y;
-		return code;
+		return MapTileIndex.hash(tileIndex);
 	}
 }
@@ -49,9 +49,24 @@ public class MapTileCache implements OpenStreetMapTileProviderConstants {
 	}
 
 	public Drawable getMapTile(final MapTile aTile) {
+		final Drawable tile;
 		synchronized (mCachedTilesLockObject) {
-			return this.mCachedTiles.get(aTile);
+			tile = this.mCachedTiles.get(aTile);
 		}
+		return tile;
+	}
+
+	/**
+	 * Get a tile by its packed index, without allocating a {@link MapTile}.
+	 *
+	 * @see org.osmdroid.util.MapTileIndex
+	 */
+	public Drawable getMapTile(final long aTileIndex) {
+		final Drawable tile;
+		synchronized (mCachedTilesLockObject) {
+			tile = this.mCachedTiles.get(aTileIndex);
+		}
+		return tile;
 	}
 
 	public void putTile(final MapTile aTile, final Drawable aDrawable) {
@@ -76,6 +91,12 @@ public class MapTileCache implements OpenStreetMapTileProviderConstants {
 		}
 	}
 
+	public boolean containsTile(final long aTileIndex) {
+		synchronized (mCachedTilesLockObject) {
+			return this.mCachedTiles.containsKey(aTileIndex);
+		}
+	}
+
 	public void clear() {
 		synchronized (mCachedTilesLockObject) {
 			this.mCachedTiles.clear();
@@ -5,11 +5,13 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
+import org.osmdroid.metrics.Metrics;
 import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
 import org.osmdroid.tileprovider.tilesource.ITileSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 
 /**
@@ -77,17 +79,36 @@ public class MapTileProviderArray extends MapTileProviderBase {
 		synchronized (mWorking) {
 			mWorking.clear();
 		}
+
+		super.detach();
 	}
 
 	@Override
 	public Drawable getMapTile(final MapTile pTile) {
 		final Drawable tile = mTileCache.getMapTile(pTile);
-		if (tile != null && !ExpirableBitmapDrawable.isDrawableExpired(tile)) {
+		// an expired tile is requested again, so it counts as a miss
+		final boolean hit = tile != null && !ExpirableBitmapDrawable.isDrawableExpired(tile);
+		Metrics.getRecorder().onTileCacheLookup(hit);
+		if (hit) {
 			return tile;
 		} else {
 			boolean alreadyInProgress = false;
+			MapTileRequestState prefetchState = null;
 			synchronized (mWorking) {
-				alreadyInProgress = mWorking.containsKey(pTile);
+				final MapTileRequestState working = mWorking.get(pTile);
+				alreadyInProgress = working != null;
+				if (working != null && working.isPrefetch()) {
+					working.setPrefetch(false);
+					prefetchState = working;
+				}
+			}
+
+			if (prefetchState != null) {
+				// the tile is needed now, so move it up to the normal queue of its provider
+				final MapTileModuleProviderBase provider = prefetchState.getCurrentProvider();
+				if (provider != null) {
+					provider.loadMapTileAsync(prefetchState);
+				}
 			}
 
 			if (!alreadyInProgress) {
@@ -125,6 +146,53 @@ public class MapTileProviderArray extends MapTileProviderBase {
 		}
 	}
 
+	@Override
+	public void prefetchMapTile(final MapTile pTile) {
+		if (mTileCache.containsTile(pTile)) {
+			return;
+		}
+
+		final MapTileRequestState state;
+		synchronized (mTileProviderList) {
+			final MapTileModuleProviderBase[] providerArray =
+				new MapTileModuleProviderBase[mTileProviderList.size()];
+			state = new MapTileRequestState(pTile, mTileProviderList.toArray(providerArray), this);
+		}
+		state.setPrefetch(true);
+
+		synchronized (mWorking) {
+			if (mWorking.containsKey(pTile)) {
+				return;
+			}
+			mWorking.put(pTile, state);
+		}
+
+		final MapTileModuleProviderBase provider = findNextAppropriateProvider(state);
+		if (provider != null) {
+			provider.prefetchMapTileAsync(state);
+		} else {
+			synchronized (mWorking) {
+				mWorking.remove(pTile);
+			}
+		}
+	}
+
+	@Override
+	public void cancelPrefetch() {
+		synchronized (mTileProviderList) {
+			for (final MapTileModuleProviderBase tileProvider : mTileProviderList) {
+				final List<MapTileRequestState> cancelled = tileProvider.cancelPrefetch();
+				synchronized (mWorking) {
+					for (final MapTileRequestState state : cancelled) {
+						if (mWorking.get(state.getMapTile()) == state) {
+							mWorking.remove(state.getMapTile());
+						}
+					}
+				}
+			}
+		}
+	}
+
 	@Override
 	public void mapTileRequestCompleted(final MapTileRequestState aState, final Drawable aDrawable) {
 		synchronized (mWorking) {
@@ -137,12 +205,14 @@ public class MapTileProviderArray extends MapTileProviderBase {
 	public void mapTileRequestFailed(final MapTileRequestState aState) {
 		final MapTileModuleProviderBase nextProvider = findNextAppropriateProvider(aState);
 		if (nextProvider != null) {
-			nextProvider.loadMapTileAsync(aState);
+			loadMapTileAsync(nextProvider, aState);
 		} else {
 			synchronized (mWorking) {
 				mWorking.remove(aState.getMapTile());
 			}
-			super.mapTileRequestFailed(aState);
+			if (!aState.isPrefetch()) {
+				super.mapTileRequestFailed(aState);
+			}
 		}
 	}
 
@@ -155,7 +225,7 @@ public class MapTileProviderArray extends MapTileProviderBase {
 		// Continue through the provider chain
 		final MapTileModuleProviderBase nextProvider = findNextAppropriateProvider(aState);
 		if (nextProvider != null) {
-			nextProvider.loadMapTileAsync(aState);
+			loadMapTileAsync(nextProvider, aState);
 		} else {
 			synchronized (mWorking) {
 				mWorking.remove(aState.getMapTile());
@@ -163,6 +233,35 @@ public class MapTileProviderArray extends MapTileProviderBase {
 		}
 	}
 
+	/**
+	 * Pass a request on to the next provider in the chain, keeping its priority.
+	 */
+	private void loadMapTileAsync(final MapTileModuleProviderBase pProvider,
+			final MapTileRequestState pState) {
+		if (pState.isPrefetch()) {
+			pProvider.prefetchMapTileAsync(pState);
+		} else {
+			pProvider.loadMapTileAsync(pState);
+		}
+	}
+
+	@Override
+	protected Drawable getScaledMapTileFromStorage(final MapTile pTile, final Rect pRegion,
+			final int pTargetSizePx) {
+		synchronized (mTileProviderList) {
+			for (final MapTileModuleProviderBase tileProvider : mTileProviderList) {
+				if (!tileProvider.getUsesDataConnection()) {
+					final Drawable drawable = tileProvider.loadScaledTile(pTile, pRegion,
+							pTargetSizePx);
+					if (drawable != null) {
+						return drawable;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * We want to not use a provider that doesn't exist anymore in the chain, and we want to not use
 	 * a provider that requires a data connection when one is not available.
@@ -2,10 +2,17 @@
 package org.osmdroid.tileprovider;
 
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.osmdroid.metrics.Metrics;
 import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
-import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.modules.ConfigurablePriorityThreadFactory;
 import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.util.MapTileIndex;
+import org.osmdroid.util.MyMath;
 import org.osmdroid.util.TileLooper;
 import org.osmdroid.views.Projection;
 import org.slf4j.Logger;
@@ -20,6 +27,7 @@ import android.graphics.Rect;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Handler;
+import android.os.Message;
 
 /**
  * This is an abstract class. The tile provider is responsible for:
@@ -44,6 +52,10 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 
 	private ITileSource mTileSource;
 
+	/** Runs the rescaling of the cache off the UI thread, one job at a time. */
+	private ExecutorService mRescaleExecutor;
+	private RescaleJob mRescaleJob;
+
 	/**
 	 * Attempts to get a Drawable that represents a {@link MapTile}. If the tile is not immediately
 	 * available this will return null and attempt to get the tile from known tile sources for
@@ -52,10 +64,44 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 	 * reused while you are working with it.
 	 *
 	 * @see ReusableBitmapDrawable
+	 * @see org.osmdroid.metrics.IMetricsRecorder#onTileCacheLookup(boolean)
 	 */
 	public abstract Drawable getMapTile(MapTile pTile);
 
-	public abstract void detach();
+	/**
+	 * Gets a tile by its packed index. A {@link MapTile} is only allocated when the tile isn't
+	 * in the cache and has to be requested, so drawing a screen of cached tiles allocates nothing.
+	 *
+	 * @param pTileIndex
+	 *            the tile packed by {@link MapTileIndex#getTileIndex(int, int, int)}
+	 * @see #getMapTile(MapTile)
+	 */
+	public Drawable getMapTile(final long pTileIndex) {
+		final Drawable tile = mTileCache.getMapTile(pTileIndex);
+		if (tile != null && !ExpirableBitmapDrawable.isDrawableExpired(tile)) {
+			Metrics.getRecorder().onTileCacheLookup(true);
+			return tile;
+		}
+		// the lookup is recorded by getMapTile(MapTile), which looks the tile up again
+		return getMapTile(new MapTile(pTileIndex));
+	}
+
+	/**
+	 * Detach, we're shutting down - stops the background rescaling of the cache. Subclasses that
+	 * override this must call through to it.
+	 */
+	public void detach() {
+		synchronized (this) {
+			if (mRescaleJob != null) {
+				mRescaleJob.cancel();
+				mRescaleJob = null;
+			}
+			if (mRescaleExecutor != null) {
+				mRescaleExecutor.shutdown();
+				mRescaleExecutor = null;
+			}
+		}
+	}
 
 	/**
 	 * Gets the minimum zoom level this tile provider can provide
@@ -111,7 +157,8 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 
 	/**
 	 * Called by implementation class methods indicating that they have completed the request as
-	 * best it can. The tile is added to the cache, and a MAPTILE_SUCCESS_ID message is sent.
+	 * best it can. The tile is added to the cache, and a MAPTILE_SUCCESS_ID message is sent with
+	 * the tile.
 	 *
 	 * @param pState
 	 *            the map tile request state object
@@ -125,7 +172,8 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 
 		// tell our caller we've finished and it should update its view
 		if (mTileRequestCompleteHandler != null) {
-			mTileRequestCompleteHandler.sendEmptyMessage(MapTile.MAPTILE_SUCCESS_ID);
+			mTileRequestCompleteHandler.sendMessage(Message.obtain(mTileRequestCompleteHandler,
+					MapTile.MAPTILE_SUCCESS_ID, pState.getMapTile()));
 		}
 
 		if (DEBUG_TILE_PROVIDERS) {
@@ -154,7 +202,7 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 	/**
 	 * Called by implementation class methods indicating that they have produced an expired result
 	 * that can be used but better results may be delivered later. The tile is added to the cache,
-	 * and a MAPTILE_SUCCESS_ID message is sent.
+	 * and a MAPTILE_SUCCESS_ID message is sent with the tile.
 	 *
 	 * @param pState
 	 *            the map tile request state object
@@ -168,7 +216,8 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 
 		// tell our caller we've finished and it should update its view
 		if (mTileRequestCompleteHandler != null) {
-			mTileRequestCompleteHandler.sendEmptyMessage(MapTile.MAPTILE_SUCCESS_ID);
+			mTileRequestCompleteHandler.sendMessage(Message.obtain(mTileRequestCompleteHandler,
+					MapTile.MAPTILE_SUCCESS_ID, pState.getMapTile()));
 		}
 
 		if (DEBUG_TILE_PROVIDERS) {
@@ -194,6 +243,25 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 		mTileRequestCompleteHandler = handler;
 	}
 
+	/**
+	 * Get a tile only if it's in the memory cache. Unlike {@link #getMapTile(MapTile)}, this
+	 * never requests the tile from the tile providers.
+	 *
+	 * @return the cached tile, or null if it isn't in the cache
+	 */
+	public Drawable getMapTileFromCache(final MapTile pTile) {
+		return mTileCache.getMapTile(pTile);
+	}
+
+	/**
+	 * Get a tile by its packed index only if it's in the memory cache.
+	 *
+	 * @see #getMapTileFromCache(MapTile)
+	 */
+	public Drawable getMapTileFromCache(final long pTileIndex) {
+		return mTileCache.getMapTile(pTileIndex);
+	}
+
 	public void ensureCapacity(final int pCapacity) {
 		mTileCache.ensureCapacity(pCapacity);
 	}
@@ -222,7 +290,46 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 	}
 
 	/**
-	 * Recreate the cache using scaled versions of the tiles currently in it
+	 * Request a tile at low priority so that it is in the cache by the time it is needed. Low
+	 * priority requests are only processed when there are no tiles waiting for the screen. The
+	 * default implementation does nothing.
+	 *
+	 * @param pTile
+	 *            the tile that is likely to be needed soon
+	 */
+	public void prefetchMapTile(final MapTile pTile) {
+	}
+
+	/**
+	 * Cancel all low priority requests made with {@link #prefetchMapTile(MapTile)} that haven't
+	 * been started yet. The default implementation does nothing.
+	 */
+	public void cancelPrefetch() {
+	}
+
+	/**
+	 * Synchronously get a reduced-size version of a tile from local storage, decoding only the
+	 * pixels in the region that will be drawn. This is used to fill in scaled tiles whose source
+	 * tiles are no longer in the memory cache. The default implementation returns null.
+	 *
+	 * @param pTile
+	 *            the tile to load
+	 * @param pRegion
+	 *            the part of the tile to decode in tile pixels, or null for the whole tile
+	 * @param pTargetSizePx
+	 *            the size in pixels that the region will be drawn at
+	 * @return the reduced-size tile, or null if it isn't available
+	 */
+	protected Drawable getScaledMapTileFromStorage(final MapTile pTile, final Rect pRegion,
+			final int pTargetSizePx) {
+		return null;
+	}
+
+	/**
+	 * Recreate the cache using scaled versions of the tiles currently in it. The scaling is done by
+	 * a background job that puts each scaled tile into the cache as soon as it's ready and sends
+	 * a {@link MapTile#MAPTILE_SUCCESS_ID} message with the tile, so this returns straight away.
+	 * A rescale that is still running is cancelled when the next one starts.
 	 * @param pNewZoomLevel the zoom level that we need now
 	 * @param pOldZoomLevel the previous zoom level that we should get the tiles to rescale
 	 * @param pViewPort the view port we need tiles for
@@ -234,8 +341,6 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 			return;
 		}
 
-		final long startMs = System.currentTimeMillis();
-
 		logger.info("rescale tile cache from "+ pOldZoomLevel + " to " + pNewZoomLevel);
 
 		final int tileSize = getTileSource().getTileSizePixels();
@@ -249,18 +354,107 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 		final ScaleTileLooper tileLooper = pNewZoomLevel > pOldZoomLevel
 				? new ZoomInTileLooper(pOldZoomLevel)
 				: new ZoomOutTileLooper(pOldZoomLevel);
-		tileLooper.loop(null, pNewZoomLevel, tileSize, viewPort);
 
-		final long endMs = System.currentTimeMillis();
-		logger.info("Finished rescale in " + (endMs - startMs) + "ms");
+		synchronized (this) {
+			if (mRescaleJob != null) {
+				mRescaleJob.cancel();
+			}
+			if (mRescaleExecutor == null) {
+				mRescaleExecutor = Executors.newSingleThreadExecutor(
+						new ConfigurablePriorityThreadFactory(Thread.NORM_PRIORITY - 1,
+								"rescaleCache"));
+			}
+			mRescaleJob = new RescaleJob(tileLooper, pNewZoomLevel, tileSize, viewPort);
+			try {
+				mRescaleExecutor.execute(mRescaleJob);
+			} catch (final RejectedExecutionException e) {
+				logger.warn("RejectedExecutionException", e);
+				mRescaleJob = null;
+			}
+		}
+	}
+
+	/**
+	 * Cancel the rescaling of the cache if it's still running. The tiles that have already been
+	 * scaled stay in the cache.
+	 */
+	public void cancelRescale() {
+		synchronized (this) {
+			if (mRescaleJob != null) {
+				mRescaleJob.cancel();
+				mRescaleJob = null;
+			}
+		}
+	}
+
+	/**
+	 * Put a scaled tile into the cache unless the real one got there first, and tell our caller
+	 * to update the view.
+	 */
+	private void putScaledTileIntoCache(final MapTile pTile, final Bitmap pBitmap) {
+		final ExpirableBitmapDrawable drawable = new ReusableBitmapDrawable(pBitmap);
+		drawable.setState(new int[] { ExpirableBitmapDrawable.EXPIRED });
+		boolean added = false;
+		synchronized (mTileCache.mCachedTilesLockObject) {
+			if (!mTileCache.containsTile(pTile)) {
+				mTileCache.putTile(pTile, drawable);
+				added = true;
+			}
+		}
+		if (!added) {
+			BitmapPool.getInstance().returnDrawableToPool((ReusableBitmapDrawable) drawable);
+		} else if (mTileRequestCompleteHandler != null) {
+			mTileRequestCompleteHandler.sendMessage(Message.obtain(mTileRequestCompleteHandler,
+					MapTile.MAPTILE_SUCCESS_ID, pTile));
+		}
+	}
+
+	private class RescaleJob implements Runnable {
+
+		private final ScaleTileLooper mTileLooper;
+		private final int mZoomLevel;
+		private final int mTileSize;
+		private final Rect mViewPort;
+
+		RescaleJob(final ScaleTileLooper pTileLooper, final int pZoomLevel, final int pTileSize,
+				final Rect pViewPort) {
+			mTileLooper = pTileLooper;
+			mZoomLevel = pZoomLevel;
+			mTileSize = pTileSize;
+			mViewPort = pViewPort;
+		}
+
+		void cancel() {
+			mTileLooper.mCancelled = true;
+		}
+
+		@Override
+		public void run() {
+			if (mTileLooper.mCancelled) {
+				return;
+			}
+			final long startMs = System.currentTimeMillis();
+			try {
+				mTileLooper.loop(null, mZoomLevel, mTileSize, mViewPort);
+			} finally {
+				mTileLooper.releaseOldTiles();
+			}
+			final long endMs = System.currentTimeMillis();
+			logger.info((mTileLooper.mCancelled ? "Cancelled" : "Finished") + " rescale in "
+					+ (endMs - startMs) + "ms");
+		}
 	}
 
 	private abstract class ScaleTileLooper extends TileLooper {
 
-		/** new (scaled) tiles to add to cache
-		  * NB first generate all and then put all in cache,
-		  * otherwise the ones we need will be pushed out */
-		protected final HashMap<MapTile, Bitmap> mNewTiles;
+		/** maximum number of tiles to load from storage per rescale, to keep the job short */
+		private static final int MAX_STORAGE_LOADS = 16;
+
+		/**
+		 * The old tiles we're scaling from, held so that they can't be reused while the new
+		 * tiles we're putting into the cache push them out
+		 */
+		protected final HashMap<MapTile, Drawable> mOldTiles;
 
 		protected final int mOldZoomLevel;
 		protected int mDiff;
@@ -268,10 +462,12 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 		protected Rect mSrcRect;
 		protected Rect mDestRect;
 		protected Paint mDebugPaint;
+		protected int mStorageLoads;
+		protected volatile boolean mCancelled;
 
 		public ScaleTileLooper(final int pOldZoomLevel) {
 			mOldZoomLevel = pOldZoomLevel;
-			mNewTiles = new HashMap<MapTile, Bitmap>();
+			mOldTiles = new HashMap<MapTile, Drawable>();
 			mSrcRect = new Rect();
 			mDestRect = new Rect();
 			mDebugPaint = new Paint();
@@ -281,17 +477,23 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 		public void initialiseLoop(final int pZoomLevel, final int pTileSizePx) {
 			mDiff = Math.abs(pZoomLevel - mOldZoomLevel);
 			mTileSize_2 = pTileSizePx >> mDiff;
+			mStorageLoads = 0;
+			holdOldTiles(pZoomLevel);
 		}
 
 		@Override
 		public void handleTile(final Canvas pCanvas, final int pTileSizePx, final MapTile pTile, final int pX, final int pY) {
+			if (mCancelled) {
+				return;
+			}
 
 			// Get tile from cache.
 			// If it's found then no need to created scaled version.
-			// If not found (null) them we've initiated a new request for it,
+			// If not found, or expired, the overlay requests it when it draws it,
 			// and now we'll create a scaled version until the request completes.
-			final Drawable requestedTile = getMapTile(pTile);
-			if (requestedTile == null) {
+			// This goes to the cache directly, so the rescaling isn't recorded as lookups.
+			final Drawable cachedTile = mTileCache.getMapTile(pTile);
+			if (cachedTile == null || ExpirableBitmapDrawable.isDrawableExpired(cachedTile)) {
 				try {
 					handleTile(pTileSizePx, pTile, pX, pY);
 				} catch(final OutOfMemoryError e) {
@@ -302,19 +504,63 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 
 		@Override
 		public void finaliseLoop() {
-			// now add the new ones, pushing out the old ones
-			while (!mNewTiles.isEmpty()) {
-				final MapTile tile = mNewTiles.keySet().iterator().next();
-				final Bitmap bitmap = mNewTiles.remove(tile);
-				final ExpirableBitmapDrawable drawable = new ReusableBitmapDrawable(bitmap);
-				drawable.setState(new int[] { ExpirableBitmapDrawable.EXPIRED });
-				final Drawable existingTile = mTileCache.getMapTile(tile);
-				if (existingTile == null || ExpirableBitmapDrawable.isDrawableExpired(existingTile))
-					putExpiredTileIntoCache(new MapTileRequestState(tile,
-							new MapTileModuleProviderBase[0], null), drawable);
+		}
+
+		/**
+		 * Hold on to the old tiles covering the loop before any new tiles go into the cache.
+		 */
+		protected abstract void holdOldTiles(int pZoomLevel);
+
+		protected void holdOldTile(final MapTile pTile) {
+			if (mOldTiles.containsKey(pTile)) {
+				return;
+			}
+			final Drawable drawable = mTileCache.getMapTile(pTile);
+			if (drawable instanceof ReusableBitmapDrawable) {
+				final ReusableBitmapDrawable reusableBitmapDrawable = (ReusableBitmapDrawable) drawable;
+				reusableBitmapDrawable.beginUsingDrawable();
+				if (!reusableBitmapDrawable.isBitmapValid()) {
+					reusableBitmapDrawable.finishUsingDrawable();
+					return;
+				}
+			}
+			if (drawable != null) {
+				mOldTiles.put(pTile, drawable);
 			}
 		}
 
+		void releaseOldTiles() {
+			for (final Map.Entry<MapTile, Drawable> entry : mOldTiles.entrySet()) {
+				if (entry.getValue() instanceof ReusableBitmapDrawable) {
+					((ReusableBitmapDrawable) entry.getValue()).finishUsingDrawable();
+				}
+			}
+			mOldTiles.clear();
+		}
+
+		/**
+		 * Load a tile that isn't in the memory cache from storage, decoding only the region that
+		 * we're going to draw at no more than the size we're going to draw it at.
+		 */
+		protected Bitmap loadScaledBitmap(final MapTile pTile, final Rect pRegion,
+				final int pTargetSizePx) {
+			if (mStorageLoads >= MAX_STORAGE_LOADS) {
+				return null;
+			}
+			mStorageLoads++;
+			final Drawable drawable = getScaledMapTileFromStorage(pTile, pRegion, pTargetSizePx);
+			return drawable instanceof BitmapDrawable ? ((BitmapDrawable) drawable).getBitmap()
+					: null;
+		}
+
+		protected Bitmap obtainBitmap(final int pTileSizePx) {
+			// Try to get a bitmap from the pool, otherwise allocate a new one
+			final Bitmap bitmap = BitmapPool.getInstance().obtainSizedBitmapFromPool(pTileSizePx,
+					pTileSizePx);
+			return bitmap != null ? bitmap : Bitmap.createBitmap(pTileSizePx, pTileSizePx,
+					Bitmap.Config.ARGB_8888);
+		}
+
 		protected abstract void handleTile(int pTileSizePx, MapTile pTile, int pX, int pY);
 	}
 
@@ -323,49 +569,49 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 			super(pOldZoomLevel);
 		}
 		@Override
+		protected void holdOldTiles(final int pZoomLevel) {
+			final int mapTileUpperBound = 1 << mOldZoomLevel;
+			for (int y = mUpperLeft.y >> mDiff; y <= mLowerRight.y >> mDiff; y++) {
+				for (int x = mUpperLeft.x >> mDiff; x <= mLowerRight.x >> mDiff; x++) {
+					holdOldTile(new MapTile(mOldZoomLevel, MyMath.mod(x, mapTileUpperBound),
+							MyMath.mod(y, mapTileUpperBound)));
+				}
+			}
+		}
+		@Override
 		public void handleTile(final int pTileSizePx, final MapTile pTile, final int pX, final int pY) {
 			// get the correct fraction of the tile from cache and scale up
 
 			final MapTile oldTile = new MapTile(mOldZoomLevel, pTile.getX() >> mDiff, pTile.getY() >> mDiff);
-			final Drawable oldDrawable = mTileCache.getMapTile(oldTile);
+			final Drawable oldDrawable = mOldTiles.get(oldTile);
+
+			final int xx = (pTile.getX() % (1 << mDiff)) * mTileSize_2;
+			final int yy = (pTile.getY() % (1 << mDiff)) * mTileSize_2;
+			mSrcRect.set(xx, yy, xx + mTileSize_2, yy + mTileSize_2);
 
+			final Bitmap oldBitmap;
 			if (oldDrawable instanceof BitmapDrawable) {
-				final int xx = (pX % (1 << mDiff)) * mTileSize_2;
-				final int yy = (pY % (1 << mDiff)) * mTileSize_2;
-				mSrcRect.set(xx, yy, xx + mTileSize_2, yy + mTileSize_2);
-				mDestRect.set(0, 0, pTileSizePx, pTileSizePx);
+				oldBitmap = ((BitmapDrawable) oldDrawable).getBitmap();
+			} else {
+				// only decode the part of the old tile that we're going to scale up
+				oldBitmap = loadScaledBitmap(oldTile, mSrcRect, pTileSizePx);
+				if (oldBitmap != null) {
+					mSrcRect.set(0, 0, oldBitmap.getWidth(), oldBitmap.getHeight());
+				}
+			}
 
-				// Try to get a bitmap from the pool, otherwise allocate a new one
-				Bitmap bitmap = BitmapPool.getInstance().obtainSizedBitmapFromPool(
-						pTileSizePx, pTileSizePx);
-				if (bitmap == null)
-					bitmap = Bitmap.createBitmap(pTileSizePx, pTileSizePx, Bitmap.Config.ARGB_8888);
+			if (oldBitmap != null) {
+				mDestRect.set(0, 0, pTileSizePx, pTileSizePx);
 
+				final Bitmap bitmap = obtainBitmap(pTileSizePx);
 				final Canvas canvas = new Canvas(bitmap);
-				final boolean isReusable = oldDrawable instanceof ReusableBitmapDrawable;
-				final ReusableBitmapDrawable reusableBitmapDrawable =
-						isReusable ? (ReusableBitmapDrawable) oldDrawable : null;
-				boolean success = false;
-				if (isReusable)
-					reusableBitmapDrawable.beginUsingDrawable();
-				try {
-					if (!isReusable || reusableBitmapDrawable.isBitmapValid()) {
-						final BitmapDrawable bitmapDrawable = (BitmapDrawable) oldDrawable;
-						final Bitmap oldBitmap = bitmapDrawable.getBitmap();
-						canvas.drawBitmap(oldBitmap, mSrcRect, mDestRect, null);
-						success = true;
-						if (DEBUGMODE) {
-							logger.debug("Created scaled tile: " + pTile);
-							mDebugPaint.setTextSize(40);
-							canvas.drawText("scaled", 50, 50, mDebugPaint);
-						}
-					}
-				} finally {
-					if (isReusable)
-						reusableBitmapDrawable.finishUsingDrawable();
+				canvas.drawBitmap(oldBitmap, mSrcRect, mDestRect, null);
+				if (DEBUGMODE) {
+					logger.debug("Created scaled tile: " + pTile);
+					mDebugPaint.setTextSize(40);
+					canvas.drawText("scaled", 50, 50, mDebugPaint);
 				}
-				if (success)
-					mNewTiles.put(pTile, bitmap);
+				putScaledTileIntoCache(pTile, bitmap);
 			}
 		}
 	}
@@ -376,6 +622,19 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 			super(pOldZoomLevel);
 		}
 		@Override
+		protected void holdOldTiles(final int pZoomLevel) {
+			if (mDiff >= MAX_ZOOM_OUT_DIFF) {
+				return;
+			}
+			final int mapTileUpperBound = 1 << mOldZoomLevel;
+			for (int y = mUpperLeft.y << mDiff; y < (mLowerRight.y + 1) << mDiff; y++) {
+				for (int x = mUpperLeft.x << mDiff; x < (mLowerRight.x + 1) << mDiff; x++) {
+					holdOldTile(new MapTile(mOldZoomLevel, MyMath.mod(x, mapTileUpperBound),
+							MyMath.mod(y, mapTileUpperBound)));
+				}
+			}
+		}
+		@Override
 		protected void handleTile(final int pTileSizePx, final MapTile pTile, final int pX, final int pY) {
 
 			if (mDiff >= MAX_ZOOM_OUT_DIFF){
@@ -391,39 +650,35 @@ public abstract class MapTileProviderBase implements IMapTileProviderCallback,
 			for(int x = 0; x < numTiles; x++) {
 				for(int y = 0; y < numTiles; y++) {
 					final MapTile oldTile = new MapTile(mOldZoomLevel, xx + x, yy + y);
-					final Drawable oldDrawable = mTileCache.getMapTile(oldTile);
+					final Drawable oldDrawable = mOldTiles.get(oldTile);
+					final Bitmap oldBitmap;
 					if (oldDrawable instanceof BitmapDrawable) {
-						final Bitmap oldBitmap = ((BitmapDrawable)oldDrawable).getBitmap();
-						if (oldBitmap != null) {
-							if (bitmap == null) {
-								// Try to get a bitmap from the pool, otherwise allocate a new one
-								bitmap = BitmapPool.getInstance().obtainSizedBitmapFromPool(
-										pTileSizePx, pTileSizePx);
-								if (bitmap == null)
-									bitmap = Bitmap.createBitmap(pTileSizePx, pTileSizePx,
-										Bitmap.Config.ARGB_8888);
-								canvas = new Canvas(bitmap);
-								canvas.drawColor(Color.LTGRAY);
-							}
-							mDestRect.set(
-									x * mTileSize_2, y * mTileSize_2,
-									(x + 1) * mTileSize_2, (y + 1) * mTileSize_2);
-							if (oldBitmap != null) {
-								canvas.drawBitmap(oldBitmap, null, mDestRect, null);
-								mTileCache.mCachedTiles.remove(oldBitmap);
-							}
+						oldBitmap = ((BitmapDrawable) oldDrawable).getBitmap();
+					} else {
+						// only decode as many pixels as we're going to draw
+						oldBitmap = loadScaledBitmap(oldTile, null, mTileSize_2);
+					}
+					if (oldBitmap != null) {
+						if (bitmap == null) {
+							bitmap = obtainBitmap(pTileSizePx);
+							canvas = new Canvas(bitmap);
+							canvas.drawColor(Color.LTGRAY);
 						}
+						mDestRect.set(
+								x * mTileSize_2, y * mTileSize_2,
+								(x + 1) * mTileSize_2, (y + 1) * mTileSize_2);
+						canvas.drawBitmap(oldBitmap, null, mDestRect, null);
 					}
 				}
 			}
 
 			if (bitmap != null) {
-				mNewTiles.put(pTile, bitmap);
 				if (DEBUGMODE) {
 					logger.debug("Created scaled tile: " + pTile);
 					mDebugPaint.setTextSize(40);
 					canvas.drawText("scaled", 50, 50, mDebugPaint);
 				}
+				putScaledTileIntoCache(pTile, bitmap);
 			}
 		}
 	}
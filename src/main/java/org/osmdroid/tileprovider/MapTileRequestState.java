@@ -12,6 +12,7 @@ public class MapTileRequestState {
 	private final MapTile mMapTile;
 	private final IMapTileProviderCallback mCallback;
 	private MapTileModuleProviderBase mCurrentProvider;
+	private boolean mPrefetch;
 
 	public MapTileRequestState(final MapTile mapTile,
 			final MapTileModuleProviderBase[] providers,
@@ -42,4 +43,15 @@ public class MapTileRequestState {
 	public MapTileModuleProviderBase getCurrentProvider() {
 		return mCurrentProvider;
 	}
+
+	/**
+	 * Whether this is a low priority request for a tile that isn't on screen yet.
+	 */
+	public boolean isPrefetch() {
+		return mPrefetch;
+	}
+
+	public void setPrefetch(final boolean pPrefetch) {
+		mPrefetch = pPrefetch;
+	}
 }
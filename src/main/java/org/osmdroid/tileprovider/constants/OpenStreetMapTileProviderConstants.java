@@ -48,6 +48,24 @@ public interface OpenStreetMapTileProviderConstants {
 
 	public static final int NUMBER_OF_TILE_FILESYSTEM_THREADS = 8;
 
+	/** number of tile download threads used to prefetch an area into the file system cache */
+	public static final int NUMBER_OF_TILE_PREFETCH_THREADS = 4;
+
+	/**
+	 * maximum number of concurrent prefetch connections to a single tile server, conforming to OSM
+	 * policy: http://wiki.openstreetmap.org/wiki/Tile_usage_policy
+	 */
+	public static final int TILE_PREFETCH_MAXIMUM_CONNECTIONS_PER_HOST = 2;
+
+	/**
+	 * the size of a typical 256 pixel PNG map tile, used to estimate whether a prefetch job fits in
+	 * the file system cache before it is started
+	 */
+	public static final long TILE_PREFETCH_ESTIMATED_TILE_SIZE_BYTES = 16 * 1024;
+
+	/** Path for saved prefetch jobs so that they can be resumed. */
+	public static final File PREFETCH_PATH_BASE = new File(OSMDROID_PATH, "prefetch");
+
 	public static final long ONE_SECOND = 1000;
 	public static final long ONE_MINUTE = ONE_SECOND * 60;
 	public static final long ONE_HOUR = ONE_MINUTE * 60;
@@ -16,6 +16,7 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.osmdroid.http.HttpClientFactory;
+import org.osmdroid.metrics.Metrics;
 import org.osmdroid.tileprovider.BitmapPool;
 import org.osmdroid.tileprovider.MapTile;
 import org.osmdroid.tileprovider.MapTileRequestState;
@@ -159,6 +160,8 @@ public class MapTileDownloader extends MapTileModuleProviderBase {
 			InputStream in = null;
 			OutputStream out = null;
 			final MapTile tile = aState.getMapTile();
+			long downloadStart = 0;
+			boolean downloaded = false;
 
 			try {
 
@@ -180,6 +183,7 @@ public class MapTileDownloader extends MapTileModuleProviderBase {
 					return null;
 				}
 
+				downloadStart = System.nanoTime();
 				final HttpClient client = HttpClientFactory.createHttpClient();
 				final HttpUriRequest head = new HttpGet(tileURLString);
 				final HttpResponse response = client.execute(head);
@@ -203,6 +207,7 @@ public class MapTileDownloader extends MapTileModuleProviderBase {
 				StreamUtils.copy(in, out);
 				out.flush();
 				final byte[] data = dataStream.toByteArray();
+				downloaded = true;
 				final ByteArrayInputStream byteStream = new ByteArrayInputStream(data);
 
 				// Save the data to the filesystem cache
@@ -230,6 +235,10 @@ public class MapTileDownloader extends MapTileModuleProviderBase {
 			} finally {
 				StreamUtils.closeStream(in);
 				StreamUtils.closeStream(out);
+				if (downloadStart != 0) {
+					Metrics.getRecorder().onTileDownloaded(System.nanoTime() - downloadStart,
+							downloaded);
+				}
 			}
 
 			return null;
@@ -10,11 +10,13 @@ import org.osmdroid.tileprovider.IRegisterReceiver;
 import org.osmdroid.tileprovider.MapTile;
 import org.osmdroid.tileprovider.MapTileProviderBase;
 import org.osmdroid.tileprovider.MapTileRequestState;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
 import org.osmdroid.tileprovider.tilesource.ITileSource;
 import org.osmdroid.tileprovider.util.StreamUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 
 /**
@@ -135,6 +137,31 @@ public class MapTileFileArchiveProvider extends MapTileFileStorageProviderBase {
 		mTileSource.set(pTileSource);
 	}
 
+	@Override
+	public Drawable loadScaledTile(final MapTile pTile, final Rect pRegion, final int pTargetSizePx) {
+		final ITileSource tileSource = mTileSource.get();
+		if (!(tileSource instanceof BitmapTileSourceBase) || !getSdCardAvailable()) {
+			return null;
+		}
+
+		InputStream inputStream = null;
+		try {
+			inputStream = getInputStream(pTile, tileSource);
+			if (inputStream != null) {
+				return ((BitmapTileSourceBase) tileSource).getDrawable(inputStream, pRegion,
+						pTargetSizePx);
+			}
+		} catch (final Throwable e) {
+			logger.error("Error loading scaled tile", e);
+		} finally {
+			if (inputStream != null) {
+				StreamUtils.closeStream(inputStream);
+			}
+		}
+
+		return null;
+	}
+
 	@Override
 	public void detach() {
 		while(!mArchiveFiles.isEmpty()) {
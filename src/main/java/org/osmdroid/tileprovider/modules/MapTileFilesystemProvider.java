@@ -7,12 +7,14 @@ import org.osmdroid.tileprovider.ExpirableBitmapDrawable;
 import org.osmdroid.tileprovider.IRegisterReceiver;
 import org.osmdroid.tileprovider.MapTile;
 import org.osmdroid.tileprovider.MapTileRequestState;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
 import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase.LowMemoryException;
 import org.osmdroid.tileprovider.tilesource.ITileSource;
 import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 
 /**
@@ -118,6 +120,23 @@ public class MapTileFilesystemProvider extends MapTileFileStorageProviderBase {
 		mTileSource.set(pTileSource);
 	}
 
+	@Override
+	public Drawable loadScaledTile(final MapTile pTile, final Rect pRegion, final int pTargetSizePx) {
+		final ITileSource tileSource = mTileSource.get();
+		if (!(tileSource instanceof BitmapTileSourceBase) || !getSdCardAvailable()) {
+			return null;
+		}
+
+		final File file = new File(TILE_PATH_BASE,
+				tileSource.getTileRelativeFilenameString(pTile) + TILE_PATH_EXTENSION);
+		if (!file.exists()) {
+			return null;
+		}
+
+		return ((BitmapTileSourceBase) tileSource).getDrawable(file.getPath(), pRegion,
+				pTargetSizePx);
+	}
+
 	// ===========================================================
 	// Inner and Anonymous Classes
 	// ===========================================================
@@ -1,13 +1,16 @@
 package org.osmdroid.tileprovider.modules;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 
+import org.osmdroid.metrics.Metrics;
 import org.osmdroid.tileprovider.ExpirableBitmapDrawable;
 import org.osmdroid.tileprovider.MapTile;
 import org.osmdroid.tileprovider.MapTileRequestState;
@@ -16,6 +19,7 @@ import org.osmdroid.tileprovider.tilesource.ITileSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 
 /**
@@ -87,6 +91,13 @@ public abstract class MapTileModuleProviderBase implements OpenStreetMapTileProv
 	protected final HashMap<MapTile, MapTileRequestState> mWorking;
 	protected final LinkedHashMap<MapTile, MapTileRequestState> mPending;
 
+	/**
+	 * Low priority requests, in the order they were made. These are only taken by the workers
+	 * when there is nothing in {@link #mPending}. The queue isn't bounded, it is up to the caller
+	 * to cancel requests that are no longer useful.
+	 */
+	protected final LinkedHashMap<MapTile, MapTileRequestState> mPrefetching;
+
 	public MapTileModuleProviderBase(int pThreadPoolSize, final int pPendingQueueSize) {
 		if (pPendingQueueSize < pThreadPoolSize) {
 			logger.warn("The pending queue size is smaller than the thread pool size. Automatically reducing the thread pool size.");
@@ -126,6 +137,7 @@ public abstract class MapTileModuleProviderBase implements OpenStreetMapTileProv
 				return false;
 			}
 		};
+		mPrefetching = new LinkedHashMap<MapTile, MapTileRequestState>();
 	}
 
 	public void loadMapTileAsync(final MapTileRequestState pState) {
@@ -139,9 +151,13 @@ public abstract class MapTileModuleProviderBase implements OpenStreetMapTileProv
 					logger.debug("MapTileModuleProviderBase.loadMaptileAsync() adding tile to request queue for modular provider.");
 			}
 
+			// a prefetched tile that is now needed is promoted to the pending queue
+			mPrefetching.remove(pState.getMapTile());
+
 			// this will put the tile in the queue, or move it to the front of
 			// the queue if it's already present
 			mPending.put(pState.getMapTile(), pState);
+			Metrics.getRecorder().onQueueDepth(getName(), mPending.size(), mWorking.size());
 		}
 		try {
 			mExecutor.execute(getTileLoader());
@@ -150,9 +166,69 @@ public abstract class MapTileModuleProviderBase implements OpenStreetMapTileProv
 		}
 	}
 
+	/**
+	 * Queue a tile at low priority. The tile will only be loaded when there are no tiles waiting
+	 * in the normal request queue, and can be cancelled with {@link #cancelPrefetch()} while it
+	 * is still waiting.
+	 */
+	public void prefetchMapTileAsync(final MapTileRequestState pState) {
+		synchronized (mQueueLockObject) {
+			if (mPending.containsKey(pState.getMapTile())) {
+				// already requested at normal priority
+				return;
+			}
+			mPrefetching.put(pState.getMapTile(), pState);
+		}
+		try {
+			mExecutor.execute(getTileLoader());
+		} catch (final RejectedExecutionException e) {
+			logger.warn("RejectedExecutionException", e);
+		}
+	}
+
+	/**
+	 * Remove all low priority requests that haven't been started yet. Their callbacks are not
+	 * notified.
+	 *
+	 * @return the requests that were removed
+	 */
+	public List<MapTileRequestState> cancelPrefetch() {
+		final List<MapTileRequestState> cancelled = new ArrayList<MapTileRequestState>();
+		synchronized (mQueueLockObject) {
+			final Iterator<MapTileRequestState> iterator = mPrefetching.values().iterator();
+			while (iterator.hasNext()) {
+				final MapTileRequestState state = iterator.next();
+				if (!mWorking.containsKey(state.getMapTile())) {
+					cancelled.add(state);
+					iterator.remove();
+				}
+			}
+		}
+		return cancelled;
+	}
+
+	/**
+	 * Synchronously load a reduced-size version of a tile, decoding only the pixels in the region
+	 * that will actually be drawn. This is used when creating scaled tiles, where only a fraction
+	 * of a tile's pixels end up on screen. The default implementation returns null, meaning that
+	 * this provider can't load tiles synchronously.
+	 *
+	 * @param pTile
+	 *            the tile to load
+	 * @param pRegion
+	 *            the part of the tile to decode in tile pixels, or null for the whole tile
+	 * @param pTargetSizePx
+	 *            the size in pixels that the region will be drawn at
+	 * @return the reduced-size tile, or null if it isn't available
+	 */
+	public Drawable loadScaledTile(final MapTile pTile, final Rect pRegion, final int pTargetSizePx) {
+		return null;
+	}
+
 	private void clearQueue() {
 		synchronized (mQueueLockObject) {
 			mPending.clear();
+			mPrefetching.clear();
 			mWorking.clear();
 		}
 	}
@@ -172,6 +248,7 @@ public abstract class MapTileModuleProviderBase implements OpenStreetMapTileProv
 						+ getName() + " for tile: " + mapTile);
 			}
 			mPending.remove(mapTile);
+			mPrefetching.remove(mapTile);
 			mWorking.remove(mapTile);
 		}
 	}
@@ -230,9 +307,18 @@ public abstract class MapTileModuleProviderBase implements OpenStreetMapTileProv
 								+ " adding tile to working queue: " + result);
 					}
 					mWorking.put(result, mPending.get(result));
+					return mWorking.get(result);
+				}
+
+				// nothing is waiting, so take the oldest low priority request
+				for (final MapTileRequestState state : mPrefetching.values()) {
+					if (!mWorking.containsKey(state.getMapTile())) {
+						mWorking.put(state.getMapTile(), state);
+						return state;
+					}
 				}
 
-				return (result != null ? mPending.get(result) : null);
+				return null;
 			}
 		}
 
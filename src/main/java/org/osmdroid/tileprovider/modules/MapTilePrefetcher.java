@@ -0,0 +1,674 @@
+package org.osmdroid.tileprovider.modules;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.osmdroid.http.HttpClientFactory;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.tileprovider.util.StreamUtils;
+import org.osmdroid.util.BoundingBoxE6;
+import org.osmdroid.util.TileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import android.graphics.Point;
+import android.text.TextUtils;
+
+/**
+ * Downloads all the tiles of a {@link BoundingBoxE6} for a range of zoom levels into the file
+ * system cache ahead of time, for example to provision a device before it goes offline. Tiles that
+ * are already fresh in the {@link TileWriter} cache are skipped. Downloads use a bounded number of
+ * threads and a limited number of concurrent connections per tile server.
+ *
+ * The job is saved in {@link #PREFETCH_PATH_BASE} while it runs, so if the process is killed it can
+ * be continued with {@link #resume(PrefetchListener)}. Tiles are enumerated in a fixed order, so a
+ * resumed job starts after the last tile that was done along with all the tiles before it. The
+ * tiles that failed are saved as well, and are tried again when the job is resumed. A job that
+ * finishes with failed tiles stays saved, so that resuming it only tries those.
+ *
+ * The tiles are saved in the same cache as the tiles of the map, which {@link TileWriter} trims
+ * back to {@link #TILE_TRIM_CACHE_SIZE_BYTES} by deleting the oldest tiles whenever it grows past
+ * {@link #TILE_MAX_CACHE_SIZE_BYTES}. A job whose tiles don't fit would delete its own first tiles
+ * while saving its last ones, so {@link #prefetch} refuses a job estimated to be larger than the
+ * trim size, and a warning is logged if the tiles turn out larger than estimated. Prefetched tiles
+ * are also the oldest in the cache, so they are the first to go once browsing fills it again.
+ * Running the job again only downloads the tiles that are missing. To keep an area offline for
+ * good, export the prefetched tiles to an archive with {@link TileCacheExporter}.
+ */
+public class MapTilePrefetcher implements OpenStreetMapTileProviderConstants {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	private static final Logger logger = LoggerFactory.getLogger(MapTilePrefetcher.class);
+
+	/** how often the job file is saved, in tiles */
+	private static final int SAVE_JOB_INTERVAL = 100;
+
+	private static final String JOB_NORTH = "north";
+	private static final String JOB_EAST = "east";
+	private static final String JOB_SOUTH = "south";
+	private static final String JOB_WEST = "west";
+	private static final String JOB_ZOOM_MIN = "zoomMin";
+	private static final String JOB_ZOOM_MAX = "zoomMax";
+	private static final String JOB_DONE = "done";
+	private static final String JOB_RETRY = "retry";
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private final OnlineTileSourceBase mTileSource;
+	private final TileWriter mTileWriter;
+	private final INetworkAvailablityCheck mNetworkAvailablityCheck;
+	private final int mThreadPoolSize;
+	private final int mMaximumConnectionsPerHost;
+	private final HashMap<String, Semaphore> mHostSemaphores = new HashMap<String, Semaphore>();
+
+	private long mMaximumCachedFileAge = DEFAULT_MAXIMUM_CACHED_FILE_AGE;
+
+	private Thread mThread;
+	private ExecutorService mExecutor;
+	private volatile boolean mCancelled;
+
+	private BoundingBoxE6 mBoundingBox;
+	private int mZoomMin;
+	private int mZoomMax;
+
+	/** tiles with an index below this were done when the job was started, except mRetry */
+	private int mStartIndex;
+	/** the tiles below mStartIndex that had failed when the job was started */
+	private int mRetryTiles;
+	/** the tiles downloaded or skipped since the job was started, by index */
+	private final BitSet mDone = new BitSet();
+	/** the tiles that have failed and are still to be tried again, by index */
+	private final BitSet mRetry = new BitSet();
+	private int mTotalTiles;
+	private int mDoneTiles;
+	private int mSkippedTiles;
+	private int mFailedTiles;
+	private long mDownloadedBytes;
+	private long mStartTime;
+	private boolean mWarnedTooLarge;
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public MapTilePrefetcher(final OnlineTileSourceBase pTileSource, final TileWriter pTileWriter,
+			final INetworkAvailablityCheck pNetworkAvailablityCheck) {
+		this(pTileSource, pTileWriter, pNetworkAvailablityCheck, NUMBER_OF_TILE_PREFETCH_THREADS,
+				TILE_PREFETCH_MAXIMUM_CONNECTIONS_PER_HOST);
+	}
+
+	/**
+	 * @param pTileSource
+	 *            the tile source to download tiles from
+	 * @param pTileWriter
+	 *            the file system cache to save tiles into
+	 * @param pNetworkAvailablityCheck
+	 *            an optional network check, the job stops if the network is unavailable
+	 * @param pThreadPoolSize
+	 *            the maximum number of concurrent downloads
+	 * @param pMaximumConnectionsPerHost
+	 *            the maximum number of concurrent downloads from a single tile server
+	 */
+	public MapTilePrefetcher(final OnlineTileSourceBase pTileSource, final TileWriter pTileWriter,
+			final INetworkAvailablityCheck pNetworkAvailablityCheck, final int pThreadPoolSize,
+			final int pMaximumConnectionsPerHost) {
+		if (pTileSource == null || pTileWriter == null) {
+			throw new IllegalArgumentException("You must pass a tile source and a tile writer.");
+		}
+		mTileSource = pTileSource;
+		mTileWriter = pTileWriter;
+		mNetworkAvailablityCheck = pNetworkAvailablityCheck;
+		mThreadPoolSize = pThreadPoolSize;
+		mMaximumConnectionsPerHost = pMaximumConnectionsPerHost;
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	/**
+	 * Set the age in milliseconds after which a cached tile is downloaded again. The default is
+	 * {@link #DEFAULT_MAXIMUM_CACHED_FILE_AGE}, the same as {@link MapTileFilesystemProvider}.
+	 */
+	public void setMaximumCachedFileAge(final long pMaximumCachedFileAge) {
+		mMaximumCachedFileAge = pMaximumCachedFileAge;
+	}
+
+	public synchronized boolean isRunning() {
+		return mThread != null && mThread.isAlive();
+	}
+
+	/**
+	 * @return the number of tiles in the job, including the ones done before it was resumed
+	 */
+	public synchronized int getTotalTiles() {
+		return mTotalTiles;
+	}
+
+	/**
+	 * @return the number of tiles done, including the ones done before the job was resumed
+	 */
+	public synchronized int getCompletedTiles() {
+		return mStartIndex - mRetryTiles + mDoneTiles;
+	}
+
+	/**
+	 * @return the number of tiles that were already fresh in the cache
+	 */
+	public synchronized int getSkippedTiles() {
+		return mSkippedTiles;
+	}
+
+	/**
+	 * @return the number of tiles that couldn't be downloaded since the job was started or resumed,
+	 *         which are tried again when the job is resumed
+	 */
+	public synchronized int getFailedTiles() {
+		return mFailedTiles;
+	}
+
+	/**
+	 * @return the number of bytes downloaded since the job was started or resumed
+	 */
+	public synchronized long getDownloadedBytes() {
+		return mDownloadedBytes;
+	}
+
+	/**
+	 * Get an estimate of the time remaining, based on the rate of the tiles done since the job was
+	 * started or resumed.
+	 *
+	 * @return the estimated time remaining in milliseconds, or -1 if it isn't known yet
+	 */
+	public synchronized long getEstimatedTimeRemaining() {
+		if (mDoneTiles == 0) {
+			return -1;
+		}
+		final long elapsed = System.currentTimeMillis() - mStartTime;
+		return elapsed * (mTotalTiles - getCompletedTiles()) / mDoneTiles;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Count the tiles in a bounding box for a range of zoom levels.
+	 */
+	public static int getTileCount(final BoundingBoxE6 pBoundingBox, final int pZoomMin,
+			final int pZoomMax) {
+		final Point upperLeft = new Point();
+		final Point lowerRight = new Point();
+		int count = 0;
+		for (int zoomLevel = pZoomMin; zoomLevel <= pZoomMax; zoomLevel++) {
+			getTileRange(pBoundingBox, zoomLevel, upperLeft, lowerRight);
+			count += getTileRangeWidth(upperLeft, lowerRight, zoomLevel)
+					* (lowerRight.y - upperLeft.y + 1);
+		}
+		return count;
+	}
+
+	/**
+	 * Estimate the size of the tiles in a bounding box for a range of zoom levels, from
+	 * {@link #TILE_PREFETCH_ESTIMATED_TILE_SIZE_BYTES}.
+	 *
+	 * @return the estimated size in bytes
+	 */
+	public static long getEstimatedSize(final BoundingBoxE6 pBoundingBox, final int pZoomMin,
+			final int pZoomMax) {
+		return getTileCount(pBoundingBox, pZoomMin, pZoomMax)
+				* TILE_PREFETCH_ESTIMATED_TILE_SIZE_BYTES;
+	}
+
+	/**
+	 * Start downloading the tiles of the bounding box for the zoom levels from pZoomMin to
+	 * pZoomMax inclusive. Any saved job for the tile source is replaced.
+	 *
+	 * @param pListener
+	 *            an optional listener, called from a background thread
+	 * @throws IllegalArgumentException
+	 *             if the {@link #getEstimatedSize estimated size} of the tiles is more than the
+	 *             file system cache is trimmed to, {@link #TILE_TRIM_CACHE_SIZE_BYTES}
+	 */
+	public synchronized void prefetch(final BoundingBoxE6 pBoundingBox, final int pZoomMin,
+			final int pZoomMax, final PrefetchListener pListener) {
+		start(pBoundingBox, Math.max(pZoomMin, mTileSource.getMinimumZoomLevel()),
+				Math.min(pZoomMax, mTileSource.getMaximumZoomLevel()), 0, new BitSet(), pListener);
+	}
+
+	/**
+	 * Whether there is a saved job for the tile source that can be resumed.
+	 */
+	public boolean hasSavedJob() {
+		return getJobFile().exists();
+	}
+
+	/**
+	 * Resume the saved job for the tile source, if there is one.
+	 *
+	 * @param pListener
+	 *            an optional listener, called from a background thread
+	 * @return true if a saved job was resumed
+	 */
+	public synchronized boolean resume(final PrefetchListener pListener) {
+		final Properties job = new Properties();
+		InputStream in = null;
+		try {
+			in = new FileInputStream(getJobFile());
+			job.load(in);
+			final BoundingBoxE6 boundingBox = new BoundingBoxE6(
+					Integer.parseInt(job.getProperty(JOB_NORTH)),
+					Integer.parseInt(job.getProperty(JOB_EAST)),
+					Integer.parseInt(job.getProperty(JOB_SOUTH)),
+					Integer.parseInt(job.getProperty(JOB_WEST)));
+			final BitSet retry = new BitSet();
+			for (final String index : TextUtils.split(job.getProperty(JOB_RETRY, ""), ",")) {
+				if (index.length() > 0) {
+					retry.set(Integer.parseInt(index));
+				}
+			}
+			start(boundingBox, Integer.parseInt(job.getProperty(JOB_ZOOM_MIN)),
+					Integer.parseInt(job.getProperty(JOB_ZOOM_MAX)),
+					Integer.parseInt(job.getProperty(JOB_DONE)), retry, pListener);
+			return true;
+		} catch (final IOException e) {
+			logger.info("No prefetch job to resume for " + mTileSource.name());
+		} catch (final RuntimeException e) {
+			logger.warn("Invalid prefetch job for " + mTileSource.name(), e);
+		} finally {
+			StreamUtils.closeStream(in);
+		}
+		return false;
+	}
+
+	/**
+	 * Stop the running job. The job stays saved, so it can be resumed later.
+	 */
+	public synchronized void cancel() {
+		mCancelled = true;
+		if (mThread != null) {
+			mThread.interrupt();
+		}
+		if (mExecutor != null) {
+			mExecutor.shutdownNow();
+		}
+	}
+
+	private void start(final BoundingBoxE6 pBoundingBox, final int pZoomMin, final int pZoomMax,
+			final int pStartIndex, final BitSet pRetry, final PrefetchListener pListener) {
+		if (isRunning()) {
+			throw new IllegalStateException("A prefetch job is already running.");
+		}
+		final long estimatedSize = getEstimatedSize(pBoundingBox, pZoomMin, pZoomMax);
+		if (estimatedSize > TILE_TRIM_CACHE_SIZE_BYTES) {
+			throw new IllegalArgumentException("The tiles of the prefetch job, about "
+					+ estimatedSize / (1024 * 1024) + " Mb, don't fit in the tile cache, which is "
+					+ "trimmed to " + TILE_TRIM_CACHE_SIZE_BYTES / (1024 * 1024) + " Mb.");
+		}
+
+		mBoundingBox = pBoundingBox;
+		mZoomMin = pZoomMin;
+		mZoomMax = pZoomMax;
+		mStartIndex = pStartIndex;
+		mDone.clear();
+		mRetry.clear();
+		mRetry.or(pRetry);
+		mRetryTiles = pRetry.cardinality();
+		mTotalTiles = getTileCount(pBoundingBox, pZoomMin, pZoomMax);
+		mDoneTiles = 0;
+		mSkippedTiles = 0;
+		mFailedTiles = 0;
+		mDownloadedBytes = 0;
+		mStartTime = System.currentTimeMillis();
+		mWarnedTooLarge = false;
+		mCancelled = false;
+		saveJob();
+
+		logger.info("Prefetching " + (mTotalTiles - mStartIndex + mRetryTiles) + " of "
+				+ mTotalTiles + " tiles for " + mTileSource.name());
+
+		mExecutor = Executors.newFixedThreadPool(mThreadPoolSize,
+				new ConfigurablePriorityThreadFactory(Thread.MIN_PRIORITY, "prefetcher"));
+		mThread = new Thread("prefetch") {
+			@Override
+			public void run() {
+				enumerateTiles(pListener);
+			}
+		};
+		mThread.setPriority(Thread.MIN_PRIORITY);
+		mThread.start();
+	}
+
+	/**
+	 * Runs on the job thread. Submits the tiles to the executor in enumeration order, keeping the
+	 * number of tiles in flight bounded so that a large job doesn't queue millions of tasks. The
+	 * tiles before the start index are only submitted if they are to be tried again.
+	 */
+	private void enumerateTiles(final PrefetchListener pListener) {
+		final Semaphore inFlight = new Semaphore(mThreadPoolSize * 2);
+		final Point upperLeft = new Point();
+		final Point lowerRight = new Point();
+		int index = 0;
+		try {
+			for (int zoomLevel = mZoomMin; zoomLevel <= mZoomMax; zoomLevel++) {
+				getTileRange(mBoundingBox, zoomLevel, upperLeft, lowerRight);
+				final int mapTileUpperBound = 1 << zoomLevel;
+				final int width = getTileRangeWidth(upperLeft, lowerRight, zoomLevel);
+				for (int y = upperLeft.y; y <= lowerRight.y; y++) {
+					for (int i = 0; i < width; i++, index++) {
+						if (index < mStartIndex && !isRetry(index)) {
+							continue;
+						}
+						if (mCancelled) {
+							return;
+						}
+						final MapTile tile = new MapTile(zoomLevel,
+								(upperLeft.x + i) % mapTileUpperBound, y);
+						final int tileIndex = index;
+						inFlight.acquire();
+						mExecutor.execute(new Runnable() {
+							@Override
+							public void run() {
+								try {
+									processTile(tile, tileIndex, pListener);
+								} finally {
+									inFlight.release();
+								}
+							}
+						});
+					}
+				}
+			}
+
+			// wait for the last tiles
+			inFlight.acquire(mThreadPoolSize * 2);
+		} catch (final InterruptedException e) {
+			return;
+		} catch (final RejectedExecutionException e) {
+			// cancelled
+			return;
+		} finally {
+			mExecutor.shutdown();
+		}
+
+		if (!mCancelled) {
+			if (!hasRetryTiles()) {
+				getJobFile().delete();
+			} else {
+				// keep the failed tiles, so that resuming the job tries them again
+				saveJob();
+			}
+			logger.info("Finished prefetching " + mTileSource.name() + ": " + mDownloadedBytes
+					+ " bytes downloaded, " + mSkippedTiles + " tiles skipped, " + mFailedTiles
+					+ " tiles failed");
+			if (pListener != null) {
+				pListener.onPrefetchFinished(this);
+			}
+		}
+	}
+
+	private void processTile(final MapTile pTile, final int pIndex,
+			final PrefetchListener pListener) {
+		final boolean skipped = mTileWriter.isTileFresh(mTileSource, pTile, mMaximumCachedFileAge);
+		long bytes = 0;
+		if (!skipped) {
+			if (mNetworkAvailablityCheck != null
+					&& !mNetworkAvailablityCheck.getNetworkAvailable()) {
+				logger.warn("Network unavailable, stopping prefetch");
+				cancel();
+				return;
+			}
+			bytes = downloadTile(pTile);
+		}
+		if (mCancelled) {
+			return;
+		}
+
+		final boolean save;
+		long projectedSize = 0;
+		synchronized (this) {
+			if (bytes < 0) {
+				// only a tile that has been saved is done, the others are tried again
+				mRetry.set(pIndex);
+				mFailedTiles++;
+			} else {
+				mRetry.clear(pIndex);
+				mDone.set(pIndex);
+				mDoneTiles++;
+				if (skipped) {
+					mSkippedTiles++;
+				} else {
+					mDownloadedBytes += bytes;
+				}
+			}
+			save = (mDoneTiles + mFailedTiles) % SAVE_JOB_INTERVAL == 0;
+
+			// check the estimate against the size of the tiles downloaded so far
+			final int downloadedTiles = mDoneTiles - mSkippedTiles;
+			if (!mWarnedTooLarge && downloadedTiles >= SAVE_JOB_INTERVAL) {
+				final long size = mDownloadedBytes / downloadedTiles * mTotalTiles;
+				if (size > TILE_TRIM_CACHE_SIZE_BYTES) {
+					mWarnedTooLarge = true;
+					projectedSize = size;
+				}
+			}
+		}
+		if (projectedSize > 0) {
+			logger.warn("The tiles of the prefetch job of " + mTileSource.name() + " are larger "
+					+ "than estimated, about " + projectedSize / (1024 * 1024) + " Mb, so the tile "
+					+ "cache will delete some of them to stay under "
+					+ TILE_TRIM_CACHE_SIZE_BYTES / (1024 * 1024) + " Mb");
+		}
+		if (save) {
+			saveJob();
+		}
+		if (pListener != null) {
+			pListener.onPrefetchProgress(this);
+		}
+	}
+
+	/**
+	 * Download a tile into the file system cache, limiting the number of concurrent connections to
+	 * the tile server.
+	 *
+	 * @return the size of the tile in bytes, or -1 if it failed
+	 */
+	private long downloadTile(final MapTile pTile) {
+		final String tileURLString = mTileSource.getTileURLString(pTile);
+		if (TextUtils.isEmpty(tileURLString)) {
+			return -1;
+		}
+
+		final Semaphore hostSemaphore;
+		try {
+			hostSemaphore = getHostSemaphore(new URL(tileURLString).getHost());
+		} catch (final MalformedURLException e) {
+			logger.warn("Invalid tile URL: " + tileURLString);
+			return -1;
+		}
+
+		InputStream in = null;
+		OutputStream out = null;
+		try {
+			hostSemaphore.acquire();
+			try {
+				final HttpClient client = HttpClientFactory.createHttpClient();
+				final HttpResponse response = client.execute(new HttpGet(tileURLString));
+
+				final org.apache.http.StatusLine line = response.getStatusLine();
+				if (line.getStatusCode() != 200) {
+					logger.warn("Problem prefetching MapTile: " + pTile + " HTTP response: "
+							+ line);
+					return -1;
+				}
+
+				final HttpEntity entity = response.getEntity();
+				if (entity == null) {
+					logger.warn("No content prefetching MapTile: " + pTile);
+					return -1;
+				}
+				in = entity.getContent();
+
+				final ByteArrayOutputStream dataStream = new ByteArrayOutputStream();
+				out = new BufferedOutputStream(dataStream, StreamUtils.IO_BUFFER_SIZE);
+				StreamUtils.copy(in, out);
+				out.flush();
+				final byte[] data = dataStream.toByteArray();
+				if (!mTileWriter.saveFile(mTileSource, pTile, new ByteArrayInputStream(data))) {
+					return -1;
+				}
+				return data.length;
+			} finally {
+				hostSemaphore.release();
+			}
+		} catch (final InterruptedException e) {
+			return -1;
+		} catch (final IOException e) {
+			logger.warn("IOException prefetching MapTile: " + pTile + " : " + e);
+		} catch (final Throwable e) {
+			logger.error("Error prefetching MapTile: " + pTile, e);
+		} finally {
+			StreamUtils.closeStream(in);
+			StreamUtils.closeStream(out);
+		}
+		return -1;
+	}
+
+	private synchronized boolean isRetry(final int pIndex) {
+		return mRetry.get(pIndex);
+	}
+
+	private synchronized boolean hasRetryTiles() {
+		return !mRetry.isEmpty();
+	}
+
+	private Semaphore getHostSemaphore(final String pHost) {
+		synchronized (mHostSemaphores) {
+			Semaphore semaphore = mHostSemaphores.get(pHost);
+			if (semaphore == null) {
+				semaphore = new Semaphore(mMaximumConnectionsPerHost);
+				mHostSemaphores.put(pHost, semaphore);
+			}
+			return semaphore;
+		}
+	}
+
+	private File getJobFile() {
+		return new File(PREFETCH_PATH_BASE, mTileSource.name() + ".job");
+	}
+
+	/**
+	 * Save the job along with the index of the first tile that hasn't been tried yet, and the
+	 * tiles before it that failed.
+	 */
+	private void saveJob() {
+		final Properties job = new Properties();
+		synchronized (this) {
+			job.setProperty(JOB_NORTH, Integer.toString(mBoundingBox.getLatNorthE6()));
+			job.setProperty(JOB_EAST, Integer.toString(mBoundingBox.getLonEastE6()));
+			job.setProperty(JOB_SOUTH, Integer.toString(mBoundingBox.getLatSouthE6()));
+			job.setProperty(JOB_WEST, Integer.toString(mBoundingBox.getLonWestE6()));
+			job.setProperty(JOB_ZOOM_MIN, Integer.toString(mZoomMin));
+			job.setProperty(JOB_ZOOM_MAX, Integer.toString(mZoomMax));
+			final BitSet tried = (BitSet) mDone.clone();
+			tried.or(mRetry);
+			final int next = tried.nextClearBit(mStartIndex);
+			job.setProperty(JOB_DONE, Integer.toString(next));
+			final StringBuilder retry = new StringBuilder();
+			for (int i = mRetry.nextSetBit(0); i >= 0 && i < next; i = mRetry.nextSetBit(i + 1)) {
+				if (retry.length() > 0) {
+					retry.append(',');
+				}
+				retry.append(i);
+			}
+			job.setProperty(JOB_RETRY, retry.toString());
+		}
+
+		final File file = getJobFile();
+		if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+			logger.warn("Unable to create " + file.getParentFile());
+			return;
+		}
+
+		OutputStream out = null;
+		try {
+			out = new FileOutputStream(file);
+			job.store(out, "osmdroid prefetch job");
+		} catch (final IOException e) {
+			logger.warn("Unable to save prefetch job: " + e);
+		} finally {
+			StreamUtils.closeStream(out);
+		}
+	}
+
+	/**
+	 * Get the tile coordinates of the upper left and lower right tiles of a bounding box. If the
+	 * bounding box crosses the date line then the upper left x is greater than the lower right x.
+	 */
+	static void getTileRange(final BoundingBoxE6 pBoundingBox, final int pZoomLevel,
+			final Point pUpperLeft, final Point pLowerRight) {
+		TileSystem.LatLongToPixelXY(pBoundingBox.getLatNorthE6() / 1E6,
+				pBoundingBox.getLonWestE6() / 1E6, pZoomLevel, pUpperLeft);
+		TileSystem.PixelXYToTileXY(pUpperLeft.x, pUpperLeft.y, pUpperLeft);
+		TileSystem.LatLongToPixelXY(pBoundingBox.getLatSouthE6() / 1E6,
+				pBoundingBox.getLonEastE6() / 1E6, pZoomLevel, pLowerRight);
+		TileSystem.PixelXYToTileXY(pLowerRight.x, pLowerRight.y, pLowerRight);
+	}
+
+	static int getTileRangeWidth(final Point pUpperLeft, final Point pLowerRight,
+			final int pZoomLevel) {
+		if (pUpperLeft.x <= pLowerRight.x) {
+			return pLowerRight.x - pUpperLeft.x + 1;
+		}
+		// crosses the date line
+		return (1 << pZoomLevel) - pUpperLeft.x + pLowerRight.x + 1;
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	/**
+	 * Receives progress of a prefetch job. The methods are called from background threads.
+	 */
+	public interface PrefetchListener {
+
+		/**
+		 * A tile has been downloaded, skipped or has failed.
+		 */
+		void onPrefetchProgress(MapTilePrefetcher pPrefetcher);
+
+		/**
+		 * All the tiles of the job have been tried. Those that failed are tried again if the job
+		 * is resumed. This isn't called if the job is cancelled.
+		 */
+		void onPrefetchFinished(MapTilePrefetcher pPrefetcher);
+	}
+}
@@ -0,0 +1,573 @@
+package org.osmdroid.tileprovider.modules;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.util.StreamUtils;
+import org.osmdroid.util.BoundingBoxE6;
+import org.osmdroid.util.GEMFFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.graphics.Point;
+
+/**
+ * Exports the tiles of a tile source from the file system cache written by {@link TileWriter} into
+ * a single archive that {@link ArchiveFileFactory} can open, so that the tiles can be copied to
+ * other devices as one file instead of thousands of small ones. The export can be limited to a
+ * {@link BoundingBoxE6} and a range of zoom levels.
+ *
+ * MBTiles are written in one pass over the cache directory. Tile files are read on a small thread
+ * pool and written by the calling thread, since SQLite only supports a single writer, in batched
+ * transactions. GEMF needs its index before the tile data, so it is written by {@link GEMFFile}.
+ *
+ * The export methods block until the archive is complete, so don't call them on the UI thread.
+ * The archive is written under a temporary name ending in {@value #PART_SUFFIX}, which
+ * {@link ArchiveFileFactory} doesn't open, and only renamed to the file asked for, replacing any
+ * previous archive, once it is complete. If the export fails or is interrupted, the temporary
+ * file is deleted and the previous archive is left as it was.
+ */
+public class TileCacheExporter implements OpenStreetMapTileProviderConstants {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	private static final Logger logger = LoggerFactory.getLogger(TileCacheExporter.class);
+
+	/** number of tiles inserted per transaction */
+	private static final int MBTILES_BATCH_SIZE = 500;
+
+	/** number of tiles read ahead of the writer */
+	private static final int READ_AHEAD = 64;
+
+	/** how often the listener is called, in tiles */
+	private static final int PROGRESS_INTERVAL = 100;
+
+	/** appended to the name of an archive while it is written */
+	public static final String PART_SUFFIX = ".part";
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private final File mSourceDirectory;
+	private final String mSourceName;
+	private final int mThreadPoolSize;
+
+	private BoundingBoxE6 mBoundingBox;
+	private int mZoomMin = MINIMUM_ZOOMLEVEL;
+	private int mZoomMax = MAXIMUM_ZOOMLEVEL;
+	private ExportListener mListener;
+
+	private int mExportedTiles;
+	private long mExportedBytes;
+	private long mStartTime;
+	private long mElapsedTime;
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public TileCacheExporter(final ITileSource pTileSource) {
+		this(pTileSource, NUMBER_OF_TILE_FILESYSTEM_THREADS);
+	}
+
+	/**
+	 * @param pTileSource
+	 *            the tile source whose cached tiles are exported
+	 * @param pThreadPoolSize
+	 *            the number of threads reading tile files
+	 */
+	public TileCacheExporter(final ITileSource pTileSource, final int pThreadPoolSize) {
+		mSourceName = pTileSource instanceof BitmapTileSourceBase ? ((BitmapTileSourceBase) pTileSource)
+				.pathBase() : pTileSource.name();
+		mSourceDirectory = new File(TILE_PATH_BASE, mSourceName);
+		mThreadPoolSize = pThreadPoolSize;
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	/**
+	 * Only export the tiles that intersect the bounding box.
+	 *
+	 * @param pBoundingBox
+	 *            the bounding box, or null to export tiles anywhere
+	 */
+	public void setBoundingBox(final BoundingBoxE6 pBoundingBox) {
+		mBoundingBox = pBoundingBox;
+	}
+
+	/**
+	 * Only export the tiles of the zoom levels from pZoomMin to pZoomMax inclusive.
+	 */
+	public void setZoomRange(final int pZoomMin, final int pZoomMax) {
+		mZoomMin = pZoomMin;
+		mZoomMax = pZoomMax;
+	}
+
+	/**
+	 * Set a listener to receive progress. It is called from the exporting thread.
+	 */
+	public void setExportListener(final ExportListener pListener) {
+		mListener = pListener;
+	}
+
+	public synchronized int getExportedTiles() {
+		return mExportedTiles;
+	}
+
+	public synchronized long getExportedBytes() {
+		return mExportedBytes;
+	}
+
+	/**
+	 * @return the number of tiles exported per second since the export was started
+	 */
+	public synchronized double getTilesPerSecond() {
+		final long elapsed = getElapsedTime();
+		return elapsed > 0 ? mExportedTiles * 1000.0 / elapsed : 0;
+	}
+
+	/**
+	 * @return the number of bytes exported per second since the export was started
+	 */
+	public synchronized double getBytesPerSecond() {
+		final long elapsed = getElapsedTime();
+		return elapsed > 0 ? mExportedBytes * 1000.0 / elapsed : 0;
+	}
+
+	private long getElapsedTime() {
+		return mElapsedTime > 0 ? mElapsedTime : System.currentTimeMillis() - mStartTime;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Export the cached tiles into a new MBTiles file.
+	 *
+	 * @param pFile
+	 *            the archive to create, typically in {@link #OSMDROID_PATH} with a .mbtiles
+	 *            extension so that it is found by {@link MapTileFileArchiveProvider}
+	 * @return the number of tiles exported
+	 */
+	public int exportToMBTiles(final File pFile) throws IOException {
+		final File partFile = getPartFile(pFile);
+		deleteMBTiles(partFile);
+		start();
+
+		final BlockingQueue<ExportedTile> queue = new ArrayBlockingQueue<ExportedTile>(READ_AHEAD);
+		final ExecutorService executor = Executors.newFixedThreadPool(mThreadPoolSize,
+				new ConfigurablePriorityThreadFactory(Thread.NORM_PRIORITY, "exporter"));
+		final Thread walker = new Thread("exporter-walker") {
+			@Override
+			public void run() {
+				walkTiles(executor, queue);
+			}
+		};
+
+		final SQLiteDatabase database = SQLiteDatabase.openDatabase(partFile.getAbsolutePath(),
+				null, SQLiteDatabase.NO_LOCALIZED_COLLATORS | SQLiteDatabase.CREATE_IF_NECESSARY);
+		boolean complete = false;
+		try {
+			createMBTilesSchema(database);
+
+			final SQLiteStatement insert = database.compileStatement("INSERT OR REPLACE INTO "
+					+ MBTilesFileArchive.TABLE_TILES + " ("
+					+ MBTilesFileArchive.COL_TILES_ZOOM_LEVEL + ", "
+					+ MBTilesFileArchive.COL_TILES_TILE_COLUMN + ", "
+					+ MBTilesFileArchive.COL_TILES_TILE_ROW + ", "
+					+ MBTilesFileArchive.COL_TILES_TILE_DATA + ") VALUES (?, ?, ?, ?)");
+
+			walker.start();
+			int batch = 0;
+			database.beginTransaction();
+			try {
+				ExportedTile tile;
+				while ((tile = queue.take()) != ExportedTile.END) {
+					if (tile.failure != null) {
+						final IOException e = new IOException("Unable to read the tile cache");
+						e.initCause(tile.failure);
+						throw e;
+					}
+					insert.bindLong(1, tile.zoom);
+					insert.bindLong(2, tile.x);
+					// MBTiles uses the TMS tiling scheme, see MBTilesFileArchive
+					insert.bindLong(3, (1 << tile.zoom) - tile.y - 1);
+					insert.bindBlob(4, tile.data);
+					insert.executeInsert();
+
+					if (++batch == MBTILES_BATCH_SIZE) {
+						database.setTransactionSuccessful();
+						database.endTransaction();
+						database.beginTransaction();
+						batch = 0;
+					}
+					tileExported(tile.data.length);
+				}
+				database.setTransactionSuccessful();
+			} finally {
+				database.endTransaction();
+				insert.close();
+			}
+			complete = true;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Export interrupted");
+		} finally {
+			// stop reading if we didn't get to the end
+			walker.interrupt();
+			executor.shutdownNow();
+			database.close();
+			if (!complete) {
+				deleteMBTiles(partFile);
+			}
+		}
+
+		deleteMBTiles(pFile);
+		rename(partFile, pFile);
+		finish(pFile);
+		return mExportedTiles;
+	}
+
+	/**
+	 * Export the cached tiles into a new GEMF file.
+	 *
+	 * @param pFile
+	 *            the archive to create, typically in {@link #OSMDROID_PATH} with a .gemf
+	 *            extension so that it is found by {@link MapTileFileArchiveProvider}
+	 * @return the number of tiles exported
+	 */
+	public int exportToGEMF(final File pFile) throws IOException {
+		final File partFile = getPartFile(pFile);
+		deleteGEMF(partFile);
+		start();
+
+		final Point upperLeft = new Point();
+		final Point lowerRight = new Point();
+		boolean complete = false;
+		try {
+			final GEMFFile gemfFile = new GEMFFile(partFile.getAbsolutePath(),
+					Collections.singletonList(mSourceDirectory), new GEMFFile.TileFilter() {
+						private int mZoomLevel = -1;
+
+						@Override
+						public boolean accept(final int pZoom, final int pX, final int pY,
+								final File pTileFile) {
+							if (pZoom != mZoomLevel) {
+								mZoomLevel = pZoom;
+								getTileRange(pZoom, upperLeft, lowerRight);
+							}
+							if (!isTileInRange(pZoom, pX, pY, upperLeft, lowerRight)) {
+								return false;
+							}
+							tileExported(pTileFile.length());
+							return true;
+						}
+					});
+			gemfFile.close();
+			complete = true;
+		} finally {
+			if (!complete) {
+				deleteGEMF(partFile);
+			}
+		}
+
+		// a GEMF archive over its size limit continues in files named -1, -2, ...
+		deleteGEMF(pFile);
+		rename(partFile, pFile);
+		for (int i = 1; new File(partFile.getPath() + "-" + i).exists(); i++) {
+			rename(new File(partFile.getPath() + "-" + i), new File(pFile.getPath() + "-" + i));
+		}
+		finish(pFile);
+		return mExportedTiles;
+	}
+
+	private static File getPartFile(final File pFile) {
+		return new File(pFile.getPath() + PART_SUFFIX);
+	}
+
+	private static void rename(final File pFrom, final File pTo) throws IOException {
+		if (!pFrom.renameTo(pTo)) {
+			throw new IOException("Unable to rename " + pFrom + " to " + pTo);
+		}
+	}
+
+	/**
+	 * Delete a file if it exists, or log why not. A file left behind makes replacing it or
+	 * writing it again fail, which reports the problem.
+	 */
+	private static void delete(final File pFile) {
+		if (pFile.exists() && !pFile.delete()) {
+			logger.warn("Unable to delete " + pFile);
+		}
+	}
+
+	/**
+	 * Delete an MBTiles file and the rollback journal SQLite may have left next to it.
+	 */
+	private static void deleteMBTiles(final File pFile) {
+		delete(new File(pFile.getPath() + "-journal"));
+		delete(pFile);
+	}
+
+	/**
+	 * Delete a GEMF file and the files it continues in.
+	 */
+	private static void deleteGEMF(final File pFile) {
+		delete(pFile);
+		for (int i = 1; new File(pFile.getPath() + "-" + i).exists(); i++) {
+			delete(new File(pFile.getPath() + "-" + i));
+		}
+	}
+
+	private void createMBTilesSchema(final SQLiteDatabase pDatabase) {
+		pDatabase.execSQL("CREATE TABLE metadata (name TEXT, value TEXT)");
+		pDatabase.execSQL("CREATE TABLE " + MBTilesFileArchive.TABLE_TILES + " ("
+				+ MBTilesFileArchive.COL_TILES_ZOOM_LEVEL + " INTEGER, "
+				+ MBTilesFileArchive.COL_TILES_TILE_COLUMN + " INTEGER, "
+				+ MBTilesFileArchive.COL_TILES_TILE_ROW + " INTEGER, "
+				+ MBTilesFileArchive.COL_TILES_TILE_DATA + " BLOB)");
+		pDatabase.execSQL("CREATE UNIQUE INDEX tile_index ON " + MBTilesFileArchive.TABLE_TILES
+				+ " (" + MBTilesFileArchive.COL_TILES_ZOOM_LEVEL + ", "
+				+ MBTilesFileArchive.COL_TILES_TILE_COLUMN + ", "
+				+ MBTilesFileArchive.COL_TILES_TILE_ROW + ")");
+
+		final String[][] metadata = {
+				{ "name", mSourceName },
+				{ "type", "baselayer" },
+				{ "version", "1.1" },
+				{ "description", "Exported from the osmdroid tile cache" },
+				{ "minzoom", Integer.toString(mZoomMin) },
+				{ "maxzoom", Integer.toString(mZoomMax) } };
+		for (final String[] entry : metadata) {
+			pDatabase.execSQL("INSERT INTO metadata (name, value) VALUES (?, ?)", entry);
+		}
+		if (mBoundingBox != null) {
+			pDatabase.execSQL("INSERT INTO metadata (name, value) VALUES (?, ?)", new String[] {
+					"bounds",
+					mBoundingBox.getLonWestE6() / 1E6 + "," + mBoundingBox.getLatSouthE6() / 1E6
+							+ "," + mBoundingBox.getLonEastE6() / 1E6 + ","
+							+ mBoundingBox.getLatNorthE6() / 1E6 });
+		}
+	}
+
+	/**
+	 * Runs on the walker thread. Walks the z/x/y directories of the tile source and reads the
+	 * tiles in range on the executor into the queue, followed by {@link ExportedTile#END}. If the
+	 * walk fails, the queue ends with a tile holding the failure instead, so that the writer
+	 * doesn't wait forever and can rethrow it.
+	 */
+	private void walkTiles(final ExecutorService pExecutor, final BlockingQueue<ExportedTile> pQueue) {
+		final Semaphore inFlight = new Semaphore(READ_AHEAD);
+		final Point upperLeft = new Point();
+		final Point lowerRight = new Point();
+		boolean cancelled = false;
+		Throwable failure = null;
+		try {
+			final File[] zDirs = mSourceDirectory.listFiles();
+			if (zDirs != null) {
+				for (final File zDir : zDirs) {
+					final int zoom = parseTileCoordinate(zDir.getName());
+					if (zoom < mZoomMin || zoom > mZoomMax) {
+						continue;
+					}
+					getTileRange(zoom, upperLeft, lowerRight);
+
+					final File[] xDirs = zDir.listFiles();
+					if (xDirs == null) {
+						continue;
+					}
+					for (final File xDir : xDirs) {
+						final int x = parseTileCoordinate(xDir.getName());
+						final File[] yFiles = x < 0 ? null : xDir.listFiles();
+						if (yFiles == null) {
+							continue;
+						}
+						for (final File yFile : yFiles) {
+							final int y = parseTileCoordinate(yFile.getName());
+							if (y < 0 || !isTileInRange(zoom, x, y, upperLeft, lowerRight)) {
+								continue;
+							}
+							inFlight.acquire();
+							pExecutor.execute(new Runnable() {
+								@Override
+								public void run() {
+									try {
+										final byte[] data = readFile(yFile);
+										if (data != null) {
+											pQueue.put(new ExportedTile(zoom, x, y, data));
+										}
+									} catch (final InterruptedException e) {
+										// export cancelled
+									} finally {
+										inFlight.release();
+									}
+								}
+							});
+						}
+					}
+				}
+			}
+
+			// wait for the last reads
+			inFlight.acquire(READ_AHEAD);
+		} catch (final InterruptedException e) {
+			// export cancelled, the writer isn't waiting for the end any more
+			cancelled = true;
+		} catch (final Throwable e) {
+			logger.error("Unable to walk the tile cache: " + mSourceDirectory, e);
+			failure = e;
+		} finally {
+			if (!cancelled) {
+				try {
+					pQueue.put(failure == null ? ExportedTile.END : new ExportedTile(failure));
+				} catch (final InterruptedException e) {
+					// export cancelled
+				}
+			}
+		}
+	}
+
+	private void getTileRange(final int pZoomLevel, final Point pUpperLeft, final Point pLowerRight) {
+		if (mBoundingBox != null) {
+			MapTilePrefetcher.getTileRange(mBoundingBox, pZoomLevel, pUpperLeft, pLowerRight);
+		}
+	}
+
+	private boolean isTileInRange(final int pZoomLevel, final int pX, final int pY,
+			final Point pUpperLeft, final Point pLowerRight) {
+		if (pZoomLevel < mZoomMin || pZoomLevel > mZoomMax) {
+			return false;
+		}
+		if (mBoundingBox == null) {
+			return true;
+		}
+		if (pY < pUpperLeft.y || pY > pLowerRight.y) {
+			return false;
+		}
+		if (pUpperLeft.x <= pLowerRight.x) {
+			return pX >= pUpperLeft.x && pX <= pLowerRight.x;
+		}
+		// crosses the date line
+		return pX >= pUpperLeft.x || pX <= pLowerRight.x;
+	}
+
+	/**
+	 * Parse a tile coordinate from a cache directory or file name, e.g. "12" or "345.png.tile".
+	 *
+	 * @return the coordinate, or -1 if the name isn't a tile coordinate
+	 */
+	private static int parseTileCoordinate(final String pName) {
+		final int end = pName.indexOf('.');
+		try {
+			return Integer.parseInt(end < 0 ? pName : pName.substring(0, end));
+		} catch (final NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static byte[] readFile(final File pFile) {
+		InputStream in = null;
+		try {
+			final byte[] data = new byte[(int) pFile.length()];
+			in = new FileInputStream(pFile);
+			int offset = 0;
+			int read;
+			while (offset < data.length
+					&& (read = in.read(data, offset, data.length - offset)) != -1) {
+				offset += read;
+			}
+			return data;
+		} catch (final IOException e) {
+			logger.warn("Unable to read tile: " + pFile + " : " + e);
+			return null;
+		} finally {
+			StreamUtils.closeStream(in);
+		}
+	}
+
+	private synchronized void start() {
+		mExportedTiles = 0;
+		mExportedBytes = 0;
+		mElapsedTime = 0;
+		mStartTime = System.currentTimeMillis();
+	}
+
+	private void tileExported(final long pBytes) {
+		final boolean notify;
+		synchronized (this) {
+			mExportedTiles++;
+			mExportedBytes += pBytes;
+			notify = mExportedTiles % PROGRESS_INTERVAL == 0;
+		}
+		if (notify && mListener != null) {
+			mListener.onExportProgress(this);
+		}
+	}
+
+	private void finish(final File pFile) {
+		synchronized (this) {
+			mElapsedTime = Math.max(1, System.currentTimeMillis() - mStartTime);
+		}
+		logger.info("Exported " + mExportedTiles + " tiles (" + mExportedBytes + " bytes) to "
+				+ pFile + " in " + mElapsedTime + "ms: " + (int) getTilesPerSecond()
+				+ " tiles/s, " + (int) (getBytesPerSecond() / 1024) + " KB/s");
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	/**
+	 * Receives progress of an export.
+	 */
+	public interface ExportListener {
+		void onExportProgress(TileCacheExporter pExporter);
+	}
+
+	private static class ExportedTile {
+		static final ExportedTile END = new ExportedTile(0, 0, 0, null);
+
+		final int zoom;
+		final int x;
+		final int y;
+		final byte[] data;
+
+		/** why the walk failed, only set on the last tile of a failed export */
+		final Throwable failure;
+
+		ExportedTile(final int pZoom, final int pX, final int pY, final byte[] pData) {
+			zoom = pZoom;
+			x = pX;
+			y = pY;
+			data = pData;
+			failure = null;
+		}
+
+		ExportedTile(final Throwable pFailure) {
+			zoom = 0;
+			x = 0;
+			y = 0;
+			data = null;
+			failure = pFailure;
+		}
+	}
+}
@@ -86,8 +86,7 @@ public class TileWriter implements IFilesystemCache, OpenStreetMapTileProviderCo
 	public boolean saveFile(final ITileSource pTileSource, final MapTile pTile,
 			final InputStream pStream) {
 
-		final File file = new File(TILE_PATH_BASE, pTileSource.getTileRelativeFilenameString(pTile)
-				+ TILE_PATH_EXTENSION);
+		final File file = getFile(pTileSource, pTile);
 
 		final File parent = file.getParentFile();
 		if (!parent.exists() && !createFolderAndCheckIfExists(parent)) {
@@ -118,6 +117,38 @@ public class TileWriter implements IFilesystemCache, OpenStreetMapTileProviderCo
 	// Methods
 	// ===========================================================
 
+	/**
+	 * Get the file the specified tile is cached in. The file doesn't necessarily exist.
+	 *
+	 * @param pTileSource
+	 *            a tile source
+	 * @param pTile
+	 *            a tile
+	 * @return the cache file
+	 */
+	public File getFile(final ITileSource pTileSource, final MapTile pTile) {
+		return new File(TILE_PATH_BASE, pTileSource.getTileRelativeFilenameString(pTile)
+				+ TILE_PATH_EXTENSION);
+	}
+
+	/**
+	 * Whether the specified tile is in the cache and hasn't expired.
+	 *
+	 * @param pTileSource
+	 *            a tile source
+	 * @param pTile
+	 *            a tile
+	 * @param pMaximumCachedFileAge
+	 *            the age in milliseconds after which a cached tile is considered expired
+	 * @return true if the cache contains a fresh copy of the tile
+	 */
+	public boolean isTileFresh(final ITileSource pTileSource, final MapTile pTile,
+			final long pMaximumCachedFileAge) {
+		final File file = getFile(pTileSource, pTile);
+		// lastModified() returns 0 if the file doesn't exist
+		return file.lastModified() >= System.currentTimeMillis() - pMaximumCachedFileAge;
+	}
+
 	private boolean createFolderAndCheckIfExists(final File pFile) {
 		if (pFile.mkdirs()) {
 			return true;
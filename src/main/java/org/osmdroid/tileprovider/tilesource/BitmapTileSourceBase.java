@@ -1,12 +1,14 @@
 package org.osmdroid.tileprovider.tilesource;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Random;
 
 import org.osmdroid.ResourceProxy;
 import org.osmdroid.ResourceProxy.string;
 import org.osmdroid.tileprovider.BitmapPool;
+import org.osmdroid.tileprovider.ExpirableBitmapDrawable;
 import org.osmdroid.tileprovider.MapTile;
 import org.osmdroid.tileprovider.ReusableBitmapDrawable;
 import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
@@ -15,7 +17,10 @@ import org.slf4j.LoggerFactory;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 
 public abstract class BitmapTileSourceBase implements ITileSource,
 		OpenStreetMapTileProviderConstants {
@@ -153,6 +158,116 @@ public abstract class BitmapTileSourceBase implements ITileSource,
 		return null;
 	}
 
+	/**
+	 * Get a reduced-size Drawable from the specified file path. Only the pixels in the region are
+	 * decoded, and they are subsampled as far as possible without going below the target size.
+	 * This is meant for consumers that only draw a tile (or part of a tile) at a fraction of its
+	 * native size. The resulting Drawable is not a {@link ReusableBitmapDrawable} since its
+	 * Bitmap doesn't have the size of the Bitmaps in the {@link BitmapPool}.
+	 *
+	 * @param aFilePath
+	 *            a file path
+	 * @param pRegion
+	 *            the part of the tile to decode in tile pixels, or null for the whole tile
+	 * @param pTargetSizePx
+	 *            the size in pixels that the region will be drawn at
+	 * @return the rendered Drawable, or null if it couldn't be decoded
+	 */
+	public Drawable getDrawable(final String aFilePath, final Rect pRegion, final int pTargetSizePx) {
+		try {
+			final Bitmap bitmap = decodeScaledBitmap(aFilePath, null, pRegion, pTargetSizePx);
+			if (bitmap != null) {
+				return new ExpirableBitmapDrawable(bitmap);
+			}
+		} catch (final IOException e) {
+			logger.warn("Error decoding scaled bitmap: " + aFilePath + " : " + e);
+		} catch (final OutOfMemoryError e) {
+			logger.error("OutOfMemoryError loading scaled bitmap: " + aFilePath);
+			System.gc();
+		}
+		return null;
+	}
+
+	/**
+	 * Get a reduced-size Drawable from the specified InputStream.
+	 *
+	 * @see #getDrawable(String, Rect, int)
+	 */
+	public Drawable getDrawable(final InputStream aFileInputStream, final Rect pRegion,
+			final int pTargetSizePx) throws LowMemoryException {
+		try {
+			final Bitmap bitmap = decodeScaledBitmap(null, aFileInputStream, pRegion,
+					pTargetSizePx);
+			if (bitmap != null) {
+				return new ExpirableBitmapDrawable(bitmap);
+			}
+		} catch (final IOException e) {
+			logger.warn("Error decoding scaled bitmap: " + e);
+		} catch (final OutOfMemoryError e) {
+			logger.error("OutOfMemoryError loading scaled bitmap");
+			System.gc();
+			throw new LowMemoryException(e);
+		}
+		return null;
+	}
+
+	private Bitmap decodeScaledBitmap(final String aFilePath, final InputStream aInputStream,
+			final Rect pRegion, final int pTargetSizePx) throws IOException {
+		final int sourceSize = pRegion != null ? Math.max(pRegion.width(), pRegion.height())
+				: getTileSizePixels();
+		final BitmapFactory.Options bitmapOptions = new BitmapFactory.Options();
+		bitmapOptions.inSampleSize = getSampleSize(sourceSize, pTargetSizePx);
+
+		// BitmapRegionDecoder is only available from 2.3.3 Gingerbread
+		if (pRegion != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.GINGERBREAD_MR1) {
+			final BitmapRegionDecoder decoder = aFilePath != null
+					? BitmapRegionDecoder.newInstance(aFilePath, false)
+					: BitmapRegionDecoder.newInstance(aInputStream, false);
+			try {
+				return decoder.decodeRegion(pRegion, bitmapOptions);
+			} finally {
+				decoder.recycle();
+			}
+		}
+
+		final Bitmap bitmap = aFilePath != null
+				? BitmapFactory.decodeFile(aFilePath, bitmapOptions)
+				: BitmapFactory.decodeStream(aInputStream, null, bitmapOptions);
+		if (bitmap == null || pRegion == null) {
+			return bitmap;
+		}
+
+		// crop the region out of the subsampled tile
+		final int sampleSize = bitmapOptions.inSampleSize;
+		final Bitmap region = Bitmap.createBitmap(bitmap, pRegion.left / sampleSize, pRegion.top
+				/ sampleSize, Math.max(1, pRegion.width() / sampleSize),
+				Math.max(1, pRegion.height() / sampleSize));
+		if (region != bitmap) {
+			bitmap.recycle();
+		}
+		return region;
+	}
+
+	/**
+	 * Get the largest power of two sample size that subsamples the source size without going
+	 * below the target size.
+	 *
+	 * @param pSourceSizePx
+	 *            the size in pixels of the area to decode
+	 * @param pTargetSizePx
+	 *            the size in pixels the area will be drawn at
+	 * @return a sample size suitable for {@link BitmapFactory.Options#inSampleSize}
+	 */
+	public static int getSampleSize(final int pSourceSizePx, final int pTargetSizePx) {
+		int sampleSize = 1;
+		if (pTargetSizePx > 0) {
+			while (pSourceSizePx / (sampleSize << 1) >= pTargetSizePx) {
+				sampleSize <<= 1;
+			}
+		}
+		return sampleSize;
+	}
+
 	public final class LowMemoryException extends Exception {
 		private static final long serialVersionUID = 146526524087765134L;
 
@@ -1,25 +1,187 @@
 package org.osmdroid.tileprovider.util;
 
 import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.MapView;
 
+import android.graphics.Rect;
 import android.os.Handler;
 import android.os.Message;
+import android.os.SystemClock;
 import android.view.View;
 
+/**
+ * Redraws the view when tiles arrive. The tiles that arrive within a frame are collected and the
+ * view is redrawn at most once per frame. When the view is a {@link MapView} and the messages
+ * carry the {@link MapTile}, only the union of the screen areas of the tiles is invalidated, and
+ * tiles that aren't on screen, like the ones in the margin around it or the ones that were
+ * prefetched, don't cause a redraw at all. Tiles from a lower zoom level, which may be drawn by
+ * another overlay such as a {@link org.osmdroid.views.overlay.MinimapOverlay}, redraw the whole
+ * view.
+ */
 public class SimpleInvalidationHandler extends Handler {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	/** The shortest time between two redraws, one frame at 60 frames per second */
+	private static final long FRAME_INTERVAL_MILLIS = 16;
+
+	private static final int FLUSH_ID = MapTile.MAPTILE_FAIL_ID + 1;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
 	private final View mView;
 
+	/** The Mercator bounds of the tiles that arrived since the last redraw */
+	private final Rect mDirty = new Rect();
+	private int mDirtyZoomLevel = -1;
+	private boolean mInvalidateAll;
+	private boolean mFlushScheduled;
+	private long mLastFlushTime;
+
+	private long mRedraws;
+	private long mRedrawsAvoided;
+
+	private final Rect mTileRect = new Rect();
+	private final Rect mScreenRect = new Rect();
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
 	public SimpleInvalidationHandler(final View pView) {
 		super();
 		mView = pView;
 	}
 
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	/**
+	 * The number of times the view has been invalidated.
+	 */
+	public long getRedraws() {
+		return mRedraws;
+	}
+
+	/**
+	 * The number of tiles that arrived without causing a redraw of their own, because they were
+	 * redrawn together with other tiles or weren't on screen.
+	 */
+	public long getRedrawsAvoided() {
+		return mRedrawsAvoided;
+	}
+
+	// ===========================================================
+	// Methods from SuperClass/Interfaces
+	// ===========================================================
+
 	@Override
 	public void handleMessage(final Message msg) {
 		switch (msg.what) {
 		case MapTile.MAPTILE_SUCCESS_ID:
-			mView.invalidate();
+			onTileReady(msg.obj instanceof MapTile ? (MapTile) msg.obj : null);
+			break;
+		case FLUSH_ID:
+			flush();
 			break;
 		}
 	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	private void onTileReady(final MapTile pTile) {
+		if (pTile == null || !(mView instanceof MapView)) {
+			mInvalidateAll = true;
+		} else if (!addDirtyTile((MapView) mView, pTile)) {
+			mRedrawsAvoided++;
+			return;
+		}
+
+		if (mFlushScheduled) {
+			mRedrawsAvoided++;
+			return;
+		}
+		mFlushScheduled = true;
+		sendEmptyMessageAtTime(FLUSH_ID,
+				Math.max(SystemClock.uptimeMillis(), mLastFlushTime + FRAME_INTERVAL_MILLIS));
+	}
+
+	/**
+	 * Add the area covered by a tile at the zoom level of the map to the dirty area. A tile from
+	 * the zoom level above can be on screen too, as a stand-in for a tile that hasn't arrived.
+	 * The tiles from lower zoom levels can't be placed, since they may be drawn elsewhere on
+	 * screen by another overlay, like the tiles of a minimap, so they invalidate the whole view.
+	 *
+	 * @return false if the tile isn't on screen
+	 */
+	private boolean addDirtyTile(final MapView pMapView, final MapTile pTile) {
+		final int zoomLevel = pMapView.getZoomLevel(false);
+		final int diff = zoomLevel - pTile.getZoomLevel();
+		if (pMapView.isAnimating() || pMapView.getProjection().getMultiTouchScale() != 1.0f
+				|| (mDirtyZoomLevel != -1 && mDirtyZoomLevel != zoomLevel)
+				|| diff > 0 || diff < -1) {
+			mInvalidateAll = true;
+			return true;
+		}
+
+		final int tileSize = TileSystem.getTileSize();
+		final long size, left, top;
+		if (diff == 0) {
+			size = tileSize;
+			left = pTile.getX() * size;
+			top = pTile.getY() * size;
+		} else {
+			size = Math.max(1, tileSize >> 1);
+			left = ((long) pTile.getX() * tileSize) >> 1;
+			top = ((long) pTile.getY() * tileSize) >> 1;
+		}
+
+		// the map wraps around horizontally, so take the copy of the tile nearest the screen
+		final long worldSize = TileSystem.MapSize(zoomLevel);
+		final long centerX = pMapView.getScrollX() + pMapView.getWidth() / 2;
+		final long wrappedLeft = left + Math.round((centerX - left - size / 2) / (double) worldSize)
+				* worldSize;
+
+		mTileRect.set((int) wrappedLeft, (int) top, (int) (wrappedLeft + size), (int) (top + size));
+		mTileRect.offset(-pMapView.getScrollX(), -pMapView.getScrollY());
+		if (!Rect.intersects(mTileRect, pMapView.getScreenRect(mScreenRect))) {
+			return false;
+		}
+
+		mTileRect.offset(pMapView.getScrollX(), pMapView.getScrollY());
+		mDirty.union(mTileRect);
+		mDirtyZoomLevel = zoomLevel;
+		return true;
+	}
+
+	private void flush() {
+		mFlushScheduled = false;
+		mLastFlushTime = SystemClock.uptimeMillis();
+		mRedraws++;
+
+		if (mInvalidateAll || !(mView instanceof MapView)) {
+			mView.invalidate();
+		} else {
+			final MapView mapView = (MapView) mView;
+			if (mapView.getZoomLevel(false) != mDirtyZoomLevel) {
+				mapView.invalidate();
+			} else {
+				// the map may have scrolled since the tiles arrived
+				mDirty.offset(-mapView.getScrollX(), -mapView.getScrollY());
+				mapView.invalidateMapCoordinates(mDirty);
+			}
+		}
+
+		mDirty.setEmpty();
+		mDirtyZoomLevel = -1;
+		mInvalidateAll = false;
+	}
 }
@@ -0,0 +1,197 @@
+package org.osmdroid.util;
+
+import java.util.Arrays;
+
+/**
+ * A spatial index over the bounds of features, like the polygons and lines of a vector layer, in
+ * projected pixels. The features are sorted by the Morton (Z-order) code of the centres of their
+ * bounds, so features that are near each other are next to each other, and are then grouped in
+ * that order into a tree in which each node has the bounds of up to {@link #NODE_SIZE} features or
+ * nodes below it. A query only visits the nodes that reach into its rectangle.
+ *
+ * The index is built all at once from the bounds of every feature, so it suits features that are
+ * added in batches and drawn many times. This class is not thread safe.
+ */
+public class FeatureIndex {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	/** The number of features or nodes under each node of the tree */
+	public static final int NODE_SIZE = 16;
+
+	/** The shift of a coordinate to the 16 bits that go into its Morton code */
+	private static final int SHIFT = PointIndex.BITS - 16;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	/** The features in Morton order */
+	private int[] mOrder = new int[0];
+
+	/**
+	 * The bounds at each level, as left, top, right and bottom; level 0 is the features in Morton
+	 * order, and the top level has one node
+	 */
+	private int[][] mBounds = new int[0][];
+	private int[] mCounts = new int[0];
+	private int mLevels;
+
+	/** The features found by the last query */
+	private int[] mResults = new int[16];
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int size() {
+		return mLevels == 0 ? 0 : mCounts[0];
+	}
+
+	/**
+	 * The features found by the last {@link #query(int, int, int, int)}, in ascending order. The
+	 * array is reused by the next query.
+	 */
+	public int[] getResults() {
+		return mResults;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	public void clear() {
+		mLevels = 0;
+	}
+
+	/**
+	 * Index features, replacing the ones indexed before.
+	 *
+	 * @param pBounds
+	 *            the bounds of each feature, as left, top, right and bottom, with coordinates from
+	 *            0 up to {@link PointIndex#SIZE}
+	 * @param pCount
+	 *            the number of features
+	 */
+	public void build(final int[] pBounds, final int pCount) {
+		clear();
+		if (pCount == 0) {
+			return;
+		}
+
+		// the Morton code is in the high bits, so sorting sorts by it and then by feature
+		final long[] keys = new long[pCount];
+		for (int i = 0; i < pCount; i++) {
+			final int x = (int) (((long) pBounds[4 * i] + pBounds[4 * i + 2]) >>> 1);
+			final int y = (int) (((long) pBounds[4 * i + 1] + pBounds[4 * i + 3]) >>> 1);
+			final long morton = interleave(x >>> SHIFT, y >>> SHIFT) & 0xFFFFFFFFL;
+			keys[i] = (morton << 32) | i;
+		}
+		Arrays.sort(keys);
+
+		if (mOrder.length < pCount) {
+			mOrder = new int[pCount];
+		}
+		final int[] level0 = allocateLevel(0, pCount);
+		for (int i = 0; i < pCount; i++) {
+			final int feature = (int) keys[i];
+			mOrder[i] = feature;
+			System.arraycopy(pBounds, 4 * feature, level0, 4 * i, 4);
+		}
+
+		// each level above has a node for every NODE_SIZE nodes below it, up to a single node
+		int count = pCount;
+		int level = 0;
+		while (count > 1) {
+			final int[] below = mBounds[level];
+			final int above = (count + NODE_SIZE - 1) / NODE_SIZE;
+			final int[] bounds = allocateLevel(++level, above);
+			for (int node = 0; node < above; node++) {
+				final int end = Math.min((node + 1) * NODE_SIZE, count);
+				int left = Integer.MAX_VALUE;
+				int top = Integer.MAX_VALUE;
+				int right = Integer.MIN_VALUE;
+				int bottom = Integer.MIN_VALUE;
+				for (int child = node * NODE_SIZE; child < end; child++) {
+					left = Math.min(left, below[4 * child]);
+					top = Math.min(top, below[4 * child + 1]);
+					right = Math.max(right, below[4 * child + 2]);
+					bottom = Math.max(bottom, below[4 * child + 3]);
+				}
+				bounds[4 * node] = left;
+				bounds[4 * node + 1] = top;
+				bounds[4 * node + 2] = right;
+				bounds[4 * node + 3] = bottom;
+			}
+			count = above;
+		}
+	}
+
+	/**
+	 * Find the features whose bounds cross a rectangle, including its edges.
+	 *
+	 * @return the number of features found, which are in {@link #getResults()}
+	 */
+	public int query(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		if (mLevels == 0) {
+			return 0;
+		}
+		final int count = query(mLevels - 1, 0, pLeft, pTop, pRight, pBottom, 0);
+		Arrays.sort(mResults, 0, count);
+		return count;
+	}
+
+	private int query(final int pLevel, final int pIndex, final int pLeft, final int pTop,
+			final int pRight, final int pBottom, int pCount) {
+		final int[] bounds = mBounds[pLevel];
+		final int i = 4 * pIndex;
+		if (bounds[i] > pRight || bounds[i + 1] > pBottom || bounds[i + 2] < pLeft
+				|| bounds[i + 3] < pTop) {
+			return pCount;
+		}
+		if (pLevel > 0) {
+			final int end = Math.min((pIndex + 1) * NODE_SIZE, mCounts[pLevel - 1]);
+			for (int child = pIndex * NODE_SIZE; child < end; child++) {
+				pCount = query(pLevel - 1, child, pLeft, pTop, pRight, pBottom, pCount);
+			}
+			return pCount;
+		}
+
+		if (pCount == mResults.length) {
+			mResults = Arrays.copyOf(mResults, mResults.length * 2);
+		}
+		mResults[pCount++] = mOrder[pIndex];
+		return pCount;
+	}
+
+	private int[] allocateLevel(final int pLevel, final int pCount) {
+		if (pLevel == mBounds.length) {
+			mBounds = Arrays.copyOf(mBounds, pLevel + 8);
+			mCounts = Arrays.copyOf(mCounts, pLevel + 8);
+		}
+		if (mBounds[pLevel] == null || mBounds[pLevel].length < 4 * pCount) {
+			mBounds[pLevel] = new int[4 * pCount];
+		}
+		mCounts[pLevel] = pCount;
+		mLevels = pLevel + 1;
+		return mBounds[pLevel];
+	}
+
+	/**
+	 * Interleave the bits of two 16 bit values, with the bits of y above those of x.
+	 */
+	private static int interleave(final int pX, final int pY) {
+		return spread(pX) | (spread(pY) << 1);
+	}
+
+	private static int spread(int pValue) {
+		pValue &= 0xFFFF;
+		pValue = (pValue | (pValue << 8)) & 0x00FF00FF;
+		pValue = (pValue | (pValue << 4)) & 0x0F0F0F0F;
+		pValue = (pValue | (pValue << 2)) & 0x33333333;
+		pValue = (pValue | (pValue << 1)) & 0x55555555;
+		return pValue;
+	}
+}
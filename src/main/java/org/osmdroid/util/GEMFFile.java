@@ -105,6 +105,24 @@ public class GEMFFile {
 	 */
 	public GEMFFile (final String pLocation, final List<File> pSourceFolders)
 		throws FileNotFoundException, IOException {
+		this(pLocation, pSourceFolders, null);
+	}
+
+
+	/*
+	 * Constructor to create new GEMF file from directory of sources/tiles, only
+	 * importing the tiles accepted by the filter.
+	 *
+	 * @param pLocation
+	 * 		String object representing path to first GEMF archive file.
+	 * @param pSourceFolders
+	 * 		Each specified folder will be imported into the GEMF archive as a seperate
+	 * 		source.
+	 * @param pFilter
+	 * 		Filter for the tiles to import, or null to import all tiles.
+	 */
+	public GEMFFile (final String pLocation, final List<File> pSourceFolders,
+			final TileFilter pFilter) throws FileNotFoundException, IOException {
 		/*
 		 * 1. For each source folder
 		 *   1. Create array of zoom levels, X rows, Y rows
@@ -157,15 +175,20 @@ public class GEMFFile {
 					final LinkedHashMap<Integer, File> yList = new LinkedHashMap<Integer, File>();
 					for (final File yFile: xDir.listFiles()) {
 
+						final int y;
 						try {
-							Integer.parseInt(yFile.getName().substring(
+							y = Integer.parseInt(yFile.getName().substring(
 									0, yFile.getName().indexOf('.')));
 						} catch (final NumberFormatException e) {
 							continue;
 						}
 
-						yList.put(Integer.parseInt(yFile.getName().substring(
-								0, yFile.getName().indexOf('.'))), yFile);
+						if (pFilter != null && !pFilter.accept(Integer.parseInt(zDir.getName()),
+								Integer.parseInt(xDir.getName()), y, yFile)) {
+							continue;
+						}
+
+						yList.put(y, yFile);
 					}
 
 					xList.put(new Integer(xDir.getName()), yList);
@@ -622,6 +645,11 @@ public class GEMFFile {
 	// Inner and Anonymous Classes
 	// ===========================================================
 
+	// Filter for the tiles to import when creating an archive.
+	public interface TileFilter {
+		boolean accept(int pZoom, int pX, int pY, File pFile);
+	}
+
 	// Class to represent a range of stored tiles within the archive.
 	private class GEMFRange	{
 		Integer zoom;
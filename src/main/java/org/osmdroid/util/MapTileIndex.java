@@ -0,0 +1,68 @@
+package org.osmdroid.util;
+
+/**
+ * Packs the zoom level, x and y of a map tile into a single long, so that tiles can be looked up
+ * without allocating a {@link org.osmdroid.tileprovider.MapTile} for each one. The zoom level is
+ * stored in the top 6 bits and x and y in 29 bits each, which is enough for zoom levels up to 29.
+ */
+public class MapTileIndex {
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	private static final int COORDINATE_BITS = 29;
+	private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+
+	/** The highest zoom level that fits in a tile index */
+	public static final int MAXIMUM_ZOOMLEVEL = COORDINATE_BITS;
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	/**
+	 * This is a utility class with only static members.
+	 */
+	private MapTileIndex() {
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	public static long getTileIndex(final int pZoomLevel, final int pX, final int pY) {
+		return ((long) pZoomLevel << (2 * COORDINATE_BITS))
+				| (((long) pX & COORDINATE_MASK) << COORDINATE_BITS) | ((long) pY & COORDINATE_MASK);
+	}
+
+	public static int getZoomLevel(final long pTileIndex) {
+		return (int) (pTileIndex >>> (2 * COORDINATE_BITS));
+	}
+
+	public static int getX(final long pTileIndex) {
+		return (int) ((pTileIndex >>> COORDINATE_BITS) & COORDINATE_MASK);
+	}
+
+	public static int getY(final long pTileIndex) {
+		return (int) (pTileIndex & COORDINATE_MASK);
+	}
+
+	/**
+	 * A well distributed hash of a tile index. The bits of the zoom level, x and y are all mixed
+	 * into the result, so neighbouring tiles and tiles with swapped coordinates don't collide.
+	 */
+	public static int hash(final long pTileIndex) {
+		// the finalizer of MurmurHash3
+		long h = pTileIndex;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	public static String toString(final long pTileIndex) {
+		return "/" + getZoomLevel(pTileIndex) + "/" + getX(pTileIndex) + "/" + getY(pTileIndex);
+	}
+}
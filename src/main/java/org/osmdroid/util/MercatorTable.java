@@ -0,0 +1,278 @@
+package org.osmdroid.util;
+
+import org.osmdroid.views.util.constants.MapViewConstants;
+
+/**
+ * Projects many points into Mercator pixels at once, without a {@link Math#sin(double)} and
+ * {@link Math#log(double)} for every point. The Mercator y of a latitude is interpolated from a
+ * table of cubic segments that is built once, with as many segments as are needed to stay within
+ * a given error. The results match {@link TileSystem#LatLongToPixelXY(double, double, int,
+ * android.graphics.Point)}, including the wrapping of latitudes and longitudes that are out of
+ * range and the clipping to the latitudes the projection covers, to within that error.
+ *
+ * The coordinates are passed as arrays of latitude and longitude pairs, which are replaced by the
+ * x and y of the pixels, so projecting a path doesn't allocate anything.
+ */
+public class MercatorTable {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	public static final double MAXIMUM_LATITUDE = 85.05112878;
+
+	/** The error of the {@link #getDefault() default table}, in pixels at the highest zoom level */
+	public static final double DEFAULT_MAXIMUM_ERROR_PIXELS = 0.25;
+
+	private static final int INITIAL_SEGMENTS = 64;
+
+	private static MercatorTable sDefault;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private final double mMaximumError;
+	private final int mSegments;
+	private final double mSegmentsPerDegree;
+
+	/** The four coefficients of the cubic for each segment, from the constant to the cubic term */
+	private final double[] mCoefficients;
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	/**
+	 * @param pLevelOfDetail
+	 *            the highest zoom level the table is used at
+	 * @param pMaximumErrorPixels
+	 *            the largest error in y allowed at that zoom level, in pixels
+	 */
+	public MercatorTable(final int pLevelOfDetail, final double pMaximumErrorPixels) {
+		this(pMaximumErrorPixels / ((double) TileSystem.getTileSize() * (1L << pLevelOfDetail)));
+	}
+
+	/**
+	 * @param pMaximumError
+	 *            the largest error in y allowed, as a fraction of the size of the map
+	 */
+	public MercatorTable(final double pMaximumError) {
+		if (!(pMaximumError > 0)) {
+			throw new IllegalArgumentException("The maximum error must be positive: "
+					+ pMaximumError);
+		}
+		mMaximumError = pMaximumError;
+
+		// the error of a cubic falls with the fourth power of the segment length, so this
+		// doesn't take many doublings
+		int segments = INITIAL_SEGMENTS;
+		double[] coefficients = buildTable(segments);
+		while (getTableError(coefficients, segments) > pMaximumError) {
+			segments *= 2;
+			coefficients = buildTable(segments);
+		}
+		mSegments = segments;
+		mSegmentsPerDegree = segments / (2 * MAXIMUM_LATITUDE);
+		mCoefficients = coefficients;
+	}
+
+	/**
+	 * A table that is accurate to {@link #DEFAULT_MAXIMUM_ERROR_PIXELS} at
+	 * {@link MapViewConstants#MAXIMUM_ZOOMLEVEL}, with the current tile size.
+	 */
+	public static synchronized MercatorTable getDefault() {
+		if (sDefault == null) {
+			sDefault = new MercatorTable(MapViewConstants.MAXIMUM_ZOOMLEVEL,
+					DEFAULT_MAXIMUM_ERROR_PIXELS);
+		}
+		return sDefault;
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	/**
+	 * The largest error in y, as a fraction of the size of the map.
+	 */
+	public double getMaximumError() {
+		return mMaximumError;
+	}
+
+	/**
+	 * The number of cubic segments the latitudes are divided into.
+	 */
+	public int getSegments() {
+		return mSegments;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Get the Mercator y of a latitude as a fraction of the size of the map, from 0 at the top to
+	 * 1 at the bottom. The latitude is clipped to the range the projection covers.
+	 */
+	public double getY(final double pLatitude) {
+		double t = (pLatitude + MAXIMUM_LATITUDE) * mSegmentsPerDegree;
+		if (t <= 0) {
+			t = 0;
+		} else if (t >= mSegments) {
+			t = mSegments;
+		}
+		int segment = (int) t;
+		if (segment == mSegments) {
+			segment--;
+		}
+		final double u = t - segment;
+		final int i = segment << 2;
+		final double[] c = mCoefficients;
+		return c[i] + u * (c[i + 1] + u * (c[i + 2] + u * c[i + 3]));
+	}
+
+	/**
+	 * Get the Mercator x of a longitude as a fraction of the size of the map, from 0 at the left
+	 * to 1 at the right. The longitude is wrapped into the range from -180 to 180.
+	 */
+	public static double getX(final double pLongitude) {
+		return (wrapLongitude(pLongitude) + 180) / 360;
+	}
+
+	/**
+	 * Project points in place into Mercator pixels at a zoom level. The pixels aren't rounded.
+	 *
+	 * @param pLatLongs
+	 *            latitude and longitude pairs in degrees, which are replaced by x and y pairs
+	 * @param pCount
+	 *            the number of points
+	 */
+	public void toPixels(final double[] pLatLongs, final int pCount, final int pLevelOfDetail) {
+		final double mapSize = (double) TileSystem.getTileSize() * (1L << pLevelOfDetail);
+		for (int i = 0; i < 2 * pCount; i += 2) {
+			final double latitude = pLatLongs[i];
+			pLatLongs[i] = getX(pLatLongs[i + 1]) * mapSize;
+			pLatLongs[i + 1] = getY(wrapLatitude(latitude)) * mapSize;
+		}
+	}
+
+	/**
+	 * Project points in place into Mercator pixels at a zoom level, rounded the same way as
+	 * {@link TileSystem#LatLongToPixelXY(double, double, int, android.graphics.Point)}.
+	 *
+	 * @param pLatLongE6
+	 *            latitude and longitude pairs in microdegrees, which are replaced by x and y pairs
+	 * @param pCount
+	 *            the number of points
+	 */
+	public void toPixelsE6(final int[] pLatLongE6, final int pCount, final int pLevelOfDetail) {
+		toPixelsE6(pLatLongE6, 0, pCount, pLevelOfDetail);
+	}
+
+	/**
+	 * {@link #toPixelsE6(int[], int, int)} for the points from an offset on.
+	 *
+	 * @param pOffset
+	 *            the first point, which is at index 2 * pOffset
+	 */
+	public void toPixelsE6(final int[] pLatLongE6, final int pOffset, final int pCount,
+			final int pLevelOfDetail) {
+		final int mapSize = TileSystem.MapSize(pLevelOfDetail);
+		final int maxPixel = mapSize - 1;
+		for (int i = 2 * pOffset; i < 2 * (pOffset + pCount); i += 2) {
+			final double latitude = wrapLatitude(pLatLongE6[i] * 1E-6);
+			final double x = getX(pLatLongE6[i + 1] * 1E-6) * mapSize + 0.5;
+			final double y = getY(latitude) * mapSize + 0.5;
+			pLatLongE6[i] = x < 0 ? 0 : x > maxPixel ? maxPixel : (int) x;
+			pLatLongE6[i + 1] = y < 0 ? 0 : y > maxPixel ? maxPixel : (int) y;
+		}
+	}
+
+	/**
+	 * The exact Mercator y of a latitude, as in {@link microsoft.mappoint.TileSystem}.
+	 */
+	static double getExactY(final double pLatitude) {
+		final double latitude = Math.min(Math.max(pLatitude, -MAXIMUM_LATITUDE), MAXIMUM_LATITUDE);
+		final double sinLatitude = Math.sin(latitude * Math.PI / 180);
+		return 0.5 - Math.log((1 + sinLatitude) / (1 - sinLatitude)) / (4 * Math.PI);
+	}
+
+	/**
+	 * The slope of the Mercator y, per degree of latitude.
+	 */
+	private static double getExactSlope(final double pLatitude) {
+		return -1 / (2 * Math.PI * Math.cos(pLatitude * Math.PI / 180)) * Math.PI / 180;
+	}
+
+	/**
+	 * Build the cubic Hermite segments through the exact values and slopes at evenly spaced
+	 * latitudes.
+	 */
+	private static double[] buildTable(final int pSegments) {
+		final double step = 2 * MAXIMUM_LATITUDE / pSegments;
+		final double[] coefficients = new double[4 * pSegments];
+		double y0 = getExactY(-MAXIMUM_LATITUDE);
+		double d0 = getExactSlope(-MAXIMUM_LATITUDE) * step;
+		for (int segment = 0; segment < pSegments; segment++) {
+			final double latitude = -MAXIMUM_LATITUDE + (segment + 1) * step;
+			final double y1 = getExactY(latitude);
+			final double d1 = getExactSlope(latitude) * step;
+			final int i = segment << 2;
+			coefficients[i] = y0;
+			coefficients[i + 1] = d0;
+			coefficients[i + 2] = 3 * (y1 - y0) - 2 * d0 - d1;
+			coefficients[i + 3] = 2 * (y0 - y1) + d0 + d1;
+			y0 = y1;
+			d0 = d1;
+		}
+		return coefficients;
+	}
+
+	/**
+	 * The largest error of the segments, sampled at a few points inside each. The error of a
+	 * Hermite cubic is largest near the middle of a segment and zero at the ends.
+	 */
+	private static double getTableError(final double[] pCoefficients, final int pSegments) {
+		final double step = 2 * MAXIMUM_LATITUDE / pSegments;
+		double error = 0;
+		for (int segment = 0; segment < pSegments; segment++) {
+			final int i = segment << 2;
+			for (double u = 0.125; u < 1; u += 0.125) {
+				final double y = pCoefficients[i]
+						+ u
+						* (pCoefficients[i + 1] + u
+								* (pCoefficients[i + 2] + u * pCoefficients[i + 3]));
+				final double latitude = -MAXIMUM_LATITUDE + (segment + u) * step;
+				error = Math.max(error, Math.abs(y - getExactY(latitude)));
+			}
+		}
+		return error;
+	}
+
+	/**
+	 * Wrap a longitude into the range from -180 to 180 the same way as {@link TileSystem}.
+	 */
+	private static double wrapLongitude(final double pLongitude) {
+		if (pLongitude < -180) {
+			return pLongitude + 360 * Math.ceil((-180 - pLongitude) / 360);
+		}
+		if (pLongitude > 180) {
+			return pLongitude - 360 * Math.ceil((pLongitude - 180) / 360);
+		}
+		return pLongitude;
+	}
+
+	/**
+	 * Wrap a latitude into the range from -90 to 90 the same way as {@link TileSystem}.
+	 */
+	private static double wrapLatitude(final double pLatitude) {
+		if (pLatitude < -90) {
+			return pLatitude + 180 * Math.ceil((-90 - pLatitude) / 180);
+		}
+		if (pLatitude > 90) {
+			return pLatitude - 180 * Math.ceil((pLatitude - 90) / 180);
+		}
+		return pLatitude;
+	}
+}
@@ -0,0 +1,149 @@
+package org.osmdroid.util;
+
+import java.util.Arrays;
+
+import org.osmdroid.views.util.constants.MapViewConstants;
+
+/**
+ * The points of a path, kept in arrays of ints rather than as an object per point. Each point has
+ * its latitude and longitude in microdegrees, and its Mercator pixels at
+ * {@link #PROJECTED_ZOOMLEVEL}, which are worked out the first time they are needed and kept, so
+ * that drawing the path at any zoom level only takes a shift and an offset per point.
+ *
+ * The arrays are pairs of values, latitude and longitude or x and y, so a loop over the points
+ * reads memory in order. This class is not thread safe.
+ */
+public class PathPoints {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	/** The zoom level of the projected pixels, as for org.osmdroid.views.Projection */
+	public static final int PROJECTED_ZOOMLEVEL = MapViewConstants.MAXIMUM_ZOOMLEVEL;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private int[] mLatLongE6 = new int[32];
+	private int[] mProjected = new int[32];
+	private int mSize;
+
+	/** The number of points whose projected pixels have been worked out */
+	private int mProjectedSize;
+
+	/** The bounds of the projected points */
+	private int mLeft;
+	private int mTop;
+	private int mRight;
+	private int mBottom;
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int size() {
+		return mSize;
+	}
+
+	public int getLatitudeE6(final int pPosition) {
+		return mLatLongE6[2 * pPosition];
+	}
+
+	public int getLongitudeE6(final int pPosition) {
+		return mLatLongE6[2 * pPosition + 1];
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	public void clear() {
+		mSize = 0;
+		mProjectedSize = 0;
+	}
+
+	public void addPoint(final int pLatitudeE6, final int pLongitudeE6) {
+		ensureCapacity(mSize + 1);
+		mLatLongE6[2 * mSize] = pLatitudeE6;
+		mLatLongE6[2 * mSize + 1] = pLongitudeE6;
+		mSize++;
+	}
+
+	/**
+	 * Add points from separate arrays of latitudes and longitudes, which must be the same length.
+	 */
+	public void addPoints(final int[] pLatitudesE6, final int[] pLongitudesE6) {
+		if (pLatitudesE6.length != pLongitudesE6.length) {
+			throw new IllegalArgumentException("There are " + pLatitudesE6.length
+					+ " latitudes but " + pLongitudesE6.length + " longitudes");
+		}
+		final int count = pLatitudesE6.length;
+		ensureCapacity(mSize + count);
+		final int[] latLongE6 = mLatLongE6;
+		for (int i = 0, j = 2 * mSize; i < count; i++, j += 2) {
+			latLongE6[j] = pLatitudesE6[i];
+			latLongE6[j + 1] = pLongitudesE6[i];
+		}
+		mSize += count;
+	}
+
+	/**
+	 * Get the projected pixels of all the points, as pairs of x and y at
+	 * {@link #PROJECTED_ZOOMLEVEL}. The points that were added since the last call are projected
+	 * first. The array is replaced when the path grows.
+	 */
+	public int[] getProjected() {
+		if (mProjectedSize < mSize) {
+			final int count = mSize - mProjectedSize;
+			System.arraycopy(mLatLongE6, 2 * mProjectedSize, mProjected, 2 * mProjectedSize,
+					2 * count);
+			MercatorTable.getDefault().toPixelsE6(mProjected, mProjectedSize, count,
+					PROJECTED_ZOOMLEVEL);
+			if (mProjectedSize == 0) {
+				mLeft = mRight = mProjected[0];
+				mTop = mBottom = mProjected[1];
+			}
+			for (int i = 2 * mProjectedSize; i < 2 * mSize; i += 2) {
+				mLeft = Math.min(mLeft, mProjected[i]);
+				mRight = Math.max(mRight, mProjected[i]);
+				mTop = Math.min(mTop, mProjected[i + 1]);
+				mBottom = Math.max(mBottom, mProjected[i + 1]);
+			}
+			mProjectedSize = mSize;
+		}
+		return mProjected;
+	}
+
+	/**
+	 * The width of the bounds of the projected points, in pixels at {@link #PROJECTED_ZOOMLEVEL}.
+	 */
+	public int getProjectedWidth() {
+		getProjected();
+		return mSize == 0 ? 0 : mRight - mLeft;
+	}
+
+	/**
+	 * The height of the bounds of the projected points, in pixels at {@link #PROJECTED_ZOOMLEVEL}.
+	 */
+	public int getProjectedHeight() {
+		getProjected();
+		return mSize == 0 ? 0 : mBottom - mTop;
+	}
+
+	/**
+	 * The number of bytes held by the arrays, including the space kept for points to come.
+	 */
+	public long getMemoryUsage() {
+		return 4L * (mLatLongE6.length + mProjected.length);
+	}
+
+	private void ensureCapacity(final int pSize) {
+		if (2 * pSize > mLatLongE6.length) {
+			final int length = Math.max(2 * pSize, mLatLongE6.length * 2);
+			mLatLongE6 = Arrays.copyOf(mLatLongE6, length);
+			mProjected = Arrays.copyOf(mProjected, length);
+		}
+	}
+}
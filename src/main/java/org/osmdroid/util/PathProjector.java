@@ -0,0 +1,149 @@
+package org.osmdroid.util;
+
+/**
+ * Projects the points of a path to pixels. The x of a point is linear in its longitude. Its y is
+ * interpolated between the latitudes of the top and bottom of the tile it is in, either with the
+ * exact Mercator projection (Gudermann) or linearly, which is close enough once the tiles are
+ * small. The tile is only looked up again when a point leaves the row of tiles of the point
+ * before it, so a path that stays in a few rows costs a few multiplications per point.
+ *
+ * This class only uses plain Java and allocates nothing once it is created, so it can be reused
+ * for any number of paths:
+ *
+ * <pre>
+ * projector.begin(zoomLevel, offsetX, offsetY, true);
+ * for (...) {
+ * 	projector.project(latitudeE6, longitudeE6);
+ * 	... projector.getX(), projector.getY() ...
+ * }
+ * </pre>
+ *
+ * The longitudes are wrapped into the range from -180 to 180, so the points are always on the
+ * map between the offset and the offset plus the size of the map.
+ *
+ * @see org.osmdroid.views.util.PathProjection
+ */
+public class PathProjector {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	/** The zoom level below which the Gudermann interpolation is used, if it is asked for */
+	public static final int GUDERMANN_MAXIMUM_ZOOMLEVEL = 7;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private boolean mGudermann;
+	private int mZoomLevel;
+	private int mTileSize;
+	private double mMapSize;
+	private int mOffsetX;
+	private int mOffsetY;
+
+	/** The row of tiles of the last point, its latitudes, and their inverse Gudermann values */
+	private int mTileY;
+	private double mTileNorth;
+	private double mTileSouth;
+	private double mTileNorthY;
+	private double mTileSouthY;
+
+	private float mX;
+	private float mY;
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	/**
+	 * The x of the last point projected.
+	 */
+	public float getX() {
+		return mX;
+	}
+
+	/**
+	 * The y of the last point projected.
+	 */
+	public float getY() {
+		return mY;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Start a path.
+	 *
+	 * @param offsetX
+	 *            the x of the left of the map
+	 * @param offsetY
+	 *            the y of the top of the map
+	 */
+	public void begin(final int zoomLevel, final int offsetX, final int offsetY,
+			final boolean doGudermann) {
+		mGudermann = doGudermann && zoomLevel < GUDERMANN_MAXIMUM_ZOOMLEVEL;
+		mZoomLevel = zoomLevel;
+		mTileSize = TileSystem.getTileSize();
+		mMapSize = TileSystem.MapSize(zoomLevel);
+		mOffsetX = offsetX;
+		mOffsetY = offsetY;
+		mTileY = -1;
+	}
+
+	/**
+	 * Project a point, whose pixels are then returned by {@link #getX()} and {@link #getY()}.
+	 */
+	public void project(final int latitudeE6, final int longitudeE6) {
+		final double latitude = Math.max(-MercatorTable.MAXIMUM_LATITUDE,
+				Math.min(MercatorTable.MAXIMUM_LATITUDE, latitudeE6 / 1E6));
+		if (mTileY < 0 || latitude > mTileNorth || latitude < mTileSouth) {
+			setTileRow(latitude);
+		}
+
+		final double relativeY;
+		if (mGudermann) {
+			relativeY = (mTileNorthY - MyMath.gudermannInverse(latitude))
+					/ (mTileNorthY - mTileSouthY);
+		} else {
+			relativeY = (mTileNorth - latitude) / (mTileNorth - mTileSouth);
+		}
+		mX = (float) (MercatorTable.getX(longitudeE6 / 1E6) * mMapSize + mOffsetX);
+		mY = (float) ((mTileY + relativeY) * mTileSize + mOffsetY);
+	}
+
+	/**
+	 * Project points into an array.
+	 *
+	 * @param pLatLongE6
+	 *            latitude and longitude pairs in microdegrees
+	 * @param pCount
+	 *            the number of points
+	 * @param pOut
+	 *            where the x and y pairs are put
+	 */
+	public void project(final int[] pLatLongE6, final int pCount, final float[] pOut) {
+		for (int i = 0; i < 2 * pCount; i += 2) {
+			project(pLatLongE6[i], pLatLongE6[i + 1]);
+			pOut[i] = mX;
+			pOut[i + 1] = mY;
+		}
+	}
+
+	/**
+	 * Find the row of tiles a latitude is in, and the latitudes of its top and bottom.
+	 */
+	private void setTileRow(final double latitude) {
+		// the inverse Gudermann of the latitude is linear in the Mercator y
+		final int tiles = 1 << mZoomLevel;
+		final double mercatorY = (1 - MyMath.gudermannInverse(latitude) / Math.PI) / 2;
+		mTileY = Math.max(0, Math.min((int) (mercatorY * tiles), tiles - 1));
+		mTileNorthY = Math.PI * (1 - 2.0 * mTileY / tiles);
+		mTileSouthY = Math.PI * (1 - 2.0 * (mTileY + 1) / tiles);
+		mTileNorth = MyMath.gudermann(mTileNorthY);
+		mTileSouth = MyMath.gudermann(mTileSouthY);
+	}
+}
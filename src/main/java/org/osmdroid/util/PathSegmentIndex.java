@@ -0,0 +1,253 @@
+package org.osmdroid.util;
+
+import java.util.Arrays;
+
+/**
+ * A spatial index over the segments of a {@link PathPoints} path, in projected pixels. The
+ * segments are grouped in order into chunks of {@link #CHUNK_SIZE}, each with the bounds of its
+ * points, and the chunks into a tree in which each node has the bounds of up to {@link #FANOUT}
+ * nodes below it. The points of a path like a GPS track are close to the points before and after
+ * them, so the bounds are tight, and a query for a small part of a long path only visits the few
+ * chunks and nodes that reach into it.
+ *
+ * Appending points only grows the bounds of the last chunk and the nodes above it. This class is
+ * not thread safe.
+ */
+public class PathSegmentIndex {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	/** The number of segments in a chunk */
+	public static final int CHUNK_SIZE = 64;
+
+	/** The number of nodes under each node of the tree */
+	public static final int FANOUT = 8;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	/** The bounds of the nodes at each level, as left, top, right and bottom; level 0 is chunks */
+	private int[][] mBounds = new int[8][];
+	private int[] mCounts = new int[8];
+	private int mLevels;
+
+	/** The number of points indexed */
+	private int mSize;
+
+	/** The ranges of points found by the last query, as pairs of first and last positions */
+	private int[] mRanges = new int[16];
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	/**
+	 * The ranges found by the last {@link #query(int, int, int, int)}, as pairs of the positions
+	 * of the first and last points of each range, in ascending order. The array is reused by the
+	 * next query.
+	 */
+	public int[] getRanges() {
+		return mRanges;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	public void clear() {
+		mLevels = 0;
+		mSize = 0;
+		Arrays.fill(mCounts, 0);
+	}
+
+	/**
+	 * Index the points that were added to the path since the last update. If the path got
+	 * shorter, it is assumed to have been cleared and is indexed again from the start.
+	 */
+	public void update(final PathPoints pPoints) {
+		final int size = pPoints.size();
+		if (size < mSize) {
+			clear();
+		}
+		if (size == mSize) {
+			return;
+		}
+		final int[] projected = pPoints.getProjected();
+		for (int position = mSize; position < size; position++) {
+			final int x = projected[2 * position];
+			final int y = projected[2 * position + 1];
+			final int chunk = position / CHUNK_SIZE;
+			if (position % CHUNK_SIZE == 0 && position > 0) {
+				// the last point of the chunk before is the first point of this one
+				add(chunk - 1, x, y);
+			}
+			add(chunk, x, y);
+		}
+		mSize = size;
+	}
+
+	/**
+	 * Find the segments that may cross a rectangle, including its edges. The segments of the
+	 * chunks that reach into the rectangle are returned as ranges of points, and the chunks that
+	 * are next to each other are merged into one range.
+	 *
+	 * @return the number of ranges, which are in {@link #getRanges()}
+	 */
+	public int query(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		if (mLevels == 0 || mSize < 2) {
+			return 0;
+		}
+		final int count = query(mLevels - 1, 0, pLeft, pTop, pRight, pBottom, 0);
+		return count / 2;
+	}
+
+	private int query(final int pLevel, final int pIndex, final int pLeft, final int pTop,
+			final int pRight, final int pBottom, int pCount) {
+		final int[] bounds = mBounds[pLevel];
+		final int i = 4 * pIndex;
+		if (bounds[i] > pRight || bounds[i + 1] > pBottom || bounds[i + 2] < pLeft
+				|| bounds[i + 3] < pTop) {
+			return pCount;
+		}
+		if (pLevel > 0) {
+			final int end = Math.min((pIndex + 1) * FANOUT, mCounts[pLevel - 1]);
+			for (int child = pIndex * FANOUT; child < end; child++) {
+				pCount = query(pLevel - 1, child, pLeft, pTop, pRight, pBottom, pCount);
+			}
+			return pCount;
+		}
+
+		final int first = pIndex * CHUNK_SIZE;
+		final int last = Math.min(first + CHUNK_SIZE, mSize - 1);
+		if (pCount > 0 && mRanges[pCount - 1] == first) {
+			// the chunks are found in order, so this one carries on from the one before
+			mRanges[pCount - 1] = last;
+			return pCount;
+		}
+		if (pCount + 2 > mRanges.length) {
+			mRanges = Arrays.copyOf(mRanges, mRanges.length * 2);
+		}
+		mRanges[pCount++] = first;
+		mRanges[pCount++] = last;
+		return pCount;
+	}
+
+	/**
+	 * Find the segment nearest to a point, within a distance.
+	 *
+	 * @param pProjected
+	 *            the projected pixels of the path, from {@link PathPoints#getProjected()}
+	 * @return the position of the first point of the segment, or -1 if there is no segment within
+	 *         the distance
+	 */
+	public int getNearestSegment(final int[] pProjected, final int pX, final int pY,
+			final int pDistance) {
+		final int count = query(pX - pDistance, pY - pDistance, pX + pDistance, pY + pDistance);
+		int nearest = -1;
+		double nearestDistance = (double) pDistance * pDistance;
+		for (int range = 0; range < count; range++) {
+			final int last = mRanges[2 * range + 1];
+			for (int position = mRanges[2 * range]; position < last; position++) {
+				final double distance = getSegmentDistanceSquared(pProjected, pX, pY, position);
+				if (distance <= nearestDistance) {
+					nearestDistance = distance;
+					nearest = position;
+				}
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * The square of the distance of a point from the segment that starts at a position.
+	 */
+	private static double getSegmentDistanceSquared(final int[] pProjected, final double pX,
+			final double pY, final int pPosition) {
+		final double x0 = pProjected[2 * pPosition];
+		final double y0 = pProjected[2 * pPosition + 1];
+		final double dx = pProjected[2 * pPosition + 2] - x0;
+		final double dy = pProjected[2 * pPosition + 3] - y0;
+		final double lengthSquared = dx * dx + dy * dy;
+		double t = 0;
+		if (lengthSquared > 0) {
+			t = Math.max(0, Math.min(1, ((pX - x0) * dx + (pY - y0) * dy) / lengthSquared));
+		}
+		final double ex = x0 + t * dx - pX;
+		final double ey = y0 + t * dy - pY;
+		return ex * ex + ey * ey;
+	}
+
+	/**
+	 * Add a point to the bounds of a chunk and the nodes above it, adding a level on top when the
+	 * top level gets a second node.
+	 */
+	private void add(final int pChunk, final int pX, final int pY) {
+		int index = pChunk;
+		for (int level = 0;; level++) {
+			if (level == mLevels) {
+				addLevel();
+			}
+			union(level, index, pX, pY);
+			if (level == mLevels - 1) {
+				if (mCounts[level] == 1) {
+					return;
+				}
+				addLevel();
+			}
+			index /= FANOUT;
+		}
+	}
+
+	private void addLevel() {
+		if (mLevels == mBounds.length) {
+			mBounds = Arrays.copyOf(mBounds, mLevels * 2);
+			mCounts = Arrays.copyOf(mCounts, mLevels * 2);
+		}
+		final int level = mLevels++;
+		if (mBounds[level] == null) {
+			mBounds[level] = new int[4 * FANOUT];
+		}
+		mCounts[level] = 0;
+		if (level == 0) {
+			return;
+		}
+		// the new top level covers the nodes of the level below
+		final int[] below = mBounds[level - 1];
+		for (int child = 0; child < mCounts[level - 1]; child++) {
+			union(level, child / FANOUT, below[4 * child], below[4 * child + 1]);
+			union(level, child / FANOUT, below[4 * child + 2], below[4 * child + 3]);
+		}
+	}
+
+	private void union(final int pLevel, final int pIndex, final int pX, final int pY) {
+		int[] bounds = mBounds[pLevel];
+		final int i = 4 * pIndex;
+		if (pIndex >= mCounts[pLevel]) {
+			if (i + 4 > bounds.length) {
+				bounds = Arrays.copyOf(bounds, Math.max(i + 4, bounds.length * 2));
+				mBounds[pLevel] = bounds;
+			}
+			bounds[i] = pX;
+			bounds[i + 1] = pY;
+			bounds[i + 2] = pX;
+			bounds[i + 3] = pY;
+			mCounts[pLevel] = pIndex + 1;
+			return;
+		}
+		if (pX < bounds[i]) {
+			bounds[i] = pX;
+		}
+		if (pY < bounds[i + 1]) {
+			bounds[i + 1] = pY;
+		}
+		if (pX > bounds[i + 2]) {
+			bounds[i + 2] = pX;
+		}
+		if (pY > bounds[i + 3]) {
+			bounds[i + 3] = pY;
+		}
+	}
+}
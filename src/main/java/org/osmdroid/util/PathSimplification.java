@@ -0,0 +1,283 @@
+package org.osmdroid.util;
+
+import java.util.Arrays;
+
+/**
+ * Simplified versions of a {@link PathPoints} path for each zoom level, so that drawing a long
+ * path when zoomed out only visits the points that make a visible difference. The path is
+ * simplified with the Douglas-Peucker algorithm, which gives each point the largest tolerance at
+ * which it is still kept. A zoom level keeps the points whose tolerance is at least half a pixel
+ * at that zoom level, so the simplified path is never more than half a pixel from the real one.
+ *
+ * The path is simplified in chunks of {@link #CHUNK_SIZE} points, whose first and last points are
+ * always kept, so appending points only simplifies the chunk at the end again, and the points of
+ * the chunks before it are added to the zoom levels once. A zoom level that keeps more than half
+ * the points isn't worth a list of its own, so all the points are drawn at it instead. A long path
+ * can be simplified a few chunks at a time with {@link #update(PathPoints, int)}.
+ *
+ * This class is not thread safe.
+ */
+public class PathSimplification {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	/** The number of segments in a chunk */
+	public static final int CHUNK_SIZE = 1024;
+
+	/** The number of zoom levels with a simplified path; the ones above draw all the points */
+	private static final int LEVELS = PathPoints.PROJECTED_ZOOMLEVEL;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	/** The tolerance of each point in projected pixels, or {@link Integer#MAX_VALUE} if kept */
+	private int[] mTolerances = new int[CHUNK_SIZE + 1];
+
+	/** The number of points seen, and the number in the chunks that won't change */
+	private int mSize;
+	private int mFinished;
+
+	/** Set while some of the points seen haven't been simplified, and are all kept */
+	private boolean mPending;
+
+	/** The positions of the points kept at each zoom level from the finished chunks, or null */
+	private final int[][] mLevels = new int[LEVELS][];
+	private final int[] mLevelSizes = new int[LEVELS];
+
+	/** The positions found by the last {@link #getPositions(int)} */
+	private int[] mResults = new int[16];
+	private int mResultsZoomLevel = -1;
+	private int mResultsSize;
+	private int mResultsCount;
+
+	/** The stack of the segments still to be simplified, as pairs of positions */
+	private int[] mStack = new int[64];
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public PathSimplification() {
+		clear();
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	/**
+	 * The positions found by the last {@link #getPositions(int)}, in ascending order. The array is
+	 * reused by the next call.
+	 */
+	public int[] getResults() {
+		return mResults;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	public void clear() {
+		mSize = 0;
+		mFinished = 0;
+		mPending = false;
+		for (int level = 0; level < LEVELS; level++) {
+			mLevels[level] = new int[16];
+			mLevelSizes[level] = 0;
+		}
+		mResultsZoomLevel = -1;
+	}
+
+	/**
+	 * Simplify the points that were added to the path since the last update. If the path got
+	 * shorter, it is assumed to have been cleared and is simplified again from the start.
+	 */
+	public void update(final PathPoints pPoints) {
+		update(pPoints, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * {@link #update(PathPoints)} with a limit on the work done, so that a long path can be
+	 * simplified a few chunks per frame. Until the path is done, the points that haven't been
+	 * simplified are all kept, so the zoom levels draw the path as it is, only more slowly.
+	 *
+	 * @param pMaximumChunks
+	 *            the most chunks to simplify
+	 * @return true if the whole path is simplified, false if this needs to be called again
+	 */
+	public boolean update(final PathPoints pPoints, final int pMaximumChunks) {
+		final int size = pPoints.size();
+		if (size < mSize) {
+			clear();
+		}
+		if (size == mSize && !mPending) {
+			return true;
+		}
+		final int[] projected = pPoints.getProjected();
+		if (size > mTolerances.length) {
+			mTolerances = Arrays.copyOf(mTolerances, Math.max(size, mTolerances.length * 2));
+		}
+		// the new points are kept until their chunk is simplified
+		Arrays.fill(mTolerances, Math.max(mSize, mFinished), size, Integer.MAX_VALUE);
+		mSize = size;
+		mResultsZoomLevel = -1;
+
+		int chunks = 0;
+		while (mFinished + CHUNK_SIZE < size) {
+			if (chunks++ == pMaximumChunks) {
+				mPending = true;
+				return false;
+			}
+			simplify(projected, mFinished, mFinished + CHUNK_SIZE);
+			for (int level = 0; level < LEVELS; level++) {
+				addToLevel(level, mFinished, mFinished + CHUNK_SIZE);
+			}
+			mFinished += CHUNK_SIZE;
+		}
+		if (chunks == pMaximumChunks) {
+			mPending = true;
+			return false;
+		}
+		if (size - 1 > mFinished) {
+			simplify(projected, mFinished, size - 1);
+		} else {
+			mTolerances[mFinished] = Integer.MAX_VALUE;
+		}
+		mPending = false;
+		return true;
+	}
+
+	/**
+	 * Find the points to draw at a zoom level. Call {@link #update(PathPoints)} first.
+	 *
+	 * @return the number of points, whose positions are in {@link #getResults()}
+	 */
+	public int getPositions(final int pZoomLevel) {
+		if (pZoomLevel == mResultsZoomLevel && mSize == mResultsSize) {
+			return mResultsCount;
+		}
+		ensureResults(mSize);
+		int count = 0;
+		if (pZoomLevel < 0 || pZoomLevel >= LEVELS || mLevels[pZoomLevel] == null) {
+			for (int i = 0; i < mSize; i++) {
+				mResults[count++] = i;
+			}
+		} else {
+			count = mLevelSizes[pZoomLevel];
+			System.arraycopy(mLevels[pZoomLevel], 0, mResults, 0, count);
+			final int tolerance = getTolerance(pZoomLevel);
+			for (int i = mFinished; i < mSize; i++) {
+				if (mTolerances[i] >= tolerance) {
+					mResults[count++] = i;
+				}
+			}
+		}
+		mResultsZoomLevel = pZoomLevel;
+		mResultsSize = mSize;
+		mResultsCount = count;
+		return count;
+	}
+
+	/**
+	 * Half a pixel at a zoom level, in projected pixels.
+	 */
+	private static int getTolerance(final int pZoomLevel) {
+		return 1 << (PathPoints.PROJECTED_ZOOMLEVEL - pZoomLevel - 1);
+	}
+
+	private void addToLevel(final int pLevel, final int pFrom, final int pTo) {
+		int[] positions = mLevels[pLevel];
+		if (positions == null) {
+			return;
+		}
+		final int tolerance = getTolerance(pLevel);
+		int size = mLevelSizes[pLevel];
+		for (int i = pFrom; i < pTo; i++) {
+			if (mTolerances[i] >= tolerance) {
+				if (size == positions.length) {
+					positions = Arrays.copyOf(positions, size * 2);
+				}
+				positions[size++] = i;
+			}
+		}
+		if (size > pTo / 2) {
+			// most points are kept, so it is as quick to draw them all
+			mLevels[pLevel] = null;
+			return;
+		}
+		mLevels[pLevel] = positions;
+		mLevelSizes[pLevel] = size;
+	}
+
+	/**
+	 * Work out the tolerances of the points from one position to another, both of which are kept.
+	 * Each point between them gets its distance from the segment that the Douglas-Peucker
+	 * algorithm would split there, or the tolerance of the point that was split before it if that
+	 * is smaller, so that a point is only kept when the points it depends on are too.
+	 */
+	private void simplify(final int[] pProjected, final int pFrom, final int pTo) {
+		mTolerances[pFrom] = Integer.MAX_VALUE;
+		mTolerances[pTo] = Integer.MAX_VALUE;
+		int top = 0;
+		mStack[top++] = pFrom;
+		mStack[top++] = pTo;
+		while (top > 0) {
+			final int last = mStack[--top];
+			final int first = mStack[--top];
+			if (last - first < 2) {
+				continue;
+			}
+
+			int farthest = -1;
+			double farthestDistance = -1;
+			for (int i = first + 1; i < last; i++) {
+				final double distance = getSegmentDistanceSquared(pProjected, i, first, last);
+				if (distance > farthestDistance) {
+					farthestDistance = distance;
+					farthest = i;
+				}
+			}
+			final double distance = Math.sqrt(farthestDistance);
+			final int parent = Math.min(mTolerances[first], mTolerances[last]);
+			mTolerances[farthest] = (int) Math.min(distance, parent);
+
+			if (top + 4 > mStack.length) {
+				mStack = Arrays.copyOf(mStack, mStack.length * 2);
+			}
+			mStack[top++] = first;
+			mStack[top++] = farthest;
+			mStack[top++] = farthest;
+			mStack[top++] = last;
+		}
+	}
+
+	/**
+	 * The square of the distance of a point from a segment, in projected pixels.
+	 */
+	private static double getSegmentDistanceSquared(final int[] pProjected, final int pPoint,
+			final int pStart, final int pEnd) {
+		final double x = pProjected[2 * pPoint];
+		final double y = pProjected[2 * pPoint + 1];
+		final double x0 = pProjected[2 * pStart];
+		final double y0 = pProjected[2 * pStart + 1];
+		final double dx = pProjected[2 * pEnd] - x0;
+		final double dy = pProjected[2 * pEnd + 1] - y0;
+		final double lengthSquared = dx * dx + dy * dy;
+		double t = 0;
+		if (lengthSquared > 0) {
+			t = Math.max(0, Math.min(1, ((x - x0) * dx + (y - y0) * dy) / lengthSquared));
+		}
+		final double ex = x0 + t * dx - x;
+		final double ey = y0 + t * dy - y;
+		return ex * ex + ey * ey;
+	}
+
+	private void ensureResults(final int pCapacity) {
+		if (pCapacity > mResults.length) {
+			mResults = Arrays.copyOf(mResults, Math.max(pCapacity, mResults.length * 2));
+		}
+	}
+}
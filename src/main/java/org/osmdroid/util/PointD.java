@@ -0,0 +1,60 @@
+package org.osmdroid.util;
+
+/**
+ * A point with double coordinates, for Mercator pixels with sub-pixel precision or at fractional
+ * zoom levels.
+ *
+ * @see android.graphics.Point
+ */
+public class PointD {
+
+	public double x;
+	public double y;
+
+	public PointD() {
+	}
+
+	public PointD(final double pX, final double pY) {
+		x = pX;
+		y = pY;
+	}
+
+	public PointD(final PointD pOther) {
+		set(pOther.x, pOther.y);
+	}
+
+	public void set(final double pX, final double pY) {
+		x = pX;
+		y = pY;
+	}
+
+	public void offset(final double pDx, final double pDy) {
+		x += pDx;
+		y += pDy;
+	}
+
+	@Override
+	public boolean equals(final Object pOther) {
+		if (this == pOther) {
+			return true;
+		}
+		if (!(pOther instanceof PointD)) {
+			return false;
+		}
+		final PointD other = (PointD) pOther;
+		return Double.doubleToLongBits(x) == Double.doubleToLongBits(other.x)
+				&& Double.doubleToLongBits(y) == Double.doubleToLongBits(other.y);
+	}
+
+	@Override
+	public int hashCode() {
+		final long bitsX = Double.doubleToLongBits(x);
+		final long bitsY = Double.doubleToLongBits(y);
+		return (int) (bitsX ^ (bitsX >>> 32)) * 31 + (int) (bitsY ^ (bitsY >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return "PointD(" + x + ", " + y + ")";
+	}
+}
@@ -0,0 +1,324 @@
+package org.osmdroid.util;
+
+import java.util.Arrays;
+
+/**
+ * A spatial index over a list of points, which are identified by their position in the list. The
+ * points are kept in a quadtree over a square of {@link #SIZE} by {@link #SIZE} units, whose
+ * leaves are split when they fill up, so a query only visits the part of the tree that overlaps
+ * the queried rectangle. Points can be inserted and removed anywhere in the list, which renumbers
+ * the points after them the same way as {@link java.util.List#add(int, Object)} and
+ * {@link java.util.List#remove(int)}.
+ *
+ * The points are usually Mercator coordinates; see {@link #longitudeToX(double)} and
+ * {@link #latitudeToY(double)}. This class is not thread safe.
+ */
+public class PointIndex {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	/** The number of bits of the coordinates */
+	public static final int BITS = 30;
+
+	/** The width and height of the indexed square */
+	public static final int SIZE = 1 << BITS;
+
+	/** A leaf with more points than this is split, unless it can't get any smaller */
+	private static final int LEAF_CAPACITY = 16;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private Node mRoot = new Node();
+
+	/** The coordinates of each point, by position */
+	private int[] mX = new int[16];
+	private int[] mY = new int[16];
+	private int mSize;
+
+	/** The positions found by the last query */
+	private int[] mResults = new int[16];
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int size() {
+		return mSize;
+	}
+
+	public int getX(final int pPosition) {
+		return mX[pPosition];
+	}
+
+	public int getY(final int pPosition) {
+		return mY[pPosition];
+	}
+
+	/**
+	 * The positions found by the last {@link #query(int, int, int, int)}, in ascending order. The
+	 * array is reused by the next query.
+	 */
+	public int[] getResults() {
+		return mResults;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Get the index x of a longitude.
+	 */
+	public static int longitudeToX(final double pLongitude) {
+		return clip(MercatorTable.getX(pLongitude) * SIZE);
+	}
+
+	/**
+	 * Get the index y of a latitude, with the exact Mercator projection.
+	 */
+	public static int latitudeToY(final double pLatitude) {
+		return clip(MercatorTable.getExactY(pLatitude) * SIZE);
+	}
+
+	private static int clip(final double pValue) {
+		return (int) Math.min(Math.max(pValue, 0), SIZE - 1);
+	}
+
+	public void clear() {
+		mRoot = new Node();
+		mSize = 0;
+	}
+
+	/**
+	 * Add a point at the end of the list.
+	 */
+	public void add(final int pX, final int pY) {
+		insert(mSize, pX, pY);
+	}
+
+	/**
+	 * Insert a point into the list, moving the points from that position on up by one.
+	 */
+	public void insert(final int pPosition, final int pX, final int pY) {
+		if (pPosition < 0 || pPosition > mSize) {
+			throw new IndexOutOfBoundsException("Position " + pPosition + ", size " + mSize);
+		}
+		if (mSize == mX.length) {
+			mX = Arrays.copyOf(mX, mSize * 2);
+			mY = Arrays.copyOf(mY, mSize * 2);
+		}
+		if (pPosition < mSize) {
+			System.arraycopy(mX, pPosition, mX, pPosition + 1, mSize - pPosition);
+			System.arraycopy(mY, pPosition, mY, pPosition + 1, mSize - pPosition);
+			mRoot.renumber(pPosition, 1);
+		}
+		mX[pPosition] = pX;
+		mY[pPosition] = pY;
+		mSize++;
+		mRoot.add(pPosition, pX, pY, 0, 0, SIZE);
+	}
+
+	/**
+	 * Remove a point from the list, moving the points after it down by one.
+	 */
+	public void remove(final int pPosition) {
+		if (pPosition < 0 || pPosition >= mSize) {
+			throw new IndexOutOfBoundsException("Position " + pPosition + ", size " + mSize);
+		}
+		mRoot.remove(pPosition, mX[pPosition], mY[pPosition], 0, 0, SIZE);
+		mSize--;
+		if (pPosition < mSize) {
+			System.arraycopy(mX, pPosition + 1, mX, pPosition, mSize - pPosition);
+			System.arraycopy(mY, pPosition + 1, mY, pPosition, mSize - pPosition);
+			mRoot.renumber(pPosition + 1, -1);
+		}
+	}
+
+	/**
+	 * Move a point without changing its position in the list.
+	 */
+	public void move(final int pPosition, final int pX, final int pY) {
+		if (pPosition < 0 || pPosition >= mSize) {
+			throw new IndexOutOfBoundsException("Position " + pPosition + ", size " + mSize);
+		}
+		mRoot.remove(pPosition, mX[pPosition], mY[pPosition], 0, 0, SIZE);
+		mX[pPosition] = pX;
+		mY[pPosition] = pY;
+		mRoot.add(pPosition, pX, pY, 0, 0, SIZE);
+	}
+
+	/**
+	 * Find the points inside a rectangle, including its edges. The rectangle may reach outside the
+	 * indexed square.
+	 *
+	 * @return the number of points found, which are in {@link #getResults()}
+	 */
+	public int query(final int pLeft, final int pTop, final int pRight, final int pBottom) {
+		final int count = mRoot.query(pLeft, pTop, pRight, pBottom, 0, 0, SIZE, 0);
+		Arrays.sort(mResults, 0, count);
+		return count;
+	}
+
+	private int[] ensureResults(final int pCapacity) {
+		if (pCapacity > mResults.length) {
+			mResults = Arrays.copyOf(mResults, Math.max(pCapacity, mResults.length * 2));
+		}
+		return mResults;
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	private class Node {
+
+		/** The positions of the points in a leaf, or null if this node has been split */
+		int[] mPositions = new int[LEAF_CAPACITY];
+		int mCount;
+
+		/** The children of a node that has been split, in the order NW, NE, SW, SE */
+		Node[] mChildren;
+
+		/** The number of points in this node and its children */
+		int mTotal;
+
+		void add(final int pPosition, final int pX, final int pY, final int pLeft, final int pTop,
+				final int pSize) {
+			mTotal++;
+			if (mChildren != null) {
+				final int half = pSize >> 1;
+				final int quadrant = getQuadrant(pX, pY, pLeft, pTop, half);
+				mChildren[quadrant].add(pPosition, pX, pY, pLeft + (quadrant & 1) * half, pTop
+						+ (quadrant >> 1) * half, half);
+				return;
+			}
+
+			if (mCount == mPositions.length) {
+				if (pSize > 1) {
+					// the points are added again, and so is this one
+					split(pLeft, pTop, pSize);
+					add(pPosition, pX, pY, pLeft, pTop, pSize);
+					return;
+				}
+				// all the points are in the same place
+				mPositions = Arrays.copyOf(mPositions, mCount * 2);
+			}
+			mPositions[mCount++] = pPosition;
+		}
+
+		private void split(final int pLeft, final int pTop, final int pSize) {
+			mChildren = new Node[] { new Node(), new Node(), new Node(), new Node() };
+			final int[] positions = mPositions;
+			final int count = mCount;
+			mPositions = null;
+			mCount = 0;
+			mTotal = 0;
+			for (int i = 0; i < count; i++) {
+				final int position = positions[i];
+				add(position, mX[position], mY[position], pLeft, pTop, pSize);
+			}
+		}
+
+		boolean remove(final int pPosition, final int pX, final int pY, final int pLeft,
+				final int pTop, final int pSize) {
+			if (mChildren != null) {
+				final int half = pSize >> 1;
+				final int quadrant = getQuadrant(pX, pY, pLeft, pTop, half);
+				if (!mChildren[quadrant].remove(pPosition, pX, pY, pLeft + (quadrant & 1) * half,
+						pTop + (quadrant >> 1) * half, half)) {
+					return false;
+				}
+				mTotal--;
+				if (mTotal == 0) {
+					// collapse back into an empty leaf
+					mChildren = null;
+					mPositions = new int[LEAF_CAPACITY];
+				}
+				return true;
+			}
+
+			for (int i = 0; i < mCount; i++) {
+				if (mPositions[i] == pPosition) {
+					mPositions[i] = mPositions[--mCount];
+					mTotal--;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void renumber(final int pFromPosition, final int pDelta) {
+			if (mChildren != null) {
+				for (final Node child : mChildren) {
+					if (child.mTotal > 0) {
+						child.renumber(pFromPosition, pDelta);
+					}
+				}
+				return;
+			}
+			for (int i = 0; i < mCount; i++) {
+				if (mPositions[i] >= pFromPosition) {
+					mPositions[i] += pDelta;
+				}
+			}
+		}
+
+		int query(final int pLeft, final int pTop, final int pRight, final int pBottom,
+				final int pNodeLeft, final int pNodeTop, final int pNodeSize, int pCount) {
+			if (mTotal == 0 || pRight < pNodeLeft || pBottom < pNodeTop
+					|| pLeft >= pNodeLeft + pNodeSize || pTop >= pNodeTop + pNodeSize) {
+				return pCount;
+			}
+
+			if (pLeft <= pNodeLeft && pTop <= pNodeTop && pRight >= pNodeLeft + pNodeSize - 1
+					&& pBottom >= pNodeTop + pNodeSize - 1) {
+				// the node is entirely inside, so there's no need to check each point
+				return collect(pCount);
+			}
+
+			if (mChildren != null) {
+				final int half = pNodeSize >> 1;
+				for (int quadrant = 0; quadrant < 4; quadrant++) {
+					pCount = mChildren[quadrant].query(pLeft, pTop, pRight, pBottom, pNodeLeft
+							+ (quadrant & 1) * half, pNodeTop + (quadrant >> 1) * half, half,
+							pCount);
+				}
+				return pCount;
+			}
+
+			final int[] results = ensureResults(pCount + mCount);
+			for (int i = 0; i < mCount; i++) {
+				final int position = mPositions[i];
+				final int x = mX[position];
+				final int y = mY[position];
+				if (x >= pLeft && x <= pRight && y >= pTop && y <= pBottom) {
+					results[pCount++] = position;
+				}
+			}
+			return pCount;
+		}
+
+		private int collect(int pCount) {
+			if (mChildren != null) {
+				for (final Node child : mChildren) {
+					if (child.mTotal > 0) {
+						pCount = child.collect(pCount);
+					}
+				}
+				return pCount;
+			}
+			final int[] results = ensureResults(pCount + mCount);
+			System.arraycopy(mPositions, 0, results, pCount, mCount);
+			return pCount + mCount;
+		}
+	}
+
+	private static int getQuadrant(final int pX, final int pY, final int pLeft, final int pTop,
+			final int pHalf) {
+		return (pX >= pLeft + pHalf ? 1 : 0) | (pY >= pTop + pHalf ? 2 : 0);
+	}
+}
@@ -0,0 +1,57 @@
+package org.osmdroid.util;
+
+/**
+ * A point with long coordinates, for Mercator pixels at zoom levels where they don't fit in an
+ * int.
+ *
+ * @see android.graphics.Point
+ */
+public class PointL {
+
+	public long x;
+	public long y;
+
+	public PointL() {
+	}
+
+	public PointL(final long pX, final long pY) {
+		x = pX;
+		y = pY;
+	}
+
+	public PointL(final PointL pOther) {
+		set(pOther.x, pOther.y);
+	}
+
+	public void set(final long pX, final long pY) {
+		x = pX;
+		y = pY;
+	}
+
+	public void offset(final long pDx, final long pDy) {
+		x += pDx;
+		y += pDy;
+	}
+
+	@Override
+	public boolean equals(final Object pOther) {
+		if (this == pOther) {
+			return true;
+		}
+		if (!(pOther instanceof PointL)) {
+			return false;
+		}
+		final PointL other = (PointL) pOther;
+		return x == other.x && y == other.y;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (x ^ (x >>> 32)) * 31 + (int) (y ^ (y >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return "PointL(" + x + ", " + y + ")";
+	}
+}
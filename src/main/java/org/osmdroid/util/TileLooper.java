@@ -30,8 +30,8 @@ public abstract class TileLooper {
 				// Construct a MapTile to request from the tile provider.
 				final int tileY = MyMath.mod(y, mapTileUpperBound);
 				final int tileX = MyMath.mod(x, mapTileUpperBound);
-				final MapTile tile = new MapTile(pZoomLevel, tileX, tileY);
-				handleTile(pCanvas, pTileSizePx, tile, x, y);
+				handleTile(pCanvas, pTileSizePx,
+						MapTileIndex.getTileIndex(pZoomLevel, tileX, tileY), x, y);
 			}
 		}
 
@@ -42,5 +42,16 @@ public abstract class TileLooper {
 
 	public abstract void handleTile(Canvas pCanvas, int pTileSizePx, MapTile pTile, int pX, int pY);
 
+	/**
+	 * Called for each tile in the loop with the tile packed by
+	 * {@link MapTileIndex#getTileIndex(int, int, int)}. The default implementation allocates a
+	 * {@link MapTile} and calls {@link #handleTile(Canvas, int, MapTile, int, int)}; override
+	 * this instead to loop without allocating anything per tile.
+	 */
+	public void handleTile(final Canvas pCanvas, final int pTileSizePx, final long pTileIndex,
+			final int pX, final int pY) {
+		handleTile(pCanvas, pTileSizePx, new MapTile(pTileIndex), pX, pY);
+	}
+
 	public abstract void finaliseLoop();
 }
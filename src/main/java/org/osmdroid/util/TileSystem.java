@@ -15,6 +15,12 @@ import android.graphics.Point;
  */
 public final class TileSystem {
 
+	/**
+	 * The highest zoom level that the long and double methods support. Tiles at higher zoom levels
+	 * can't be indexed by {@link MapTileIndex}, and the pixels still fit in a long.
+	 */
+	public static final int MAXIMUM_ZOOMLEVEL_LONG = MapTileIndex.MAXIMUM_ZOOMLEVEL;
+
 	/** @see microsoft.mappoint.TileSystem#setTileSize(int) */
 	public static void setTileSize(final int tileSize) {
 		microsoft.mappoint.TileSystem.setTileSize(tileSize);
@@ -59,6 +65,72 @@ public final class TileSystem {
 				levelOfDetail, reuse);
 	}
 
+	/**
+	 * The map width and height in pixels as a long, for zoom levels up to
+	 * {@link #MAXIMUM_ZOOMLEVEL_LONG}.
+	 *
+	 * @see microsoft.mappoint.TileSystem#MapSize(int)
+	 */
+	public static long MapSizeL(final int levelOfDetail) {
+		return (long) getTileSize() << levelOfDetail;
+	}
+
+	/**
+	 * The map width and height in pixels at a fractional zoom level.
+	 *
+	 * @see microsoft.mappoint.TileSystem#MapSize(int)
+	 */
+	public static double MapSizeD(final double zoomLevel) {
+		return getTileSize() * Math.pow(2, zoomLevel);
+	}
+
+	/**
+	 * {@link #LatLongToPixelXY(double, double, int, Point)} with long pixels, for zoom levels up
+	 * to {@link #MAXIMUM_ZOOMLEVEL_LONG}. The pixels are rounded and clipped the same way.
+	 */
+	public static PointL LatLongToPixelXYL(final double latitude, final double longitude,
+			final int levelOfDetail, final PointL reuse) {
+		final PointL out = (reuse == null ? new PointL() : reuse);
+		final long mapSize = MapSizeL(levelOfDetail);
+		out.x = Math.min(Math.max((long) (getMercatorX(longitude) * mapSize + 0.5), 0), mapSize - 1);
+		out.y = Math.min(Math.max((long) (getMercatorY(latitude) * mapSize + 0.5), 0), mapSize - 1);
+		return out;
+	}
+
+	/**
+	 * {@link #LatLongToPixelXY(double, double, int, Point)} with double pixels at a fractional zoom
+	 * level. The pixels aren't rounded, so they keep their sub-pixel position, and range from 0 to
+	 * the map size.
+	 */
+	public static PointD LatLongToPixelXYD(final double latitude, final double longitude,
+			final double zoomLevel, final PointD reuse) {
+		final PointD out = (reuse == null ? new PointD() : reuse);
+		final double mapSize = MapSizeD(zoomLevel);
+		out.x = getMercatorX(longitude) * mapSize;
+		out.y = getMercatorY(latitude) * mapSize;
+		return out;
+	}
+
+	/**
+	 * {@link #PixelXYToLatLong(int, int, int, GeoPoint)} with double pixels at a fractional zoom
+	 * level.
+	 */
+	public static GeoPoint PixelXYToLatLongD(final double pixelX, final double pixelY,
+			final double zoomLevel, final GeoPoint reuse) {
+		final GeoPoint out = (reuse == null ? new GeoPoint(0, 0) : reuse);
+		final double mapSize = MapSizeD(zoomLevel);
+		final double x = wrap(pixelX, 0, mapSize, mapSize) / mapSize - 0.5;
+		final double y = 0.5 - Math.min(Math.max(wrap(pixelY, 0, mapSize, mapSize), 0), mapSize)
+				/ mapSize;
+
+		final double latitude = 90 - 360 * Math.atan(Math.exp(-y * 2 * Math.PI)) / Math.PI;
+		final double longitude = 360 * x;
+
+		out.setLatitudeE6((int) (latitude * 1E6));
+		out.setLongitudeE6((int) (longitude * 1E6));
+		return out;
+	}
+
 	/** @see microsoft.mappoint.TileSystem#PixelXYToTileXY(int, int, Point) */
 	public static Point PixelXYToTileXY(final int pixelX, final int pixelY, final Point reuse) {
 		return microsoft.mappoint.TileSystem.PixelXYToTileXY(pixelX, pixelY, reuse);
@@ -79,6 +151,21 @@ public final class TileSystem {
 		return microsoft.mappoint.TileSystem.QuadKeyToTileXY(quadKey, reuse);
 	}
 
+	/**
+	 * The Mercator x of a longitude as a fraction of the map size.
+	 */
+	private static double getMercatorX(final double longitude) {
+		return (wrap(longitude, -180, 180, 360) + 180) / 360;
+	}
+
+	/**
+	 * The Mercator y of a latitude as a fraction of the map size, clipped to
+	 * {@link MercatorTable#MAXIMUM_LATITUDE}.
+	 */
+	private static double getMercatorY(final double latitude) {
+		return MercatorTable.getExactY(wrap(latitude, -90, 90, 180));
+	}
+
 	/**
 	 * Returns a value that lies within <code>minValue</code> and <code>maxValue</code> by
 	 * subtracting/adding <code>interval</code>.
@@ -104,11 +191,10 @@ public final class TileSystem {
 					"interval must be equal or smaller than maxValue-minValue: " + "min: "
 							+ minValue + " max:" + maxValue + " int:" + interval);
 		}
-		while (n < minValue) {
-			n += interval;
-		}
-		while (n > maxValue) {
-			n -= interval;
+		if (n < minValue) {
+			n += interval * Math.ceil((minValue - n) / interval);
+		} else if (n > maxValue) {
+			n -= interval * Math.ceil((n - maxValue) / interval);
 		}
 		return n;
 	}
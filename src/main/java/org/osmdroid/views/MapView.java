@@ -22,6 +22,7 @@ import org.osmdroid.api.IMapView;
 import org.osmdroid.events.MapListener;
 import org.osmdroid.events.ScrollEvent;
 import org.osmdroid.events.ZoomEvent;
+import org.osmdroid.metrics.Metrics;
 import org.osmdroid.tileprovider.MapTileProviderArray;
 import org.osmdroid.tileprovider.MapTileProviderBase;
 import org.osmdroid.tileprovider.MapTileProviderBasic;
@@ -122,6 +123,8 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 
 	private final Handler mTileRequestCompleteHandler;
 
+	private final TilePrefetchPolicy mTilePrefetchPolicy;
+
 	final Matrix mRotateScaleMatrix = new Matrix();
 	final Point mRotateScalePoint = new Point();
 
@@ -161,6 +164,7 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 				: tileRequestCompleteHandler;
 		mTileProvider = tileProvider;
 		mTileProvider.setTileRequestCompleteHandler(mTileRequestCompleteHandler);
+		mTilePrefetchPolicy = new TilePrefetchPolicy(mTileProvider);
 
 		this.mMapOverlay = new TilesOverlay(mTileProvider, mResourceProxy);
 		mOverlayManager = new OverlayManager(mMapOverlay);
@@ -240,6 +244,17 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 		return mTileRequestCompleteHandler;
 	}
 
+	/**
+	 * Gets the policy that requests tiles ahead of the current scroll, fling and zoom direction.
+	 * It is off by default. Use {@link TilePrefetchPolicy#setEnabled(boolean)} to turn it on, at
+	 * the cost of downloading tiles that may not be looked at, and of a memory cache that grows to
+	 * hold {@link TilePrefetchPolicy#getMaximumTiles()} more tiles, about 6 Mb at the default of
+	 * 24 tiles of 256 pixels.
+	 */
+	public TilePrefetchPolicy getTilePrefetchPolicy() {
+		return mTilePrefetchPolicy;
+	}
+
 	@Override
 	public int getLatitudeSpan() {
 		return this.getBoundingBox().getLatitudeSpanE6();
@@ -321,6 +336,7 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 		if (newZoomLevel != curZoomLevel) {
 			mScroller.forceFinished(true);
 			mIsFlinging = false;
+			mTilePrefetchPolicy.onFlingFinished();
 		}
 
 		// Get our current center point
@@ -343,6 +359,7 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 			}
 
 			mTileProvider.rescaleCache(pj, newZoomLevel, curZoomLevel, getScreenRect(null));
+			mTilePrefetchPolicy.onZoom(this, newZoomLevel, curZoomLevel);
 		}
 
 		// do callback on listener
@@ -860,6 +877,7 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 				// This will facilitate snapping-to any Snappable points.
 				setZoomLevel(mZoomLevel);
 				mIsFlinging = false;
+				mTilePrefetchPolicy.onFlingFinished();
 			} else {
 				scrollTo(mScroller.getCurrX(), mScroller.getCurrY());
 			}
@@ -919,6 +937,7 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 		}
 		super.scrollTo(x, y);
 		mProjection = null;
+		mTilePrefetchPolicy.onScroll(this, x, y);
 
 		// Force a layout, so that children are correctly positioned according to map orientation
 		if (getMapOrientation() != 0f)
@@ -940,6 +959,7 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 	@Override
 	protected void dispatchDraw(final Canvas c) {
 		final long startMs = System.currentTimeMillis();
+		final long startNanos = System.nanoTime();
 
 		// Save the current canvas matrix
 		c.save();
@@ -973,6 +993,8 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 
 		super.dispatchDraw(c);
 
+		Metrics.getRecorder().onFrameDrawn(System.nanoTime() - startNanos);
+
 		if (DEBUGMODE) {
 			final long endMs = System.currentTimeMillis();
 			logger.debug("Rendering overall: " + (endMs - startMs) + "ms");
@@ -1135,6 +1157,7 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 			if (mIsFlinging) {
 				mScroller.abortAnimation();
 				mIsFlinging = false;
+				mTilePrefetchPolicy.onFlingFinished();
 			}
 
 			if (MapView.this.getOverlayManager().onDown(e, MapView.this)) {
@@ -1157,6 +1180,7 @@ public class MapView extends ViewGroup implements IMapView, MapViewConstants,
 			mIsFlinging = true;
 			mScroller.fling(getScrollX(), getScrollY(), (int) -velocityX, (int) -velocityY,
 					-worldSize, worldSize, -worldSize, worldSize);
+			mTilePrefetchPolicy.onFling(MapView.this, mScroller);
 			return true;
 		}
 
@@ -5,6 +5,9 @@ import org.osmdroid.api.IGeoPoint;
 import org.osmdroid.api.IProjection;
 import org.osmdroid.util.BoundingBoxE6;
 import org.osmdroid.util.GeoPoint;
+import org.osmdroid.util.MercatorTable;
+import org.osmdroid.util.PointD;
+import org.osmdroid.util.PointL;
 import org.osmdroid.util.TileSystem;
 import org.osmdroid.views.util.constants.MapViewConstants;
 
@@ -69,6 +72,29 @@ public class Projection implements IProjection, MapViewConstants {
 				swGeoPoint.getLongitudeE6());
 	}
 
+	/**
+	 * Copy a projection, for use on another thread. A projection is a snapshot of the map, but
+	 * {@link #rotateAndScalePoint} and {@link #unrotateAndScalePoint} use scratch space of their
+	 * own, so one projection must only be used on one thread at a time.
+	 */
+	public Projection(final Projection pProjection) {
+		mZoomLevelProjection = pProjection.mZoomLevelProjection;
+		mScreenRectProjection = new Rect(pProjection.mScreenRectProjection);
+		mIntrinsicScreenRectProjection = new Rect(pProjection.mIntrinsicScreenRectProjection);
+		mMapOrientation = pProjection.mMapOrientation;
+
+		mMapViewWidth = pProjection.mMapViewWidth;
+		mMapViewHeight = pProjection.mMapViewHeight;
+		mOffsetX = pProjection.mOffsetX;
+		mOffsetY = pProjection.mOffsetY;
+
+		mRotateAndScaleMatrix.set(pProjection.mRotateAndScaleMatrix);
+		mUnrotateAndScaleMatrix.set(pProjection.mUnrotateAndScaleMatrix);
+		mMultiTouchScale = pProjection.mMultiTouchScale;
+
+		mBoundingBoxProjection = pProjection.mBoundingBoxProjection;
+	}
+
 	public int getZoomLevel() {
 		return mZoomLevelProjection;
 	}
@@ -89,6 +115,18 @@ public class Projection implements IProjection, MapViewConstants {
 		return mMapOrientation;
 	}
 
+	public float getMultiTouchScale() {
+		return mMultiTouchScale;
+	}
+
+	/**
+	 * The zoom level including the scale of a pinch in progress, for drawing at a fractional zoom
+	 * level with {@link TileSystem#LatLongToPixelXYD(double, double, double, PointD)}.
+	 */
+	public double getFractionalZoomLevel() {
+		return mZoomLevelProjection + Math.log(mMultiTouchScale) / Math.log(2);
+	}
+
 	@Override
 	public IGeoPoint fromPixels(int x, int y) {
 		return fromPixels(x, y, null);
@@ -108,6 +146,94 @@ public class Projection implements IProjection, MapViewConstants {
 		return out;
 	}
 
+	/**
+	 * {@link #toPixels(IGeoPoint, Point)} with double pixels, which keep their sub-pixel position.
+	 */
+	public PointD toPixelsD(final IGeoPoint in, final PointD reuse) {
+		final PointD out = TileSystem.LatLongToPixelXYD(in.getLatitude(), in.getLongitude(),
+				getZoomLevel(), reuse);
+		final double mapSize = TileSystem.MapSize(getZoomLevel());
+		out.set(adjustForDateLine(out.x + mOffsetX, mMapViewWidth / 2, mapSize),
+				adjustForDateLine(out.y + mOffsetY, mMapViewHeight / 2, mapSize));
+		return out;
+	}
+
+	/**
+	 * {@link #toProjectedPixels(int, int, Point)} with long pixels at
+	 * {@link TileSystem#MAXIMUM_ZOOMLEVEL_LONG}, so that
+	 * {@link #toPixelsFromProjectedD(PointL, PointD)} keeps the sub-pixel position at any zoom
+	 * level the map can be drawn at.
+	 */
+	public PointL toProjectedPixelsL(final double latitude, final double longitude,
+			final PointL reuse) {
+		return TileSystem.LatLongToPixelXYL(latitude, longitude, TileSystem.MAXIMUM_ZOOMLEVEL_LONG,
+				reuse);
+	}
+
+	/**
+	 * {@link #toPixelsFromProjected(Point, Point)} for a point from
+	 * {@link #toProjectedPixelsL(double, double, PointL)}. The point is scaled rather than
+	 * shifted down, so the pixels aren't truncated.
+	 */
+	public PointD toPixelsFromProjectedD(final PointL in, final PointD reuse) {
+		final PointD out = reuse != null ? reuse : new PointD();
+		final double scale = 1.0 / (1L << (TileSystem.MAXIMUM_ZOOMLEVEL_LONG - getZoomLevel()));
+		final double mapSize = TileSystem.MapSize(getZoomLevel());
+		out.set(adjustForDateLine(in.x * scale + mOffsetX, mMapViewWidth / 2, mapSize),
+				adjustForDateLine(in.y * scale + mOffsetY, mMapViewHeight / 2, mapSize));
+		return out;
+	}
+
+	/**
+	 * {@link #adjustForDateLine(int, int, Point)} for one axis in double pixels.
+	 */
+	private static double adjustForDateLine(final double pPixel, final int pHalfSize,
+			final double pMapSize) {
+		double pixel = pPixel - pHalfSize;
+		final double abs = Math.abs(pixel);
+		if (abs > Math.abs(pixel - pMapSize)) {
+			pixel -= pMapSize;
+		}
+		if (abs > Math.abs(pixel + pMapSize)) {
+			pixel += pMapSize;
+		}
+		return pixel + pHalfSize;
+	}
+
+	/**
+	 * Project many points in place, like {@link #toPixels(IGeoPoint, Point)} but with the
+	 * {@link MercatorTable#getDefault() Mercator table} and without a {@link Point} for each.
+	 *
+	 * @param pLatLongE6
+	 *            latitude and longitude pairs in microdegrees, which are replaced by x and y pairs
+	 * @param pCount
+	 *            the number of points
+	 */
+	public void toPixels(final int[] pLatLongE6, final int pCount) {
+		MercatorTable.getDefault().toPixelsE6(pLatLongE6, pCount, getZoomLevel());
+		final int mapSize = TileSystem.MapSize(getZoomLevel());
+		for (int i = 0; i < 2 * pCount; i += 2) {
+			pLatLongE6[i] = adjustForDateLine(pLatLongE6[i] + mOffsetX, mMapViewWidth / 2, mapSize);
+			pLatLongE6[i + 1] = adjustForDateLine(pLatLongE6[i + 1] + mOffsetY,
+					mMapViewHeight / 2, mapSize);
+		}
+	}
+
+	/**
+	 * {@link #adjustForDateLine(int, int, Point)} for one axis.
+	 */
+	private static int adjustForDateLine(final int pPixel, final int pHalfSize, final int pMapSize) {
+		int pixel = pPixel - pHalfSize;
+		final int abs = Math.abs(pixel);
+		if (abs > Math.abs(pixel - pMapSize)) {
+			pixel -= pMapSize;
+		}
+		if (abs > Math.abs(pixel + pMapSize)) {
+			pixel += pMapSize;
+		}
+		return pixel + pHalfSize;
+	}
+
 	protected Point adjustForDateLine(int x, int y, Point reuse) {
 		final Point out = reuse != null ? reuse : new Point();
 		out.set(x, y);
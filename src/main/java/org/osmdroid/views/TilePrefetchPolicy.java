@@ -0,0 +1,331 @@
+package org.osmdroid.views;
+
+import java.util.HashSet;
+
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileProviderBase;
+import org.osmdroid.util.MyMath;
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.util.constants.MapViewConstants;
+
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.widget.Scroller;
+
+/**
+ * Requests tiles that are about to scroll into view before they are needed. The current scroll or
+ * fling trajectory of the {@link MapView} is projected a short time ahead and the tiles that the
+ * viewport will pass over are requested at low priority from the tile provider. After a zoom, the
+ * tiles for the next zoom level in the same direction are requested too. When the trajectory
+ * changes, the requests that haven't been started yet are cancelled and replaced.
+ *
+ * The policy is off until it is {@link #setEnabled(boolean) enabled}. While it is on, the memory
+ * cache of the tile provider is made large enough to keep {@link #getMaximumTiles()} tiles besides
+ * the visible ones, and it stays that large, since the cache doesn't shrink.
+ */
+public class TilePrefetchPolicy implements MapViewConstants {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	public static final long DEFAULT_LOOK_AHEAD_MILLIS = 1000;
+	public static final int DEFAULT_MAXIMUM_TILES = 24;
+
+	/** Scroll samples further apart than this don't belong to the same drag. */
+	private static final long MAXIMUM_SAMPLE_INTERVAL_MILLIS = 200;
+
+	/** Weight of the newest sample in the smoothed velocity. */
+	private static final float VELOCITY_SMOOTHING = 0.3f;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private final MapTileProviderBase mTileProvider;
+
+	private boolean mEnabled;
+	private long mLookAheadMillis = DEFAULT_LOOK_AHEAD_MILLIS;
+	private int mMaximumTiles = DEFAULT_MAXIMUM_TILES;
+
+	private int mLastScrollX;
+	private int mLastScrollY;
+	private long mLastScrollTime;
+	private int mLastZoomLevel = -1;
+	private float mVelocityX;
+	private float mVelocityY;
+	private boolean mFlinging;
+
+	// the projected viewport of the last set of requests, so they are only replaced when it moves
+	private int mTargetTileX;
+	private int mTargetTileY;
+	private int mTargetZoomLevel = -1;
+
+	private final HashSet<MapTile> mRequested = new HashSet<MapTile>();
+	private final Rect mViewPort = new Rect();
+	private final Rect mVisibleTiles = new Rect();
+	private final Rect mStepTiles = new Rect();
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public TilePrefetchPolicy(final MapTileProviderBase pTileProvider) {
+		mTileProvider = pTileProvider;
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public boolean isEnabled() {
+		return mEnabled;
+	}
+
+	public void setEnabled(final boolean pEnabled) {
+		mEnabled = pEnabled;
+		if (!pEnabled) {
+			cancel();
+		}
+	}
+
+	/**
+	 * How far ahead the trajectory is projected.
+	 */
+	public long getLookAheadMillis() {
+		return mLookAheadMillis;
+	}
+
+	public void setLookAheadMillis(final long pLookAheadMillis) {
+		mLookAheadMillis = pLookAheadMillis;
+	}
+
+	/**
+	 * The maximum number of tiles that are requested for one trajectory.
+	 */
+	public int getMaximumTiles() {
+		return mMaximumTiles;
+	}
+
+	public void setMaximumTiles(final int pMaximumTiles) {
+		mMaximumTiles = pMaximumTiles;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Called when the map has scrolled. The scroll velocity is estimated from consecutive calls.
+	 */
+	public void onScroll(final MapView pMapView, final int pScrollX, final int pScrollY) {
+		if (!mEnabled) {
+			return;
+		}
+
+		final long now = SystemClock.uptimeMillis();
+		final int zoomLevel = pMapView.getZoomLevel(false);
+		final long elapsed = now - mLastScrollTime;
+		int dx = pScrollX - mLastScrollX;
+		final int dy = pScrollY - mLastScrollY;
+
+		// a scroll across the date line wraps around the world
+		final int worldSize = TileSystem.MapSize(zoomLevel);
+		if (dx > worldSize / 2) {
+			dx -= worldSize;
+		} else if (dx < -worldSize / 2) {
+			dx += worldSize;
+		}
+
+		mLastScrollX = pScrollX;
+		mLastScrollY = pScrollY;
+		mLastScrollTime = now;
+
+		if (zoomLevel != mLastZoomLevel || elapsed > MAXIMUM_SAMPLE_INTERVAL_MILLIS
+				|| Math.abs(dx) > pMapView.getWidth() || Math.abs(dy) > pMapView.getHeight()) {
+			// a jump rather than a drag
+			mLastZoomLevel = zoomLevel;
+			mVelocityX = 0;
+			mVelocityY = 0;
+			return;
+		}
+		if (elapsed <= 0 || mFlinging) {
+			// the fling trajectory is already known
+			return;
+		}
+
+		mVelocityX += VELOCITY_SMOOTHING * ((float) dx / elapsed - mVelocityX);
+		mVelocityY += VELOCITY_SMOOTHING * ((float) dy / elapsed - mVelocityY);
+
+		prefetch(pMapView, zoomLevel, (int) (mVelocityX * mLookAheadMillis),
+				(int) (mVelocityY * mLookAheadMillis));
+	}
+
+	/**
+	 * Called when a fling starts. The tiles along the path to where the fling will stop, or to
+	 * where it will be after the look-ahead time, are requested.
+	 */
+	public void onFling(final MapView pMapView, final Scroller pScroller) {
+		if (!mEnabled) {
+			return;
+		}
+
+		mFlinging = true;
+		final int duration = pScroller.getDuration();
+		float fraction = 1;
+		if (duration > mLookAheadMillis) {
+			// the scroller decelerates, so most of the distance is covered early on
+			final float t = (float) mLookAheadMillis / duration;
+			fraction = t * (2 - t);
+		}
+		prefetch(pMapView, pMapView.getZoomLevel(false),
+				(int) ((pScroller.getFinalX() - pScroller.getStartX()) * fraction),
+				(int) ((pScroller.getFinalY() - pScroller.getStartY()) * fraction));
+	}
+
+	/**
+	 * Called when a fling has finished or was stopped.
+	 */
+	public void onFlingFinished() {
+		mFlinging = false;
+		mVelocityX = 0;
+		mVelocityY = 0;
+	}
+
+	/**
+	 * Called when the zoom level has changed. The tiles for the viewport at the next zoom level in
+	 * the same direction are requested, since a user zooming in is likely to continue zooming in.
+	 */
+	public void onZoom(final MapView pMapView, final int pNewZoomLevel, final int pOldZoomLevel) {
+		if (!mEnabled || pNewZoomLevel == pOldZoomLevel) {
+			return;
+		}
+
+		final int nextZoomLevel = pNewZoomLevel + (pNewZoomLevel > pOldZoomLevel ? 1 : -1);
+		if (nextZoomLevel < pMapView.getMinZoomLevel()
+				|| nextZoomLevel > pMapView.getMaxZoomLevel()) {
+			return;
+		}
+
+		cancel();
+		getViewPort(pMapView);
+		final Rect viewPort = mViewPort;
+		final int width = viewPort.width();
+		final int height = viewPort.height();
+		final int centerX, centerY;
+		if (nextZoomLevel > pNewZoomLevel) {
+			centerX = viewPort.centerX() << 1;
+			centerY = viewPort.centerY() << 1;
+		} else {
+			centerX = viewPort.centerX() >> 1;
+			centerY = viewPort.centerY() >> 1;
+		}
+		viewPort.set(centerX - width / 2, centerY - height / 2, centerX + width / 2, centerY
+				+ height / 2);
+		getTileRange(viewPort, mStepTiles);
+
+		mTargetZoomLevel = nextZoomLevel;
+		mTargetTileX = mStepTiles.centerX();
+		mTargetTileY = mStepTiles.centerY();
+		requestTiles(nextZoomLevel, mStepTiles, false);
+	}
+
+	/**
+	 * Cancel the requests that haven't been started yet.
+	 */
+	public void cancel() {
+		if (!mRequested.isEmpty()) {
+			mTileProvider.cancelPrefetch();
+			mRequested.clear();
+		}
+		mTargetZoomLevel = -1;
+	}
+
+	/**
+	 * Request the tiles that the viewport passes over when it moves by the given offset, nearest
+	 * first. The tiles that are already visible are skipped since the {@link TilesOverlay}
+	 * requests those itself.
+	 */
+	private void prefetch(final MapView pMapView, final int pZoomLevel, final int pDeltaX,
+			final int pDeltaY) {
+		final int tileSize = TileSystem.getTileSize();
+		if (Math.abs(pDeltaX) < tileSize && Math.abs(pDeltaY) < tileSize) {
+			// hardly moving, the margin around the viewport is enough
+			return;
+		}
+
+		getViewPort(pMapView);
+		getTileRange(mViewPort, mVisibleTiles);
+
+		// only start over when the projected viewport has moved to another tile
+		final int targetTileX = floorDiv(mViewPort.centerX() + pDeltaX, tileSize);
+		final int targetTileY = floorDiv(mViewPort.centerY() + pDeltaY, tileSize);
+		if (pZoomLevel == mTargetZoomLevel && targetTileX == mTargetTileX
+				&& targetTileY == mTargetTileY) {
+			return;
+		}
+
+		cancel();
+		mTargetZoomLevel = pZoomLevel;
+		mTargetTileX = targetTileX;
+		mTargetTileY = targetTileY;
+
+		// ensure the tiles we fetch aren't pushed out of the cache by the visible ones
+		mTileProvider.ensureCapacity((mVisibleTiles.width() + 1) * (mVisibleTiles.height() + 1)
+				+ mMaximumTiles);
+
+		// step along the trajectory half a tile at a time
+		final int steps = Math.max(1, 2 * Math.max(Math.abs(pDeltaX), Math.abs(pDeltaY)) / tileSize);
+		for (int i = 1; i <= steps && mRequested.size() < mMaximumTiles; i++) {
+			mStepTiles.set(mViewPort);
+			mStepTiles.offset(pDeltaX * i / steps, pDeltaY * i / steps);
+			getTileRange(mStepTiles, mStepTiles);
+			requestTiles(pZoomLevel, mStepTiles, true);
+		}
+	}
+
+	private void requestTiles(final int pZoomLevel, final Rect pTiles, final boolean pSkipVisible) {
+		final int mapTileUpperBound = 1 << pZoomLevel;
+		for (int y = pTiles.top; y <= pTiles.bottom; y++) {
+			if (y < 0 || y >= mapTileUpperBound) {
+				continue;
+			}
+			for (int x = pTiles.left; x <= pTiles.right; x++) {
+				if (mRequested.size() >= mMaximumTiles) {
+					return;
+				}
+				if (pSkipVisible && x >= mVisibleTiles.left && x <= mVisibleTiles.right
+						&& y >= mVisibleTiles.top && y <= mVisibleTiles.bottom) {
+					continue;
+				}
+				final MapTile tile = new MapTile(pZoomLevel, MyMath.mod(x, mapTileUpperBound), y);
+				if (mRequested.add(tile)) {
+					mTileProvider.prefetchMapTile(tile);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the Mercator pixel bounds of the screen, the same way as the {@link TilesOverlay}.
+	 */
+	private void getViewPort(final MapView pMapView) {
+		pMapView.getScreenRect(mViewPort);
+		mViewPort.offset(pMapView.getScrollX(), pMapView.getScrollY());
+	}
+
+	/**
+	 * Get the range of tiles covering a viewport, inclusive of the margin the {@link TilesOverlay}
+	 * loads. The right and bottom are inclusive tile indexes.
+	 */
+	private static void getTileRange(final Rect pViewPort, final Rect pOut) {
+		final int tileSize = TileSystem.getTileSize();
+		pOut.set(floorDiv(pViewPort.left, tileSize) - 1, floorDiv(pViewPort.top, tileSize) - 1,
+				floorDiv(pViewPort.right, tileSize), floorDiv(pViewPort.bottom, tileSize));
+	}
+
+	private static int floorDiv(final int pValue, final int pDivisor) {
+		final int result = pValue / pDivisor;
+		return (pValue % pDivisor != 0 && (pValue < 0)) ? result - 1 : result;
+	}
+}
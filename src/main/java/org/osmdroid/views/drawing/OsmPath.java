@@ -14,6 +14,10 @@ import android.graphics.Point;
  * {@link #onDrawCycle(Projection)} at the start of your draw call. This will simply shift the Path
  * the proper amount so that it is in the correct pixel position.
  * 
+ * An OsmPath has to be built again on every zoom change. An overlay that is zoomed back and forth
+ * can extend {@link org.osmdroid.views.overlay.ProjectedGeometryOverlay} instead, which keeps the
+ * geometry of the last few zoom levels.
+ * 
  * @author Marc Kurtz
  * 
  */
@@ -0,0 +1,306 @@
+package org.osmdroid.views.overlay;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.osmdroid.ResourceProxy;
+import org.osmdroid.tileprovider.modules.ConfigurablePriorityThreadFactory;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.graphics.PorterDuff.Mode;
+import android.graphics.Rect;
+
+/**
+ * An overlay that is drawn on a background thread, so that an expensive overlay, like a long path
+ * or many markers, doesn't hold up the UI thread. The overlay is drawn into one of two layer
+ * bitmaps, which cover the screen and a margin around it, for a snapshot of the
+ * {@link Projection}. The UI thread draws the other one, the last that was finished, moved and
+ * scaled to where the map is now. Whenever the map has moved or zoomed since the bitmap was drawn,
+ * it is drawn again, and the map is redrawn when it is ready.
+ *
+ * {@link #onDrawLayer(Canvas, Projection)} is called on the background thread, so the data it
+ * draws must be safe to read there while it is changed on the UI thread, and
+ * {@link #invalidateLayer()} must be called when it changes. If it throws, the failure is logged
+ * and the last bitmap that was finished stays on screen until the layer is drawn again. Like
+ * {@link NonAcceleratedOverlay}, it doesn't draw the shadow layer.
+ */
+public abstract class AsyncOverlay extends Overlay {
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncOverlay.class);
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	/** The default margin drawn around the screen, so that panning doesn't show blank edges */
+	public static final int DEFAULT_MARGIN_DIP = 64;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private int mMarginPx;
+
+	/** The bitmap that is drawn on screen, and the state of the map it was drawn for */
+	private Bitmap mFrontBitmap;
+	private final LayerState mFrontState = new LayerState();
+
+	/** The bitmap that is drawn into on the background thread */
+	private Bitmap mBackBitmap;
+
+	/** The state of the map being drawn for, or null if nothing is being drawn */
+	private LayerState mRenderingState;
+
+	/** Counts the calls to {@link #invalidateLayer()} */
+	private int mGeneration;
+
+	private ExecutorService mExecutor;
+	private final LayerState mCurrentState = new LayerState();
+	private final Point mTopLeftMercator = new Point();
+	private final Paint mBitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public AsyncOverlay(final Context ctx) {
+		super(ctx);
+		mMarginPx = (int) (DEFAULT_MARGIN_DIP * mScale);
+	}
+
+	public AsyncOverlay(final ResourceProxy pResourceProxy) {
+		super(pResourceProxy);
+		mMarginPx = (int) (DEFAULT_MARGIN_DIP * mScale);
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int getMargin() {
+		return mMarginPx;
+	}
+
+	/**
+	 * Set the margin drawn around the screen. A bigger margin shows more of the overlay while the
+	 * map is panned, before it is drawn again, but takes more memory and time to draw.
+	 *
+	 * @param pMarginPx
+	 *            the margin in pixels
+	 */
+	public void setMargin(final int pMarginPx) {
+		mMarginPx = Math.max(0, pMarginPx);
+	}
+
+	// ===========================================================
+	// Methods from SuperClass/Interfaces
+	// ===========================================================
+
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
+	@Override
+	protected final void draw(final Canvas c, final MapView osmv, final boolean shadow) {
+		if (shadow) {
+			return;
+		}
+
+		final Projection pj = osmv.getProjection();
+		final Rect screenRect = pj.getScreenRect();
+		if (screenRect.width() <= 0 || screenRect.height() <= 0) {
+			return;
+		}
+		pj.toMercatorPixels(screenRect.left - mMarginPx, screenRect.top - mMarginPx,
+				mTopLeftMercator);
+		mCurrentState.set(pj.getZoomLevel(), mTopLeftMercator.x, mTopLeftMercator.y,
+				screenRect.width() + 2 * mMarginPx, screenRect.height() + 2 * mMarginPx,
+				mGeneration);
+
+		if (mRenderingState == null
+				&& (mFrontBitmap == null || !mFrontState.equals(mCurrentState))) {
+			render(pj, osmv);
+		}
+
+		if (mFrontBitmap != null) {
+			// where the bitmap is at the zoom level of the map
+			final double scale = Math.pow(2, pj.getZoomLevel() - mFrontState.mZoomLevel);
+			final Point topLeft = pj.toPixelsFromMercator(0, 0, mTopLeftMercator);
+			c.save();
+			c.translate((float) (topLeft.x + mFrontState.mLeft * scale),
+					(float) (topLeft.y + mFrontState.mTop * scale));
+			c.scale((float) scale, (float) scale);
+			c.drawBitmap(mFrontBitmap, 0, 0, mBitmapPaint);
+			c.restore();
+		}
+	}
+
+	@Override
+	public void onDetach(final MapView mapView) {
+		if (mExecutor != null) {
+			mExecutor.shutdownNow();
+			mExecutor = null;
+		}
+		mFrontBitmap = null;
+		mBackBitmap = null;
+		mRenderingState = null;
+		super.onDetach(mapView);
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Draw the overlay, on the background thread.
+	 *
+	 * @param c
+	 *            the canvas of the layer bitmap, translated so that the points from
+	 *            {@link Projection#toPixels(org.osmdroid.api.IGeoPoint, Point)} can be drawn as
+	 *            they are
+	 * @param pj
+	 *            a copy of the projection of the map when the drawing was asked for, which only
+	 *            the background thread uses
+	 */
+	protected abstract void onDrawLayer(Canvas c, Projection pj);
+
+	/**
+	 * Draw the overlay again, because what it shows has changed. Call this on the UI thread, and
+	 * then invalidate the map view.
+	 */
+	public void invalidateLayer() {
+		mGeneration++;
+	}
+
+	private void render(final Projection pj, final MapView osmv) {
+		if (mExecutor == null) {
+			mExecutor = Executors.newSingleThreadExecutor(new ConfigurablePriorityThreadFactory(
+					Thread.NORM_PRIORITY - 1, getClass().getSimpleName()));
+		}
+
+		final LayerState state = new LayerState();
+		state.set(mCurrentState);
+		mRenderingState = state;
+		// the UI thread keeps using the projection of the map, whose methods aren't thread safe
+		final Projection layerProjection = new Projection(pj);
+		final Bitmap reuse = mBackBitmap;
+		final Rect screenRect = pj.getScreenRect();
+		final int left = screenRect.left - mMarginPx;
+		final int top = screenRect.top - mMarginPx;
+
+		mExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				Bitmap rendered = null;
+				try {
+					Bitmap bitmap = reuse;
+					if (bitmap == null || bitmap.getWidth() != state.mWidth
+							|| bitmap.getHeight() != state.mHeight) {
+						try {
+							bitmap = Bitmap.createBitmap(state.mWidth, state.mHeight,
+									Config.ARGB_8888);
+						} catch (final OutOfMemoryError e) {
+							logger.error("OutOfMemoryError creating layer bitmap in AsyncOverlay.");
+							bitmap = null;
+						}
+					}
+					if (bitmap != null) {
+						final Canvas canvas = new Canvas(bitmap);
+						canvas.drawColor(Color.TRANSPARENT, Mode.CLEAR);
+						canvas.translate(-left, -top);
+						onDrawLayer(canvas, layerProjection);
+						rendered = bitmap;
+					}
+				} catch (final RuntimeException e) {
+					logger.error("Error drawing the layer of " + AsyncOverlay.this, e);
+				} finally {
+					// let the next draw start another rendering, even if this one failed
+					finishRendering(osmv, state, rendered);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Called on the background thread when a rendering is over. Swaps the rendered bitmap, if
+	 * there is one, onto the screen on the UI thread.
+	 */
+	private void finishRendering(final MapView osmv, final LayerState state,
+			final Bitmap rendered) {
+		osmv.post(new Runnable() {
+			@Override
+			public void run() {
+				if (mRenderingState != state) {
+					// detached since
+					return;
+				}
+				mRenderingState = null;
+				if (rendered != null) {
+					mBackBitmap = mFrontBitmap;
+					mFrontBitmap = rendered;
+					mFrontState.set(state);
+					osmv.invalidate();
+				}
+			}
+		});
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	/**
+	 * The state of the map a layer bitmap is drawn for: the zoom level, the Mercator pixels of the
+	 * top left of the bitmap, its size, and the generation of the overlay.
+	 */
+	private static class LayerState {
+		int mZoomLevel;
+		int mLeft;
+		int mTop;
+		int mWidth;
+		int mHeight;
+		int mGeneration;
+
+		void set(final int pZoomLevel, final int pLeft, final int pTop, final int pWidth,
+				final int pHeight, final int pGeneration) {
+			mZoomLevel = pZoomLevel;
+			mLeft = pLeft;
+			mTop = pTop;
+			mWidth = pWidth;
+			mHeight = pHeight;
+			mGeneration = pGeneration;
+		}
+
+		void set(final LayerState pState) {
+			set(pState.mZoomLevel, pState.mLeft, pState.mTop, pState.mWidth, pState.mHeight,
+					pState.mGeneration);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof LayerState)) {
+				return false;
+			}
+			final LayerState state = (LayerState) o;
+			return mZoomLevel == state.mZoomLevel && mLeft == state.mLeft && mTop == state.mTop
+					&& mWidth == state.mWidth && mHeight == state.mHeight
+					&& mGeneration == state.mGeneration;
+		}
+
+		@Override
+		public int hashCode() {
+			return ((mZoomLevel * 31 + mLeft) * 31 + mTop) * 31 + mGeneration;
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package org.osmdroid.views.overlay;
+
+import java.util.List;
+
+/**
+ * The items of an {@link ItemizedIconOverlay}, which tells a {@link Populator} about each change
+ * to them, so that the items it draws are updated one change at a time. Changes can be batched
+ * between {@link #beginUpdate()} and {@link #endUpdate()}, in which case the populator is only
+ * told once at the end of the batch to populate all the items again. Only the first
+ * {@link #getLimit()} items are populated.
+ *
+ * This class only uses plain Java, so that the updates can be tested without Android.
+ */
+class BatchedItemList<Item> {
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private final List<Item> mList;
+	private final Populator mPopulator;
+	private int mLimit = Integer.MAX_VALUE;
+
+	/** The number of nested updates, and whether the items changed during them */
+	private int mUpdateDepth;
+	private boolean mUpdatePending;
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	/**
+	 * @param pList
+	 *            the items, which the list changes in place
+	 * @param pPopulator
+	 *            told about the changes to the first {@link #getLimit()} items
+	 */
+	public BatchedItemList(final List<Item> pList, final Populator pPopulator) {
+		mList = pList;
+		mPopulator = pPopulator;
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	/**
+	 * The number of items that are populated.
+	 */
+	public int size() {
+		return Math.min(mList.size(), mLimit);
+	}
+
+	public Item get(final int pPosition) {
+		return mList.get(pPosition);
+	}
+
+	public int getLimit() {
+		return mLimit;
+	}
+
+	/**
+	 * Set the number of items that are populated. The populator isn't told, so populate the
+	 * items again afterwards.
+	 */
+	public void setLimit(final int pLimit) {
+		mLimit = pLimit;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * @see ItemizedIconOverlay#beginUpdate()
+	 */
+	public void beginUpdate() {
+		mUpdateDepth++;
+	}
+
+	/**
+	 * @see ItemizedIconOverlay#endUpdate()
+	 */
+	public void endUpdate() {
+		if (mUpdateDepth == 0) {
+			throw new IllegalStateException("endUpdate() without beginUpdate()");
+		}
+		mUpdateDepth--;
+		if (mUpdateDepth == 0 && mUpdatePending) {
+			mUpdatePending = false;
+			mPopulator.populate();
+		}
+	}
+
+	/**
+	 * Whether an item change is being deferred to the end of the update, which is recorded if so.
+	 */
+	private boolean deferUpdate() {
+		if (mUpdateDepth > 0) {
+			mUpdatePending = true;
+			return true;
+		}
+		return false;
+	}
+
+	public boolean add(final Item pItem) {
+		final boolean result = mList.add(pItem);
+		if (result) {
+			populateAdded(mList.size() - 1);
+		}
+		return result;
+	}
+
+	public void add(final int pPosition, final Item pItem) {
+		mList.add(pPosition, pItem);
+		populateAdded(pPosition);
+	}
+
+	public boolean addAll(final List<Item> pItems) {
+		final int start = mList.size();
+		final boolean result = mList.addAll(pItems);
+		if (!deferUpdate()) {
+			// the new items are at the end, so only the ones within the limit are populated
+			final int end = size();
+			for (int position = start; position < end; position++) {
+				mPopulator.populateInserted(position);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Replace an item.
+	 *
+	 * @return the item that was replaced
+	 */
+	public Item set(final int pPosition, final Item pItem) {
+		final Item result = mList.set(pPosition, pItem);
+		if (!deferUpdate() && pPosition < mLimit) {
+			mPopulator.populateChanged(pPosition);
+		}
+		return result;
+	}
+
+	public Item remove(final int pPosition) {
+		final Item result = mList.remove(pPosition);
+		if (deferUpdate()) {
+			return result;
+		}
+		if (mList.size() < mLimit) {
+			mPopulator.populateRemoved(pPosition);
+		} else {
+			// an item that wasn't populated moves up into the populated ones
+			mPopulator.populate();
+		}
+		return result;
+	}
+
+	/**
+	 * @param pPopulate
+	 *            whether to tell the populator
+	 */
+	public void clear(final boolean pPopulate) {
+		mList.clear();
+		if (pPopulate && !deferUpdate()) {
+			mPopulator.populate();
+		}
+	}
+
+	private void populateAdded(final int pPosition) {
+		if (deferUpdate()) {
+			return;
+		}
+		if (mList.size() <= mLimit) {
+			mPopulator.populateInserted(pPosition);
+		} else if (pPosition < mLimit) {
+			// the new item pushes one of the populated ones out
+			mPopulator.populate();
+		}
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	/**
+	 * Told about the changes to the populated items, whose positions are those of the list after
+	 * the change.
+	 */
+	public interface Populator {
+		/** Populate all the items again */
+		void populate();
+
+		/** An item was inserted, moving the items from that position on up by one */
+		void populateInserted(int pPosition);
+
+		/** An item was removed, moving the items after it down by one */
+		void populateRemoved(int pPosition);
+
+		/** An item was replaced */
+		void populateChanged(int pPosition);
+	}
+}
@@ -0,0 +1,402 @@
+package org.osmdroid.views.overlay;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.osmdroid.ResourceProxy;
+import org.osmdroid.tileprovider.modules.ConfigurablePriorityThreadFactory;
+import org.osmdroid.util.BoundingBoxE6;
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.util.PointIndex;
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.view.MotionEvent;
+
+/**
+ * An {@link ItemizedIconOverlay} that draws the items that are close together on screen as a
+ * single marker with the number of items in it. The clusters of every zoom level up to
+ * {@link #getMaximumClusterZoomLevel()} are worked out on a background thread whenever the items
+ * change, and the map is redrawn when they are ready. Until then, if items were only added at the
+ * end or replaced, the clusters of the items as they were are drawn. Otherwise the clusters, which
+ * refer to the items by position, are dropped and the items themselves are drawn, as they are the
+ * first time. Above that zoom level, the items are drawn as usual.
+ *
+ * Tapping a cluster zooms the map to the items in it. Tapping or long pressing an item that is on
+ * its own works the same way as for an {@link ItemizedIconOverlay}, and the items in clusters
+ * can't be tapped or long pressed.
+ *
+ * @see ItemClusters
+ */
+public class ClusteredItemizedIconOverlay<Item extends OverlayItem> extends
+		ItemizedIconOverlay<Item> {
+
+	private static final Logger logger = LoggerFactory
+			.getLogger(ClusteredItemizedIconOverlay.class);
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	public static final int DEFAULT_MAXIMUM_CLUSTER_ZOOMLEVEL = 17;
+
+	/** The default width of the grid cells the items are grouped by, in dips */
+	public static final int DEFAULT_CLUSTER_RADIUS_DIP = 48;
+
+	/** The default radius of the circle drawn for a cluster, in dips */
+	private static final int DEFAULT_MARKER_RADIUS_DIP = 16;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private int mMaximumClusterZoomLevel = DEFAULT_MAXIMUM_CLUSTER_ZOOMLEVEL;
+	private int mClusterRadiusPx;
+	private int mMarkerRadiusPx;
+	private Drawable mClusterMarker;
+	private final Paint mCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+	/** The clusters of the items as they were when they were last worked out */
+	private volatile ItemClusters mClusters;
+
+	/** Set when the items change, and cleared when they are clustered again */
+	private boolean mItemsChanged = true;
+
+	private ExecutorService mExecutor;
+	private Future<?> mClustering;
+	private volatile int mGeneration;
+	private volatile MapView mMapView;
+
+	private final GeoPoint mClusterGeoPoint = new GeoPoint(0, 0);
+	private final Point mClusterPoint = new Point();
+	private final Rect mTapRect = new Rect();
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public ClusteredItemizedIconOverlay(final List<Item> pList, final Drawable pDefaultMarker,
+			final OnItemGestureListener<Item> pOnItemGestureListener,
+			final ResourceProxy pResourceProxy) {
+		super(pList, pDefaultMarker, pOnItemGestureListener, pResourceProxy);
+
+		mClusterRadiusPx = (int) (DEFAULT_CLUSTER_RADIUS_DIP * mScale);
+		mMarkerRadiusPx = (int) (DEFAULT_MARKER_RADIUS_DIP * mScale);
+		mCirclePaint.setColor(Color.argb(200, 51, 102, 204));
+		mTextPaint.setColor(Color.WHITE);
+		mTextPaint.setTextAlign(Paint.Align.CENTER);
+		mTextPaint.setTextSize(12 * mScale);
+		mTextPaint.setFakeBoldText(true);
+	}
+
+	public ClusteredItemizedIconOverlay(final List<Item> pList,
+			final OnItemGestureListener<Item> pOnItemGestureListener,
+			final ResourceProxy pResourceProxy) {
+		this(pList, pResourceProxy.getDrawable(ResourceProxy.bitmap.marker_default),
+				pOnItemGestureListener, pResourceProxy);
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int getMaximumClusterZoomLevel() {
+		return mMaximumClusterZoomLevel;
+	}
+
+	/**
+	 * Set the highest zoom level at which items are clustered. Above it, every item is drawn.
+	 */
+	public void setMaximumClusterZoomLevel(final int pZoomLevel) {
+		mMaximumClusterZoomLevel = Math.min(pZoomLevel, MapView.MAXIMUM_ZOOMLEVEL);
+		clearClusters();
+	}
+
+	public int getClusterRadius() {
+		return mClusterRadiusPx;
+	}
+
+	/**
+	 * Set how close together the items have to be on screen to be clustered, in pixels.
+	 */
+	public void setClusterRadius(final int pRadiusPx) {
+		mClusterRadiusPx = pRadiusPx;
+		clearClusters();
+	}
+
+	/**
+	 * Set the marker drawn for a cluster, centred on it and under the number of items. If null,
+	 * which is the default, a circle is drawn with the paint from {@link #getCirclePaint()}.
+	 */
+	public void setClusterMarker(final Drawable pMarker) {
+		mClusterMarker = pMarker;
+		if (pMarker != null) {
+			final int width = pMarker.getIntrinsicWidth();
+			final int height = pMarker.getIntrinsicHeight();
+			pMarker.setBounds(-width / 2, -height / 2, width - width / 2, height - height / 2);
+			mMarkerRadiusPx = Math.max(width, height) / 2;
+		} else {
+			mMarkerRadiusPx = (int) (DEFAULT_MARKER_RADIUS_DIP * mScale);
+		}
+	}
+
+	public Paint getCirclePaint() {
+		return mCirclePaint;
+	}
+
+	public Paint getTextPaint() {
+		return mTextPaint;
+	}
+
+	// ===========================================================
+	// Methods from SuperClass/Interfaces
+	// ===========================================================
+
+	/**
+	 * The markers and clusters have no shadow, so a subclass that draws one must override this to
+	 * return true.
+	 */
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
+	@Override
+	protected void onItemsChanged(final boolean pPositionsChanged) {
+		if (pPositionsChanged) {
+			// the clusters would draw and hit test other items than the ones they were made of
+			clearClusters();
+		}
+		// the items are clustered on the next draw, so a batch of changes is only clustered once
+		mItemsChanged = true;
+	}
+
+	@Override
+	protected void draw(final Canvas c, final MapView mapView, final boolean shadow) {
+		if (shadow) {
+			return;
+		}
+		mMapView = mapView;
+		if (mItemsChanged) {
+			startClustering();
+		}
+
+		final Projection pj = mapView.getProjection();
+		final ItemClusters.Level level = getLevel(pj);
+		if (level == null) {
+			super.draw(c, mapView, shadow);
+			return;
+		}
+
+		final int count = queryIndex(level.getIndex(), pj, pj.getScreenRect(),
+				Math.max(getMarkerExtent(), mMarkerRadiusPx));
+		final float orientation = mapView.getMapOrientation();
+
+		/* Draw in backward cycle, so the clusters of the items with the least index are on top. */
+		for (int j = count - 1; j >= 0; j--) {
+			final int cluster = getQueriedItem(j);
+			if (level.getSize(cluster) == 1) {
+				final int position = level.getFirstPoint(cluster);
+				if (position < getItemIndex().size()) {
+					final Item item = getItem(position);
+					pj.toPixels(item.getPoint(), mClusterPoint);
+					onDrawItem(c, item, mClusterPoint, orientation);
+				}
+			} else {
+				toPixels(pj, level.getX(cluster), level.getY(cluster), mClusterPoint);
+				onDrawCluster(c, level.getSize(cluster), mClusterPoint, orientation);
+			}
+		}
+	}
+
+	@Override
+	public boolean onSingleTapConfirmed(final MotionEvent event, final MapView mapView) {
+		final Projection pj = mapView.getProjection();
+		final ItemClusters.Level level = getLevel(pj);
+		if (level != null) {
+			final Rect screenRect = pj.getIntrinsicScreenRect();
+			final int tapX = screenRect.left + (int) event.getX();
+			final int tapY = screenRect.top + (int) event.getY();
+			mTapRect.set(tapX, tapY, tapX, tapY);
+			final int count = queryIndex(level.getIndex(), pj, mTapRect, mMarkerRadiusPx);
+			final long radiusSquared = (long) mMarkerRadiusPx * mMarkerRadiusPx;
+			for (int j = 0; j < count; j++) {
+				final int cluster = getQueriedItem(j);
+				if (level.getSize(cluster) == 1) {
+					continue;
+				}
+				toPixels(pj, level.getX(cluster), level.getY(cluster), mClusterPoint);
+				final long dx = tapX - mClusterPoint.x;
+				final long dy = tapY - mClusterPoint.y;
+				if (dx * dx + dy * dy <= radiusSquared) {
+					zoomToCluster(mapView, level, cluster);
+					return true;
+				}
+			}
+		}
+		return super.onSingleTapConfirmed(event, mapView);
+	}
+
+	/**
+	 * The items that are in a cluster of more than one at the zoom level of the map aren't drawn,
+	 * so they aren't hit tested either.
+	 */
+	@Override
+	protected boolean isItemTappable(final int index, final MapView mapView) {
+		final ItemClusters.Level level = getLevel(mapView.getProjection());
+		return level == null || level.isSingle(index);
+	}
+
+	@Override
+	public void onDetach(final MapView mapView) {
+		if (mExecutor != null) {
+			mExecutor.shutdownNow();
+			mExecutor = null;
+			mClustering = null;
+		}
+		mItemsChanged = true;
+		mMapView = null;
+		super.onDetach(mapView);
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Draw a cluster of items. By default, draws the cluster marker or a circle with the number of
+	 * items on it.
+	 *
+	 * @param pSize
+	 *            the number of items in the cluster
+	 * @param pScreenCoords
+	 *            the centre of the cluster
+	 */
+	protected void onDrawCluster(final Canvas canvas, final int pSize, final Point pScreenCoords,
+			final float aMapOrientation) {
+		canvas.save();
+		canvas.translate(pScreenCoords.x, pScreenCoords.y);
+		if (aMapOrientation != 0) {
+			canvas.rotate(-aMapOrientation);
+		}
+		if (mClusterMarker != null) {
+			mClusterMarker.draw(canvas);
+		} else {
+			canvas.drawCircle(0, 0, mMarkerRadiusPx, mCirclePaint);
+		}
+		final String text = pSize < 1000 ? Integer.toString(pSize) : pSize / 1000 + "k";
+		canvas.drawText(text, 0, -(mTextPaint.ascent() + mTextPaint.descent()) / 2, mTextPaint);
+		canvas.restore();
+	}
+
+	/**
+	 * Zoom the map to show all the items of a cluster.
+	 */
+	private void zoomToCluster(final MapView mapView, final ItemClusters.Level level,
+			final int cluster) {
+		final double north = ItemClusters.yToLatitude(level.getTop(cluster));
+		final double south = ItemClusters.yToLatitude(level.getBottom(cluster));
+		final double west = ItemClusters.xToLongitude(level.getLeft(cluster));
+		final double east = ItemClusters.xToLongitude(level.getRight(cluster));
+		if (level.getLeft(cluster) == level.getRight(cluster)
+				&& level.getTop(cluster) == level.getBottom(cluster)) {
+			// the items are all in the same place, so they only come apart when zoomed all the way
+			mapView.getController().setCenter(new GeoPoint(north, west));
+			mapView.getController().setZoom(mapView.getMaxZoomLevel());
+			return;
+		}
+		mapView.zoomToBoundingBox(new BoundingBoxE6(north, east, south, west));
+	}
+
+	/**
+	 * The clusters at the zoom level of the map, or null if the items aren't clustered at that
+	 * zoom level or haven't been clustered yet.
+	 */
+	private ItemClusters.Level getLevel(final Projection pj) {
+		final ItemClusters clusters = mClusters;
+		if (clusters == null) {
+			return null;
+		}
+		return clusters.getLevel(pj.getZoomLevel());
+	}
+
+	/**
+	 * Drop the clusters, which were worked out with the old settings or items, and any clustering
+	 * still running. The items are drawn on their own until they are clustered again.
+	 */
+	private void clearClusters() {
+		mItemsChanged = true;
+		mGeneration++;
+		mClusters = null;
+	}
+
+	private void toPixels(final Projection pj, final int pX, final int pY, final Point pOut) {
+		mClusterGeoPoint.setCoordsE6((int) (ItemClusters.yToLatitude(pY) * 1E6),
+				(int) (ItemClusters.xToLongitude(pX) * 1E6));
+		pj.toPixels(mClusterGeoPoint, pOut);
+	}
+
+	/**
+	 * Take a copy of the positions of the items and cluster them on the background thread. A
+	 * clustering that is still running is cancelled, since its result would be out of date.
+	 */
+	private void startClustering() {
+		mItemsChanged = false;
+		if (mClustering != null) {
+			mClustering.cancel(true);
+		}
+
+		final PointIndex index = getItemIndex();
+		final int count = index.size();
+		final int[] x = new int[count];
+		final int[] y = new int[count];
+		for (int i = 0; i < count; i++) {
+			x[i] = index.getX(i);
+			y[i] = index.getY(i);
+		}
+		final int maximumZoomLevel = mMaximumClusterZoomLevel;
+		final int radiusPx = mClusterRadiusPx;
+		final int tileSizePx = TileSystem.getTileSize();
+		final int generation = ++mGeneration;
+
+		if (mExecutor == null) {
+			mExecutor = Executors.newSingleThreadExecutor(new ConfigurablePriorityThreadFactory(
+					Thread.NORM_PRIORITY - 1, "Clustering"));
+		}
+		mClustering = mExecutor.submit(new Runnable() {
+			@Override
+			public void run() {
+				final ItemClusters clusters;
+				try {
+					clusters = new ItemClusters(x, y, count, 0, maximumZoomLevel, radiusPx,
+							tileSizePx);
+				} catch (final InterruptedException e) {
+					return;
+				}
+				if (generation != mGeneration) {
+					return;
+				}
+				mClusters = clusters;
+				final MapView mapView = mMapView;
+				if (mapView != null) {
+					mapView.postInvalidate();
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug("Clustered " + count + " items");
+				}
+			}
+		});
+	}
+}
@@ -105,6 +105,11 @@ public class DirectedLocationOverlay extends Overlay {
 	// Methods from SuperClass/Interfaces
 	// ===========================================================
 
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
 	@Override
 	public void draw(final Canvas c, final MapView osmv, final boolean shadow) {
 
@@ -0,0 +1,276 @@
+package org.osmdroid.views.overlay;
+
+import java.util.BitSet;
+import java.util.HashMap;
+
+import org.osmdroid.util.PointIndex;
+
+/**
+ * The clusters of a set of points at a range of zoom levels. The points are grouped into the cells
+ * of a grid whose cells are a given number of pixels across at each zoom level, starting at the
+ * highest zoom level. Each lower zoom level groups the clusters of the level above it rather than
+ * the points, so the clusters nest from one level to the next and the whole hierarchy takes about
+ * as long to build as one level does.
+ *
+ * The points are in the coordinates of a {@link PointIndex}, and each level has an index of its
+ * own over the centres of its clusters, so the clusters on screen can be found without looking at
+ * the others. This class only uses plain Java, so it can be built on a background thread.
+ *
+ * @see ClusteredItemizedIconOverlay
+ */
+class ItemClusters {
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private final int mMinimumZoomLevel;
+	private final int mMaximumZoomLevel;
+	private final Level[] mLevels;
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	/**
+	 * @param pX
+	 *            the x of each point, which isn't kept
+	 * @param pY
+	 *            the y of each point, which isn't kept
+	 * @param pCount
+	 *            the number of points
+	 * @param pRadiusPx
+	 *            the width of the grid cells in pixels
+	 * @param pTileSizePx
+	 *            the size of the map tiles in pixels, which sets the size of the map at each zoom
+	 *            level
+	 * @throws InterruptedException
+	 *             if the thread is interrupted between two levels
+	 */
+	public ItemClusters(final int[] pX, final int[] pY, final int pCount,
+			final int pMinimumZoomLevel, final int pMaximumZoomLevel, final int pRadiusPx,
+			final int pTileSizePx) throws InterruptedException {
+		mMinimumZoomLevel = pMinimumZoomLevel;
+		mMaximumZoomLevel = pMaximumZoomLevel;
+		mLevels = new Level[pMaximumZoomLevel - pMinimumZoomLevel + 1];
+
+		// the points are the clusters of the level above the highest one
+		Level above = new Level(pCount);
+		for (int i = 0; i < pCount; i++) {
+			above.set(i, 1, pX[i], pY[i], pX[i], pY[i], pX[i], pY[i], i);
+		}
+		for (int zoomLevel = pMaximumZoomLevel; zoomLevel >= pMinimumZoomLevel; zoomLevel--) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			final double mapSizePx = (double) pTileSizePx * (1L << zoomLevel);
+			final double cellSize = Math.max(1, (double) pRadiusPx * PointIndex.SIZE / mapSizePx);
+			above = group(above, cellSize);
+			mLevels[zoomLevel - pMinimumZoomLevel] = above;
+		}
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int getMinimumZoomLevel() {
+		return mMinimumZoomLevel;
+	}
+
+	public int getMaximumZoomLevel() {
+		return mMaximumZoomLevel;
+	}
+
+	/**
+	 * The clusters at a zoom level, or null if the zoom level is out of range.
+	 */
+	public Level getLevel(final int pZoomLevel) {
+		if (pZoomLevel < mMinimumZoomLevel || pZoomLevel > mMaximumZoomLevel) {
+			return null;
+		}
+		return mLevels[pZoomLevel - mMinimumZoomLevel];
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Group the clusters of a level by grid cell. The clusters are visited in the order of their
+	 * first points, so the clusters of the new level are in that order too, and each keeps the
+	 * first point of the first cluster in it.
+	 */
+	private static Level group(final Level pAbove, final double pCellSize) {
+		final HashMap<Long, Integer> cells = new HashMap<Long, Integer>();
+		final int[] clusterOf = new int[pAbove.mCount];
+		int count = 0;
+		for (int i = 0; i < pAbove.mCount; i++) {
+			final long cellX = (long) (pAbove.mX[i] / pCellSize);
+			final long cellY = (long) (pAbove.mY[i] / pCellSize);
+			final Long key = (cellX << 32) | cellY;
+			final Integer cluster = cells.get(key);
+			if (cluster == null) {
+				cells.put(key, count);
+				clusterOf[i] = count++;
+			} else {
+				clusterOf[i] = cluster;
+			}
+		}
+
+		final Level level = new Level(count);
+		final double[] sumX = new double[count];
+		final double[] sumY = new double[count];
+		for (int i = 0; i < pAbove.mCount; i++) {
+			final int cluster = clusterOf[i];
+			final int size = pAbove.mSizes[i];
+			sumX[cluster] += (double) pAbove.mX[i] * size;
+			sumY[cluster] += (double) pAbove.mY[i] * size;
+			if (level.mSizes[cluster] == 0) {
+				level.set(cluster, size, 0, 0, pAbove.mLeft[i], pAbove.mTop[i], pAbove.mRight[i],
+						pAbove.mBottom[i], pAbove.mFirstPoints[i]);
+			} else {
+				level.mSizes[cluster] += size;
+				level.mLeft[cluster] = Math.min(level.mLeft[cluster], pAbove.mLeft[i]);
+				level.mTop[cluster] = Math.min(level.mTop[cluster], pAbove.mTop[i]);
+				level.mRight[cluster] = Math.max(level.mRight[cluster], pAbove.mRight[i]);
+				level.mBottom[cluster] = Math.max(level.mBottom[cluster], pAbove.mBottom[i]);
+			}
+		}
+		for (int cluster = 0; cluster < count; cluster++) {
+			final int size = level.mSizes[cluster];
+			level.mX[cluster] = (int) (sumX[cluster] / size);
+			level.mY[cluster] = (int) (sumY[cluster] / size);
+			level.mIndex.add(level.mX[cluster], level.mY[cluster]);
+			if (size == 1) {
+				level.mSingles.set(level.mFirstPoints[cluster]);
+			}
+		}
+		return level;
+	}
+
+	/**
+	 * Get the longitude of an index x.
+	 */
+	public static double xToLongitude(final int pX) {
+		return (double) pX / PointIndex.SIZE * 360 - 180;
+	}
+
+	/**
+	 * Get the latitude of an index y.
+	 */
+	public static double yToLatitude(final int pY) {
+		final double y = 0.5 - (double) pY / PointIndex.SIZE;
+		return 90 - 360 * Math.atan(Math.exp(-y * 2 * Math.PI)) / Math.PI;
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	/**
+	 * The clusters at one zoom level, in the order of their first points.
+	 */
+	public static class Level {
+
+		final int mCount;
+
+		/** The number of points in each cluster */
+		final int[] mSizes;
+
+		/** The centre of each cluster, the mean of its points */
+		final int[] mX;
+		final int[] mY;
+
+		/** The bounds of the points of each cluster */
+		final int[] mLeft;
+		final int[] mTop;
+		final int[] mRight;
+		final int[] mBottom;
+
+		/** The first point of each cluster */
+		final int[] mFirstPoints;
+
+		/** The centres of the clusters, by cluster */
+		final PointIndex mIndex = new PointIndex();
+
+		/** The points that are clusters of their own */
+		final BitSet mSingles = new BitSet();
+
+		Level(final int pCount) {
+			mCount = pCount;
+			mSizes = new int[pCount];
+			mX = new int[pCount];
+			mY = new int[pCount];
+			mLeft = new int[pCount];
+			mTop = new int[pCount];
+			mRight = new int[pCount];
+			mBottom = new int[pCount];
+			mFirstPoints = new int[pCount];
+		}
+
+		private void set(final int pCluster, final int pSize, final int pX, final int pY,
+				final int pLeft, final int pTop, final int pRight, final int pBottom,
+				final int pFirstPoint) {
+			mSizes[pCluster] = pSize;
+			mX[pCluster] = pX;
+			mY[pCluster] = pY;
+			mLeft[pCluster] = pLeft;
+			mTop[pCluster] = pTop;
+			mRight[pCluster] = pRight;
+			mBottom[pCluster] = pBottom;
+			mFirstPoints[pCluster] = pFirstPoint;
+		}
+
+		public int getCount() {
+			return mCount;
+		}
+
+		public int getSize(final int pCluster) {
+			return mSizes[pCluster];
+		}
+
+		public int getX(final int pCluster) {
+			return mX[pCluster];
+		}
+
+		public int getY(final int pCluster) {
+			return mY[pCluster];
+		}
+
+		public int getLeft(final int pCluster) {
+			return mLeft[pCluster];
+		}
+
+		public int getTop(final int pCluster) {
+			return mTop[pCluster];
+		}
+
+		public int getRight(final int pCluster) {
+			return mRight[pCluster];
+		}
+
+		public int getBottom(final int pCluster) {
+			return mBottom[pCluster];
+		}
+
+		public int getFirstPoint(final int pCluster) {
+			return mFirstPoints[pCluster];
+		}
+
+		/**
+		 * Whether a point is a cluster of its own at this level, and so is drawn rather than
+		 * folded into a cluster.
+		 */
+		public boolean isSingle(final int pPoint) {
+			return mSingles.get(pPoint);
+		}
+
+		/**
+		 * The index of the centres of the clusters. This must not be changed.
+		 */
+		public PointIndex getIndex() {
+			return mIndex;
+		}
+	}
+}
@@ -11,6 +11,7 @@ import org.osmdroid.views.Projection;
 
 import android.content.Context;
 import android.graphics.Point;
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.view.MotionEvent;
 
@@ -18,8 +19,10 @@ public class ItemizedIconOverlay<Item extends OverlayItem> extends ItemizedOverl
 
 	protected final List<Item> mItemList;
 	protected OnItemGestureListener<Item> mOnItemGestureListener;
-	private int mDrawnItemsLimit = Integer.MAX_VALUE;
+	/** Tells the overlay about the changes to mItemList, and batches them */
+	private final BatchedItemList<Item> mItems;
 	private final Point mItemPoint = new Point();
+	private final Rect mTapRect = new Rect();
 
 	public ItemizedIconOverlay(
 			final List<Item> pList,
@@ -30,6 +33,27 @@ public class ItemizedIconOverlay<Item extends OverlayItem> extends ItemizedOverl
 
 		this.mItemList = pList;
 		this.mOnItemGestureListener = pOnItemGestureListener;
+		this.mItems = new BatchedItemList<Item>(pList, new BatchedItemList.Populator() {
+			@Override
+			public void populate() {
+				ItemizedIconOverlay.this.populate();
+			}
+
+			@Override
+			public void populateInserted(final int pPosition) {
+				ItemizedIconOverlay.this.populateInserted(pPosition);
+			}
+
+			@Override
+			public void populateRemoved(final int pPosition) {
+				ItemizedIconOverlay.this.populateRemoved(pPosition);
+			}
+
+			@Override
+			public void populateChanged(final int pPosition) {
+				ItemizedIconOverlay.this.populateChanged(pPosition);
+			}
+		});
 		populate();
 	}
 
@@ -57,29 +81,54 @@ public class ItemizedIconOverlay<Item extends OverlayItem> extends ItemizedOverl
 
 	@Override
 	protected Item createItem(final int index) {
-		return mItemList.get(index);
+		return mItems.get(index);
 	}
 
 	@Override
 	public int size() {
-		return Math.min(mItemList.size(), mDrawnItemsLimit);
+		return mItems.size();
+	}
+
+	/**
+	 * Start a batch of changes to the items. Until the matching {@link #endUpdate()}, items can be
+	 * added, removed and replaced without the overlay being updated, and the overlay keeps drawing
+	 * the items as they were. Updates can be nested.
+	 */
+	public void beginUpdate() {
+		mItems.beginUpdate();
+	}
+
+	/**
+	 * End a batch of changes to the items started by {@link #beginUpdate()}. When the outermost
+	 * batch ends, the overlay is populated once if any items changed.
+	 */
+	public void endUpdate() {
+		mItems.endUpdate();
 	}
 
 	public boolean addItem(final Item item) {
-		final boolean result = mItemList.add(item);
-		populate();
-		return result;
+		return mItems.add(item);
 	}
 
 	public void addItem(final int location, final Item item) {
-		mItemList.add(location, item);
-		populate();
+		mItems.add(location, item);
 	}
 
 	public boolean addItems(final List<Item> items) {
-		final boolean result = mItemList.addAll(items);
-		populate();
-		return result;
+		return mItems.addAll(items);
+	}
+
+	/**
+	 * Replace an item, for example with one at a new location, without populating the whole
+	 * overlay again. This is how to move an item: the overlay indexes the items by where they are
+	 * when they are added, so it doesn't see a change to the {@link OverlayItem#getPoint() point}
+	 * of an item in place, and may leave the item out where it is drawn. After changing the point,
+	 * set the item again at its position.
+	 *
+	 * @return the item that was replaced
+	 */
+	public Item setItem(final int position, final Item item) {
+		return mItems.set(position, item);
 	}
 
 	public void removeAllItems() {
@@ -87,22 +136,20 @@ public class ItemizedIconOverlay<Item extends OverlayItem> extends ItemizedOverl
 	}
 
 	public void removeAllItems(final boolean withPopulate) {
-		mItemList.clear();
-		if (withPopulate) {
-			populate();
-		}
+		mItems.clear(withPopulate);
 	}
 
 	public boolean removeItem(final Item item) {
-		final boolean result = mItemList.remove(item);
-		populate();
-		return result;
+		final int position = mItemList.indexOf(item);
+		if (position < 0) {
+			return false;
+		}
+		removeItem(position);
+		return true;
 	}
 
 	public Item removeItem(final int position) {
-		final Item result = mItemList.remove(position);
-		populate();
-		return result;
+		return mItems.remove(position);
 	}
 
 	/**
@@ -121,7 +168,7 @@ public class ItemizedIconOverlay<Item extends OverlayItem> extends ItemizedOverl
 				if (that.mOnItemGestureListener == null) {
 					return false;
 				}
-				return onSingleTapUpHelper(index, that.mItemList.get(index), mapView);
+				return onSingleTapUpHelper(index, getItem(index), mapView);
 			}
 		})) ? true : super.onSingleTapConfirmed(event, mapView);
 	}
@@ -162,8 +209,14 @@ public class ItemizedIconOverlay<Item extends OverlayItem> extends ItemizedOverl
 		final Projection pj = mapView.getProjection();
 		final int eventX = (int) event.getX();
 		final int eventY = (int) event.getY();
+		mTapRect.set(eventX, eventY, eventX, eventY);
+		final int count = queryItems(pj, mTapRect);
 
-		for (int i = 0; i < this.mItemList.size(); ++i) {
+		for (int j = 0; j < count; ++j) {
+			final int i = getQueriedItem(j);
+			if (!isItemTappable(i, mapView)) {
+				continue;
+			}
 			final Item item = getItem(i);
 			final Drawable marker = (item.getMarker(0) == null) ? this.mDefaultMarker : item
 					.getMarker(0);
@@ -179,16 +232,24 @@ public class ItemizedIconOverlay<Item extends OverlayItem> extends ItemizedOverl
 		return false;
 	}
 
+	/**
+	 * Whether an item is hit tested by taps and long presses. By default every item is, but a
+	 * subclass that doesn't draw some of the items can leave them out.
+	 */
+	protected boolean isItemTappable(final int index, final MapView mapView) {
+		return true;
+	}
+
 	// ===========================================================
 	// Getter & Setter
 	// ===========================================================
 
 	public int getDrawnItemsLimit() {
-		return this.mDrawnItemsLimit;
+		return mItems.getLimit();
 	}
 
 	public void setDrawnItemsLimit(final int aLimit) {
-		this.mDrawnItemsLimit = aLimit;
+		mItems.setLimit(aLimit);
 	}
 
 	// ===========================================================
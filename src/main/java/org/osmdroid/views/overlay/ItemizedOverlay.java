@@ -1,9 +1,12 @@
 // Created by plusminus on 23:18:23 - 02.10.2008
 package org.osmdroid.views.overlay;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.osmdroid.ResourceProxy;
+import org.osmdroid.api.IGeoPoint;
+import org.osmdroid.util.PointIndex;
+import org.osmdroid.util.TileSystem;
 import org.osmdroid.views.MapView;
 import org.osmdroid.views.Projection;
 import org.osmdroid.views.overlay.OverlayItem.HotspotPlace;
@@ -17,7 +20,10 @@ import android.view.MotionEvent;
 /**
  * Draws a list of {@link OverlayItem} as markers to a map. The item with the lowest index is drawn
  * as last and therefore the 'topmost' marker. It also gets checked for onTap first. This class is
- * generic, because you then you get your custom item-class passed back in onTap().
+ * generic, because you then you get your custom item-class passed back in onTap().<br/>
+ * <br/>
+ * The positions of the items are kept in a {@link PointIndex}, so only the items on screen are
+ * drawn, and only the items near a tap are hit tested.
  *
  * @author Marc Kurtz
  * @author Nicolas Gramlich
@@ -38,7 +44,6 @@ public abstract class ItemizedOverlay<Item extends OverlayItem> extends Overlay
 	// ===========================================================
 
 	protected final Drawable mDefaultMarker;
-	private final ArrayList<Item> mInternalItemList;
 	private final Rect mRect = new Rect();
 	private final Point mCurScreenCoords = new Point();
 	protected boolean mDrawFocusedItem = true;
@@ -46,6 +51,31 @@ public abstract class ItemizedOverlay<Item extends OverlayItem> extends Overlay
 	private boolean mPendingFocusChangedEvent = false;
 	private OnFocusChangeListener mOnFocusChangeListener;
 
+	/** The items as they are drawn, and the index of their positions */
+	private final PopulatedItems<Item> mPopulatedItems = new PopulatedItems<Item>() {
+		@Override
+		protected int getSourceSize() {
+			return size();
+		}
+
+		@Override
+		protected Item createItem(final int pPosition) {
+			return ItemizedOverlay.this.createItem(pPosition);
+		}
+
+		@Override
+		protected IGeoPoint getPoint(final Item pItem) {
+			return pItem.getPoint();
+		}
+	};
+	/** The largest width or height of the markers, how far they can reach from their point */
+	private int mMarkerExtent;
+	private final Point mQueryTopLeft = new Point();
+	private final Point mQueryBottomRight = new Point();
+	private final Rect mTapRect = new Rect();
+	/** The positions of the items found by the last query */
+	private int[] mQueriedItems = new int[16];
+
 	// ===========================================================
 	// Abstract methods
 	// ===========================================================
@@ -74,8 +104,6 @@ public abstract class ItemizedOverlay<Item extends OverlayItem> extends Overlay
 		}
 
 		this.mDefaultMarker = pDefaultMarker;
-
-		mInternalItemList = new ArrayList<Item>();
 	}
 
 	// ===========================================================
@@ -116,11 +144,11 @@ public abstract class ItemizedOverlay<Item extends OverlayItem> extends Overlay
 		mPendingFocusChangedEvent = false;
 
 		final Projection pj = mapView.getProjection();
-		final int size = this.mInternalItemList.size() - 1;
+		final int count = queryItems(pj, pj.getScreenRect());
 
 		/* Draw in backward cycle, so the items with the least index are on the front. */
-		for (int i = size; i >= 0; i--) {
-			final Item item = getItem(i);
+		for (int j = count - 1; j >= 0; j--) {
+			final Item item = getItem(mQueriedItems[j]);
 			pj.toPixels(item.getPoint(), mCurScreenCoords);
 
 			onDrawItem(c, item, mCurScreenCoords, mapView.getMapOrientation());
@@ -137,12 +165,157 @@ public abstract class ItemizedOverlay<Item extends OverlayItem> extends Overlay
 	 * before anything else gets called.
 	 */
 	protected final void populate() {
-		final int size = size();
-		mInternalItemList.clear();
-		mInternalItemList.ensureCapacity(size);
-		for (int a = 0; a < size; a++) {
-			mInternalItemList.add(createItem(a));
+		mPopulatedItems.populate();
+		mMarkerExtent = 0;
+		for (int a = 0; a < mPopulatedItems.size(); a++) {
+			addMarkerExtent(mPopulatedItems.get(a));
 		}
+		onItemsChanged(true);
+	}
+
+	/**
+	 * Add a single item without populating the whole overlay again. The subclass must already
+	 * return the new item from createItem(position), and the items after it from the following
+	 * positions.
+	 */
+	protected final void populateInserted(final int position) {
+		mPopulatedItems.populateInserted(position);
+		addMarkerExtent(mPopulatedItems.get(position));
+		onItemsChanged(position < mPopulatedItems.size() - 1);
+	}
+
+	/**
+	 * Remove a single item without populating the whole overlay again.
+	 */
+	protected final void populateRemoved(final int position) {
+		mPopulatedItems.populateRemoved(position);
+		onItemsChanged(position < mPopulatedItems.size());
+	}
+
+	/**
+	 * Replace a single item without populating the whole overlay again. The subclass must already
+	 * return the new item from createItem(position).
+	 */
+	protected final void populateChanged(final int position) {
+		mPopulatedItems.populateChanged(position);
+		addMarkerExtent(mPopulatedItems.get(position));
+		onItemsChanged(false);
+	}
+
+	/**
+	 * Called when items have been added, removed or replaced. By default, does nothing.
+	 *
+	 * @param pPositionsChanged
+	 *            whether items other than those added, removed or replaced may now be at other
+	 *            positions, so that positions kept from before may refer to other items
+	 */
+	protected void onItemsChanged(final boolean pPositionsChanged) {
+	}
+
+	/**
+	 * The positions of the items in the Mercator coordinates of a {@link PointIndex}. This must
+	 * not be changed.
+	 */
+	protected final PointIndex getItemIndex() {
+		return mPopulatedItems.getIndex();
+	}
+
+	/**
+	 * The largest width or height of the item markers.
+	 */
+	protected final int getMarkerExtent() {
+		return mMarkerExtent;
+	}
+
+	private void addMarkerExtent(final Item item) {
+		// the focused item may be drawn with a larger marker, so make room for it too
+		addMarkerExtent(item, OverlayItem.ITEM_STATE_FOCUSED_MASK);
+		addMarkerExtent(item, 0);
+	}
+
+	private void addMarkerExtent(final Item item, final int state) {
+		final Drawable marker = (item.getMarker(state) == null) ? getDefaultMarker(state) : item
+				.getMarker(state);
+		mMarkerExtent = Math.max(mMarkerExtent,
+				Math.max(marker.getIntrinsicWidth(), marker.getIntrinsicHeight()));
+	}
+
+	/**
+	 * Find the items whose markers may reach into an area of the screen. The items are assumed to
+	 * be where they were, and their markers, focused or not, no larger than they were, when they
+	 * were added, so populate() again after moving items in place or making their markers larger.
+	 *
+	 * @param screenRect
+	 *            the area in screen coordinates, as for {@link Projection#getScreenRect()}
+	 * @return the number of items found, whose positions are given by
+	 *         {@link #getQueriedItem(int)} in ascending order
+	 */
+	protected final int queryItems(final Projection pj, final Rect screenRect) {
+		return queryIndex(mPopulatedItems.getIndex(), pj, screenRect, mMarkerExtent);
+	}
+
+	/**
+	 * Find the points in an index that are within a margin of an area of the screen, like
+	 * {@link #queryItems(Projection, Rect)}.
+	 *
+	 * @param margin
+	 *            the margin in pixels
+	 * @return the number of points found, whose positions are given by
+	 *         {@link #getQueriedItem(int)} in ascending order
+	 */
+	protected final int queryIndex(final PointIndex index, final Projection pj,
+			final Rect screenRect, final int margin) {
+		pj.toMercatorPixels(screenRect.left, screenRect.top, mQueryTopLeft);
+		pj.toMercatorPixels(screenRect.right, screenRect.bottom, mQueryBottomRight);
+
+		// while pinching out, more of the map is on screen than the screen rect
+		final float scale = pj.getMultiTouchScale();
+		double growX = margin;
+		double growY = margin;
+		if (scale < 1) {
+			growX += (mQueryBottomRight.x - mQueryTopLeft.x) * (1 / scale - 1) / 2;
+			growY += (mQueryBottomRight.y - mQueryTopLeft.y) * (1 / scale - 1) / 2;
+		}
+
+		final double toIndex = (double) PointIndex.SIZE / TileSystem.MapSize(pj.getZoomLevel());
+		final long left = (long) Math.floor((mQueryTopLeft.x - growX) * toIndex);
+		final long top = (long) Math.floor((mQueryTopLeft.y - growY) * toIndex);
+		final long right = (long) Math.ceil((mQueryBottomRight.x + growX) * toIndex);
+		final long bottom = (long) Math.ceil((mQueryBottomRight.y + growY) * toIndex);
+
+		int count;
+		if (right - left >= PointIndex.SIZE) {
+			count = copyQueried(index, 0, index.query(0, clip(top), PointIndex.SIZE, clip(bottom)));
+		} else {
+			// the map repeats horizontally, so look at the copies on either side too
+			count = 0;
+			final long size = PointIndex.SIZE;
+			for (long offset = -size; offset <= size; offset += size) {
+				if (left + offset < PointIndex.SIZE && right + offset >= 0) {
+					count = copyQueried(index, count, index.query(clip(left + offset), clip(top),
+							clip(right + offset), clip(bottom)));
+				}
+			}
+			Arrays.sort(mQueriedItems, 0, count);
+		}
+		return count;
+	}
+
+	protected final int getQueriedItem(final int index) {
+		return mQueriedItems[index];
+	}
+
+	private int copyQueried(final PointIndex index, final int offset, final int count) {
+		if (offset + count > mQueriedItems.length) {
+			mQueriedItems = Arrays.copyOf(mQueriedItems,
+					Math.max(offset + count, mQueriedItems.length * 2));
+		}
+		System.arraycopy(index.getResults(), 0, mQueriedItems, offset, count);
+		return offset + count;
+	}
+
+	private static int clip(final long value) {
+		return (int) Math.min(Math.max(value, -1), PointIndex.SIZE);
 	}
 
 	/**
@@ -153,7 +326,7 @@ public abstract class ItemizedOverlay<Item extends OverlayItem> extends Overlay
 	 * @return the Item of the given index.
 	 */
 	public final Item getItem(final int position) {
-		return mInternalItemList.get(position);
+		return mPopulatedItems.get(position);
 	}
 
 	/**
@@ -210,9 +383,13 @@ public abstract class ItemizedOverlay<Item extends OverlayItem> extends Overlay
 	public boolean onSingleTapConfirmed(MotionEvent e, MapView mapView) {
 		final Projection pj = mapView.getProjection();
 		final Rect screenRect = pj.getIntrinsicScreenRect();
-		final int size = this.size();
+		final int tapX = screenRect.left + (int) e.getX();
+		final int tapY = screenRect.top + (int) e.getY();
+		mTapRect.set(tapX, tapY, tapX, tapY);
+		final int count = queryItems(pj, mTapRect);
 
-		for (int i = 0; i < size; i++) {
+		for (int j = 0; j < count; j++) {
+			final int i = mQueriedItems[j];
 			final Item item = getItem(i);
 			pj.toPixels(item.getPoint(), mCurScreenCoords);
 
@@ -182,6 +182,19 @@ public class MinimapOverlay extends TilesOverlay {
 				TileSystem.getTileSize(), mTileArea);
 	}
 
+	@Override
+	protected boolean isTileInViewPort(final Rect tileRect) {
+		// Only request the tiles that are visible through the minimap
+		return Rect.intersects(tileRect, mTileArea);
+	}
+
+	@Override
+	protected void getTileCanvasRect(final Rect tileRect, final Rect out) {
+		out.set(tileRect);
+		out.offset(mMiniMapCanvasRect.left - mTileArea.left, mMiniMapCanvasRect.top
+				- mTileArea.top);
+	}
+
 	@Override
 	protected void onTileReadyToDraw(final Canvas c, final Drawable currentMapTile,
 			final Rect tileRect) {
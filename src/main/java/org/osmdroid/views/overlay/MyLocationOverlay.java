@@ -364,6 +364,11 @@ public class MyLocationOverlay extends Overlay implements IMyLocationOverlay, IO
 	// Methods from SuperClass/Interfaces
 	// ===========================================================
 
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
 	@Override
 	public void draw(final Canvas canvas, final MapView mapView, final boolean shadow) {
 
@@ -27,6 +27,8 @@ import android.os.Build;
  * <li>Implement a flag to determine if the drawing has actually changed. If not, then reuse the
  * last frame's backing bitmap. This will prevent having to re-upload the bitmap texture to GPU.</li>
  * </ol>
+ * 
+ * @see AsyncOverlay for an overlay that is drawn into a bitmap on a background thread
  */
 public abstract class NonAcceleratedOverlay extends Overlay {
 	private static final Logger logger = LoggerFactory.getLogger(NonAcceleratedOverlay.class);
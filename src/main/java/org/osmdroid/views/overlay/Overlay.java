@@ -51,6 +51,13 @@ public abstract class Overlay implements OverlayConstants {
 	private static final Rect mRect = new Rect();
 	private boolean mEnabled = true;
 
+	/** The time the last frame took to draw, and the longest, in nanoseconds */
+	long mLastDrawTimeNanos;
+	long mMaximumDrawTimeNanos;
+
+	/** The name the draw times are recorded under, which is looked up once */
+	final String mMetricsName = getClass().getName();
+
 	// ===========================================================
 	// Constructors
 	// ===========================================================
@@ -87,6 +94,31 @@ public abstract class Overlay implements OverlayConstants {
 		return this.mEnabled;
 	}
 
+	/**
+	 * The time the overlay took to draw in the last frame, as measured by {@link OverlayManager},
+	 * including both the shadow and the overlay.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getLastDrawTimeNanos() {
+		return mLastDrawTimeNanos;
+	}
+
+	/**
+	 * The longest time the overlay took to draw in a frame since it was created, or since
+	 * {@link #resetDrawTimes()}.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getMaximumDrawTimeNanos() {
+		return mMaximumDrawTimeNanos;
+	}
+
+	public void resetDrawTimes() {
+		mLastDrawTimeNanos = 0;
+		mMaximumDrawTimeNanos = 0;
+	}
+
 	/**
 	 * Since the menu-chain will pass through several independent Overlays, menu IDs cannot be fixed
 	 * at compile time. Overlays should use this method to obtain and store a menu id for each menu
@@ -119,6 +151,15 @@ public abstract class Overlay implements OverlayConstants {
 	 */
 	protected abstract void draw(final Canvas c, final MapView osmv, final boolean shadow);
 
+	/**
+	 * Whether {@link #draw(Canvas, MapView, boolean)} draws anything with shadow=true. If not, the
+	 * overlay is left out of the shadow pass. This must not change while the overlay is on the map.
+	 * By default returns true.
+	 */
+	public boolean drawsShadow() {
+		return true;
+	}
+
 	// ===========================================================
 	// Methods
 	// ===========================================================
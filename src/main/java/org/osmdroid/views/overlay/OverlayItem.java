@@ -9,6 +9,10 @@ import android.graphics.drawable.Drawable;
 /**
  * Immutable class describing a GeoPoint with a Title and a Description.
  *
+ * The overlays index their items by their points when they are added, so don't move an item by
+ * changing its GeoPoint alone: replace the item with
+ * {@link ItemizedIconOverlay#setItem(int, OverlayItem)}, or populate the overlay again.
+ *
  * @author Nicolas Gramlich
  * @author Theodore Hong
  * @author Fred Eisele
@@ -6,8 +6,11 @@ import java.util.ListIterator;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.osmdroid.api.IMapView;
+import org.osmdroid.metrics.Metrics;
 import org.osmdroid.views.MapView;
 import org.osmdroid.views.overlay.Overlay.Snappable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import android.graphics.Canvas;
 import android.graphics.Point;
@@ -18,10 +21,27 @@ import android.view.MotionEvent;
 
 public class OverlayManager extends AbstractList<Overlay> {
 
+	private static final Logger logger = LoggerFactory.getLogger(OverlayManager.class);
+
+	/** The default time above which an overlay is logged as slow to draw, in milliseconds */
+	public static final int DEFAULT_SLOW_DRAW_THRESHOLD_MS = 50;
+
 	private TilesOverlay mTilesOverlay;
 
 	private final CopyOnWriteArrayList<Overlay> mOverlayList;
 
+	/**
+	 * The tiles overlay, the other overlays to draw, and the ones of them that draw a shadow. They
+	 * are worked out again on the first frame after the overlays change.
+	 */
+	private TilesOverlay mDrawTilesOverlay;
+	private Overlay[] mDrawList = new Overlay[0];
+	private Overlay[] mShadowList = new Overlay[0];
+	private volatile int mModificationCount;
+	private int mDrawListModificationCount = -1;
+
+	private long mSlowDrawThresholdNanos = DEFAULT_SLOW_DRAW_THRESHOLD_MS * 1000000L;
+
 	public OverlayManager(final TilesOverlay tilesOverlay) {
 		setTilesOverlay(tilesOverlay);
 		mOverlayList = new CopyOnWriteArrayList<Overlay>();
@@ -40,16 +60,20 @@ public class OverlayManager extends AbstractList<Overlay> {
 	@Override
 	public void add(final int pIndex, final Overlay pElement) {
 		mOverlayList.add(pIndex, pElement);
+		mModificationCount++;
 	}
 
 	@Override
 	public Overlay remove(final int pIndex) {
-		return mOverlayList.remove(pIndex);
+		final Overlay overlay = mOverlayList.remove(pIndex);
+		mModificationCount++;
+		return overlay;
 	}
 
 	@Override
 	public Overlay set(final int pIndex, final Overlay pElement) {
 		Overlay overlay = mOverlayList.set(pIndex, pElement);
+		mModificationCount++;
 		return overlay;
 	}
 
@@ -72,6 +96,23 @@ public class OverlayManager extends AbstractList<Overlay> {
 	 */
 	public void setTilesOverlay(final TilesOverlay tilesOverlay) {
 		mTilesOverlay = tilesOverlay;
+		mModificationCount++;
+	}
+
+	public int getSlowDrawThreshold() {
+		return (int) (mSlowDrawThresholdNanos / 1000000L);
+	}
+
+	/**
+	 * Set the time above which an overlay is logged as slow to draw. An overlay is logged when it
+	 * takes longer to draw than this, and longer than it ever has before, so a slow overlay is
+	 * logged a few times rather than on every frame.
+	 *
+	 * @param pThresholdMs
+	 *            the time in milliseconds, or 0 to not log any overlay
+	 */
+	public void setSlowDrawThreshold(final int pThresholdMs) {
+		mSlowDrawThresholdNanos = pThresholdMs * 1000000L;
 	}
 
 	public Iterable<Overlay> overlaysReversed() {
@@ -100,27 +141,90 @@ public class OverlayManager extends AbstractList<Overlay> {
 		};
 	}
 
+	/**
+	 * Draw the enabled overlays: the tiles overlay first, then the shadows of the other overlays
+	 * that {@link Overlay#drawsShadow() draw one}, so that they are on top of the tiles, and then
+	 * the overlays. The time each overlay takes is kept in it.
+	 */
 	public void onDraw(final Canvas c, final MapView pMapView) {
-		if (mTilesOverlay != null && mTilesOverlay.isEnabled()) {
-			mTilesOverlay.draw(c, pMapView, true);
+		final int modificationCount = mModificationCount;
+		if (modificationCount != mDrawListModificationCount) {
+			updateDrawLists();
+			mDrawListModificationCount = modificationCount;
+		}
+		final TilesOverlay tilesOverlay = mDrawTilesOverlay;
+		final Overlay[] drawList = mDrawList;
+		final Overlay[] shadowList = mShadowList;
+
+		if (tilesOverlay != null && tilesOverlay.isEnabled()) {
+			final long start = System.nanoTime();
+			if (tilesOverlay.drawsShadow()) {
+				tilesOverlay.draw(c, pMapView, true);
+			}
+			tilesOverlay.draw(c, pMapView, false);
+			tilesOverlay.mLastDrawTimeNanos = System.nanoTime() - start;
+			onOverlayDrawn(tilesOverlay);
 		}
 
-		if (mTilesOverlay != null && mTilesOverlay.isEnabled()) {
-			mTilesOverlay.draw(c, pMapView, false);
+		for (final Overlay overlay : drawList) {
+			overlay.mLastDrawTimeNanos = 0;
 		}
 
-		for (final Overlay overlay : mOverlayList) {
+		for (final Overlay overlay : shadowList) {
 			if (overlay.isEnabled()) {
+				final long start = System.nanoTime();
 				overlay.draw(c, pMapView, true);
+				overlay.mLastDrawTimeNanos = System.nanoTime() - start;
 			}
 		}
 
-		for (final Overlay overlay : mOverlayList) {
+		for (final Overlay overlay : drawList) {
 			if (overlay.isEnabled()) {
+				final long start = System.nanoTime();
 				overlay.draw(c, pMapView, false);
+				overlay.mLastDrawTimeNanos += System.nanoTime() - start;
+				onOverlayDrawn(overlay);
+			}
+		}
+	}
+
+	private void onOverlayDrawn(final Overlay pOverlay) {
+		final long time = pOverlay.mLastDrawTimeNanos;
+		Metrics.getRecorder().onOverlayDrawn(pOverlay.mMetricsName, time);
+		if (time <= pOverlay.mMaximumDrawTimeNanos) {
+			return;
+		}
+		pOverlay.mMaximumDrawTimeNanos = time;
+		if (mSlowDrawThresholdNanos > 0 && time > mSlowDrawThresholdNanos) {
+			logger.warn("Slow overlay: " + pOverlay.mMetricsName + " took "
+					+ time / 1000000L + "ms to draw");
+		}
+	}
+
+	/**
+	 * Work out the overlays to draw, so that drawing a frame doesn't iterate over the list of
+	 * overlays or ask each overlay whether it draws a shadow.
+	 */
+	private void updateDrawLists() {
+		final Overlay[] drawList = mOverlayList.toArray(new Overlay[0]);
+
+		int shadows = 0;
+		for (final Overlay overlay : drawList) {
+			if (overlay.drawsShadow()) {
+				shadows++;
+			}
+		}
+		final Overlay[] shadowList = new Overlay[shadows];
+		shadows = 0;
+		for (final Overlay overlay : drawList) {
+			if (overlay.drawsShadow()) {
+				shadowList[shadows++] = overlay;
 			}
 		}
 
+		mDrawTilesOverlay = mTilesOverlay;
+		mDrawList = drawList;
+		mShadowList = shadowList;
 	}
 
 	public void onDetach(final MapView pMapView) {
@@ -1,6 +1,6 @@
 package org.osmdroid.views.overlay;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.osmdroid.DefaultResourceProxyImpl;
@@ -8,6 +8,11 @@ import org.osmdroid.ResourceProxy;
 import org.osmdroid.api.IGeoPoint;
 import org.osmdroid.util.BoundingBoxE6;
 import org.osmdroid.util.GeoPoint;
+import org.osmdroid.util.MyMath;
+import org.osmdroid.util.PathPoints;
+import org.osmdroid.util.PathSegmentIndex;
+import org.osmdroid.util.PathSimplification;
+import org.osmdroid.util.TileSystem;
 import org.osmdroid.views.MapView;
 import org.osmdroid.views.Projection;
 
@@ -17,6 +22,7 @@ import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Point;
 import android.graphics.Rect;
+import android.view.MotionEvent;
 
 /**
  * 
@@ -28,24 +34,53 @@ import android.graphics.Rect;
  * 
  *             This class draws a path line in given color.
  */
-public class PathOverlay extends Overlay {
+public class PathOverlay extends ProjectedGeometryOverlay {
 	// ===========================================================
 	// Constants
 	// ===========================================================
 
+	/**
+	 * The most simplified points that are drawn from the projected geometry cached for the zoom
+	 * level. A longer path is clipped to the screen instead, which keeps the memory of the cache
+	 * bounded at high zoom levels.
+	 */
+	public static final int MAXIMUM_CACHED_POINTS = 10000;
+
+	/**
+	 * The largest size of the path that is drawn from the cached geometry, in screen sizes at the
+	 * zoom level of the map. A larger path is clipped to the screen instead, since drawing it
+	 * whole costs more than clipping it, and may be larger than a texture can be under hardware
+	 * acceleration.
+	 */
+	public static final int MAXIMUM_CACHED_SCREENS = 3;
+
+	/**
+	 * The most chunks of points simplified per frame, so that adding a long path doesn't hold up
+	 * a frame. Until the path is simplified, the rest of its points are all drawn.
+	 */
+	public static final int MAXIMUM_SIMPLIFIED_CHUNKS_PER_FRAME = 16;
+
 	// ===========================================================
 	// Fields
 	// ===========================================================
 
 	/**
-	 * Stores points, converted to the map projection.
+	 * Stores points, and their values converted to the map projection.
 	 */
-	private ArrayList<Point> mPoints;
+	private final PathPoints mPoints = new PathPoints();
 
 	/**
-	 * Number of points that have precomputed values.
+	 * The points to draw at each zoom level.
 	 */
-	private int mPointsPrecomputed;
+	private final PathSimplification mSimplification = new PathSimplification();
+
+	/** Set while the path is simplified over several frames */
+	private boolean mSimplifying;
+
+	/**
+	 * The bounds of the chunks of segments, to find the ones on screen or near a tap.
+	 */
+	private final PathSegmentIndex mSegmentIndex = new PathSegmentIndex();
 
 	/**
 	 * Paint settings.
@@ -56,6 +91,7 @@ public class PathOverlay extends Overlay {
 
 	private final Point mTempPoint1 = new Point();
 	private final Point mTempPoint2 = new Point();
+	private final Rect mClipBounds = new Rect();
 
 	// bounding rectangle for the current line segment.
 	private final Rect mLineBounds = new Rect();
@@ -158,8 +194,10 @@ public class PathOverlay extends Overlay {
 	}
 
 	public void clearPath() {
-		this.mPoints = new ArrayList<Point>();
-		this.mPointsPrecomputed = 0;
+		this.mPoints.clear();
+		this.mSimplification.clear();
+		this.mSegmentIndex.clear();
+		invalidateGeometry();
 	}
 
 	public void addPoint(final IGeoPoint aPoint) {
@@ -167,7 +205,16 @@ public class PathOverlay extends Overlay {
 	}
 
 	public void addPoint(final int aLatitudeE6, final int aLongitudeE6) {
-		mPoints.add(new Point(aLatitudeE6, aLongitudeE6));
+		mPoints.addPoint(aLatitudeE6, aLongitudeE6);
+		invalidateGeometry();
+	}
+
+	/**
+	 * Add points from separate arrays of latitudes and longitudes, which must be the same length.
+	 */
+	public void addPoints(final int[] aLatitudesE6, final int[] aLongitudesE6) {
+		mPoints.addPoints(aLatitudesE6, aLongitudesE6);
+		invalidateGeometry();
 	}
 
 	public void addPoints(final IGeoPoint... aPoints) {
@@ -186,9 +233,44 @@ public class PathOverlay extends Overlay {
 		return this.mPoints.size();
 	}
 
+	/**
+	 * Find the segment of the path nearest to a point on the map view, such as a tap.
+	 *
+	 * @param x
+	 *            the x of the point on the view, as from {@link MotionEvent#getX()}
+	 * @param y
+	 *            the y of the point on the view
+	 * @param tolerance
+	 *            the greatest distance of the segment from the point, in pixels
+	 * @return the position of the first point of the segment, or -1 if no segment is within the
+	 *         tolerance
+	 */
+	public int getSegmentAt(final int x, final int y, final int tolerance, final MapView mapView) {
+		if (this.mPoints.size() < 2) {
+			return -1;
+		}
+		final Projection pj = mapView.getProjection();
+		final Rect screenRect = pj.getIntrinsicScreenRect();
+		final Point mercator = pj.toMercatorPixels(screenRect.left + x, screenRect.top + y,
+				this.mTempPoint1);
+
+		// the map repeats horizontally, but the path is only on the first copy
+		final int mercatorX = MyMath.mod(mercator.x, TileSystem.MapSize(pj.getZoomLevel()));
+		final int zoomDifference = PathPoints.PROJECTED_ZOOMLEVEL - pj.getZoomLevel();
+
+		this.mSegmentIndex.update(this.mPoints);
+		return this.mSegmentIndex.getNearestSegment(this.mPoints.getProjected(),
+				mercatorX << zoomDifference, mercator.y << zoomDifference,
+				tolerance << zoomDifference);
+	}
+
 	/**
 	 * This method draws the line. Note - highly optimized to handle long paths, proceed with care.
-	 * Should be fine up to 10K points.
+	 * The points are kept in arrays and projected once, so a frame doesn't allocate anything. Only
+	 * the points that make a difference at the zoom level of the map are drawn, and only the parts
+	 * of the path that reach into the screen are visited. A path with few enough points at the zoom
+	 * level, which spans no more than a few screens, is drawn from the geometry cached for it,
+	 * which only costs a translation.
 	 */
 	@Override
 	protected void draw(final Canvas canvas, final MapView mapView, final boolean shadow) {
@@ -205,39 +287,162 @@ public class PathOverlay extends Overlay {
 
 		final Projection pj = mapView.getProjection();
 
-		// precompute new points to the intermediate projection.
-		while (this.mPointsPrecomputed < size) {
-			final Point pt = this.mPoints.get(this.mPointsPrecomputed);
-			pj.toProjectedPixels(pt.x, pt.y, pt);
+		// the new points are precomputed to the intermediate projection, simplified and indexed.
+		final int[] projected = this.mPoints.getProjected();
+		final boolean simplified = this.mSimplification.update(this.mPoints,
+				MAXIMUM_SIMPLIFIED_CHUNKS_PER_FRAME);
+		if (!simplified || mSimplifying) {
+			// the simplified points changed, so the cached geometry is out of date
+			invalidateGeometry();
+		}
+		mSimplifying = !simplified;
+		if (!simplified) {
+			mapView.postInvalidate();
+		}
+		final int count = this.mSimplification.getPositions(pj.getZoomLevel());
+		if (count <= MAXIMUM_CACHED_POINTS && isSmallEnoughToCache(pj)) {
+			super.draw(canvas, mapView, shadow);
+			return;
+		}
+		final int[] positions = this.mSimplification.getResults();
+		this.mSegmentIndex.update(this.mPoints);
+
+		// clipping rectangle in the intermediate projection, to avoid performing projection.
+		final BoundingBoxE6 boundingBox = pj.getBoundingBox();
+		final Point topLeft = pj.toProjectedPixels(boundingBox.getLatNorthE6(),
+				boundingBox.getLonWestE6(), this.mTempPoint1);
+		mClipBounds.left = topLeft.x;
+		mClipBounds.top = topLeft.y;
+		final Point bottomRight = pj.toProjectedPixels(boundingBox.getLatSouthE6(),
+				boundingBox.getLonEastE6(), this.mTempPoint1);
+		mClipBounds.right = bottomRight.x;
+		mClipBounds.bottom = bottomRight.y;
+
+		final int ranges = this.mSegmentIndex.query(mClipBounds.left, mClipBounds.top,
+				mClipBounds.right, mClipBounds.bottom);
+		final int[] rangeBounds = this.mSegmentIndex.getRanges();
+
+		mPath.rewind();
+
+		// the simplified points that span each range of points on screen; a simplified segment
+		// can span several ranges, which are then drawn together
+		int from = -1;
+		int to = -1;
+		for (int r = ranges - 1; r >= 0; r--) {
+			final int rangeFrom = findPosition(positions, count, rangeBounds[2 * r], false);
+			final int rangeTo = findPosition(positions, count, rangeBounds[2 * r + 1], true);
+			if (to >= 0 && rangeTo >= from) {
+				from = Math.min(from, rangeFrom);
+				continue;
+			}
+			if (to >= 0) {
+				addSegments(pj, projected, positions, from, to);
+			}
+			from = rangeFrom;
+			to = rangeTo;
+		}
+		if (to >= 0) {
+			addSegments(pj, projected, positions, from, to);
+		}
+
+		canvas.drawPath(mPath, this.mPaint);
+	}
+
+	/**
+	 * Build the simplified points of a zoom level, relative to the first point, in Mercator pixels
+	 * at that zoom level. The points are simplified as far as {@link #draw(Canvas, MapView,
+	 * boolean)} has got.
+	 */
+	@Override
+	protected boolean onBuildPath(final int zoomLevel, final Path out, final Point origin) {
+		if (this.mPoints.size() < 2) {
+			return false;
+		}
+		final int[] projected = this.mPoints.getProjected();
+		final int count = this.mSimplification.getPositions(zoomLevel);
+		final int[] positions = this.mSimplification.getResults();
+		final int shift = PathPoints.PROJECTED_ZOOMLEVEL - zoomLevel;
+
+		origin.set(projected[0] >> shift, projected[1] >> shift);
+		out.incReserve(count);
+		out.moveTo(0, 0);
+		int lastX = 0;
+		int lastY = 0;
+		for (int j = 1; j < count; j++) {
+			final int i = positions[j];
+			final int x = (projected[2 * i] >> shift) - origin.x;
+			final int y = (projected[2 * i + 1] >> shift) - origin.y;
+
+			// skip this point, too close to previous point
+			if (Math.abs(x - lastX) + Math.abs(y - lastY) <= 1 && j < count - 1) {
+				continue;
+			}
+			out.lineTo(x, y);
+			lastX = x;
+			lastY = y;
+		}
+		return true;
+	}
+
+	@Override
+	protected void onDrawPath(final Canvas canvas, final Path path) {
+		canvas.drawPath(path, this.mPaint);
+	}
 
-			this.mPointsPrecomputed++;
+	/**
+	 * Whether the whole path fits in a few screens at the zoom level of the map, and in less than
+	 * half the width of the map, so that its cached geometry is drawn in one piece on the copy of
+	 * the map nearest the screen.
+	 */
+	private boolean isSmallEnoughToCache(final Projection pj) {
+		final int shift = PathPoints.PROJECTED_ZOOMLEVEL - pj.getZoomLevel();
+		final long width = this.mPoints.getProjectedWidth() >> shift;
+		final long height = this.mPoints.getProjectedHeight() >> shift;
+		final Rect screenRect = pj.getIntrinsicScreenRect();
+		final long maximum = (long) MAXIMUM_CACHED_SCREENS
+				* Math.max(screenRect.width(), screenRect.height());
+		return width <= maximum && height <= maximum
+				&& width < TileSystem.MapSize(pj.getZoomLevel()) / 2;
+	}
+
+	/**
+	 * Find where a point is in the simplified points, or the simplified point before or after it.
+	 */
+	private static int findPosition(final int[] positions, final int count, final int position,
+			final boolean after) {
+		final int index = Arrays.binarySearch(positions, 0, count, position);
+		if (index >= 0) {
+			return index;
 		}
+		final int insertion = -index - 1;
+		return after ? insertion : insertion - 1;
+	}
 
+	/**
+	 * Add the segments between two of the simplified points to the path, from the last to the
+	 * first.
+	 */
+	private void addSegments(final Projection pj, final int[] projected, final int[] positions,
+			final int from, final int to) {
 		Point screenPoint0 = null; // points on screen
 		Point screenPoint1;
-		Point projectedPoint0; // points from the points list
-		Point projectedPoint1;
-
-		// clipping rectangle in the intermediate projection, to avoid performing projection.
-		BoundingBoxE6 boundingBox = pj.getBoundingBox();
-		Point topLeft = pj.toProjectedPixels(boundingBox.getLatNorthE6(),
-				boundingBox.getLonWestE6(), null);
-		Point bottomRight = pj.toProjectedPixels(boundingBox.getLatSouthE6(),
-				boundingBox.getLonEastE6(), null);
-		final Rect clipBounds = new Rect(topLeft.x, topLeft.y, bottomRight.x, bottomRight.y);
 
-		mPath.rewind();
-		projectedPoint0 = this.mPoints.get(size - 1);
-		mLineBounds.set(projectedPoint0.x, projectedPoint0.y, projectedPoint0.x, projectedPoint0.y);
+		// the projected points from the points list
+		int projectedX0 = projected[2 * positions[to]];
+		int projectedY0 = projected[2 * positions[to] + 1];
+		mLineBounds.set(projectedX0, projectedY0, projectedX0, projectedY0);
 
-		for (int i = size - 2; i >= 0; i--) {
+		for (int j = to - 1; j >= from; j--) {
 			// compute next points
-			projectedPoint1 = this.mPoints.get(i);
-			mLineBounds.union(projectedPoint1.x, projectedPoint1.y);
+			final int i = positions[j];
+			final int projectedX1 = projected[2 * i];
+			final int projectedY1 = projected[2 * i + 1];
+			mLineBounds.union(projectedX1, projectedY1);
 
-			if (!Rect.intersects(clipBounds, mLineBounds)) {
+			if (!Rect.intersects(mClipBounds, mLineBounds)) {
 				// skip this line, move to next point
-				projectedPoint0 = projectedPoint1;
+				projectedX0 = projectedX1;
+				projectedY0 = projectedY1;
 				screenPoint0 = null;
 				continue;
 			}
@@ -245,11 +450,13 @@ public class PathOverlay extends Overlay {
 			// the starting point may be not calculated, because previous segment was out of clip
 			// bounds
 			if (screenPoint0 == null) {
-				screenPoint0 = pj.toPixelsFromProjected(projectedPoint0, this.mTempPoint1);
+				this.mTempPoint1.set(projectedX0, projectedY0);
+				screenPoint0 = pj.toPixelsFromProjected(this.mTempPoint1, this.mTempPoint1);
 				mPath.moveTo(screenPoint0.x, screenPoint0.y);
 			}
 
-			screenPoint1 = pj.toPixelsFromProjected(projectedPoint1, this.mTempPoint2);
+			this.mTempPoint2.set(projectedX1, projectedY1);
+			screenPoint1 = pj.toPixelsFromProjected(this.mTempPoint2, this.mTempPoint2);
 
 			// skip this point, too close to previous point
 			if (Math.abs(screenPoint1.x - screenPoint0.x) + Math.abs(screenPoint1.y - screenPoint0.y) <= 1) {
@@ -259,12 +466,11 @@ public class PathOverlay extends Overlay {
 			mPath.lineTo(screenPoint1.x, screenPoint1.y);
 
 			// update starting point to next position
-			projectedPoint0 = projectedPoint1;
+			projectedX0 = projectedX1;
+			projectedY0 = projectedY1;
 			screenPoint0.x = screenPoint1.x;
 			screenPoint0.y = screenPoint1.y;
-			mLineBounds.set(projectedPoint0.x, projectedPoint0.y, projectedPoint0.x, projectedPoint0.y);
+			mLineBounds.set(projectedX0, projectedY0, projectedX0, projectedY0);
 		}
-
-		canvas.drawPath(mPath, this.mPaint);
 	}
 }
@@ -0,0 +1,104 @@
+package org.osmdroid.views.overlay;
+
+import java.util.ArrayList;
+
+import org.osmdroid.api.IGeoPoint;
+import org.osmdroid.util.PointIndex;
+
+/**
+ * The items an {@link ItemizedOverlay} draws, created from the items of the overlay, and a
+ * {@link PointIndex} of their positions. They are either populated all at once, or kept up to
+ * date one change at a time.
+ *
+ * This class only uses plain Java, so that the updates can be tested without Android.
+ */
+abstract class PopulatedItems<Item> implements BatchedItemList.Populator {
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private final ArrayList<Item> mItems = new ArrayList<Item>();
+	private final PointIndex mIndex = new PointIndex();
+
+	// ===========================================================
+	// Abstract methods
+	// ===========================================================
+
+	/**
+	 * The number of items to populate.
+	 */
+	protected abstract int getSourceSize();
+
+	/**
+	 * Create the item to draw at a position, as for {@link ItemizedOverlay#createItem(int)}.
+	 */
+	protected abstract Item createItem(int pPosition);
+
+	/**
+	 * The position of an item on the map.
+	 */
+	protected abstract IGeoPoint getPoint(Item pItem);
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int size() {
+		return mItems.size();
+	}
+
+	public Item get(final int pPosition) {
+		return mItems.get(pPosition);
+	}
+
+	/**
+	 * The positions of the items. This must not be changed.
+	 */
+	public PointIndex getIndex() {
+		return mIndex;
+	}
+
+	// ===========================================================
+	// Methods from SuperClass/Interfaces
+	// ===========================================================
+
+	@Override
+	public void populate() {
+		final int size = getSourceSize();
+		mItems.clear();
+		mItems.ensureCapacity(size);
+		mIndex.clear();
+		for (int position = 0; position < size; position++) {
+			final Item item = createItem(position);
+			mItems.add(item);
+			final IGeoPoint point = getPoint(item);
+			mIndex.add(PointIndex.longitudeToX(point.getLongitude()),
+					PointIndex.latitudeToY(point.getLatitude()));
+		}
+	}
+
+	@Override
+	public void populateInserted(final int pPosition) {
+		final Item item = createItem(pPosition);
+		mItems.add(pPosition, item);
+		final IGeoPoint point = getPoint(item);
+		mIndex.insert(pPosition, PointIndex.longitudeToX(point.getLongitude()),
+				PointIndex.latitudeToY(point.getLatitude()));
+	}
+
+	@Override
+	public void populateRemoved(final int pPosition) {
+		mItems.remove(pPosition);
+		mIndex.remove(pPosition);
+	}
+
+	@Override
+	public void populateChanged(final int pPosition) {
+		final Item item = createItem(pPosition);
+		mItems.set(pPosition, item);
+		final IGeoPoint point = getPoint(item);
+		mIndex.move(pPosition, PointIndex.longitudeToX(point.getLongitude()),
+				PointIndex.latitudeToY(point.getLatitude()));
+	}
+}
@@ -0,0 +1,277 @@
+package org.osmdroid.views.overlay;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.osmdroid.ResourceProxy;
+import org.osmdroid.tileprovider.modules.ConfigurablePriorityThreadFactory;
+import org.osmdroid.util.PathPoints;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Path;
+import android.graphics.Point;
+
+/**
+ * A base class for overlays that draw vector geometry, like lines and polygons, that keeps the
+ * geometry projected to each of the last few zoom levels it was drawn at. The geometry of a zoom
+ * level is built once, in Mercator pixels relative to an origin near it, so drawing it after the
+ * map has scrolled, or after zooming back to a level that is still cached, only translates the
+ * canvas. The zoom levels that haven't been drawn for longest are evicted first.
+ *
+ * When the geometry changes, call {@link #invalidateGeometry()}. The zoom levels are built again
+ * when they are next drawn, or in the background if {@link #setBuildInBackground(boolean)} is on,
+ * in which case the geometry as it was is drawn until the new one is ready.
+ *
+ * Subclasses build the geometry in {@link #onBuildPath(int, Path, Point)} and draw it in
+ * {@link #onDrawPath(Canvas, Path)}.
+ *
+ * @see org.osmdroid.views.drawing.OsmPath
+ */
+public abstract class ProjectedGeometryOverlay extends Overlay {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	public static final int DEFAULT_CACHED_ZOOM_LEVELS = 3;
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private int mCachedZoomLevels = DEFAULT_CACHED_ZOOM_LEVELS;
+
+	/** The projected geometry by zoom level, from the least recently drawn */
+	private final LinkedHashMap<Integer, ProjectedPath> mCache =
+			new LinkedHashMap<Integer, ProjectedPath>(8, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Integer, ProjectedPath> pEldest) {
+			return size() > mCachedZoomLevels;
+		}
+	};
+
+	/** Counts the changes to the geometry, so that out of date zoom levels can be told apart */
+	private int mGeneration;
+
+	private boolean mBuildInBackground;
+	private ExecutorService mExecutor;
+
+	private final Point mOriginPoint = new Point();
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public ProjectedGeometryOverlay(final Context ctx) {
+		super(ctx);
+	}
+
+	public ProjectedGeometryOverlay(final ResourceProxy pResourceProxy) {
+		super(pResourceProxy);
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int getCachedZoomLevels() {
+		return mCachedZoomLevels;
+	}
+
+	/**
+	 * Set how many zoom levels of projected geometry are kept.
+	 */
+	public void setCachedZoomLevels(final int pCachedZoomLevels) {
+		mCachedZoomLevels = Math.max(1, pCachedZoomLevels);
+	}
+
+	public boolean isBuildInBackground() {
+		return mBuildInBackground;
+	}
+
+	/**
+	 * Set whether zoom levels whose geometry has changed are built again on a background thread.
+	 * If so, {@link #onBuildPath(int, Path, Point)} must be safe to call on that thread while the
+	 * overlay is drawn, for example by reading geometry that is replaced rather than changed.
+	 */
+	public void setBuildInBackground(final boolean pBuildInBackground) {
+		mBuildInBackground = pBuildInBackground;
+	}
+
+	// ===========================================================
+	// Methods from SuperClass/Interfaces
+	// ===========================================================
+
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
+	@Override
+	protected void draw(final Canvas c, final MapView mapView, final boolean shadow) {
+		if (shadow) {
+			return;
+		}
+
+		final Projection pj = mapView.getProjection();
+		final ProjectedPath path = getProjectedPath(pj.getZoomLevel(), mapView);
+		if (path == null || path.mEmpty) {
+			return;
+		}
+
+		// the origin goes through the projection, so the copy of the map nearest the screen is used
+		final int shift = PathPoints.PROJECTED_ZOOMLEVEL - path.mZoomLevel;
+		mOriginPoint.set(path.mOriginX << shift, path.mOriginY << shift);
+		pj.toPixelsFromProjected(mOriginPoint, mOriginPoint);
+		c.save();
+		c.translate(mOriginPoint.x, mOriginPoint.y);
+		onDrawPath(c, path.mPath);
+		c.restore();
+	}
+
+	@Override
+	public void onDetach(final MapView mapView) {
+		if (mExecutor != null) {
+			mExecutor.shutdownNow();
+			mExecutor = null;
+		}
+		mCache.clear();
+		super.onDetach(mapView);
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Build the geometry for a zoom level into a path, in Mercator pixels at that zoom level
+	 * relative to an origin.
+	 *
+	 * @param pZoomLevel
+	 *            the zoom level, which is no higher than {@link PathPoints#PROJECTED_ZOOMLEVEL}
+	 * @param pOut
+	 *            an empty path to build the geometry into
+	 * @param pOrigin
+	 *            set to the origin in Mercator pixels, which should be near the geometry so that
+	 *            the path keeps the precision of its floats
+	 * @return false if there is nothing to draw
+	 */
+	protected abstract boolean onBuildPath(int pZoomLevel, Path pOut, Point pOrigin);
+
+	/**
+	 * Draw the geometry built by {@link #onBuildPath(int, Path, Point)}. The canvas is translated
+	 * so that the origin is at 0, 0.
+	 */
+	protected abstract void onDrawPath(Canvas pCanvas, Path pPath);
+
+	/**
+	 * Mark the geometry of every zoom level as out of date, because the geometry has changed.
+	 */
+	protected void invalidateGeometry() {
+		mGeneration++;
+	}
+
+	/**
+	 * Forget the geometry of every zoom level, to free its memory.
+	 */
+	public void clearGeometryCache() {
+		mCache.clear();
+		mGeneration++;
+	}
+
+	/**
+	 * Get the geometry of a zoom level, building it if it isn't cached or is out of date.
+	 *
+	 * @return the geometry, which may be out of date while it is built in the background, or null
+	 *         if there is none
+	 */
+	private ProjectedPath getProjectedPath(final int pZoomLevel, final MapView pMapView) {
+		final int zoomLevel = Math.min(pZoomLevel, PathPoints.PROJECTED_ZOOMLEVEL);
+		final ProjectedPath cached = mCache.get(zoomLevel);
+		if (cached != null && cached.mGeneration == mGeneration) {
+			return cached;
+		}
+
+		if (cached != null && mBuildInBackground) {
+			if (cached.mBuildingGeneration != mGeneration) {
+				cached.mBuildingGeneration = mGeneration;
+				buildInBackground(zoomLevel, mGeneration, pMapView);
+			}
+			return cached;
+		}
+
+		// the path of an out of date zoom level is reused
+		final ProjectedPath path = cached != null ? cached : new ProjectedPath(zoomLevel);
+		path.mPath.rewind();
+		build(path, mGeneration);
+		mCache.put(zoomLevel, path);
+		return path;
+	}
+
+	private void build(final ProjectedPath pPath, final int pGeneration) {
+		final Point origin = new Point();
+		pPath.mEmpty = !onBuildPath(pPath.mZoomLevel, pPath.mPath, origin);
+		pPath.mOriginX = origin.x;
+		pPath.mOriginY = origin.y;
+		pPath.mGeneration = pGeneration;
+		pPath.mBuildingGeneration = pGeneration;
+	}
+
+	private void buildInBackground(final int pZoomLevel, final int pGeneration,
+			final MapView pMapView) {
+		if (mExecutor == null) {
+			mExecutor = Executors.newSingleThreadExecutor(new ConfigurablePriorityThreadFactory(
+					Thread.NORM_PRIORITY - 1, "Geometry"));
+		}
+		mExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final ProjectedPath path = new ProjectedPath(pZoomLevel);
+				build(path, pGeneration);
+				pMapView.post(new Runnable() {
+					@Override
+					public void run() {
+						// the geometry may have changed again, in which case it is built again
+						final ProjectedPath cached = mCache.get(pZoomLevel);
+						if (cached == null || cached.mGeneration < pGeneration) {
+							path.mBuildingGeneration = cached != null ? cached.mBuildingGeneration
+									: pGeneration;
+							mCache.put(pZoomLevel, path);
+							pMapView.invalidate();
+						}
+					}
+				});
+			}
+		});
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	/**
+	 * The geometry projected to one zoom level.
+	 */
+	private static class ProjectedPath {
+		final int mZoomLevel;
+		final Path mPath = new Path();
+		int mOriginX;
+		int mOriginY;
+		boolean mEmpty;
+
+		/** The generation of the geometry, and of the geometry being built in the background */
+		int mGeneration;
+		int mBuildingGeneration;
+
+		ProjectedPath(final int pZoomLevel) {
+			mZoomLevel = pZoomLevel;
+		}
+	}
+}
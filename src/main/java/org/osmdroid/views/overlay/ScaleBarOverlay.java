@@ -343,6 +343,11 @@ public class ScaleBarOverlay extends Overlay implements GeoConstants {
 	// Methods from SuperClass/Interfaces
 	// ===========================================================
 
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
 	@Override
 	protected void draw(Canvas c, MapView mapView, boolean shadow) {
 		if (shadow) {
@@ -0,0 +1,157 @@
+package org.osmdroid.views.overlay;
+
+import java.util.Arrays;
+
+import org.osmdroid.util.MyMath;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+/**
+ * A single large bitmap that holds the tiles on screen, so that they can be drawn with a few
+ * bitmap draws rather than one per tile. Each tile has a slot in a grid of columns and rows that
+ * wraps around, so as the map scrolls the tiles that come into view take over the slots of the
+ * ones that left, and only those have to be redrawn into the atlas. As long as the grid has more
+ * columns and rows than there are tiles across the screen, every visible tile has its own slot
+ * and the visible part of the atlas is made of at most four rectangles.
+ *
+ * @see TilesOverlay#setUseAtlas(boolean)
+ */
+class TileAtlas {
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private Bitmap mBitmap;
+	private Canvas mCanvas;
+	private int mColumns;
+	private int mRows;
+	private int mTileSizePx;
+
+	/** The tile index drawn in each slot, and the drawable it was drawn from */
+	private long[] mSlotTiles;
+	private Drawable[] mSlotDrawables;
+	private boolean[] mSlotUsed;
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public Bitmap getBitmap() {
+		return mBitmap;
+	}
+
+	public Canvas getCanvas() {
+		return mCanvas;
+	}
+
+	public int getColumns() {
+		return mColumns;
+	}
+
+	public int getRows() {
+		return mRows;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Make sure the atlas has at least the given number of columns and rows of tiles. The atlas
+	 * is only reallocated when it is too small or the tile size changes, in which case all the
+	 * slots are emptied.
+	 *
+	 * @return false if the bitmap couldn't be allocated
+	 */
+	public boolean ensureSize(final int pColumns, final int pRows, final int pTileSizePx) {
+		if (mBitmap != null && pColumns <= mColumns && pRows <= mRows
+				&& pTileSizePx == mTileSizePx) {
+			return true;
+		}
+
+		recycle();
+		try {
+			mBitmap = Bitmap.createBitmap(pColumns * pTileSizePx, pRows * pTileSizePx,
+					Bitmap.Config.ARGB_8888);
+		} catch (final OutOfMemoryError e) {
+			return false;
+		}
+		mCanvas = new Canvas(mBitmap);
+		mColumns = pColumns;
+		mRows = pRows;
+		mTileSizePx = pTileSizePx;
+		mSlotTiles = new long[pColumns * pRows];
+		mSlotDrawables = new Drawable[pColumns * pRows];
+		mSlotUsed = new boolean[pColumns * pRows];
+		return true;
+	}
+
+	/**
+	 * Get the slot for the tile at the given (unwrapped) tile coordinates.
+	 */
+	public int getSlot(final int pX, final int pY) {
+		return MyMath.mod(pX, mColumns) + MyMath.mod(pY, mRows) * mColumns;
+	}
+
+	public void getSlotRect(final int pSlot, final Rect pOut) {
+		final int left = (pSlot % mColumns) * mTileSizePx;
+		final int top = (pSlot / mColumns) * mTileSizePx;
+		pOut.set(left, top, left + mTileSizePx, top + mTileSizePx);
+	}
+
+	/**
+	 * Whether the slot already holds the given tile drawn from the given drawable. A null drawable
+	 * means a stand-in was drawn because the tile wasn't loaded yet.
+	 */
+	public boolean isSlotCurrent(final int pSlot, final long pTileIndex, final Drawable pDrawable) {
+		return mSlotUsed[pSlot] && mSlotTiles[pSlot] == pTileIndex
+				&& mSlotDrawables[pSlot] == pDrawable;
+	}
+
+	/**
+	 * Clear a slot before a tile is drawn into it.
+	 */
+	public void clearSlot(final int pSlot, final Rect pSlotRect) {
+		mCanvas.save();
+		mCanvas.clipRect(pSlotRect);
+		mCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+		mCanvas.restore();
+		mSlotUsed[pSlot] = false;
+		mSlotDrawables[pSlot] = null;
+	}
+
+	public void setSlot(final int pSlot, final long pTileIndex, final Drawable pDrawable) {
+		mSlotUsed[pSlot] = true;
+		mSlotTiles[pSlot] = pTileIndex;
+		mSlotDrawables[pSlot] = pDrawable;
+	}
+
+	/**
+	 * Forget what is in the slots, so that every tile is drawn again.
+	 */
+	public void invalidate() {
+		if (mSlotUsed != null) {
+			Arrays.fill(mSlotUsed, false);
+			Arrays.fill(mSlotDrawables, null);
+		}
+	}
+
+	public void recycle() {
+		if (mBitmap != null) {
+			mBitmap.recycle();
+		}
+		mBitmap = null;
+		mCanvas = null;
+		mSlotTiles = null;
+		mSlotDrawables = null;
+		mSlotUsed = null;
+		mColumns = 0;
+		mRows = 0;
+	}
+}
@@ -0,0 +1,223 @@
+package org.osmdroid.views.overlay;
+
+import java.util.Arrays;
+
+import org.osmdroid.util.MyMath;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+/**
+ * The tiles drawn in the previous frame, kept in a bitmap the size of the viewport so that a pan
+ * only has to draw what it exposes. At the start of a frame the previous one is shifted by the
+ * scroll delta, and the part of the viewport that was already on screen becomes the retained
+ * area. Tiles that lie in the retained area and haven't changed since they were drawn are left
+ * alone. Which drawable each tile was drawn from is remembered in a grid of slots that wraps
+ * around, the same way as in the {@link TileAtlas}.
+ *
+ * @see TilesOverlay#setUseFrameBuffer(boolean)
+ */
+class TileFrameBuffer {
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private Bitmap mBitmap;
+	private Canvas mCanvas;
+	/** The previous frame is shifted into this bitmap, after which the two are swapped */
+	private Bitmap mBackBitmap;
+	private Canvas mBackCanvas;
+
+	/** The Mercator bounds of the viewport in the last frame */
+	private final Rect mViewPort = new Rect();
+	private int mZoomLevel = -1;
+	private float mOrientation;
+
+	/** The part of the current viewport that was drawn in the last frame */
+	private final Rect mRetained = new Rect();
+	private final Rect mVisible = new Rect();
+
+	private int mColumns;
+	private int mRows;
+	private long[] mSlotTiles;
+	private Drawable[] mSlotDrawables;
+	private boolean[] mSlotUsed;
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public Bitmap getBitmap() {
+		return mBitmap;
+	}
+
+	public Canvas getCanvas() {
+		return mCanvas;
+	}
+
+	/**
+	 * The Mercator bounds of the viewport of the current frame, which the bitmap covers.
+	 */
+	public Rect getViewPort() {
+		return mViewPort;
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Start a frame. When the zoom level, the orientation and the size of the viewport are the
+	 * same as in the last frame and the viewport has moved by less than its size, the last frame
+	 * is shifted into place. Otherwise everything is drawn again.
+	 *
+	 * @param pColumns
+	 *            the number of columns of tiles in the loop
+	 * @param pRows
+	 *            the number of rows of tiles in the loop
+	 * @return false if the bitmaps couldn't be allocated
+	 */
+	public boolean begin(final Rect pViewPort, final int pZoomLevel, final float pOrientation,
+			final int pColumns, final int pRows) {
+		final int width = pViewPort.width();
+		final int height = pViewPort.height();
+		if (width <= 0 || height <= 0) {
+			return false;
+		}
+
+		boolean retain = mBitmap != null && mBitmap.getWidth() == width
+				&& mBitmap.getHeight() == height;
+		if (!retain) {
+			recycle();
+			try {
+				mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+				mBackBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+			} catch (final OutOfMemoryError e) {
+				recycle();
+				return false;
+			}
+			mCanvas = new Canvas(mBitmap);
+			mBackCanvas = new Canvas(mBackBitmap);
+		}
+
+		if (pColumns > mColumns || pRows > mRows) {
+			// one spare column and row, for when the viewport straddles one more tile
+			mColumns = pColumns + 1;
+			mRows = pRows + 1;
+			mSlotTiles = new long[mColumns * mRows];
+			mSlotDrawables = new Drawable[mColumns * mRows];
+			mSlotUsed = new boolean[mColumns * mRows];
+			retain = false;
+		}
+
+		retain = retain && pZoomLevel == mZoomLevel && pOrientation == mOrientation
+				&& mRetained.setIntersect(mViewPort, pViewPort);
+		if (retain) {
+			final int dx = pViewPort.left - mViewPort.left;
+			final int dy = pViewPort.top - mViewPort.top;
+			if (dx != 0 || dy != 0) {
+				mBackBitmap.eraseColor(Color.TRANSPARENT);
+				mBackCanvas.drawBitmap(mBitmap, -dx, -dy, null);
+				final Bitmap bitmap = mBitmap;
+				final Canvas canvas = mCanvas;
+				mBitmap = mBackBitmap;
+				mCanvas = mBackCanvas;
+				mBackBitmap = bitmap;
+				mBackCanvas = canvas;
+			}
+		} else {
+			mBitmap.eraseColor(Color.TRANSPARENT);
+			mRetained.setEmpty();
+			invalidate();
+		}
+
+		mViewPort.set(pViewPort);
+		mZoomLevel = pZoomLevel;
+		mOrientation = pOrientation;
+		return true;
+	}
+
+	/**
+	 * Get the slot for the tile at the given (unwrapped) tile coordinates.
+	 */
+	public int getSlot(final int pX, final int pY) {
+		return MyMath.mod(pX, mColumns) + MyMath.mod(pY, mRows) * mColumns;
+	}
+
+	/**
+	 * Whether the visible part of a tile was drawn in the last frame from the given drawable, so
+	 * that it doesn't need to be drawn again. A null drawable means a stand-in was drawn because
+	 * the tile wasn't loaded yet.
+	 *
+	 * @param pTileRect
+	 *            the Mercator bounds of the tile
+	 */
+	public boolean isTileCurrent(final int pSlot, final long pTileIndex, final Drawable pDrawable,
+			final Rect pTileRect) {
+		if (!mSlotUsed[pSlot] || mSlotTiles[pSlot] != pTileIndex
+				|| mSlotDrawables[pSlot] != pDrawable) {
+			return false;
+		}
+		// tiles on the edge of the retained area are only partly drawn
+		if (!mVisible.setIntersect(pTileRect, mViewPort)) {
+			return true;
+		}
+		return mRetained.contains(mVisible);
+	}
+
+	/**
+	 * Get where a tile is in the bitmap, and clear it before the tile is drawn again.
+	 *
+	 * @param pTileRect
+	 *            the Mercator bounds of the tile
+	 * @param pOut
+	 *            receives the bounds of the tile in the bitmap
+	 */
+	public void clearTile(final int pSlot, final Rect pTileRect, final Rect pOut) {
+		pOut.set(pTileRect);
+		pOut.offset(-mViewPort.left, -mViewPort.top);
+		mCanvas.save();
+		mCanvas.clipRect(pOut);
+		mCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+		mCanvas.restore();
+		mSlotUsed[pSlot] = false;
+		mSlotDrawables[pSlot] = null;
+	}
+
+	public void setSlot(final int pSlot, final long pTileIndex, final Drawable pDrawable) {
+		mSlotUsed[pSlot] = true;
+		mSlotTiles[pSlot] = pTileIndex;
+		mSlotDrawables[pSlot] = pDrawable;
+	}
+
+	/**
+	 * Forget what was drawn, so that every tile is drawn again.
+	 */
+	public void invalidate() {
+		if (mSlotUsed != null) {
+			Arrays.fill(mSlotUsed, false);
+			Arrays.fill(mSlotDrawables, null);
+		}
+	}
+
+	public void recycle() {
+		if (mBitmap != null) {
+			mBitmap.recycle();
+		}
+		if (mBackBitmap != null) {
+			mBackBitmap.recycle();
+		}
+		mBitmap = null;
+		mCanvas = null;
+		mBackBitmap = null;
+		mBackCanvas = null;
+		mZoomLevel = -1;
+		mRetained.setEmpty();
+		invalidate();
+	}
+}
@@ -2,15 +2,19 @@ package org.osmdroid.views.overlay;
 
 import org.osmdroid.DefaultResourceProxyImpl;
 import org.osmdroid.ResourceProxy;
+import org.osmdroid.metrics.Metrics;
 import org.osmdroid.tileprovider.MapTile;
 import org.osmdroid.tileprovider.MapTileProviderBase;
 import org.osmdroid.tileprovider.ReusableBitmapDrawable;
 import org.osmdroid.tileprovider.tilesource.ITileSource;
 import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
+import org.osmdroid.util.MapTileIndex;
+import org.osmdroid.util.MyMath;
 import org.osmdroid.util.TileLooper;
 import org.osmdroid.util.TileSystem;
 import org.osmdroid.views.MapView;
 import org.osmdroid.views.Projection;
+import org.osmdroid.views.util.constants.MapViewConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +43,9 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 
 	private static final Logger logger = LoggerFactory.getLogger(TilesOverlay.class);
 
+	/** How many zoom levels up to look for a cached tile to stand in for a missing one */
+	public static final int MAXIMUM_FALLBACK_ANCESTOR_LEVELS = 4;
+
 	public static final int MENU_MAP_MODE = getSafeMenuId();
 	public static final int MENU_TILE_SOURCE_STARTING_ID = getSafeMenuIdSequence(TileSourceFactory
 			.getTileSources().size());
@@ -55,8 +62,22 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 	private Point mTopLeftMercator = new Point();
 	private Point mBottomRightMercator = new Point();
 	private Point mTilePointMercator = new Point();
+	private final Rect mFallbackRect = new Rect();
+	private final Rect mFallbackClipRect = new Rect();
+	private final Drawable[] mFallbackChildren = new Drawable[4];
+	private final Rect mAtlasSrcRect = new Rect();
+	private final Rect mAtlasDstRect = new Rect();
+	private final Paint mAtlasPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
 
 	private Projection mProjection;
+	private Canvas mCanvas;
+	private Rect mLoopViewPort;
+	private float mMapOrientation;
+	private int mAtlasTileSizePx;
+
+	/** The tiles in view in the frame being drawn, and the ones that weren't loaded */
+	private int mTilesDrawn;
+	private int mPlaceholdersDrawn;
 
 	private boolean mOptionsMenuEnabled = true;
 
@@ -68,6 +89,22 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 	/** For overshooting the tile cache **/
 	private int mOvershootTileCache = 0;
 
+	/** Draw cached tiles from other zoom levels while a tile is loading **/
+	private boolean mUseFallbackTiles = true;
+
+	/** Keep the tiles on screen in one bitmap and draw it in a few calls **/
+	private boolean mUseAtlas = false;
+	private final TileAtlas mAtlas = new TileAtlas();
+	private boolean mDrawingToAtlas;
+
+	/** Keep the last frame of tiles and only draw what has been exposed or changed since **/
+	private boolean mUseFrameBuffer = false;
+	private final TileFrameBuffer mFrameBuffer = new TileFrameBuffer();
+	private boolean mDrawingToFrameBuffer;
+
+	/** Whether tiles are being drawn into the atlas or the frame buffer rather than the canvas **/
+	private boolean mDrawingOffscreen;
+
 	public TilesOverlay(final MapTileProviderBase aTileProvider, final Context aContext) {
 		this(aTileProvider, new DefaultResourceProxyImpl(aContext));
 	}
@@ -84,6 +121,8 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 	@Override
 	public void onDetach(final MapView pMapView) {
 		this.mTileProvider.detach();
+		mAtlas.recycle();
+		mFrameBuffer.recycle();
 	}
 
 	public int getMinimumZoomLevel() {
@@ -112,6 +151,11 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 		mTileProvider.setUseDataConnection(aMode);
 	}
 
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
 	@Override
 	protected void draw(Canvas c, MapView osmv, boolean shadow) {
 
@@ -133,6 +177,7 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 				mBottomRightMercator.y);
 
 		// Draw the tiles!
+		mMapOrientation = osmv.getMapOrientation();
 		drawTiles(c, projection, projection.getZoomLevel(), TileSystem.getTileSize(), mViewPort);
 	}
 
@@ -146,7 +191,15 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 			final int tileSizePx, final Rect viewPort) {
 
 		mProjection = projection;
+		mCanvas = c;
+		mLoopViewPort = viewPort;
+		mAtlasTileSizePx = tileSizePx;
+		mTilesDrawn = 0;
+		mPlaceholdersDrawn = 0;
 		mTileLooper.loop(c, zoomLevel, tileSizePx, viewPort);
+		mCanvas = null;
+		mLoopViewPort = null;
+		Metrics.getRecorder().onTilesDrawn(mTilesDrawn, mPlaceholdersDrawn);
 
 		// draw a cross at center in debug mode
 		if (DEBUGMODE) {
@@ -164,14 +217,48 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 			// make sure the cache is big enough for all the tiles
 			final int numNeeded = (mLowerRight.y - mUpperLeft.y + 1) * (mLowerRight.x - mUpperLeft.x + 1);
 			mTileProvider.ensureCapacity(numNeeded + mOvershootTileCache);
+
+			final int columns = mLowerRight.x - mUpperLeft.x + 1;
+			final int rows = mLowerRight.y - mUpperLeft.y + 1;
+			mDrawingToFrameBuffer = mUseFrameBuffer
+					&& mFrameBuffer.begin(mLoopViewPort, pZoomLevel, mMapOrientation, columns,
+							rows);
+			// one spare column and row so that the atlas isn't reallocated when the viewport
+			// straddles one more tile than before
+			mDrawingToAtlas = !mDrawingToFrameBuffer && mUseAtlas
+					&& mAtlas.ensureSize(columns + 1, rows + 1, pTileSizePx);
+			mDrawingOffscreen = mDrawingToFrameBuffer || mDrawingToAtlas;
 		}
 		@Override
 		public void handleTile(final Canvas pCanvas, final int pTileSizePx, final MapTile pTile, final int pX, final int pY) {
-			Drawable currentMapTile = mTileProvider.getMapTile(pTile);
-			boolean isReusable = currentMapTile instanceof ReusableBitmapDrawable;
-			final ReusableBitmapDrawable reusableBitmapDrawable =
-					isReusable ? (ReusableBitmapDrawable) currentMapTile : null;
+			handleTile(pCanvas, pTileSizePx, pTile.getTileIndex(), pX, pY);
+		}
+		@Override
+		public void handleTile(final Canvas pCanvas, final int pTileSizePx, final long pTileIndex, final int pX, final int pY) {
+			// don't request tiles that won't be drawn
+			mTileRect.set(pX * pTileSizePx, pY * pTileSizePx, pX * pTileSizePx + pTileSizePx, pY
+					* pTileSizePx + pTileSizePx);
+			if (!isTileInViewPort(mTileRect)) {
+				return;
+			}
+
+			Drawable currentMapTile = mTileProvider.getMapTile(pTileIndex);
+			mTilesDrawn++;
 			if (currentMapTile == null) {
+				mPlaceholdersDrawn++;
+			}
+
+			if (mDrawingToFrameBuffer) {
+				handleFrameBufferTile(pTileSizePx, pTileIndex, currentMapTile, pX, pY);
+				return;
+			}
+			if (mDrawingToAtlas) {
+				handleAtlasTile(pTileSizePx, pTileIndex, currentMapTile, pX, pY);
+				return;
+			}
+
+			if (currentMapTile == null
+					&& !(mUseFallbackTiles && drawFallbackTiles(pCanvas, pTileSizePx, pTileIndex))) {
 				currentMapTile = getLoadingTile();
 			}
 
@@ -179,25 +266,18 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 				mTilePoint.set(pX * pTileSizePx, pY * pTileSizePx);
 				mTileRect.set(mTilePoint.x, mTilePoint.y, mTilePoint.x + pTileSizePx, mTilePoint.y
 						+ pTileSizePx);
-				if (isReusable) {
-					reusableBitmapDrawable.beginUsingDrawable();
-				}
-				try {
-					if (isReusable && !((ReusableBitmapDrawable) currentMapTile).isBitmapValid()) {
-						currentMapTile = getLoadingTile();
-						isReusable = false;
+				if (!drawCachedTile(pCanvas, currentMapTile, mTileRect)) {
+					currentMapTile = getLoadingTile();
+					if (currentMapTile != null) {
+						onTileReadyToDraw(pCanvas, currentMapTile, mTileRect);
 					}
-					onTileReadyToDraw(pCanvas, currentMapTile, mTileRect);
-				} finally {
-					if (isReusable)
-						reusableBitmapDrawable.finishUsingDrawable();
 				}
 			}
 
 			if (DEBUGMODE) {
 				mTileRect.set(pX * pTileSizePx, pY * pTileSizePx, pX * pTileSizePx + pTileSizePx, pY
 						* pTileSizePx + pTileSizePx);
-				pCanvas.drawText(pTile.toString(), mTileRect.left + 1,
+				pCanvas.drawText(MapTileIndex.toString(pTileIndex), mTileRect.left + 1,
 						mTileRect.top + mDebugPaint.getTextSize(), mDebugPaint);
 				pCanvas.drawLine(mTileRect.left, mTileRect.top, mTileRect.right, mTileRect.top,
 						mDebugPaint);
@@ -207,9 +287,263 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 		}
 		@Override
 		public void finaliseLoop() {
+			if (mDrawingToFrameBuffer) {
+				getTileCanvasRect(mFrameBuffer.getViewPort(), mAtlasDstRect);
+				mCanvas.drawBitmap(mFrameBuffer.getBitmap(), null, mAtlasDstRect, mAtlasPaint);
+				mDrawingToFrameBuffer = false;
+			}
+			if (mDrawingToAtlas) {
+				drawAtlas(mCanvas, mUpperLeft, mLowerRight, mAtlasTileSizePx);
+				mDrawingToAtlas = false;
+			}
+			mDrawingOffscreen = false;
 		}
 	};
 
+	/**
+	 * Bring a tile in the frame buffer up to date. Only a tile that has been exposed by the
+	 * scroll, or that has changed since the last frame, is drawn again.
+	 */
+	private void handleFrameBufferTile(final int pTileSizePx, final long pTileIndex,
+			final Drawable pMapTile, final int pX, final int pY) {
+		// the tiles in the margin around the viewport are only loaded
+		if (!Rect.intersects(mTileRect, mFrameBuffer.getViewPort())) {
+			return;
+		}
+
+		final int slot = mFrameBuffer.getSlot(pX, pY);
+		if (mFrameBuffer.isTileCurrent(slot, pTileIndex, pMapTile, mTileRect)) {
+			return;
+		}
+
+		final Canvas bufferCanvas = mFrameBuffer.getCanvas();
+		mFrameBuffer.clearTile(slot, mTileRect, mTileRect);
+		if (pMapTile != null && drawCachedTile(bufferCanvas, pMapTile, mTileRect)) {
+			mFrameBuffer.setSlot(slot, pTileIndex, pMapTile);
+			return;
+		}
+
+		// draw a stand-in, which is kept until the tile itself arrives
+		if (!(mUseFallbackTiles && drawFallbackTiles(bufferCanvas, pTileSizePx, pTileIndex))) {
+			final Drawable loadingTile = getLoadingTile();
+			if (loadingTile != null) {
+				drawTile(bufferCanvas, loadingTile, mTileRect);
+			}
+		}
+		mFrameBuffer.setSlot(slot, pTileIndex, null);
+	}
+
+	/**
+	 * Bring the atlas slot of a tile up to date. Only a tile that is new to its slot, or that has
+	 * changed since it was drawn there, is drawn into the atlas.
+	 */
+	private void handleAtlasTile(final int pTileSizePx, final long pTileIndex,
+			final Drawable pMapTile, final int pX, final int pY) {
+		final int slot = mAtlas.getSlot(pX, pY);
+		if (mAtlas.isSlotCurrent(slot, pTileIndex, pMapTile)) {
+			return;
+		}
+
+		final Canvas atlasCanvas = mAtlas.getCanvas();
+		mAtlas.getSlotRect(slot, mTileRect);
+		mAtlas.clearSlot(slot, mTileRect);
+		if (pMapTile != null && drawCachedTile(atlasCanvas, pMapTile, mTileRect)) {
+			mAtlas.setSlot(slot, pTileIndex, pMapTile);
+			return;
+		}
+
+		// draw a stand-in, which is kept until the tile itself arrives
+		if (!(mUseFallbackTiles && drawFallbackTiles(atlasCanvas, pTileSizePx, pTileIndex))) {
+			final Drawable loadingTile = getLoadingTile();
+			if (loadingTile != null) {
+				drawTile(atlasCanvas, loadingTile, mTileRect);
+			}
+		}
+		mAtlas.setSlot(slot, pTileIndex, null);
+	}
+
+	/**
+	 * Draw the part of the atlas covering the tiles from the upper left to the lower right. Where
+	 * the slots wrap around the range is split up, so this takes at most four bitmap draws.
+	 */
+	private void drawAtlas(final Canvas c, final Point pUpperLeft, final Point pLowerRight,
+			final int pTileSizePx) {
+		final Bitmap bitmap = mAtlas.getBitmap();
+		final int columns = mAtlas.getColumns();
+		final int rows = mAtlas.getRows();
+		for (int y = pUpperLeft.y; y <= pLowerRight.y;) {
+			final int row = MyMath.mod(y, rows);
+			final int height = Math.min(rows - row, pLowerRight.y - y + 1);
+			for (int x = pUpperLeft.x; x <= pLowerRight.x;) {
+				final int column = MyMath.mod(x, columns);
+				final int width = Math.min(columns - column, pLowerRight.x - x + 1);
+				mAtlasSrcRect.set(column * pTileSizePx, row * pTileSizePx, (column + width)
+						* pTileSizePx, (row + height) * pTileSizePx);
+				mAtlasDstRect.set(x * pTileSizePx, y * pTileSizePx, (x + width) * pTileSizePx,
+						(y + height) * pTileSizePx);
+				getTileCanvasRect(mAtlasDstRect, mAtlasDstRect);
+				c.drawBitmap(bitmap, mAtlasSrcRect, mAtlasDstRect, mAtlasPaint);
+				x += width;
+			}
+			y += height;
+		}
+	}
+
+	/**
+	 * Draw a tile to where the loop is drawing: the canvas through
+	 * {@link #onTileReadyToDraw(Canvas, Drawable, Rect)}, or straight into the atlas or the frame
+	 * buffer.
+	 */
+	private void drawTile(final Canvas c, final Drawable pDrawable, final Rect pTileRect) {
+		if (mDrawingOffscreen) {
+			pDrawable.setBounds(pTileRect);
+			pDrawable.draw(c);
+		} else {
+			onTileReadyToDraw(c, pDrawable, pTileRect);
+		}
+	}
+
+	/**
+	 * Draw a tile, taking care that a reusable bitmap isn't recycled while it's being drawn.
+	 *
+	 * @return false if the bitmap has already been recycled and nothing was drawn
+	 */
+	private boolean drawCachedTile(final Canvas c, final Drawable pDrawable, final Rect pTileRect) {
+		final ReusableBitmapDrawable reusableBitmapDrawable =
+				pDrawable instanceof ReusableBitmapDrawable ? (ReusableBitmapDrawable) pDrawable
+						: null;
+		if (reusableBitmapDrawable == null) {
+			drawTile(c, pDrawable, pTileRect);
+			return true;
+		}
+
+		reusableBitmapDrawable.beginUsingDrawable();
+		try {
+			if (!reusableBitmapDrawable.isBitmapValid()) {
+				return false;
+			}
+			drawTile(c, pDrawable, pTileRect);
+			return true;
+		} finally {
+			reusableBitmapDrawable.finishUsingDrawable();
+		}
+	}
+
+	/**
+	 * Draw a stand-in for a tile that isn't in the cache yet, using tiles from other zoom levels
+	 * that are. The matching part of the nearest cached ancestor is scaled up and drawn first,
+	 * then any cached children are drawn over it scaled down. Only the memory cache is used, so
+	 * this never waits on the file system or the network. Expects {@link #mTileRect} to hold the
+	 * bounds of the tile.
+	 *
+	 * @return true if anything was drawn
+	 */
+	private boolean drawFallbackTiles(final Canvas c, final int pTileSizePx, final long pTileIndex) {
+		final int zoomLevel = MapTileIndex.getZoomLevel(pTileIndex);
+		final int tileX = MapTileIndex.getX(pTileIndex);
+		final int tileY = MapTileIndex.getY(pTileIndex);
+
+		// look for the children first, if they cover the whole tile there's no need for more
+		int childrenFound = 0;
+		for (int i = 0; i < 4; i++) {
+			mFallbackChildren[i] = zoomLevel < MapViewConstants.MAXIMUM_ZOOMLEVEL
+					? mTileProvider.getMapTileFromCache(MapTileIndex.getTileIndex(zoomLevel + 1,
+							(tileX << 1) + (i & 1), (tileY << 1) + (i >> 1)))
+					: null;
+			if (mFallbackChildren[i] != null) {
+				childrenFound++;
+			}
+		}
+
+		boolean ancestorDrawn = false;
+		for (int diff = 1; childrenFound < 4 && diff <= MAXIMUM_FALLBACK_ANCESTOR_LEVELS
+				&& diff <= zoomLevel; diff++) {
+			final Drawable ancestor = mTileProvider.getMapTileFromCache(MapTileIndex.getTileIndex(
+					zoomLevel - diff, tileX >> diff, tileY >> diff));
+			if (ancestor == null) {
+				continue;
+			}
+
+			// the bounds of the whole ancestor at this zoom level
+			final int ancestorSizePx = pTileSizePx << diff;
+			final int mask = (1 << diff) - 1;
+			final int left = mTileRect.left - (tileX & mask) * pTileSizePx;
+			final int top = mTileRect.top - (tileY & mask) * pTileSizePx;
+			mFallbackRect.set(left, top, left + ancestorSizePx, top + ancestorSizePx);
+
+			// only let the part covering this tile through
+			if (mDrawingOffscreen) {
+				mFallbackClipRect.set(mTileRect);
+			} else {
+				getTileCanvasRect(mTileRect, mFallbackClipRect);
+			}
+			c.save();
+			c.clipRect(mFallbackClipRect);
+			ancestorDrawn = drawCachedTile(c, ancestor, mFallbackRect);
+			c.restore();
+			if (ancestorDrawn) {
+				break;
+			}
+		}
+
+		if (!ancestorDrawn && childrenFound > 0 && childrenFound < 4) {
+			final Drawable loadingTile = getLoadingTile();
+			if (loadingTile != null) {
+				mFallbackRect.set(mTileRect);
+				drawTile(c, loadingTile, mFallbackRect);
+			}
+		}
+		if (childrenFound > 0) {
+			drawFallbackChildren(c, pTileSizePx >> 1);
+		}
+		return ancestorDrawn || childrenFound > 0;
+	}
+
+	/**
+	 * Draw the children found by {@link #drawFallbackTiles} into the quarters of {@link #mTileRect}.
+	 */
+	private void drawFallbackChildren(final Canvas c, final int pChildSizePx) {
+		final int left = mTileRect.left;
+		final int top = mTileRect.top;
+		for (int i = 0; i < 4; i++) {
+			final Drawable child = mFallbackChildren[i];
+			if (child != null) {
+				final int xOffset = i & 1;
+				final int yOffset = i >> 1;
+				mFallbackRect.set(left + xOffset * pChildSizePx, top + yOffset * pChildSizePx,
+						left + (xOffset + 1) * pChildSizePx, top + (yOffset + 1) * pChildSizePx);
+				drawCachedTile(c, child, mFallbackRect);
+				mFallbackChildren[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * Get where {@link #onTileReadyToDraw(Canvas, Drawable, Rect)} draws a tile on the canvas.
+	 *
+	 * @param tileRect
+	 *            the Mercator pixel bounds of the tile at the zoom level being drawn
+	 * @param out
+	 *            receives the canvas bounds of the tile
+	 */
+	protected void getTileCanvasRect(final Rect tileRect, final Rect out) {
+		mProjection.toPixelsFromMercator(tileRect.left, tileRect.top, mTilePointMercator);
+		out.set(tileRect);
+		out.offsetTo(mTilePointMercator.x, mTilePointMercator.y);
+	}
+
+	/**
+	 * Whether a tile in the loop will actually be drawn. Tiles for which this returns false are
+	 * not requested from the tile provider. The default implementation returns true so that the
+	 * margin the {@link TileLooper} adds around the viewport gets loaded.
+	 *
+	 * @param tileRect
+	 *            the Mercator pixel bounds of the tile at the zoom level being drawn
+	 */
+	protected boolean isTileInViewPort(final Rect tileRect) {
+		return true;
+	}
+
 	protected void onTileReadyToDraw(final Canvas c, final Drawable currentMapTile,
 			final Rect tileRect) {
 		mProjection.toPixelsFromMercator(tileRect.left, tileRect.top, mTilePointMercator);
@@ -347,6 +681,8 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 	private void clearLoadingTile() {
 		final BitmapDrawable bitmapDrawable = mLoadingTile;
 		mLoadingTile = null;
+		mAtlas.invalidate();
+		mFrameBuffer.invalidate();
 		// Only recycle if we are running on a project less than 2.3.3 Gingerbread.
 		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.GINGERBREAD) {
 			if (bitmapDrawable != null) {
@@ -376,4 +712,54 @@ public class TilesOverlay extends Overlay implements IOverlayMenuProvider {
 	public int getOvershootTileCache() {
 		return mOvershootTileCache;
 	}
+
+	/**
+	 * Set whether a tile that is still loading is drawn using scaled versions of the cached tiles
+	 * at other zoom levels, rather than the loading tile.
+	 */
+	public void setUseFallbackTiles(final boolean pUseFallbackTiles) {
+		mUseFallbackTiles = pUseFallbackTiles;
+	}
+
+	public boolean isUseFallbackTiles() {
+		return mUseFallbackTiles;
+	}
+
+	/**
+	 * Set whether to keep the tiles on screen in one large bitmap, the atlas, and draw the
+	 * visible part of it with at most four bitmap draws instead of drawing every tile. A tile is
+	 * only drawn into the atlas when it first comes into view or changes. This costs a bitmap a
+	 * little larger than the screen, and isn't supported by overlays that only draw some of the
+	 * tiles in the loop, like the {@link MinimapOverlay}.
+	 */
+	public void setUseAtlas(final boolean pUseAtlas) {
+		mUseAtlas = pUseAtlas;
+		if (!pUseAtlas) {
+			mAtlas.recycle();
+		}
+	}
+
+	public boolean isUseAtlas() {
+		return mUseAtlas;
+	}
+
+	/**
+	 * Set whether to keep the last frame of tiles in a bitmap the size of the viewport. On a pan
+	 * the last frame is shifted by the scroll delta and only the tiles in the strips that have
+	 * been exposed, or that have changed since the last frame, are drawn, so a frame costs in
+	 * proportion to the area exposed rather than the screen. A change of zoom level, orientation
+	 * or viewport size draws everything again. This costs two bitmaps the size of the viewport.
+	 * When both are set, the frame buffer is used rather than the atlas. Like the atlas, it isn't
+	 * supported by the {@link MinimapOverlay}.
+	 */
+	public void setUseFrameBuffer(final boolean pUseFrameBuffer) {
+		mUseFrameBuffer = pUseFrameBuffer;
+		if (!pUseFrameBuffer) {
+			mFrameBuffer.recycle();
+		}
+	}
+
+	public boolean isUseFrameBuffer() {
+		return mUseFrameBuffer;
+	}
 }
@@ -0,0 +1,493 @@
+package org.osmdroid.views.overlay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.osmdroid.ResourceProxy;
+import org.osmdroid.api.IGeoPoint;
+import org.osmdroid.api.Polyline;
+import org.osmdroid.util.FeatureIndex;
+import org.osmdroid.util.MercatorTable;
+import org.osmdroid.util.PathPoints;
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Point;
+import android.graphics.Rect;
+
+/**
+ * An overlay that draws many polygons and polylines, such as land parcels or coverage areas, as
+ * one layer. The features are kept in arrays of ints, projected once when they are added, rather
+ * than as an object or an overlay each.
+ *
+ * Each feature has a style, from {@link #addStyle(Paint, Paint)}. When the overlay is drawn, the
+ * features on screen, found with a {@link FeatureIndex}, are gathered by style, and each style is
+ * drawn with one {@link Canvas#drawPath(Path, Paint)} for its polygons and one
+ * {@link Canvas#drawLines(float[], int, int, Paint)} for its polylines, so the cost of a frame
+ * hardly depends on how many features there are. The styles are drawn in the order they were
+ * added. Features smaller than a pixel are not drawn.
+ *
+ * The rings of the polygons of a style go into one path, which is filled with its winding, so a
+ * hole in a polygon must run the other way round from the ring it is in.
+ */
+public class VectorOverlay extends Overlay {
+
+	// ===========================================================
+	// Constants
+	// ===========================================================
+
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private final ArrayList<Style> mStyles = new ArrayList<Style>();
+
+	/** The style of each feature, and whether it is a polygon */
+	private int[] mFeatureStyles = new int[64];
+	private boolean[] mFeaturePolygons = new boolean[64];
+
+	/** The first part of each feature, with the end of the last feature after it */
+	private int[] mFeatureParts = new int[65];
+
+	/** The bounds of each feature in projected pixels, as left, top, right and bottom */
+	private int[] mFeatureBounds = new int[4 * 64];
+	private int mFeatureCount;
+
+	/** The first point of each part, with the end of the last part after it */
+	private int[] mPartPoints = new int[65];
+	private int mPartCount;
+
+	/** The projected pixels of the points, as x and y */
+	private int[] mPoints = new int[128];
+	private int mPointCount;
+
+	private final FeatureIndex mIndex = new FeatureIndex();
+	private boolean mIndexChanged;
+
+	private final Rect mViewPort = new Rect();
+	private final Point mTopLeftMercator = new Point();
+	private final Point mBottomRightMercator = new Point();
+	private final Point mOffset = new Point();
+
+	// ===========================================================
+	// Constructors
+	// ===========================================================
+
+	public VectorOverlay(final Context ctx) {
+		super(ctx);
+	}
+
+	public VectorOverlay(final ResourceProxy pResourceProxy) {
+		super(pResourceProxy);
+	}
+
+	// ===========================================================
+	// Getter & Setter
+	// ===========================================================
+
+	public int getFeatureCount() {
+		return mFeatureCount;
+	}
+
+	public int getStyleCount() {
+		return mStyles.size();
+	}
+
+	/**
+	 * The paint that fills the polygons of a style, which can be changed, or null.
+	 */
+	public Paint getFill(final int pStyle) {
+		return mStyles.get(pStyle).mFill;
+	}
+
+	/**
+	 * The paint that draws the polylines and the outlines of the polygons of a style, which can be
+	 * changed, or null.
+	 */
+	public Paint getStroke(final int pStyle) {
+		return mStyles.get(pStyle).mStroke;
+	}
+
+	// ===========================================================
+	// Methods from SuperClass/Interfaces
+	// ===========================================================
+
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
+	@Override
+	protected void draw(final Canvas c, final MapView osmv, final boolean shadow) {
+		if (shadow || mFeatureCount == 0) {
+			return;
+		}
+
+		final Projection projection = osmv.getProjection();
+		final Rect screenRect = projection.getScreenRect();
+		projection.toMercatorPixels(screenRect.left, screenRect.top, mTopLeftMercator);
+		projection.toMercatorPixels(screenRect.right, screenRect.bottom, mBottomRightMercator);
+		mViewPort.set(mTopLeftMercator.x, mTopLeftMercator.y, mBottomRightMercator.x,
+				mBottomRightMercator.y);
+		projection.toPixelsFromMercator(0, 0, mOffset);
+
+		drawFeatures(c, projection.getZoomLevel(), mViewPort, mOffset.x, mOffset.y);
+	}
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
+	/**
+	 * Add a style.
+	 *
+	 * @param pFill
+	 *            the paint that fills polygons, or null to not fill them
+	 * @param pStroke
+	 *            the paint that draws polylines and the outlines of polygons, or null to not draw
+	 *            them
+	 * @return the style, for adding features with
+	 */
+	public int addStyle(final Paint pFill, final Paint pStroke) {
+		mStyles.add(new Style(pFill, pStroke));
+		return mStyles.size() - 1;
+	}
+
+	/**
+	 * Add a polygon with one ring.
+	 *
+	 * @return the feature
+	 */
+	public int addPolygon(final int pStyle, final int[] pLatitudesE6, final int[] pLongitudesE6) {
+		return addFeature(pStyle, true, new int[][] { pLatitudesE6 },
+				new int[][] { pLongitudesE6 });
+	}
+
+	public int addPolygon(final int pStyle, final List<? extends IGeoPoint> pPoints) {
+		return addPolygon(pStyle, getLatitudesE6(pPoints), getLongitudesE6(pPoints));
+	}
+
+	/**
+	 * Add a polygon with several rings, such as an outer ring and holes.
+	 *
+	 * @return the feature
+	 */
+	public int addMultiPolygon(final int pStyle, final int[][] pLatitudesE6,
+			final int[][] pLongitudesE6) {
+		return addFeature(pStyle, true, pLatitudesE6, pLongitudesE6);
+	}
+
+	/**
+	 * Add a polyline.
+	 *
+	 * @return the feature
+	 */
+	public int addPolyline(final int pStyle, final int[] pLatitudesE6, final int[] pLongitudesE6) {
+		return addFeature(pStyle, false, new int[][] { pLatitudesE6 },
+				new int[][] { pLongitudesE6 });
+	}
+
+	public int addPolyline(final int pStyle, final List<? extends IGeoPoint> pPoints) {
+		return addPolyline(pStyle, getLatitudesE6(pPoints), getLongitudesE6(pPoints));
+	}
+
+	/**
+	 * Add a polyline, with a style of its color and width. Polylines of the same color and width
+	 * share a style.
+	 *
+	 * @return the feature
+	 */
+	public int addPolyline(final Polyline pPolyline) {
+		int style = -1;
+		for (int i = 0; i < mStyles.size() && style < 0; i++) {
+			final Style candidate = mStyles.get(i);
+			if (candidate.mFill == null && candidate.mStroke != null
+					&& candidate.mStroke.getColor() == pPolyline.color
+					&& candidate.mStroke.getStrokeWidth() == pPolyline.width) {
+				style = i;
+			}
+		}
+		if (style < 0) {
+			final Paint stroke = new Paint();
+			stroke.setColor(pPolyline.color);
+			stroke.setStrokeWidth(pPolyline.width);
+			stroke.setStyle(Paint.Style.STROKE);
+			style = addStyle(null, stroke);
+		}
+		return addPolyline(style, pPolyline.points);
+	}
+
+	/**
+	 * Add a polyline with several parts.
+	 *
+	 * @return the feature
+	 */
+	public int addMultiPolyline(final int pStyle, final int[][] pLatitudesE6,
+			final int[][] pLongitudesE6) {
+		return addFeature(pStyle, false, pLatitudesE6, pLongitudesE6);
+	}
+
+	/**
+	 * Remove every feature. The styles are kept.
+	 */
+	public void clear() {
+		mFeatureCount = 0;
+		mPartCount = 0;
+		mPointCount = 0;
+		mIndex.clear();
+		mIndexChanged = false;
+	}
+
+	/**
+	 * Draw the features in an area of the map.
+	 *
+	 * @param viewPort
+	 *            the area in Mercator pixels at the zoom level
+	 * @param offsetX
+	 *            the x on the canvas of the left of the map
+	 * @param offsetY
+	 *            the y on the canvas of the top of the map
+	 */
+	public void drawFeatures(final Canvas c, final int zoomLevel, final Rect viewPort,
+			final int offsetX, final int offsetY) {
+		if (mFeatureCount == 0) {
+			return;
+		}
+		if (mIndexChanged) {
+			mIndex.build(mFeatureBounds, mFeatureCount);
+			mIndexChanged = false;
+		}
+
+		final int shift = PathPoints.PROJECTED_ZOOMLEVEL - Math.min(zoomLevel,
+				PathPoints.PROJECTED_ZOOMLEVEL);
+		final long projectedSize = TileSystem.MapSizeL(PathPoints.PROJECTED_ZOOMLEVEL);
+		final long mapSize = TileSystem.MapSizeL(zoomLevel);
+		final long top = (long) viewPort.top << shift;
+		final long bottom = (((long) viewPort.bottom + 1) << shift) - 1;
+		final long left = (long) viewPort.left << shift;
+		final long right = (((long) viewPort.right + 1) << shift) - 1;
+
+		// the map repeats horizontally, so the features on the copies either side may be in view
+		for (int copy = -1; copy <= 1; copy++) {
+			final long copyLeft = left - copy * projectedSize;
+			final long copyRight = right - copy * projectedSize;
+			if (copyRight < 0 || copyLeft >= projectedSize) {
+				continue;
+			}
+			final int count = mIndex.query(clip(copyLeft), clip(top), clip(copyRight),
+					clip(bottom));
+			final int[] features = mIndex.getResults();
+			final int copyOffsetX = (int) (offsetX + copy * mapSize);
+			for (int i = 0; i < count; i++) {
+				addFeatureToStyle(features[i], shift, copyOffsetX, offsetY);
+			}
+		}
+
+		for (final Style style : mStyles) {
+			style.draw(c);
+		}
+	}
+
+	private static int clip(final long pProjected) {
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, pProjected));
+	}
+
+	private void addFeatureToStyle(final int pFeature, final int pShift, final int pOffsetX,
+			final int pOffsetY) {
+		final int b = 4 * pFeature;
+		if ((mFeatureBounds[b + 2] - mFeatureBounds[b]) >> pShift == 0
+				&& (mFeatureBounds[b + 3] - mFeatureBounds[b + 1]) >> pShift == 0) {
+			// smaller than a pixel
+			return;
+		}
+
+		final Style style = mStyles.get(mFeatureStyles[pFeature]);
+		final boolean polygon = mFeaturePolygons[pFeature];
+		if (polygon ? style.mFill == null && style.mStroke == null : style.mStroke == null) {
+			return;
+		}
+		for (int part = mFeatureParts[pFeature]; part < mFeatureParts[pFeature + 1]; part++) {
+			final int first = mPartPoints[part];
+			final int end = mPartPoints[part + 1];
+			float lastX = (mPoints[2 * first] >> pShift) + pOffsetX;
+			float lastY = (mPoints[2 * first + 1] >> pShift) + pOffsetY;
+			if (polygon) {
+				style.mPolygons.moveTo(lastX, lastY);
+				style.mHasPolygons = true;
+			}
+			for (int i = first + 1; i < end; i++) {
+				final float x = (mPoints[2 * i] >> pShift) + pOffsetX;
+				final float y = (mPoints[2 * i + 1] >> pShift) + pOffsetY;
+
+				// skip this point, too close to previous point
+				if (Math.abs(x - lastX) + Math.abs(y - lastY) <= 1 && i < end - 1) {
+					continue;
+				}
+				if (polygon) {
+					style.mPolygons.lineTo(x, y);
+				} else {
+					style.addLine(lastX, lastY, x, y);
+				}
+				lastX = x;
+				lastY = y;
+			}
+			if (polygon) {
+				style.mPolygons.close();
+			}
+		}
+	}
+
+	private int addFeature(final int pStyle, final boolean pPolygon, final int[][] pLatitudesE6,
+			final int[][] pLongitudesE6) {
+		if (pStyle < 0 || pStyle >= mStyles.size()) {
+			throw new IllegalArgumentException("No such style: " + pStyle);
+		}
+		if (pLatitudesE6.length != pLongitudesE6.length) {
+			throw new IllegalArgumentException(
+					"The latitudes and longitudes must have as many parts");
+		}
+
+		final int feature = mFeatureCount;
+		if (feature == mFeatureStyles.length) {
+			final int capacity = feature * 2;
+			mFeatureStyles = Arrays.copyOf(mFeatureStyles, capacity);
+			mFeaturePolygons = Arrays.copyOf(mFeaturePolygons, capacity);
+			mFeatureParts = Arrays.copyOf(mFeatureParts, capacity + 1);
+			mFeatureBounds = Arrays.copyOf(mFeatureBounds, 4 * capacity);
+		}
+		mFeatureStyles[feature] = pStyle;
+		mFeaturePolygons[feature] = pPolygon;
+		mFeatureParts[feature] = mPartCount;
+
+		int left = Integer.MAX_VALUE;
+		int top = Integer.MAX_VALUE;
+		int right = Integer.MIN_VALUE;
+		int bottom = Integer.MIN_VALUE;
+		for (int part = 0; part < pLatitudesE6.length; part++) {
+			final int[] latitudesE6 = pLatitudesE6[part];
+			final int[] longitudesE6 = pLongitudesE6[part];
+			if (latitudesE6.length != longitudesE6.length) {
+				throw new IllegalArgumentException(
+						"The latitudes and longitudes must have as many points");
+			}
+			if (latitudesE6.length < 2) {
+				continue;
+			}
+
+			final int first = mPointCount;
+			ensurePointCapacity(first + latitudesE6.length);
+			for (int i = 0; i < latitudesE6.length; i++) {
+				mPoints[2 * (first + i)] = latitudesE6[i];
+				mPoints[2 * (first + i) + 1] = longitudesE6[i];
+			}
+			MercatorTable.getDefault().toPixelsE6(mPoints, first, latitudesE6.length,
+					PathPoints.PROJECTED_ZOOMLEVEL);
+			mPointCount += latitudesE6.length;
+			for (int i = first; i < mPointCount; i++) {
+				left = Math.min(left, mPoints[2 * i]);
+				top = Math.min(top, mPoints[2 * i + 1]);
+				right = Math.max(right, mPoints[2 * i]);
+				bottom = Math.max(bottom, mPoints[2 * i + 1]);
+			}
+
+			if (mPartCount + 1 == mPartPoints.length) {
+				mPartPoints = Arrays.copyOf(mPartPoints, mPartPoints.length * 2);
+			}
+			mPartPoints[mPartCount++] = first;
+			mPartPoints[mPartCount] = mPointCount;
+		}
+		mFeatureParts[feature + 1] = mPartCount;
+
+		if (left > right) {
+			// no part has any points, so it is never found
+			left = right = top = bottom = -1;
+		}
+		mFeatureBounds[4 * feature] = left;
+		mFeatureBounds[4 * feature + 1] = top;
+		mFeatureBounds[4 * feature + 2] = right;
+		mFeatureBounds[4 * feature + 3] = bottom;
+		mFeatureCount++;
+		mIndexChanged = true;
+		return feature;
+	}
+
+	private void ensurePointCapacity(final int pCount) {
+		if (2 * pCount > mPoints.length) {
+			mPoints = Arrays.copyOf(mPoints, Math.max(2 * pCount, mPoints.length * 2));
+		}
+	}
+
+	private static int[] getLatitudesE6(final List<? extends IGeoPoint> pPoints) {
+		final int[] latitudesE6 = new int[pPoints.size()];
+		for (int i = 0; i < latitudesE6.length; i++) {
+			latitudesE6[i] = pPoints.get(i).getLatitudeE6();
+		}
+		return latitudesE6;
+	}
+
+	private static int[] getLongitudesE6(final List<? extends IGeoPoint> pPoints) {
+		final int[] longitudesE6 = new int[pPoints.size()];
+		for (int i = 0; i < longitudesE6.length; i++) {
+			longitudesE6[i] = pPoints.get(i).getLongitudeE6();
+		}
+		return longitudesE6;
+	}
+
+	// ===========================================================
+	// Inner and Anonymous Classes
+	// ===========================================================
+
+	/**
+	 * The paints of a style, and the polygons and lines of its features on screen, which are
+	 * gathered while drawing and reused for the next frame.
+	 */
+	private static class Style {
+		final Paint mFill;
+		final Paint mStroke;
+
+		final Path mPolygons = new Path();
+		boolean mHasPolygons;
+
+		/** The segments of the polylines, as the x and y of their start and end */
+		float[] mLines = new float[64];
+		int mLinesSize;
+
+		Style(final Paint pFill, final Paint pStroke) {
+			mFill = pFill;
+			mStroke = pStroke;
+		}
+
+		void addLine(final float pX0, final float pY0, final float pX1, final float pY1) {
+			if (mLinesSize + 4 > mLines.length) {
+				mLines = Arrays.copyOf(mLines, mLines.length * 2);
+			}
+			mLines[mLinesSize++] = pX0;
+			mLines[mLinesSize++] = pY0;
+			mLines[mLinesSize++] = pX1;
+			mLines[mLinesSize++] = pY1;
+		}
+
+		void draw(final Canvas c) {
+			if (mHasPolygons) {
+				if (mFill != null) {
+					c.drawPath(mPolygons, mFill);
+				}
+				if (mStroke != null) {
+					c.drawPath(mPolygons, mStroke);
+				}
+				mPolygons.rewind();
+				mHasPolygons = false;
+			}
+			if (mLinesSize > 0) {
+				c.drawLines(mLines, 0, mLinesSize, mStroke);
+				mLinesSize = 0;
+			}
+		}
+	}
+}
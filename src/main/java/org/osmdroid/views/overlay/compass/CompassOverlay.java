@@ -170,6 +170,11 @@ public class CompassOverlay extends Overlay implements IOverlayMenuProvider, IOr
 	// Methods from SuperClass/Interfaces
 	// ===========================================================
 
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
 	@Override
 	protected void draw(Canvas c, MapView mapView, boolean shadow) {
 		if (shadow) {
@@ -278,6 +278,11 @@ public class MyLocationNewOverlay extends Overlay implements IMyLocationConsumer
 	// Methods from SuperClass/Interfaces
 	// ===========================================================
 
+	@Override
+	public boolean drawsShadow() {
+		return false;
+	}
+
 	@Override
 	protected void draw(Canvas c, MapView mapView, boolean shadow) {
 		if (shadow)
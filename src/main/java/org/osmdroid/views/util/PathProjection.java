@@ -2,18 +2,47 @@ package org.osmdroid.views.util;
 
 import java.util.List;
 
-import org.osmdroid.util.BoundingBoxE6;
 import org.osmdroid.util.GeoPoint;
-import org.osmdroid.util.TileSystem;
+import org.osmdroid.util.PathProjector;
 import org.osmdroid.views.Projection;
 
 import android.graphics.Path;
 import android.graphics.Point;
-import android.graphics.PointF;
-import android.graphics.Rect;
 
+/**
+ * Projects the points of a path to the screen with a {@link PathProjector} and adds them to a
+ * {@link Path}.
+ *
+ * A PathProjection can be reused for any number of paths. It only allocates when it is created,
+ * so projecting a path allocates nothing per point:
+ *
+ * <pre>
+ * projector.begin(projection, path, true);
+ * for (...) {
+ * 	projector.add(latitudeE6, longitudeE6);
+ * }
+ * </pre>
+ *
+ * The points are in the same coordinates as {@link Projection#toPixels(
+ * org.osmdroid.api.IGeoPoint, Point)}, without its wrapping across the date line, which would
+ * break up a path that crosses it.
+ */
 public class PathProjection {
 
+	// ===========================================================
+	// Fields
+	// ===========================================================
+
+	private final PathProjector mProjector = new PathProjector();
+	private Path mPath;
+	private boolean mFirst;
+
+	private final Point mPoint = new Point();
+
+	// ===========================================================
+	// Methods
+	// ===========================================================
+
 	public static Path toPixels(Projection projection, final List<? extends GeoPoint> in,
 			final Path reuse) {
 		return toPixels(projection, in, reuse, true);
@@ -21,76 +50,62 @@ public class PathProjection {
 
 	public static Path toPixels(Projection projection, final List<? extends GeoPoint> in,
 			final Path reuse, final boolean doGudermann) throws IllegalArgumentException {
+		return new PathProjection().project(projection, in, reuse, doGudermann);
+	}
+
+	/**
+	 * Project a list of points into a path, with a moveTo() to the first and a lineTo() to each
+	 * of the others.
+	 *
+	 * @param reuse
+	 *            the path to add the points to, or null for a new one
+	 */
+	public Path project(final Projection projection, final List<? extends GeoPoint> in,
+			final Path reuse, final boolean doGudermann) throws IllegalArgumentException {
 		if (in.size() < 2) {
 			throw new IllegalArgumentException("List of GeoPoints needs to be at least 2.");
 		}
 
 		final Path out = (reuse != null) ? reuse : new Path();
 		out.incReserve(in.size());
-
-		boolean first = true;
+		begin(projection, out, doGudermann);
 		for (final GeoPoint gp : in) {
-			final Point underGeopointTileCoords = TileSystem.LatLongToPixelXY(
-					gp.getLatitudeE6() / 1E6, gp.getLongitudeE6() / 1E6, projection.getZoomLevel(),
-					null);
-			TileSystem.PixelXYToTileXY(underGeopointTileCoords.x, underGeopointTileCoords.y,
-					underGeopointTileCoords);
-
-			/*
-			 * Calculate the Latitude/Longitude on the left-upper ScreenCoords of the MapTile.
-			 */
-			final Point upperRight = TileSystem.TileXYToPixelXY(underGeopointTileCoords.x,
-					underGeopointTileCoords.y, null);
-			final Point lowerLeft = TileSystem.TileXYToPixelXY(underGeopointTileCoords.x
-					+ TileSystem.getTileSize(),
-					underGeopointTileCoords.y + TileSystem.getTileSize(), null);
-			final GeoPoint neGeoPoint = TileSystem.PixelXYToLatLong(upperRight.x, upperRight.y,
-					projection.getZoomLevel(), null);
-			final GeoPoint swGeoPoint = TileSystem.PixelXYToLatLong(lowerLeft.x, lowerLeft.y,
-					projection.getZoomLevel(), null);
-			final BoundingBoxE6 bb = new BoundingBoxE6(neGeoPoint.getLatitudeE6(),
-					neGeoPoint.getLongitudeE6(), swGeoPoint.getLatitudeE6(),
-					swGeoPoint.getLongitudeE6());
-
-			final PointF relativePositionInCenterMapTile;
-			if (doGudermann && (projection.getZoomLevel() < 7)) {
-				relativePositionInCenterMapTile = bb
-						.getRelativePositionOfGeoPointInBoundingBoxWithExactGudermannInterpolation(
-								gp.getLatitudeE6(), gp.getLongitudeE6(), null);
-			} else {
-				relativePositionInCenterMapTile = bb
-						.getRelativePositionOfGeoPointInBoundingBoxWithLinearInterpolation(
-								gp.getLatitudeE6(), gp.getLongitudeE6(), null);
-			}
+			add(gp.getLatitudeE6(), gp.getLongitudeE6());
+		}
+		return out;
+	}
 
-			final Rect screenRect = projection.getScreenRect();
-			Point centerMapTileCoords = TileSystem.PixelXYToTileXY(screenRect.centerX(),
-					screenRect.centerY(), null);
-			final Point upperLeftCornerOfCenterMapTile = TileSystem.TileXYToPixelXY(
-					centerMapTileCoords.x, centerMapTileCoords.y, null);
-			final int tileDiffX = centerMapTileCoords.x - underGeopointTileCoords.x;
-			final int tileDiffY = centerMapTileCoords.y - underGeopointTileCoords.y;
-			final int underGeopointTileScreenLeft = upperLeftCornerOfCenterMapTile.x
-					- (TileSystem.getTileSize() * tileDiffX);
-			final int underGeopointTileScreenTop = upperLeftCornerOfCenterMapTile.y
-					- (TileSystem.getTileSize() * tileDiffY);
+	/**
+	 * Start a path. The next point is added with a moveTo(), and the ones after it with a
+	 * lineTo().
+	 */
+	public void begin(final Projection projection, final Path out, final boolean doGudermann) {
+		final Point offset = projection.toPixelsFromMercator(0, 0, mPoint);
+		begin(projection.getZoomLevel(), offset.x, offset.y, out, doGudermann);
+	}
 
-			final int x = underGeopointTileScreenLeft
-					+ (int) (relativePositionInCenterMapTile.x * TileSystem.getTileSize());
-			final int y = underGeopointTileScreenTop
-					+ (int) (relativePositionInCenterMapTile.y * TileSystem.getTileSize());
+	/**
+	 * {@link #begin(Projection, Path, boolean)} without a projection.
+	 *
+	 * @param offsetX
+	 *            the screen x of the left of the map
+	 * @param offsetY
+	 *            the screen y of the top of the map
+	 */
+	public void begin(final int zoomLevel, final int offsetX, final int offsetY, final Path out,
+			final boolean doGudermann) {
+		mPath = out;
+		mFirst = true;
+		mProjector.begin(zoomLevel, offsetX, offsetY, doGudermann);
+	}
 
-			/* Add up the offset caused by touch. */
-			if (first) {
-				out.moveTo(x, y);
-				// out.moveTo(x + MapView.this.mTouchMapOffsetX, y +
-				// MapView.this.mTouchMapOffsetY);
-			} else {
-				out.lineTo(x, y);
-			}
-			first = false;
+	public void add(final int latitudeE6, final int longitudeE6) {
+		mProjector.project(latitudeE6, longitudeE6);
+		if (mFirst) {
+			mPath.moveTo(mProjector.getX(), mProjector.getY());
+			mFirst = false;
+		} else {
+			mPath.lineTo(mProjector.getX(), mProjector.getY());
 		}
-
-		return out;
 	}
 }
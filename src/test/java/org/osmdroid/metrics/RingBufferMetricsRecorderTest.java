@@ -0,0 +1,50 @@
+package org.osmdroid.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RingBufferMetricsRecorderTest {
+
+	@Test
+	public void test_snapshot_keepsLastFrames() {
+		final RingBufferMetricsRecorder recorder = new RingBufferMetricsRecorder(3);
+		for (int frame = 1; frame <= 5; frame++) {
+			recorder.onTilesDrawn(frame, 1);
+			recorder.onOverlayDrawn("PathOverlay", frame * 1000000L);
+			recorder.onFrameDrawn(frame * 10000000L);
+		}
+		recorder.onTileCacheLookup(true);
+		recorder.onTileCacheLookup(true);
+		recorder.onTileCacheLookup(true);
+		recorder.onTileCacheLookup(false);
+		recorder.onQueueDepth("Downloader", 20, 2);
+		recorder.onQueueDepth("Downloader", 5, 2);
+
+		final String snapshot = recorder.getSnapshot();
+		assertEquals(5, recorder.getFrameCount());
+		assertTrue(snapshot, snapshot.contains("Frames: 5 drawn, last 3"));
+		assertTrue(snapshot, !snapshot.contains("  20.0, 2, 1\n"));
+		assertTrue(snapshot, snapshot.contains("  30.0, 3, 1\n  40.0, 4, 1\n  50.0, 5, 1\n"));
+		assertTrue(snapshot, snapshot.contains("  average 40.0 ms, longest 50.0 ms"));
+		assertTrue(snapshot, snapshot.contains("PathOverlay: 5, 3.0, 5.0, 5.0"));
+		assertTrue(snapshot, snapshot.contains("3 hits, 1 misses, 75% hit rate"));
+		assertTrue(snapshot, snapshot.contains("Downloader: 5, 20, 2"));
+	}
+
+	@Test
+	public void test_downloadHistogram() {
+		final RingBufferMetricsRecorder recorder = new RingBufferMetricsRecorder();
+		recorder.onTileDownloaded(10000000L, true);
+		recorder.onTileDownloaded(50000000L, true);
+		recorder.onTileDownloaded(150000000L, true);
+		recorder.onTileDownloaded(10000000000L, true);
+		recorder.onTileDownloaded(10000000L, false);
+
+		assertArrayEquals(new long[] { 2, 0, 1, 0, 0, 0, 0, 0, 1 },
+				recorder.getDownloadHistogram());
+		assertEquals(1, recorder.getDownloadFailures());
+	}
+}
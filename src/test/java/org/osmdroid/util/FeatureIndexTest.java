@@ -0,0 +1,50 @@
+package org.osmdroid.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FeatureIndexTest {
+
+	@Test
+	public void test_query_matchesLinearSearch() {
+		final Random random = new Random(1);
+		final FeatureIndex index = new FeatureIndex();
+
+		for (int step = 0; step < 20; step++) {
+			final int count = random.nextInt(5000);
+			final int[] bounds = new int[4 * count];
+			for (int i = 0; i < count; i++) {
+				// small features, and a few that span much of the map
+				final int size = random.nextInt(10) == 0 ? random.nextInt(1 << 28) : random
+						.nextInt(1 << 16);
+				bounds[4 * i] = random.nextInt(PointIndex.SIZE - size);
+				bounds[4 * i + 1] = random.nextInt(PointIndex.SIZE - size);
+				bounds[4 * i + 2] = bounds[4 * i] + size;
+				bounds[4 * i + 3] = bounds[4 * i + 1] + size;
+			}
+			index.build(bounds, count);
+			assertEquals(count, index.size());
+
+			for (int query = 0; query < 50; query++) {
+				final int left = random.nextInt(PointIndex.SIZE);
+				final int top = random.nextInt(PointIndex.SIZE);
+				final int right = left + random.nextInt(1 << 26);
+				final int bottom = top + random.nextInt(1 << 26);
+				final int found = index.query(left, top, right, bottom);
+
+				int expected = 0;
+				for (int i = 0; i < count; i++) {
+					if (bounds[4 * i] <= right && bounds[4 * i + 1] <= bottom
+							&& bounds[4 * i + 2] >= left && bounds[4 * i + 3] >= top) {
+						assertEquals("feature in order", i, index.getResults()[expected]);
+						expected++;
+					}
+				}
+				assertEquals(expected, found);
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.osmdroid.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+
+import org.junit.Test;
+import org.osmdroid.tileprovider.MapTile;
+
+public class MapTileIndexTest {
+
+	@Test
+	public void test_getTileIndex_roundTrip() {
+		final int[][] tiles = { { 0, 0, 0 }, { 1, 1, 0 }, { 18, 131071, 262143 },
+				{ 22, (1 << 22) - 1, 12345 }, { 29, (1 << 29) - 1, (1 << 29) - 1 } };
+		for (final int[] tile : tiles) {
+			final long index = MapTileIndex.getTileIndex(tile[0], tile[1], tile[2]);
+			assertEquals("zoom level", tile[0], MapTileIndex.getZoomLevel(index));
+			assertEquals("x", tile[1], MapTileIndex.getX(index));
+			assertEquals("y", tile[2], MapTileIndex.getY(index));
+		}
+	}
+
+	@Test
+	public void test_getTileIndex_unique() {
+		assertFalse("zoom level and x are separate",
+				MapTileIndex.getTileIndex(1, 0, 0) == MapTileIndex.getTileIndex(0, 1, 0));
+		assertFalse("x and y are separate",
+				MapTileIndex.getTileIndex(3, 1, 2) == MapTileIndex.getTileIndex(3, 2, 1));
+	}
+
+	@Test
+	public void test_hashCode_permutations() {
+		// the old hash code was the same for all permutations of the zoom level, x and y
+		assertFalse("permuted tiles have different hash codes",
+				new MapTile(3, 5, 7).hashCode() == new MapTile(7, 5, 3).hashCode());
+		assertFalse("permuted tiles have different hash codes",
+				new MapTile(5, 3, 7).hashCode() == new MapTile(5, 7, 3).hashCode());
+	}
+
+	@Test
+	public void test_hashCode_distribution() {
+		// a screen full of tiles at a high zoom level should hardly collide at all
+		final HashSet<Integer> hashes = new HashSet<Integer>();
+		int count = 0;
+		for (int x = 140000; x < 140064; x++) {
+			for (int y = 90000; y < 90064; y++) {
+				hashes.add(new MapTile(18, x, y).hashCode());
+				count++;
+			}
+		}
+		assertTrue("at most one collision in " + count + " tiles", hashes.size() >= count - 1);
+	}
+}
@@ -0,0 +1,85 @@
+package org.osmdroid.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MercatorTableTest {
+
+	private static final int TILE_SIZE = 256;
+
+	@Test
+	public void test_getY_withinErrorBound() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final Random random = new Random(1);
+		for (final double errorPixels : new double[] { 0.5, 0.1, 0.01 }) {
+			final MercatorTable table = new MercatorTable(22, errorPixels);
+			final double mapSize = TileSystem.MapSize(22);
+			for (int i = 0; i < 100000; i++) {
+				final double latitude = (random.nextDouble() * 2 - 1)
+						* MercatorTable.MAXIMUM_LATITUDE;
+				final double error = Math.abs(table.getY(latitude)
+						- MercatorTable.getExactY(latitude))
+						* mapSize;
+				assertTrue("error " + error + " at " + latitude, error <= errorPixels);
+			}
+		}
+	}
+
+	@Test
+	public void test_getY_endsAndClipping() {
+		final MercatorTable table = MercatorTable.getDefault();
+		assertEquals("equator", 0.5, table.getY(0), 1E-12);
+		assertEquals("north", 0, table.getY(MercatorTable.MAXIMUM_LATITUDE), 1E-9);
+		assertEquals("south", 1, table.getY(-MercatorTable.MAXIMUM_LATITUDE), 1E-9);
+		assertEquals("clipped north", table.getY(MercatorTable.MAXIMUM_LATITUDE),
+				table.getY(89), 0);
+		assertEquals("clipped south", table.getY(-MercatorTable.MAXIMUM_LATITUDE),
+				table.getY(-89), 0);
+	}
+
+	@Test
+	public void test_toPixelsE6_matchesScalarRounding() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final Random random = new Random(2);
+		final int zoomLevel = 18;
+		final int mapSize = TileSystem.MapSize(zoomLevel);
+		final int count = 10000;
+		final int[] points = new int[2 * count];
+		for (int i = 0; i < 2 * count; i += 2) {
+			points[i] = (int) ((random.nextDouble() * 2 - 1) * 85E6);
+			points[i + 1] = (int) ((random.nextDouble() * 2 - 1) * 180E6);
+		}
+		final int[] expected = points.clone();
+		MercatorTable.getDefault().toPixelsE6(points, count, zoomLevel);
+
+		int mismatches = 0;
+		for (int i = 0; i < 2 * count; i += 2) {
+			final int x = (int) ((expected[i + 1] * 1E-6 + 180) / 360 * mapSize + 0.5);
+			final int y = (int) (MercatorTable.getExactY(expected[i] * 1E-6) * mapSize + 0.5);
+			assertEquals("x", x, points[i]);
+			final int difference = Math.abs(y - points[i + 1]);
+			assertTrue("y differs by " + difference, difference <= 1);
+			if (difference != 0) {
+				mismatches++;
+			}
+		}
+		// only points within the error of a rounding boundary can differ
+		assertTrue("mismatches " + mismatches, mismatches < count / 100);
+	}
+
+	@Test
+	public void test_toPixels_wrapsLikeTileSystem() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final double[] points = { 10, 190, 10, -170, 100, 20, -80, 20, 10, 900, 10, 180 };
+		MercatorTable.getDefault().toPixels(points, points.length / 2, 3);
+
+		assertEquals("longitude 190 is -170", points[2], points[0], 1E-9);
+		assertEquals("latitude 100 is -80", points[7], points[5], 1E-9);
+		assertEquals("longitude 900 is 180", TileSystem.MapSize(3), points[8], 1E-9);
+		assertEquals("longitude 180 stays", TileSystem.MapSize(3), points[10], 1E-9);
+	}
+}
@@ -0,0 +1,92 @@
+package org.osmdroid.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PathPointsTest {
+
+	@Test
+	public void test_getProjected_incrementalMatchesBulk() {
+		final Random random = new Random(1);
+		final int count = 1000;
+		final int[] latitudesE6 = new int[count];
+		final int[] longitudesE6 = new int[count];
+		for (int i = 0; i < count; i++) {
+			latitudesE6[i] = random.nextInt(170000000) - 85000000;
+			longitudesE6[i] = random.nextInt(360000000) - 180000000;
+		}
+
+		// projected a few points at a time, as when a track grows while it is drawn
+		final PathPoints incremental = new PathPoints();
+		for (int i = 0; i < count; i++) {
+			incremental.addPoint(latitudesE6[i], longitudesE6[i]);
+			if (i % 7 == 0) {
+				incremental.getProjected();
+			}
+		}
+		final int[] projected = incremental.getProjected();
+
+		final PathPoints bulk = new PathPoints();
+		bulk.addPoints(latitudesE6, longitudesE6);
+		assertEquals(count, bulk.size());
+
+		final int[] expected = new int[2 * count];
+		for (int i = 0; i < count; i++) {
+			expected[2 * i] = latitudesE6[i];
+			expected[2 * i + 1] = longitudesE6[i];
+		}
+		MercatorTable.getDefault().toPixelsE6(expected, count, PathPoints.PROJECTED_ZOOMLEVEL);
+
+		final int[] bulkProjected = bulk.getProjected();
+		for (int i = 0; i < count; i++) {
+			assertEquals(latitudesE6[i], bulk.getLatitudeE6(i));
+			assertEquals(longitudesE6[i], bulk.getLongitudeE6(i));
+			assertEquals(expected[2 * i], projected[2 * i]);
+			assertEquals(expected[2 * i + 1], projected[2 * i + 1]);
+			assertEquals(expected[2 * i], bulkProjected[2 * i]);
+			assertEquals(expected[2 * i + 1], bulkProjected[2 * i + 1]);
+		}
+	}
+
+	@Test
+	public void test_clear() {
+		final PathPoints points = new PathPoints();
+		points.addPoint(1, 2);
+		points.getProjected();
+		points.clear();
+		assertEquals(0, points.size());
+		points.addPoint(45000000, 90000000);
+		final int[] expected = { 45000000, 90000000 };
+		MercatorTable.getDefault().toPixelsE6(expected, 1, PathPoints.PROJECTED_ZOOMLEVEL);
+		assertEquals(expected[0], points.getProjected()[0]);
+		assertEquals(expected[1], points.getProjected()[1]);
+	}
+
+	@Test
+	public void test_getProjectedExtent() {
+		final PathPoints points = new PathPoints();
+		assertEquals(0, points.getProjectedWidth());
+		points.addPoint(10000000, 20000000);
+		assertEquals(0, points.getProjectedWidth());
+		assertEquals(0, points.getProjectedHeight());
+		points.addPoints(new int[] { -5000000, 30000000 }, new int[] { -40000000, 0 });
+
+		final int[] expected = { 30000000, -40000000, -5000000, 20000000 };
+		MercatorTable.getDefault().toPixelsE6(expected, 2, PathPoints.PROJECTED_ZOOMLEVEL);
+		assertEquals(expected[2] - expected[0], points.getProjectedWidth());
+		assertEquals(expected[3] - expected[1], points.getProjectedHeight());
+
+		points.clear();
+		points.addPoint(1, 2);
+		assertEquals(0, points.getProjectedWidth());
+		assertEquals(0, points.getProjectedHeight());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_addPoints_differentLengths() {
+		new PathPoints().addPoints(new int[2], new int[3]);
+	}
+}
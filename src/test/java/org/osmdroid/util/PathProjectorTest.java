@@ -0,0 +1,103 @@
+package org.osmdroid.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PathProjectorTest {
+
+	private static final int TILE_SIZE = 256;
+
+	private static void assertPixels(final PathProjector pProjector, final double pX,
+			final double pY, final int pLatitudeE6, final int pLongitudeE6, final double pDelta) {
+		pProjector.project(pLatitudeE6, pLongitudeE6);
+		assertEquals(pX, pProjector.getX(), pDelta);
+		assertEquals(pY, pProjector.getY(), pDelta);
+	}
+
+	@Test
+	public void test_project_knownPoints() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final PathProjector projector = new PathProjector();
+		for (final boolean gudermann : new boolean[] { true, false }) {
+			projector.begin(0, 0, 0, gudermann);
+			assertPixels(projector, 128, 128, 0, 0, 1E-3);
+			assertPixels(projector, 0, 0, 85051129, -180000000, 1E-3);
+			assertPixels(projector, 192, 256, -85051129, 90000000, 1E-3);
+
+			// the offset is added to every point
+			projector.begin(2, -300, 200, gudermann);
+			assertPixels(projector, 212, 712, 0, 0, 1E-3);
+		}
+	}
+
+	@Test
+	public void test_project_gudermannExact() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final PathProjector projector = new PathProjector();
+		final Random random = new Random(1);
+		for (int zoomLevel = 0; zoomLevel < PathProjector.GUDERMANN_MAXIMUM_ZOOMLEVEL; zoomLevel++) {
+			projector.begin(zoomLevel, 0, 0, true);
+			final double mapSize = TileSystem.MapSize(zoomLevel);
+			for (int i = 0; i < 1000; i++) {
+				final double latitude = (random.nextDouble() * 2 - 1)
+						* MercatorTable.MAXIMUM_LATITUDE;
+				final double longitude = random.nextDouble() * 360 - 180;
+				assertPixels(projector, (longitude + 180) / 360 * mapSize,
+						MercatorTable.getExactY(latitude) * mapSize, (int) (latitude * 1E6),
+						(int) (longitude * 1E6), 1E-2);
+			}
+		}
+	}
+
+	@Test
+	public void test_project_linearCloseAtHighZoomLevels() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final PathProjector projector = new PathProjector();
+		final Random random = new Random(1);
+
+		// Gudermann is asked for, but isn't used at this zoom level, where the tiles are a
+		// thousandth of the map
+		projector.begin(10, 0, 0, true);
+		final double mapSize = TileSystem.MapSize(10);
+		for (int i = 0; i < 1000; i++) {
+			final double latitude = (random.nextDouble() * 2 - 1) * 80;
+			projector.project((int) (latitude * 1E6), 0);
+			assertEquals(MercatorTable.getExactY(latitude) * mapSize, projector.getY(), 0.25);
+		}
+	}
+
+	@Test
+	public void test_project_dateLineWrapped() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final PathProjector projector = new PathProjector();
+		projector.begin(3, 0, 0, false);
+		final double mapSize = TileSystem.MapSize(3);
+
+		// past the date line, the points are wrapped back onto the map
+		assertPixels(projector, mapSize * 10 / 360, mapSize / 2, 0, -170000000, 1E-3);
+		assertPixels(projector, mapSize * 10 / 360, mapSize / 2, 0, 190000000, 1E-3);
+		assertPixels(projector, mapSize * 350 / 360, mapSize / 2, 0, -190000000, 1E-3);
+		assertPixels(projector, mapSize, mapSize / 2, 0, 180000000, 1E-3);
+		assertPixels(projector, 0, mapSize / 2, 0, -180000000, 1E-3);
+	}
+
+	@Test
+	public void test_project_array() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final PathProjector projector = new PathProjector();
+		final int[] latLongE6 = { 40000000, 10000000, 40010000, 10020000, -33000000, 151000000 };
+		final float[] out = new float[latLongE6.length];
+		projector.begin(12, 5, -7, true);
+		projector.project(latLongE6, 3, out);
+
+		projector.begin(12, 5, -7, true);
+		for (int i = 0; i < latLongE6.length; i += 2) {
+			projector.project(latLongE6[i], latLongE6[i + 1]);
+			assertEquals(projector.getX(), out[i], 0);
+			assertEquals(projector.getY(), out[i + 1], 0);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.osmdroid.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PathSegmentIndexTest {
+
+	@Test
+	public void test_query_findsEverySegmentInside() {
+		final Random random = new Random(1);
+		final PathPoints points = new PathPoints();
+		final PathSegmentIndex index = new PathSegmentIndex();
+		int latitudeE6 = 52000000;
+		int longitudeE6 = 13000000;
+
+		for (int step = 0; step < 200; step++) {
+			// the path grows between queries
+			for (int i = random.nextInt(300); i > 0; i--) {
+				latitudeE6 += random.nextInt(2001) - 1000;
+				longitudeE6 += random.nextInt(2001) - 1000;
+				points.addPoint(latitudeE6, longitudeE6);
+			}
+			index.update(points);
+			if (points.size() < 2) {
+				continue;
+			}
+			final int[] projected = points.getProjected();
+
+			final int centre = random.nextInt(points.size());
+			final int half = random.nextInt(1 << 16);
+			final int left = projected[2 * centre] - half;
+			final int top = projected[2 * centre + 1] - half;
+			final int right = projected[2 * centre] + half;
+			final int bottom = projected[2 * centre + 1] + half;
+
+			final int count = index.query(left, top, right, bottom);
+			final boolean[] found = new boolean[points.size()];
+			final int[] ranges = index.getRanges();
+			int previousLast = -1;
+			for (int range = 0; range < count; range++) {
+				assertTrue(ranges[2 * range] > previousLast);
+				previousLast = ranges[2 * range + 1];
+				for (int i = ranges[2 * range]; i < ranges[2 * range + 1]; i++) {
+					found[i] = true;
+				}
+			}
+
+			for (int i = 0; i + 1 < points.size(); i++) {
+				final boolean inside = Math.max(projected[2 * i], projected[2 * i + 2]) >= left
+						&& Math.min(projected[2 * i], projected[2 * i + 2]) <= right
+						&& Math.max(projected[2 * i + 1], projected[2 * i + 3]) >= top
+						&& Math.min(projected[2 * i + 1], projected[2 * i + 3]) <= bottom;
+				if (inside) {
+					assertTrue(found[i]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test_getNearestSegment() {
+		final PathPoints points = new PathPoints();
+		// an L of two segments
+		points.addPoint(0, 0);
+		points.addPoint(0, 1000000);
+		points.addPoint(-1000000, 1000000);
+		final PathSegmentIndex index = new PathSegmentIndex();
+		index.update(points);
+		final int[] projected = points.getProjected();
+
+		final int x = (projected[0] + projected[2]) / 2;
+		final int y = projected[1] + 10;
+		assertEquals(0, index.getNearestSegment(projected, x, y, 20));
+		assertEquals(-1, index.getNearestSegment(projected, x, y, 5));
+		assertEquals(1, index.getNearestSegment(projected, projected[4] + 3,
+				(projected[3] + projected[5]) / 2, 20));
+	}
+}
@@ -0,0 +1,151 @@
+package org.osmdroid.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PathSimplificationTest {
+
+	@Test
+	public void test_getPositions_withinHalfAPixel() {
+		final PathPoints points = createWalk(5000);
+		final PathSimplification simplification = new PathSimplification();
+		simplification.update(points);
+		final int[] projected = points.getProjected();
+
+		for (int zoomLevel = 0; zoomLevel <= PathPoints.PROJECTED_ZOOMLEVEL; zoomLevel++) {
+			final int count = simplification.getPositions(zoomLevel);
+			final int[] positions = simplification.getResults();
+			assertEquals(0, positions[0]);
+			assertEquals(points.size() - 1, positions[count - 1]);
+
+			final double tolerance = Math.pow(2, PathPoints.PROJECTED_ZOOMLEVEL - zoomLevel - 1);
+			for (int j = 0; j + 1 < count; j++) {
+				assertTrue(positions[j] < positions[j + 1]);
+				for (int i = positions[j] + 1; i < positions[j + 1]; i++) {
+					assertTrue(getDistance(projected, i, positions[j], positions[j + 1])
+							<= tolerance);
+				}
+			}
+		}
+
+		// zoomed out, a few points are enough
+		assertTrue(simplification.getPositions(5) < 50);
+	}
+
+	@Test
+	public void test_update_incrementalMatchesBulk() {
+		final PathPoints all = createWalk(3000);
+		final PathSimplification bulk = new PathSimplification();
+		bulk.update(all);
+
+		final PathPoints growing = new PathPoints();
+		final PathSimplification incremental = new PathSimplification();
+		for (int i = 0; i < all.size(); i++) {
+			growing.addPoint(all.getLatitudeE6(i), all.getLongitudeE6(i));
+			if (i % 97 == 0) {
+				incremental.update(growing);
+				incremental.getPositions(12);
+			}
+		}
+		incremental.update(growing);
+
+		for (int zoomLevel = 0; zoomLevel <= PathPoints.PROJECTED_ZOOMLEVEL; zoomLevel++) {
+			final int count = bulk.getPositions(zoomLevel);
+			final int[] expected = Arrays.copyOf(bulk.getResults(), count);
+			assertEquals(count, incremental.getPositions(zoomLevel));
+			assertArrayEquals(expected, Arrays.copyOf(incremental.getResults(), count));
+		}
+	}
+
+	@Test
+	public void test_update_boundedMatchesBulk() {
+		final PathPoints all = createWalk(10 * PathSimplification.CHUNK_SIZE + 5);
+		final PathSimplification bulk = new PathSimplification();
+		bulk.update(all);
+
+		final PathPoints growing = new PathPoints();
+		final PathSimplification bounded = new PathSimplification();
+		int updates = 0;
+		for (int i = 0; i < all.size(); i++) {
+			growing.addPoint(all.getLatitudeE6(i), all.getLongitudeE6(i));
+			if (i == 6 * PathSimplification.CHUNK_SIZE) {
+				// more chunks than allowed, so the points after the first two are all kept
+				assertFalse(bounded.update(growing, 2));
+				assertEquals(growing.size() - 2 * PathSimplification.CHUNK_SIZE
+						+ countBelow(bulk, 5, 2 * PathSimplification.CHUNK_SIZE),
+						bounded.getPositions(5));
+				updates++;
+			}
+		}
+		while (!bounded.update(growing, 2)) {
+			updates++;
+		}
+		assertTrue(updates >= 5);
+
+		for (int zoomLevel = 0; zoomLevel <= PathPoints.PROJECTED_ZOOMLEVEL; zoomLevel++) {
+			final int count = bulk.getPositions(zoomLevel);
+			final int[] expected = Arrays.copyOf(bulk.getResults(), count);
+			assertEquals(count, bounded.getPositions(zoomLevel));
+			assertArrayEquals(expected, Arrays.copyOf(bounded.getResults(), count));
+		}
+	}
+
+	@Test
+	public void test_straightLine_keepsChunkEnds() {
+		final PathPoints points = new PathPoints();
+		for (int i = 0; i <= 2 * PathSimplification.CHUNK_SIZE; i++) {
+			points.addPoint(10000000, i * 100);
+		}
+		final PathSimplification simplification = new PathSimplification();
+		simplification.update(points);
+		assertEquals(3, simplification.getPositions(10));
+		assertEquals(PathSimplification.CHUNK_SIZE, simplification.getResults()[1]);
+	}
+
+	/**
+	 * The number of positions found at a zoom level that are before a position.
+	 */
+	private static int countBelow(final PathSimplification pSimplification, final int pZoomLevel,
+			final int pPosition) {
+		final int count = pSimplification.getPositions(pZoomLevel);
+		int below = 0;
+		while (below < count && pSimplification.getResults()[below] < pPosition) {
+			below++;
+		}
+		return below;
+	}
+
+	private static PathPoints createWalk(final int pCount) {
+		final Random random = new Random(1);
+		final PathPoints points = new PathPoints();
+		int latitudeE6 = 52000000;
+		int longitudeE6 = 13000000;
+		for (int i = 0; i < pCount; i++) {
+			latitudeE6 += random.nextInt(2001) - 1000;
+			longitudeE6 += random.nextInt(2001) - 900;
+			points.addPoint(latitudeE6, longitudeE6);
+		}
+		return points;
+	}
+
+	private static double getDistance(final int[] pProjected, final int pPoint, final int pStart,
+			final int pEnd) {
+		final double x = pProjected[2 * pPoint];
+		final double y = pProjected[2 * pPoint + 1];
+		final double x0 = pProjected[2 * pStart];
+		final double y0 = pProjected[2 * pStart + 1];
+		final double dx = pProjected[2 * pEnd] - x0;
+		final double dy = pProjected[2 * pEnd + 1] - y0;
+		final double lengthSquared = dx * dx + dy * dy;
+		final double t = lengthSquared == 0 ? 0 : Math.max(0,
+				Math.min(1, ((x - x0) * dx + (y - y0) * dy) / lengthSquared));
+		return Math.hypot(x0 + t * dx - x, y0 + t * dy - y);
+	}
+}
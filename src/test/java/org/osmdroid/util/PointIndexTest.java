@@ -0,0 +1,79 @@
+package org.osmdroid.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PointIndexTest {
+
+	@Test
+	public void test_query_matchesLinearSearch() {
+		final Random random = new Random(1);
+		final PointIndex index = new PointIndex();
+		final ArrayList<int[]> points = new ArrayList<int[]>();
+
+		for (int step = 0; step < 20000; step++) {
+			final int operation = random.nextInt(10);
+			if (operation < 6 || points.isEmpty()) {
+				// clustered points, so that leaves are split deep down
+				final int[] point = { random.nextInt(1 << 16) + (1 << 29),
+						random.nextInt(1 << 16) + (1 << 29) };
+				final int position = random.nextInt(points.size() + 1);
+				points.add(position, point);
+				index.insert(position, point[0], point[1]);
+			} else if (operation < 8) {
+				final int position = random.nextInt(points.size());
+				points.remove(position);
+				index.remove(position);
+			} else if (operation < 9) {
+				final int position = random.nextInt(points.size());
+				final int[] point = { random.nextInt(PointIndex.SIZE),
+						random.nextInt(PointIndex.SIZE) };
+				points.set(position, point);
+				index.move(position, point[0], point[1]);
+			} else {
+				final int left = random.nextInt(1 << 16) + (1 << 29) - (1 << 10);
+				final int top = random.nextInt(1 << 16) + (1 << 29) - (1 << 10);
+				final int right = left + random.nextInt(1 << 14);
+				final int bottom = top + random.nextInt(1 << 14);
+				final int count = index.query(left, top, right, bottom);
+
+				int expected = 0;
+				for (int i = 0; i < points.size(); i++) {
+					final int[] point = points.get(i);
+					if (point[0] >= left && point[0] <= right && point[1] >= top
+							&& point[1] <= bottom) {
+						assertEquals("position in order", i, index.getResults()[expected]);
+						expected++;
+					}
+				}
+				assertEquals("count", expected, count);
+			}
+			assertEquals("size", points.size(), index.size());
+		}
+	}
+
+	@Test
+	public void test_query_samePoint() {
+		final PointIndex index = new PointIndex();
+		for (int i = 0; i < 100; i++) {
+			index.add(12345, 67890);
+		}
+		assertEquals("all found", 100, index.query(12345, 67890, 12345, 67890));
+		assertEquals("none found", 0, index.query(0, 0, 12344, PointIndex.SIZE));
+		index.remove(50);
+		assertEquals("one removed", 99, index.query(0, 0, PointIndex.SIZE, PointIndex.SIZE));
+		assertEquals("last renumbered", 98, index.getResults()[98]);
+	}
+
+	@Test
+	public void test_getXY_mercator() {
+		assertEquals("equator", PointIndex.SIZE / 2, PointIndex.latitudeToY(0));
+		assertEquals("meridian", PointIndex.SIZE / 2, PointIndex.longitudeToX(0));
+		assertEquals("date line", 0, PointIndex.longitudeToX(-180));
+		assertEquals("clipped", PointIndex.SIZE - 1, PointIndex.longitudeToX(180));
+	}
+}
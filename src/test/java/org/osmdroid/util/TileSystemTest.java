@@ -0,0 +1,66 @@
+package org.osmdroid.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TileSystemTest {
+
+	private static final int TILE_SIZE = 256;
+
+	@Test
+	public void test_LatLongToPixelXYL_aboveIntRange() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final int zoomLevel = TileSystem.MAXIMUM_ZOOMLEVEL_LONG;
+		final long mapSize = TileSystem.MapSizeL(zoomLevel);
+		assertEquals("map size", (long) TILE_SIZE << zoomLevel, mapSize);
+
+		final PointL point = TileSystem.LatLongToPixelXYL(0, 0, zoomLevel, null);
+		assertEquals("center x", mapSize / 2, point.x);
+		assertEquals("center y", mapSize / 2, point.y);
+
+		TileSystem.LatLongToPixelXYL(90, 180, zoomLevel, point);
+		assertEquals("clipped x", mapSize - 1, point.x);
+		assertEquals("clipped y", 0, point.y);
+	}
+
+	@Test
+	public void test_LatLongToPixelXYL_matchesDouble() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final PointL pointL = new PointL();
+		final PointD pointD = new PointD();
+		for (int zoomLevel = 0; zoomLevel <= TileSystem.MAXIMUM_ZOOMLEVEL_LONG; zoomLevel++) {
+			TileSystem.LatLongToPixelXYL(52.5163, 13.3777, zoomLevel, pointL);
+			TileSystem.LatLongToPixelXYD(52.5163, 13.3777, zoomLevel, pointD);
+			assertEquals("x at " + zoomLevel, (long) (pointD.x + 0.5), pointL.x);
+			assertEquals("y at " + zoomLevel, (long) (pointD.y + 0.5), pointL.y);
+		}
+	}
+
+	@Test
+	public void test_LatLongToPixelXYD_fractionalZoomLevel() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final PointD lower = TileSystem.LatLongToPixelXYD(-33.8568, 151.2153, 10, null);
+		final PointD middle = TileSystem.LatLongToPixelXYD(-33.8568, 151.2153, 10.5, null);
+		assertEquals("map size", TILE_SIZE * Math.pow(2, 10.5), TileSystem.MapSizeD(10.5), 1E-6);
+		assertEquals("x scales", lower.x * Math.sqrt(2), middle.x, 1E-6);
+		assertEquals("y scales", lower.y * Math.sqrt(2), middle.y, 1E-6);
+	}
+
+	@Test
+	public void test_PixelXYToLatLongD_roundTrip() {
+		TileSystem.setTileSize(TILE_SIZE);
+		final double[][] coordinates = { { 0, 0 }, { 52.5163, 13.3777 }, { -33.8568, 151.2153 },
+				{ 80, -179.5 } };
+		for (final double[] coordinate : coordinates) {
+			for (final double zoomLevel : new double[] { 3, 12.25, 25 }) {
+				final PointD point = TileSystem.LatLongToPixelXYD(coordinate[0], coordinate[1],
+						zoomLevel, null);
+				final GeoPoint geoPoint = TileSystem.PixelXYToLatLongD(point.x, point.y,
+						zoomLevel, null);
+				assertEquals("latitude", coordinate[0], geoPoint.getLatitude(), 2E-6);
+				assertEquals("longitude", coordinate[1], geoPoint.getLongitude(), 2E-6);
+			}
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package org.osmdroid.views.overlay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.osmdroid.api.IGeoPoint;
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.util.PointIndex;
+
+public class BatchedItemListTest {
+
+	/**
+	 * The items of an overlay and the items it draws, which are the points themselves.
+	 */
+	private static class Items {
+		final List<GeoPoint> mList;
+		final BatchedItemList<GeoPoint> mBatched;
+		final PopulatedItems<GeoPoint> mPopulated;
+		int mPopulateCount;
+
+		Items(final List<GeoPoint> pPoints, final int pLimit) {
+			mList = new ArrayList<GeoPoint>(pPoints);
+			mPopulated = new PopulatedItems<GeoPoint>() {
+				@Override
+				protected int getSourceSize() {
+					return mBatched.size();
+				}
+
+				@Override
+				protected GeoPoint createItem(final int pPosition) {
+					return mBatched.get(pPosition);
+				}
+
+				@Override
+				protected IGeoPoint getPoint(final GeoPoint pItem) {
+					return pItem;
+				}
+
+				@Override
+				public void populate() {
+					mPopulateCount++;
+					super.populate();
+				}
+			};
+			mBatched = new BatchedItemList<GeoPoint>(mList, mPopulated);
+			mBatched.setLimit(pLimit);
+			mPopulated.populate();
+			mPopulateCount = 0;
+		}
+
+		/**
+		 * A copy of the items, populated from scratch.
+		 */
+		Items copy() {
+			return new Items(mList, mBatched.getLimit());
+		}
+	}
+
+	private static List<GeoPoint> createPoints(final Random pRandom, final int pCount) {
+		final List<GeoPoint> points = new ArrayList<GeoPoint>();
+		for (int i = 0; i < pCount; i++) {
+			points.add(new GeoPoint(pRandom.nextDouble() * 170 - 85,
+					pRandom.nextDouble() * 360 - 180));
+		}
+		return points;
+	}
+
+	private static void assertSameDrawn(final Items pExpected, final Items pActual) {
+		final PointIndex expectedIndex = pExpected.mPopulated.getIndex();
+		final PointIndex actualIndex = pActual.mPopulated.getIndex();
+		assertEquals(pExpected.mPopulated.size(), pActual.mPopulated.size());
+		assertEquals(pExpected.mPopulated.size(), actualIndex.size());
+		for (int i = 0; i < pExpected.mPopulated.size(); i++) {
+			assertSame("item " + i, pExpected.mPopulated.get(i), pActual.mPopulated.get(i));
+			assertEquals("x " + i, expectedIndex.getX(i), actualIndex.getX(i));
+			assertEquals("y " + i, expectedIndex.getY(i), actualIndex.getY(i));
+		}
+	}
+
+	/**
+	 * Make the same changes with or without a batch, a nested one inside it, and check that the
+	 * items drawn don't change until the outermost batch ends.
+	 */
+	private static void change(final Items pItems, final List<GeoPoint> pNew,
+			final boolean pBatch) {
+		final Items before = pItems.copy();
+		if (pBatch) {
+			pItems.mBatched.beginUpdate();
+		}
+		pItems.mBatched.add(pNew.get(0));
+		pItems.mBatched.add(3, pNew.get(1));
+		pItems.mBatched.set(5, pNew.get(2));
+		if (pBatch) {
+			pItems.mBatched.beginUpdate();
+		}
+		pItems.mBatched.remove(0);
+		pItems.mBatched.addAll(Arrays.asList(pNew.get(3), pNew.get(4)));
+		pItems.mBatched.set(2, pNew.get(5));
+		if (pBatch) {
+			pItems.mBatched.endUpdate();
+			assertSameDrawn(before, pItems);
+		}
+		pItems.mBatched.set(5, pNew.get(6));
+		pItems.mBatched.remove(7);
+		pItems.mBatched.add(0, pNew.get(7));
+		if (pBatch) {
+			assertSameDrawn(before, pItems);
+			assertEquals(0, pItems.mPopulateCount);
+			pItems.mBatched.endUpdate();
+			assertEquals(1, pItems.mPopulateCount);
+		}
+	}
+
+	private static void assertBatchedSameAsUnbatched(final int pLimit) {
+		final Random random = new Random(1);
+		final List<GeoPoint> points = createPoints(random, 20);
+		final List<GeoPoint> newPoints = createPoints(random, 8);
+
+		final Items unbatched = new Items(points, pLimit);
+		change(unbatched, newPoints, false);
+		final Items batched = new Items(points, pLimit);
+		change(batched, newPoints, true);
+
+		assertEquals(unbatched.mList, batched.mList);
+		assertSameDrawn(unbatched, batched);
+		// and the changes made one at a time give the same as populating them all at once
+		assertSameDrawn(unbatched.copy(), unbatched);
+	}
+
+	@Test
+	public void test_batchedUpdate_sameAsUnbatched() {
+		assertBatchedSameAsUnbatched(Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void test_batchedUpdate_sameAsUnbatchedWithLimit() {
+		assertBatchedSameAsUnbatched(10);
+	}
+
+	@Test
+	public void test_batchedUpdate_withoutChangesNotPopulated() {
+		final Items items = new Items(createPoints(new Random(1), 5), Integer.MAX_VALUE);
+		items.mBatched.beginUpdate();
+		items.mBatched.beginUpdate();
+		items.mBatched.endUpdate();
+		items.mBatched.endUpdate();
+		assertEquals(0, items.mPopulateCount);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_endUpdate_withoutBeginUpdate() {
+		new Items(createPoints(new Random(1), 5), Integer.MAX_VALUE).mBatched.endUpdate();
+	}
+}
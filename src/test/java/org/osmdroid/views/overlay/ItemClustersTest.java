@@ -0,0 +1,112 @@
+package org.osmdroid.views.overlay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.osmdroid.util.PointIndex;
+
+public class ItemClustersTest {
+
+	@Test
+	public void test_levels_coverAllPointsAndNest() throws InterruptedException {
+		final Random random = new Random(1);
+		final int count = 5000;
+		final int[] x = new int[count];
+		final int[] y = new int[count];
+		for (int i = 0; i < count; i++) {
+			x[i] = random.nextInt(1 << 20) + (1 << 29);
+			y[i] = random.nextInt(1 << 20) + (1 << 29);
+		}
+
+		final ItemClusters clusters = new ItemClusters(x, y, count, 0, 17, 40, 256);
+		assertNull(clusters.getLevel(18));
+
+		int previousCount = count;
+		for (int zoomLevel = 17; zoomLevel >= 0; zoomLevel--) {
+			final ItemClusters.Level level = clusters.getLevel(zoomLevel);
+			assertTrue(level.getCount() <= previousCount);
+			assertEquals(level.getCount(), level.getIndex().size());
+			int total = 0;
+			int previousFirst = -1;
+			for (int cluster = 0; cluster < level.getCount(); cluster++) {
+				total += level.getSize(cluster);
+
+				// the clusters are in the order of their first points
+				final int first = level.getFirstPoint(cluster);
+				assertTrue(first > previousFirst);
+				previousFirst = first;
+
+				// the bounds hold the first point and the centre
+				assertTrue(level.getLeft(cluster) <= x[first]
+						&& x[first] <= level.getRight(cluster));
+				assertTrue(level.getTop(cluster) <= y[first]
+						&& y[first] <= level.getBottom(cluster));
+				assertTrue(level.getLeft(cluster) <= level.getX(cluster)
+						&& level.getX(cluster) <= level.getRight(cluster));
+				assertTrue(level.getTop(cluster) <= level.getY(cluster)
+						&& level.getY(cluster) <= level.getBottom(cluster));
+			}
+			assertEquals(count, total);
+			previousCount = level.getCount();
+		}
+
+		// the points span 1/1024 of the map, which is less than 40 pixels at zoom level 3
+		assertEquals(1, clusters.getLevel(3).getCount());
+	}
+
+	@Test
+	public void test_farPoints_notClustered() throws InterruptedException {
+		final int[] x = { 0, PointIndex.SIZE / 2 };
+		final int[] y = { 0, PointIndex.SIZE / 2 };
+		final ItemClusters clusters = new ItemClusters(x, y, 2, 1, 5, 40, 256);
+		for (int zoomLevel = 1; zoomLevel <= 5; zoomLevel++) {
+			assertEquals(2, clusters.getLevel(zoomLevel).getCount());
+		}
+	}
+
+	@Test
+	public void test_isSingle_clusteredPointsNotTappable() throws InterruptedException {
+		// two points 1/4096 of the map apart, so in one cluster up to zoom level 5, and a third
+		// point far away
+		final int[] x = { 1 << 29, (1 << 29) + (1 << 20), 0 };
+		final int[] y = { 1 << 29, 1 << 29, 0 };
+		final ItemClusters clusters = new ItemClusters(x, y, 3, 0, 17, 40, 256);
+		for (int zoomLevel = 1; zoomLevel <= 5; zoomLevel++) {
+			final ItemClusters.Level level = clusters.getLevel(zoomLevel);
+			assertFalse(level.isSingle(0));
+			assertFalse(level.isSingle(1));
+			assertTrue(level.isSingle(2));
+		}
+	}
+
+	@Test
+	public void test_isSingle_separatePointsTappable() throws InterruptedException {
+		final int[] x = { 1 << 29, (1 << 29) + (1 << 20), 0 };
+		final int[] y = { 1 << 29, 1 << 29, 0 };
+		final ItemClusters clusters = new ItemClusters(x, y, 3, 0, 17, 40, 256);
+		for (int zoomLevel = 8; zoomLevel <= 17; zoomLevel++) {
+			final ItemClusters.Level level = clusters.getLevel(zoomLevel);
+			for (int point = 0; point < 3; point++) {
+				assertTrue(level.isSingle(point));
+			}
+		}
+		assertFalse(clusters.getLevel(17).isSingle(3));
+	}
+
+	@Test
+	public void test_coordinates_roundTrip() {
+		for (double latitude = -85; latitude <= 85; latitude += 5) {
+			assertEquals(latitude,
+					ItemClusters.yToLatitude(PointIndex.latitudeToY(latitude)), 1E-6);
+		}
+		for (double longitude = -180; longitude < 180; longitude += 5) {
+			assertEquals(longitude,
+					ItemClusters.xToLongitude(PointIndex.longitudeToX(longitude)), 1E-6);
+		}
+	}
+}